@@ -0,0 +1,75 @@
+package adapters;
+
+import interfaces.HListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only list iterator over the elements with index in [lowerBound, 
+ * upperBound) of an array which is never modified: a snapshot of a 
+ * CopyOnWriteList, or the elements of an immutable collection. The iterator 
+ * reads the array without any lock, and every method which would modify it 
+ * throws UnsupportedOperationException.
+ * @author Giacomo Camposampiero
+ */
+final class ArrayIterator implements HListIterator {
+
+    private final Object[] elements;
+    private final int lowerBound;
+    private final int upperBound;
+    private int cursor;
+
+    ArrayIterator(Object[] elements, int lowerBound, int index, int upperBound) {
+        this.elements = elements;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.cursor = lowerBound + index;
+    }
+
+    @Override
+    public void add(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < upperBound;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return cursor > lowerBound;
+    }
+
+    @Override
+    public Object next() {
+        if(cursor >= upperBound) throw new NoSuchElementException();
+        return elements[cursor++];
+    }
+
+    @Override
+    public int nextIndex() {
+        return cursor - lowerBound;
+    }
+
+    @Override
+    public Object previous() {
+        if(cursor <= lowerBound) throw new NoSuchElementException();
+        return elements[--cursor];
+    }
+
+    @Override
+    public int previousIndex() {
+        return cursor - lowerBound - 1;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+}
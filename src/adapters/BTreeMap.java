@@ -0,0 +1,1605 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HComparator;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import interfaces.HSortedMap;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of HSortedMap interface, backed by a B+ tree.
+ * The mappings are stored in the leaves of the tree, each of them holding up
+ * to 64 keys and 64 values in two parallel arrays; the leaves are linked in
+ * key order, and the inner nodes hold up to 64 separator keys and the links to
+ * their children. Lookups perform a binary search in each of the few levels of
+ * the tree (four levels hold more than ten million keys when the nodes are
+ * half full), and ordered scans read the arrays of consecutive leaves, so
+ * that the keys of a range are visited without walking the tree and without
+ * allocating an object per mapping.
+ *
+ * Keys inserted in ascending order (as in a time series) fill the leaves
+ * completely: a node which overflows because of an insertion at the end of
+ * the map is split leaving all of its keys in the left node. Nodes which are
+ * less than half full after a removal borrow keys from a sibling, or are
+ * merged with it.
+ *
+ * The keySet() and values() iterators and the forEach() methods don't
+ * allocate anything per mapping; the entrySet() iterator returns a new entry
+ * for each mapping, whose setValue writes through to the map. Removals through
+ * the iterators of the views are supported, and cost a lookup each. The map is
+ * not thread safe, and it must not be structurally modified while it is being
+ * iterated, other than through the iterators themselves.
+ *
+ * The keys are compared by the comparator given at creation time, or by their
+ * natural ordering. As in the Map class, null keys and null values are not
+ * allowed.
+ * @author Giacomo Camposampiero
+ */
+public class BTreeMap implements HSortedMap {
+
+    /**
+     * Maximum number of keys of a node.
+     */
+    static final int MAX_KEYS = 64;
+
+    /**
+     * Number of keys below which a node is rebalanced after a removal.
+     */
+    private static final int MIN_KEYS = MAX_KEYS / 2;
+
+    private final HComparator comparator;
+    private Node root;
+    // number of levels of inner nodes above the leaves
+    private int height;
+    private int size;
+
+    // new right sibling of the node on which insert() has been called, and its
+    // separator key, if the node has been split (null otherwise)
+    private Node split;
+    private Object splitKey;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty map, sorted according to
+     * the natural ordering of its keys.
+     */
+    public BTreeMap() {
+        this(null);
+    }
+
+    /**
+     * Constructor with comparator.
+     * This constructor will initialize a new empty map, sorted according to
+     * the specified comparator.
+     * @param comparator the comparator used to order the keys, or null for the natural ordering
+     */
+    public BTreeMap(HComparator comparator) {
+        this.comparator = comparator;
+        root = new Leaf();
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    @Override
+    public void clear() {
+        root = new Leaf();
+        height = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * The leaves are scanned in order, so the operation takes linear time.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return containsValue(null, null, value);
+    }
+
+    /**
+     * Returns a Set view of the mappings contained in this map, in ascending
+     * key order.
+     * The set is backed by the map, so changes to the map are reflected in the
+     * set, and vice-versa. The setValue operation of the entries returned by
+     * the iterator writes through to the map.
+     *
+     * The set supports element removal, which removes the corresponding mapping
+     * from the map, via the Iterator.remove, Set.remove, removeAll, retainAll
+     * and clear operations. It does not support the add or addAll operations.
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntrySet(null, null);
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return sameMappings(this, null, null, obj);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null if this
+     *         map contains no mapping for the key
+     * @throws NullPointerException if the specified key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object get(Object key) {
+        if(key == null) throw new NullPointerException();
+        Leaf leaf = leafFor(key);
+        int i = search(leaf, key);
+        return i >= 0 ? leaf.values[i] : null;
+    }
+
+    /**
+     * Returns the hash code value for this map.
+     * The hash code of a map is defined to be the sum of the hash codes of each
+     * entry in the map's entrySet() view.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        return hashCode(null, null);
+    }
+
+    /**
+     * Returns true if this map contains no key-value mappings.
+     * @return true if this map contains no key-value mappings
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map, in ascending order.
+     * The set is backed by the map, so changes to the map are reflected in the
+     * set, and vice-versa.
+     *
+     * The set supports element removal, which removes the corresponding mapping
+     * from the map, via the Iterator.remove, Set.remove, removeAll, retainAll,
+     * and clear operations.  It does not support the add or addAll operations.
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public HSet keySet() {
+        return new ElementSet(null, null, true);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value is
+     * replaced by the specified value.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key
+     * @throws NullPointerException if the specified key or value is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        // the first key is compared to itself, so that it is type checked
+        if(size == 0) compare(key, key);
+        Object old = insert(root, height, key, value, true);
+        if(split != null) {
+            Inner newRoot = new Inner();
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split;
+            newRoot.size = 1;
+            root = newRoot;
+            height++;
+            split = null;
+            splitKey = null;
+        }
+        return old;
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map.
+     * @param t mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     * @throws NullPointerException if the specified map contains null keys or values
+     * @throws ClassCastException if a key cannot be compared to the keys of the map
+     */
+    @Override
+    public void putAll(HMap t) {
+        if(t == null) throw new NullPointerException();
+        HIterator it = t.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key.
+     * @throws NullPointerException if the specified key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object remove(Object key) {
+        if(key == null) throw new NullPointerException();
+        Object old = delete(root, height, key);
+        if(height > 0 && root.size == 0) {
+            root = ((Inner) root).children[0];
+            height--;
+        }
+        return old;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * @return the number of key-value mappings in this map
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a Collection view of the values contained in this map, in the
+     * ascending order of their keys.
+     * The collection is backed by the map, so changes to the map are reflected
+     * in the collection, and vice-versa.
+     *
+     * The collection supports element removal, which removes the corresponding
+     * mapping from the map, via the Iterator.remove, Collection.remove,
+     * removeAll, retainAll and clear operations. It does not  support the add
+     * or addAll operations.
+     * @return a collection view of the values contained in this map
+     */
+    @Override
+    public HCollection values() {
+        return new ElementSet(null, null, false);
+    }
+
+    /**
+     * Performs the given action for each mapping of this map, in ascending key
+     * order, reading the leaves of the tree directly.
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     */
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        new RangeIterator(null, null, Map.ENTRIES).forEachRemaining(action);
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the given
+     * function on its key and value, in ascending key order.
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the function is null, or if it returns null
+     */
+    @Override
+    public void replaceAll(HBiFunction function) {
+        if(function == null) throw new NullPointerException();
+        new RangeIterator(null, null, Map.ENTRIES).replaceRemaining(function);
+    }
+
+    /**
+     * Returns the comparator used to order the keys in this map, or null if
+     * this map uses the natural ordering of its keys.
+     * @return the comparator used to order the keys, or null
+     */
+    @Override
+    public HComparator comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the first (lowest) key currently in this map.
+     * @return the first key currently in this map
+     * @throws NoSuchElementException if this map is empty
+     */
+    @Override
+    public Object firstKey() {
+        return existingKey(lowest(null, null));
+    }
+
+    /**
+     * Returns the last (highest) key currently in this map.
+     * @return the last key currently in this map
+     * @throws NoSuchElementException if this map is empty
+     */
+    @Override
+    public Object lastKey() {
+        return existingKey(highest(null, null));
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys range from
+     * fromKey, inclusive, to toKey, exclusive. If fromKey and toKey are equal,
+     * the returned map is empty.
+     *
+     * The returned map is backed by this map, so changes in the returned map
+     * are reflected in this map, and vice-versa. It supports all of the
+     * operations of this map, and it throws an IllegalArgumentException on an
+     * attempt to insert a key outside its range. Its size is computed by
+     * counting the keys of the range, leaf by leaf.
+     * @param fromKey low endpoint (inclusive) of the keys in the returned map
+     * @param toKey high endpoint (exclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys range from fromKey to toKey
+     * @throws NullPointerException if fromKey or toKey is null
+     * @throws ClassCastException if the keys cannot be compared to one another
+     * @throws IllegalArgumentException if fromKey is greater than toKey
+     */
+    @Override
+    public HSortedMap subMap(Object fromKey, Object toKey) {
+        if(fromKey == null || toKey == null) throw new NullPointerException();
+        if(compare(fromKey, toKey) > 0) throw new IllegalArgumentException();
+        return new SubMap(fromKey, toKey);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys are strictly less
+     * than toKey. The returned map is backed by this map, as for subMap.
+     * @param toKey high endpoint (exclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys are strictly less than toKey
+     * @throws NullPointerException if toKey is null
+     * @throws ClassCastException if toKey is not comparable
+     */
+    @Override
+    public HSortedMap headMap(Object toKey) {
+        if(toKey == null) throw new NullPointerException();
+        compare(toKey, toKey);
+        return new SubMap(null, toKey);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys are greater than or
+     * equal to fromKey. The returned map is backed by this map, as for subMap.
+     * @param fromKey low endpoint (inclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys are greater than or equal to fromKey
+     * @throws NullPointerException if fromKey is null
+     * @throws ClassCastException if fromKey is not comparable
+     */
+    @Override
+    public HSortedMap tailMap(Object fromKey) {
+        if(fromKey == null) throw new NullPointerException();
+        compare(fromKey, fromKey);
+        return new SubMap(fromKey, null);
+    }
+
+    /**
+     * Returns the greatest key less than or equal to the given key, or null
+     * if there is no such key.
+     * @param key the key
+     * @return the greatest key less than or equal to key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object floorKey(Object key) {
+        return keyAt(navigate(key, true, true, null, null));
+    }
+
+    /**
+     * Returns the least key greater than or equal to the given key, or null
+     * if there is no such key.
+     * @param key the key
+     * @return the least key greater than or equal to key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object ceilingKey(Object key) {
+        return keyAt(navigate(key, false, true, null, null));
+    }
+
+    /**
+     * Returns the greatest key strictly less than the given key, or null if
+     * there is no such key.
+     * @param key the key
+     * @return the greatest key less than key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object lowerKey(Object key) {
+        return keyAt(navigate(key, true, false, null, null));
+    }
+
+    /**
+     * Returns the least key strictly greater than the given key, or null if
+     * there is no such key.
+     * @param key the key
+     * @return the least key greater than key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public Object higherKey(Object key) {
+        return keyAt(navigate(key, false, false, null, null));
+    }
+
+    /**
+     * Returns the mapping of the greatest key less than or equal to the given
+     * key, or null if there is no such key. The setValue operation of the
+     * returned entry writes through to the map.
+     * @param key the key
+     * @return an entry with the greatest key less than or equal to key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public HMap.Entry floorEntry(Object key) {
+        return entryAt(navigate(key, true, true, null, null));
+    }
+
+    /**
+     * Returns the mapping of the least key greater than or equal to the given
+     * key, or null if there is no such key. The setValue operation of the
+     * returned entry writes through to the map.
+     * @param key the key
+     * @return an entry with the least key greater than or equal to key, or null
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key cannot be compared to the keys of the map
+     */
+    @Override
+    public HMap.Entry ceilingEntry(Object key) {
+        return entryAt(navigate(key, false, true, null, null));
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        return toString(null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object k1, Object k2) {
+        if(comparator == null) return ((Comparable) k1).compareTo(k2);
+        return comparator.compare(k1, k2);
+    }
+
+    /**
+     * Binary search of the key among the keys of a node.
+     * @param node node to be searched
+     * @param key key to be searched
+     * @return the index of the key, if it is contained in the node; otherwise (-(insertion point) - 1)
+     */
+    private int search(Node node, Object key) {
+        Object[] keys = node.keys;
+        int low = 0;
+        int high = node.size - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(keys[mid], key);
+            if(cmp < 0) low = mid + 1;
+            else if(cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns the index of the child of an inner node whose subtree could
+     * contain the key. The keys equal to a separator are in the subtree on its
+     * right.
+     */
+    private int childIndex(Node node, Object key) {
+        int i = search(node, key);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    /**
+     * Returns the leaf which contains the key, or in which the key would be
+     * inserted.
+     */
+    private Leaf leafFor(Object key) {
+        Node node = root;
+        for(int h=height; h > 0; h--) node = ((Inner) node).children[childIndex(node, key)];
+        return (Leaf) node;
+    }
+
+    /**
+     * Inserts the mapping in the subtree of the node, whose leaves are h
+     * levels below it. If the node overflows it is split, and its new right
+     * sibling is left in split (and its separator key in splitKey).
+     * @param rightmost true if the node is the last one of its level
+     * @return the previous value associated with the key, or null
+     */
+    private Object insert(Node node, int h, Object key, Object value, boolean rightmost) {
+        int i = search(node, key);
+        if(h == 0) {
+            Leaf leaf = (Leaf) node;
+            if(i >= 0) {
+                Object old = leaf.values[i];
+                leaf.values[i] = value;
+                return old;
+            }
+            i = -(i + 1);
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.size - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.size - i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.size++;
+            size++;
+            if(leaf.size > MAX_KEYS) splitLeaf(leaf, rightmost && i == MAX_KEYS ? MAX_KEYS : leaf.size / 2);
+            return null;
+        }
+        Inner inner = (Inner) node;
+        i = i >= 0 ? i + 1 : -(i + 1);
+        Object old = insert(inner.children[i], h - 1, key, value, rightmost && i == inner.size);
+        if(split != null) {
+            System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.size - i);
+            System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.size - i);
+            inner.keys[i] = splitKey;
+            inner.children[i + 1] = split;
+            inner.size++;
+            split = null;
+            splitKey = null;
+            if(inner.size > MAX_KEYS) splitInner(inner, rightmost && i == MAX_KEYS ? MAX_KEYS - 1 : inner.size / 2);
+        }
+        return old;
+    }
+
+    /**
+     * Moves the entries of the leaf from the index at on to a new right
+     * sibling.
+     */
+    private void splitLeaf(Leaf leaf, int at) {
+        Leaf right = new Leaf();
+        int n = leaf.size - at;
+        System.arraycopy(leaf.keys, at, right.keys, 0, n);
+        System.arraycopy(leaf.values, at, right.values, 0, n);
+        for(int i=at; i < leaf.size; i++) {
+            leaf.keys[i] = null;
+            leaf.values[i] = null;
+        }
+        right.size = n;
+        leaf.size = at;
+        right.next = leaf.next;
+        if(right.next != null) right.next.prev = right;
+        right.prev = leaf;
+        leaf.next = right;
+        split = right;
+        splitKey = right.keys[0];
+    }
+
+    /**
+     * Moves the keys of the inner node after the index at (and the children
+     * on their right) to a new right sibling. The key at the index becomes
+     * the separator of the two nodes.
+     */
+    private void splitInner(Inner inner, int at) {
+        Inner right = new Inner();
+        int n = inner.size - at - 1;
+        System.arraycopy(inner.keys, at + 1, right.keys, 0, n);
+        System.arraycopy(inner.children, at + 1, right.children, 0, n + 1);
+        splitKey = inner.keys[at];
+        for(int i=at; i < inner.size; i++) {
+            inner.keys[i] = null;
+            inner.children[i + 1] = null;
+        }
+        right.size = n;
+        inner.size = at;
+        split = right;
+    }
+
+    /**
+     * Removes the key from the subtree of the node, whose leaves are h levels
+     * below it, rebalancing the children which become less than half full.
+     * @return the value associated with the key, or null
+     */
+    private Object delete(Node node, int h, Object key) {
+        int i = search(node, key);
+        if(h == 0) {
+            if(i < 0) return null;
+            Leaf leaf = (Leaf) node;
+            Object old = leaf.values[i];
+            int moved = leaf.size - i - 1;
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, moved);
+            System.arraycopy(leaf.values, i + 1, leaf.values, i, moved);
+            leaf.size--;
+            leaf.keys[leaf.size] = null;
+            leaf.values[leaf.size] = null;
+            size--;
+            return old;
+        }
+        Inner inner = (Inner) node;
+        i = i >= 0 ? i + 1 : -(i + 1);
+        Object old = delete(inner.children[i], h - 1, key);
+        if(old != null && inner.children[i].size < MIN_KEYS) rebalance(inner, i, h == 1);
+        return old;
+    }
+
+    /**
+     * Refills the i-th child of the parent, borrowing a key from one of its
+     * siblings if it has more than MIN_KEYS keys, or merging the child with a
+     * sibling.
+     * @param leaves true if the children of the parent are leaves
+     */
+    private void rebalance(Inner parent, int i, boolean leaves) {
+        if(i > 0 && parent.children[i - 1].size > MIN_KEYS) {
+            if(leaves) borrowFromLeft((Leaf) parent.children[i - 1], (Leaf) parent.children[i], parent, i);
+            else borrowFromLeft((Inner) parent.children[i - 1], (Inner) parent.children[i], parent, i);
+        } else if(i < parent.size && parent.children[i + 1].size > MIN_KEYS) {
+            if(leaves) borrowFromRight((Leaf) parent.children[i], (Leaf) parent.children[i + 1], parent, i);
+            else borrowFromRight((Inner) parent.children[i], (Inner) parent.children[i + 1], parent, i);
+        } else if(i > 0) {
+            merge(parent, i - 1, leaves);
+        } else if(i < parent.size) {
+            merge(parent, i, leaves);
+        }
+    }
+
+    private void borrowFromLeft(Leaf left, Leaf child, Inner parent, int i) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+        System.arraycopy(child.values, 0, child.values, 1, child.size);
+        left.size--;
+        child.keys[0] = left.keys[left.size];
+        child.values[0] = left.values[left.size];
+        left.keys[left.size] = null;
+        left.values[left.size] = null;
+        child.size++;
+        parent.keys[i - 1] = child.keys[0];
+    }
+
+    private void borrowFromRight(Leaf child, Leaf right, Inner parent, int i) {
+        child.keys[child.size] = right.keys[0];
+        child.values[child.size] = right.values[0];
+        child.size++;
+        right.size--;
+        System.arraycopy(right.keys, 1, right.keys, 0, right.size);
+        System.arraycopy(right.values, 1, right.values, 0, right.size);
+        right.keys[right.size] = null;
+        right.values[right.size] = null;
+        parent.keys[i] = right.keys[0];
+    }
+
+    private void borrowFromLeft(Inner left, Inner child, Inner parent, int i) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+        System.arraycopy(child.children, 0, child.children, 1, child.size + 1);
+        child.keys[0] = parent.keys[i - 1];
+        child.children[0] = left.children[left.size];
+        child.size++;
+        parent.keys[i - 1] = left.keys[left.size - 1];
+        left.keys[left.size - 1] = null;
+        left.children[left.size] = null;
+        left.size--;
+    }
+
+    private void borrowFromRight(Inner child, Inner right, Inner parent, int i) {
+        child.keys[child.size] = parent.keys[i];
+        child.children[child.size + 1] = right.children[0];
+        child.size++;
+        parent.keys[i] = right.keys[0];
+        System.arraycopy(right.keys, 1, right.keys, 0, right.size - 1);
+        System.arraycopy(right.children, 1, right.children, 0, right.size);
+        right.keys[right.size - 1] = null;
+        right.children[right.size] = null;
+        right.size--;
+    }
+
+    /**
+     * Merges the j+1-th child of the parent into the j-th one, and removes
+     * their separator from the parent.
+     * @param leaves true if the children of the parent are leaves
+     */
+    private void merge(Inner parent, int j, boolean leaves) {
+        Node left = parent.children[j];
+        Node right = parent.children[j + 1];
+        if(leaves) {
+            Leaf l = (Leaf) left;
+            Leaf r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.size, r.size);
+            System.arraycopy(r.values, 0, l.values, l.size, r.size);
+            l.size += r.size;
+            l.next = r.next;
+            if(l.next != null) l.next.prev = l;
+        } else {
+            Inner l = (Inner) left;
+            Inner r = (Inner) right;
+            l.keys[l.size] = parent.keys[j];
+            System.arraycopy(r.keys, 0, l.keys, l.size + 1, r.size);
+            System.arraycopy(r.children, 0, l.children, l.size + 1, r.size + 1);
+            l.size += r.size + 1;
+        }
+        System.arraycopy(parent.keys, j + 1, parent.keys, j, parent.size - j - 1);
+        System.arraycopy(parent.children, j + 2, parent.children, j + 1, parent.size - j - 1);
+        parent.size--;
+        parent.keys[parent.size] = null;
+        parent.children[parent.size + 1] = null;
+    }
+
+    /**
+     * Returns the position of the least key greater than (or equal to, if
+     * inclusive) the given key.
+     */
+    private Cursor ceiling(Object key, boolean inclusive) {
+        Leaf leaf = leafFor(key);
+        int i = search(leaf, key);
+        if(i >= 0) {
+            if(!inclusive) i++;
+        } else {
+            i = -(i + 1);
+        }
+        if(i == leaf.size) {
+            leaf = leaf.next;
+            i = 0;
+        }
+        return new Cursor(leaf, i);
+    }
+
+    /**
+     * Returns the position of the greatest key less than (or equal to, if
+     * inclusive) the given key.
+     */
+    private Cursor floor(Object key, boolean inclusive) {
+        Leaf leaf = leafFor(key);
+        int i = search(leaf, key);
+        if(i >= 0) {
+            if(!inclusive) i--;
+        } else {
+            i = -(i + 1) - 1;
+        }
+        if(i < 0) {
+            leaf = leaf.prev;
+            if(leaf != null) i = leaf.size - 1;
+        }
+        return new Cursor(leaf, i);
+    }
+
+    /**
+     * Returns the position of the first key of the range [lo, hi); a null
+     * bound means that the range is unbounded on that side.
+     */
+    private Cursor lowest(Object lo, Object hi) {
+        if(lo != null) return below(ceiling(lo, true), hi);
+        Node node = root;
+        for(int h=height; h > 0; h--) node = ((Inner) node).children[0];
+        return below(new Cursor(node.size == 0 ? null : (Leaf) node, 0), hi);
+    }
+
+    /**
+     * Returns the position of the last key of the range [lo, hi).
+     */
+    private Cursor highest(Object lo, Object hi) {
+        if(hi != null) return above(floor(hi, false), lo);
+        Node node = root;
+        for(int h=height; h > 0; h--) node = ((Inner) node).children[node.size];
+        return above(new Cursor(node.size == 0 ? null : (Leaf) node, node.size - 1), lo);
+    }
+
+    /**
+     * Clears the position if its key is not less than hi.
+     */
+    private Cursor below(Cursor c, Object hi) {
+        if(c.leaf != null && hi != null && compare(c.leaf.keys[c.index], hi) >= 0) c.leaf = null;
+        return c;
+    }
+
+    /**
+     * Clears the position if its key is less than lo.
+     */
+    private Cursor above(Cursor c, Object lo) {
+        if(c.leaf != null && lo != null && compare(c.leaf.keys[c.index], lo) < 0) c.leaf = null;
+        return c;
+    }
+
+    /**
+     * Returns the position of the closest key to the given one in the range
+     * [lo, hi): the greatest key less than it if floor is true, the least key
+     * greater than it otherwise, including the key itself if inclusive.
+     */
+    private Cursor navigate(Object key, boolean floor, boolean inclusive, Object lo, Object hi) {
+        if(key == null) throw new NullPointerException();
+        if(floor) {
+            if(hi != null && compare(key, hi) >= 0) return highest(lo, hi);
+            return above(floor(key, inclusive), lo);
+        }
+        if(lo != null && compare(key, lo) < 0) return lowest(lo, hi);
+        return below(ceiling(key, inclusive), hi);
+    }
+
+    private Object keyAt(Cursor c) {
+        return c.leaf == null ? null : c.leaf.keys[c.index];
+    }
+
+    private Object existingKey(Cursor c) {
+        if(c.leaf == null) throw new NoSuchElementException();
+        return c.leaf.keys[c.index];
+    }
+
+    private HMap.Entry entryAt(Cursor c) {
+        return c.leaf == null ? null : new MapEntry(c.leaf.keys[c.index], c.leaf.values[c.index]);
+    }
+
+    /**
+     * Returns true if the key is in the range [lo, hi).
+     */
+    private boolean inRange(Object key, Object lo, Object hi) {
+        return (lo == null || compare(key, lo) >= 0) && (hi == null || compare(key, hi) < 0);
+    }
+
+    /**
+     * Returns the number of keys in the range [lo, hi), counting the entries
+     * of each leaf of the range at once.
+     */
+    private int count(Object lo, Object hi) {
+        if(lo == null && hi == null) return size;
+        return new RangeIterator(lo, hi, Map.KEYS).skipRemaining();
+    }
+
+    /**
+     * Removes all the mappings of the range [lo, hi).
+     */
+    private void clear(Object lo, Object hi) {
+        if(lo == null && hi == null) {
+            clear();
+            return;
+        }
+        RangeIterator it = new RangeIterator(lo, hi, Map.KEYS);
+        while(it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private boolean containsValue(Object lo, Object hi, Object value) {
+        if(value == null) throw new NullPointerException();
+        RangeIterator it = new RangeIterator(lo, hi, Map.VALUES);
+        while(it.hasNext()) {
+            if(value.equals(it.next())) return true;
+        }
+        return false;
+    }
+
+    private boolean sameMappings(HMap map, Object lo, Object hi, Object obj) {
+        if (map == obj) {
+            return true;
+        }
+        if (!(obj instanceof HMap)) {
+            return false;
+        }
+        HMap other = (HMap) obj;
+        if (other.size() != map.size()) {
+            return false;
+        }
+        RangeIterator it = new RangeIterator(lo, hi, Map.KEYS);
+        while(it.hasNext()) {
+            Object key = it.next();
+            if(!it.lastValue.equals(other.get(key))) return false;
+        }
+        return true;
+    }
+
+    private int hashCode(Object lo, Object hi) {
+        int hash = 0;
+        RangeIterator it = new RangeIterator(lo, hi, Map.KEYS);
+        while(it.hasNext()) hash += it.next().hashCode() ^ it.lastValue.hashCode();
+        return hash;
+    }
+
+    private String toString(Object lo, Object hi) {
+        String res = "";
+        RangeIterator it = new RangeIterator(lo, hi, Map.KEYS);
+        while(it.hasNext()) res += it.next().toString() + "=" + it.lastValue.toString() + " ";
+        return res;
+    }
+
+    /**
+     * Node of the tree: size is the number of its keys. The arrays have room
+     * for one more key, so that a node can be split after the insertion which
+     * made it overflow.
+     */
+    static class Node {
+
+        int size;
+        final Object[] keys = new Object[MAX_KEYS + 1];
+
+    }
+
+    /**
+     * Leaf of the tree, which maps keys[i] to values[i]. The leaves are linked
+     * in key order.
+     */
+    static final class Leaf extends Node {
+
+        final Object[] values = new Object[MAX_KEYS + 1];
+        Leaf prev;
+        Leaf next;
+
+    }
+
+    /**
+     * Inner node of the tree, with size + 1 children: the keys of the i-th
+     * child are less than keys[i], and the keys of the i+1-th one are greater
+     * than or equal to it.
+     */
+    static final class Inner extends Node {
+
+        final Node[] children = new Node[MAX_KEYS + 2];
+
+    }
+
+    /**
+     * Position of a mapping: a leaf and an index in it. The leaf is null if
+     * there is no such mapping.
+     */
+    static final class Cursor {
+
+        Leaf leaf;
+        final int index;
+
+        Cursor(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+    }
+
+    public class MapEntry implements HMap.Entry {
+
+        private final Object key;
+        private Object value;
+
+        public MapEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Compares the specified object with this entry for equality.
+         * Returns true if the given object is also a map entry and the two
+         * entries represent the same mapping.
+         * @param o object to be compared for equality with this map entry
+         * @return true if the specified object is equal to this map entry
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        /**
+         * Returns the key corresponding to this entry.
+         * @return the key corresponding to this entry
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the value corresponding to this entry.
+         * @return the value corresponding to this entry
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value corresponding to this entry with the specified
+         * value, writing it through to the map while the key is still mapped.
+         * Once the mapping has been removed only the entry is changed, so the
+         * mapping is never put back.
+         * @param value new value to be stored in this entry
+         * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
+         */
+        @Override
+        public Object setValue(Object value) {
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            this.value = value;
+            if(containsKey(key)) put(key, value);
+            return old;
+        }
+
+        /**
+         * Returns the hash code value for this map entry.
+         * @return the hash code value for this map entry
+         */
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+
+    }
+
+    /**
+     * Iterator over the mappings of the range [lo, hi), in ascending key
+     * order. Within each leaf the iterator walks the indices up to the fence,
+     * the end of the range in the leaf, which is computed when the leaf is
+     * entered: a single comparison tells whether the whole leaf is in the
+     * range, and only the last leaf of the range is searched.
+     */
+    class RangeIterator implements HIterator {
+
+        private final Object hi;
+        private final int kind;
+        private Leaf leaf;
+        private int index;
+        private int fence;
+        private Object lastKey;
+        // value of the last mapping returned by next()
+        Object lastValue;
+
+        RangeIterator(Object lo, Object hi, int kind) {
+            this.hi = hi;
+            this.kind = kind;
+            Cursor c = lowest(lo, hi);
+            enter(c.leaf, c.index);
+        }
+
+        private void enter(Leaf l, int i) {
+            leaf = l;
+            index = i;
+            if(l == null) return;
+            fence = l.size;
+            if(hi != null && compare(l.keys[l.size - 1], hi) >= 0) {
+                int f = search(l, hi);
+                fence = f >= 0 ? f : -(f + 1);
+                if(index >= fence) leaf = null;
+            }
+        }
+
+        /**
+         * Moves past the current leaf: to the next one, or to the end of the
+         * range if it ends in this leaf.
+         */
+        private void nextLeaf() {
+            if(fence < leaf.size) leaf = null;
+            else enter(leaf.next, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public Object next() {
+            if(leaf == null) throw new NoSuchElementException();
+            Leaf l = leaf;
+            int i = index;
+            if(++index == fence) nextLeaf();
+            lastKey = l.keys[i];
+            lastValue = l.values[i];
+            if(kind == Map.KEYS) return lastKey;
+            if(kind == Map.VALUES) return lastValue;
+            return new MapEntry(lastKey, lastValue);
+        }
+
+        /**
+         * Removes the last mapping returned by next() from the map. The tree
+         * could be rebalanced, so the iterator looks up again the position of
+         * the following key.
+         */
+        @Override
+        public void remove() {
+            if(lastKey == null) throw new IllegalStateException();
+            Object nextKey = leaf == null ? null : leaf.keys[index];
+            BTreeMap.this.remove(lastKey);
+            lastKey = null;
+            if(nextKey != null) {
+                Cursor c = ceiling(nextKey, true);
+                enter(c.leaf, c.index);
+            }
+        }
+
+        /**
+         * Skips the remaining mappings.
+         * @return the number of mappings skipped
+         */
+        int skipRemaining() {
+            int n = 0;
+            while(leaf != null) {
+                n += fence - index;
+                nextLeaf();
+            }
+            return n;
+        }
+
+        void forEachRemaining(HBiConsumer action) {
+            while(leaf != null) {
+                Leaf l = leaf;
+                for(int i=index; i < fence; i++) action.accept(l.keys[i], l.values[i]);
+                nextLeaf();
+            }
+        }
+
+        void forEachRemaining(HConsumer action) {
+            while(leaf != null) {
+                Leaf l = leaf;
+                for(int i=index; i < fence; i++) {
+                    if(kind == Map.KEYS) action.accept(l.keys[i]);
+                    else if(kind == Map.VALUES) action.accept(l.values[i]);
+                    else action.accept(new MapEntry(l.keys[i], l.values[i]));
+                }
+                nextLeaf();
+            }
+        }
+
+        void replaceRemaining(HBiFunction function) {
+            while(leaf != null) {
+                Leaf l = leaf;
+                for(int i=index; i < fence; i++) {
+                    Object value = function.apply(l.keys[i], l.values[i]);
+                    if(value == null) throw new NullPointerException();
+                    l.values[i] = value;
+                }
+                nextLeaf();
+            }
+        }
+
+    }
+
+    /**
+     * View of the portion of the map whose keys range from lo, inclusive, to
+     * hi, exclusive; a null bound means that the view is unbounded on that
+     * side.
+     */
+    class SubMap implements HSortedMap {
+
+        private final Object lo;
+        private final Object hi;
+
+        SubMap(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * Returns true if the key is in the closed range [lo, hi], that is, if
+         * it's a valid bound for a view of this map.
+         */
+        private boolean isBound(Object key) {
+            return (lo == null || compare(key, lo) >= 0) && (hi == null || compare(key, hi) <= 0);
+        }
+
+        @Override
+        public void clear() {
+            BTreeMap.this.clear(lo, hi);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return BTreeMap.this.containsValue(lo, hi, value);
+        }
+
+        @Override
+        public HSet entrySet() {
+            return new EntrySet(lo, hi);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return sameMappings(this, lo, hi, obj);
+        }
+
+        @Override
+        public Object get(Object key) {
+            if(key == null) throw new NullPointerException();
+            if(!inRange(key, lo, hi)) return null;
+            return BTreeMap.this.get(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return BTreeMap.this.hashCode(lo, hi);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return lowest(lo, hi).leaf == null;
+        }
+
+        @Override
+        public HSet keySet() {
+            return new ElementSet(lo, hi, true);
+        }
+
+        /**
+         * Associates the specified value with the specified key in the map.
+         * @throws IllegalArgumentException if the key is out of the range of this view
+         */
+        @Override
+        public Object put(Object key, Object value) {
+            if(key == null || value == null) throw new NullPointerException();
+            if(!inRange(key, lo, hi)) throw new IllegalArgumentException();
+            return BTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public void putAll(HMap t) {
+            if(t == null) throw new NullPointerException();
+            HIterator it = t.entrySet().iterator();
+            while(it.hasNext()) {
+                HMap.Entry entry = (HMap.Entry) it.next();
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public Object remove(Object key) {
+            if(key == null) throw new NullPointerException();
+            if(!inRange(key, lo, hi)) return null;
+            return BTreeMap.this.remove(key);
+        }
+
+        /**
+         * Returns the number of mappings in this view, which are counted
+         * leaf by leaf.
+         * @return the number of mappings in this view
+         */
+        @Override
+        public int size() {
+            return count(lo, hi);
+        }
+
+        @Override
+        public HCollection values() {
+            return new ElementSet(lo, hi, false);
+        }
+
+        @Override
+        public void forEach(HBiConsumer action) {
+            if(action == null) throw new NullPointerException();
+            new RangeIterator(lo, hi, Map.ENTRIES).forEachRemaining(action);
+        }
+
+        @Override
+        public void replaceAll(HBiFunction function) {
+            if(function == null) throw new NullPointerException();
+            new RangeIterator(lo, hi, Map.ENTRIES).replaceRemaining(function);
+        }
+
+        @Override
+        public HComparator comparator() {
+            return comparator;
+        }
+
+        @Override
+        public Object firstKey() {
+            return existingKey(lowest(lo, hi));
+        }
+
+        @Override
+        public Object lastKey() {
+            return existingKey(highest(lo, hi));
+        }
+
+        /**
+         * Returns a view of the portion of this view whose keys range from
+         * fromKey, inclusive, to toKey, exclusive.
+         * @throws IllegalArgumentException if fromKey is greater than toKey, or if they lie outside the range of this view
+         */
+        @Override
+        public HSortedMap subMap(Object fromKey, Object toKey) {
+            if(fromKey == null || toKey == null) throw new NullPointerException();
+            if(compare(fromKey, toKey) > 0 || !isBound(fromKey) || !isBound(toKey)) throw new IllegalArgumentException();
+            return new SubMap(fromKey, toKey);
+        }
+
+        @Override
+        public HSortedMap headMap(Object toKey) {
+            if(toKey == null) throw new NullPointerException();
+            if(!isBound(toKey)) throw new IllegalArgumentException();
+            return new SubMap(lo, toKey);
+        }
+
+        @Override
+        public HSortedMap tailMap(Object fromKey) {
+            if(fromKey == null) throw new NullPointerException();
+            if(!isBound(fromKey)) throw new IllegalArgumentException();
+            return new SubMap(fromKey, hi);
+        }
+
+        @Override
+        public Object floorKey(Object key) {
+            return keyAt(navigate(key, true, true, lo, hi));
+        }
+
+        @Override
+        public Object ceilingKey(Object key) {
+            return keyAt(navigate(key, false, true, lo, hi));
+        }
+
+        @Override
+        public Object lowerKey(Object key) {
+            return keyAt(navigate(key, true, false, lo, hi));
+        }
+
+        @Override
+        public Object higherKey(Object key) {
+            return keyAt(navigate(key, false, false, lo, hi));
+        }
+
+        @Override
+        public HMap.Entry floorEntry(Object key) {
+            return entryAt(navigate(key, true, true, lo, hi));
+        }
+
+        @Override
+        public HMap.Entry ceilingEntry(Object key) {
+            return entryAt(navigate(key, false, true, lo, hi));
+        }
+
+        @Override
+        public String toString() {
+            return BTreeMap.this.toString(lo, hi);
+        }
+
+    }
+
+    /**
+     * Common behaviour of the views of the map (or of one of its sub maps),
+     * whose keys range from lo, inclusive, to hi, exclusive.
+     */
+    abstract class View implements HSet {
+
+        final Object lo;
+        final Object hi;
+
+        View(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * Returns the kind of the elements of this view (Map.ENTRIES,
+         * Map.KEYS or Map.VALUES).
+         */
+        abstract int kind();
+
+        @Override
+        public boolean add(Object e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            BTreeMap.this.clear(lo, hi);
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            if (other.size() != size()) return false;
+            return containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return lowest(lo, hi).leaf == null;
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new RangeIterator(lo, hi, kind());
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            return removeMatching(c, false);
+        }
+
+        @Override
+        public int size() {
+            return count(lo, hi);
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            new RangeIterator(lo, hi, kind()).forEachRemaining(action);
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(filter.test(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Removes the elements of this view which are (or are not) contained
+         * in the collection.
+         */
+        private boolean removeMatching(HCollection c, boolean contained) {
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(c.contains(it.next()) == contained) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return toArray(new Object[0]);
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            int n = size();
+            Object[] res = a.length >= n ? a : new Object[n];
+            HIterator it = iterator();
+            for(int i=0; i < n; i++) res[i] = it.next();
+            return res;
+        }
+
+    }
+
+    class EntrySet extends View {
+
+        EntrySet(Object lo, Object hi) {
+            super(lo, hi);
+        }
+
+        @Override
+        int kind() {
+            return Map.ENTRIES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            Object key = entry.getKey();
+            if(key == null || !inRange(key, lo, hi)) return false;
+            Object value = get(key);
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!contains(o)) return false;
+            BTreeMap.this.remove(((HMap.Entry) o).getKey());
+            return true;
+        }
+
+    }
+
+    class ElementSet extends View {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        ElementSet(Object lo, Object hi, boolean type) {
+            super(lo, hi);
+            this.type = type;
+        }
+
+        @Override
+        int kind() {
+            return type ? Map.KEYS : Map.VALUES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return inRange(o, lo, hi) && containsKey(o);
+            return containsValue(lo, hi, o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return inRange(o, lo, hi) && BTreeMap.this.remove(o) != null;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(o.equals(it.next())) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
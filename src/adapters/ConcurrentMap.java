@@ -0,0 +1,1044 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Concurrent implementation of Map interface Java 1.4.2.
+ * The map is split in a fixed number of segments, each of them being a small
+ * hash table guarded by its own lock: writes on keys which fall in different
+ * segments proceed in parallel, while reads never acquire a lock.
+ * The nodes of the tables have immutable keys and links, and every structural
+ * modification is published through a volatile write of the segment count, so
+ * that a reader always observes a consistent chain of nodes.
+ *
+ * The iterators of the views returned by entrySet(), keySet() and values() are
+ * weakly consistent: they never throw exceptions because of concurrent
+ * modifications, they return every element which was contained in the map when
+ * the iterator was created and not removed afterwards, and they may or may not
+ * return the elements added during the iteration.
+ *
+ * As in the Map class, null keys and null values are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public class ConcurrentMap implements HMap {
+
+    /**
+     * Default number of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * Maximum number of segments.
+     */
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    /**
+     * Initial capacity of the table of each segment (must be a power of two).
+     */
+    private static final int SEGMENT_CAPACITY = 2;
+
+    /**
+     * Maximum capacity of the table of each segment.
+     */
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 30;
+
+    /**
+     * Number of attempts of size() before giving up an exact snapshot.
+     */
+    private static final int SIZE_RETRIES = 2;
+
+    final Segment[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty map, with the default
+     * number of segments (16).
+     */
+    public ConcurrentMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructor with concurrency level.
+     * This constructor will initialize a new empty map, split in a number of
+     * segments which is the smallest power of two not lower than the specified
+     * concurrency level. Up to that number of threads can update the map
+     * without contending for the same lock.
+     * @param concurrencyLevel the estimated number of concurrently updating threads
+     * @throws IllegalArgumentException if the concurrency level is not positive
+     */
+    public ConcurrentMap(int concurrencyLevel) {
+        if(concurrencyLevel <= 0) throw new IllegalArgumentException();
+        if(concurrencyLevel > MAX_SEGMENTS) concurrencyLevel = MAX_SEGMENTS;
+        int shift = 0;
+        int count = 1;
+        while(count < concurrencyLevel) {
+            shift++;
+            count <<= 1;
+        }
+        segmentShift = 32 - shift;
+        segmentMask = count - 1;
+        segments = new Segment[count];
+        for(int i=0; i < count; i++) segments[i] = new Segment(SEGMENT_CAPACITY);
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     * Segments are cleared one at a time, so mappings which are concurrently
+     * added to the map could be contained in it when this call returns.
+     */
+    @Override
+    public void clear() {
+        for(int i=0; i < segments.length; i++) segments[i].clear();
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * The call doesn't acquire any lock.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if(key == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * This operation requires a traversal of the whole map, which is performed
+     * without acquiring any lock.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        for(int i=0; i < segments.length; i++) {
+            if(segments[i].containsValue(value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a Set view of the mappings contained in this map.
+     * The set is backed by the map, so changes to the map are reflected in the
+     * set, and vice-versa. Its iterator is weakly consistent and never throws
+     * exceptions because of concurrent modifications of the map. The setValue
+     * operation of the entries returned by the iterator writes through to the map.
+     *
+     * The set supports element removal, which removes the corresponding mapping
+     * from the map, via the Iterator.remove, Set.remove, removeAll, retainAll
+     * and clear operations. It does not support the add or addAll operations.
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings. The result is not reliable if one of the
+     * two maps is concurrently modified.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof HMap)) {
+            return false;
+        }
+        HMap other = (HMap) obj;
+        if (other.size() != size()) {
+            return false;
+        }
+        EntryIterator it = new EntryIterator();
+        while(it.hasNext()) {
+            Node e = it.nextNode();
+            if(!it.valueOf(e).equals(other.get(e.key))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * The call doesn't acquire any lock, and it returns the value of the last
+     * completed update of the mapping.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null if this
+     *         map contains no mapping for the key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object get(Object key) {
+        if(key == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Returns the hash code value for this map.
+     * The hash code of a map is defined to be the sum of the hash codes of each
+     * entry in the map's entrySet() view.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        EntryIterator it = new EntryIterator();
+        while(it.hasNext()) {
+            Node e = it.nextNode();
+            hash += e.key.hashCode() ^ it.valueOf(e).hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Returns true if this map contains no key-value mappings.
+     * @return true if this map contains no key-value mappings
+     */
+    @Override
+    public boolean isEmpty() {
+        for(int i=0; i < segments.length; i++) {
+            if(segments[i].count != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     * The set is backed by the map, so changes to the map are reflected in the
+     * set, and vice-versa. Its iterator is weakly consistent and never throws
+     * exceptions because of concurrent modifications of the map.
+     *
+     * The set supports element removal, which removes the corresponding mapping
+     * from the map, via the Iterator.remove, Set.remove, removeAll, retainAll,
+     * and clear operations.  It does not support the add or addAll operations.
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public HSet keySet() {
+        return new ElementSet(true);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value is
+     * replaced by the specified value. Only the lock of the segment of the key
+     * is acquired.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key
+     * @throws NullPointerException if the specified key or value is null
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map, if
+     * the key is not already associated with a value. The check and the
+     * insertion are performed atomically.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the value currently associated with key, or null if there was no
+     *         mapping for key (and the specified value has been inserted)
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public Object putIfAbsent(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map.
+     * The mappings are inserted one at a time, so concurrent readers could
+     * observe only part of them.
+     * @param t mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     * @throws NullPointerException if the specified map contains null keys or values
+     */
+    @Override
+    public void putAll(HMap t) {
+        if(t == null) throw new NullPointerException();
+        HIterator it = t.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     * Only the lock of the segment of the key is acquired.
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key.
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object remove(Object key) {
+        if(key == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, null);
+    }
+
+    /**
+     * Removes the mapping for a key only if it is currently mapped to the
+     * specified value. The check and the removal are performed atomically.
+     * @param key key whose mapping is to be removed from the map
+     * @param value value expected to be associated with the key
+     * @return true if the mapping was removed
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public boolean remove(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, value) != null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * If the map is concurrently modified, the returned value is the size of
+     * the map at some point during the call.
+     * @return the number of key-value mappings in this map
+     */
+    @Override
+    public int size() {
+        int sum = 0;
+        for(int k=0; k < SIZE_RETRIES; k++) {
+            int mods = 0;
+            sum = 0;
+            for(int i=0; i < segments.length; i++) {
+                mods += segments[i].modCount;
+                sum += segments[i].count;
+            }
+            int check = 0;
+            for(int i=0; i < segments.length; i++) check += segments[i].modCount;
+            if(check == mods) break;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns a Collection view of the values contained in this map.
+     * The collection is backed by the map, so changes to the map are reflected
+     * in the collection, and vice-versa. Its iterator is weakly consistent and
+     * never throws exceptions because of concurrent modifications of the map.
+     *
+     * The collection supports element removal, which removes the corresponding
+     * mapping from the map, via the Iterator.remove, Collection.remove,
+     * removeAll, retainAll and clear operations. It does not  support the add
+     * or addAll operations.
+     * @return a collection view of the values contained in this map
+     */
+    @Override
+    public HCollection values() {
+        return new ElementSet(false);
+    }
+
+    /**
+     * Performs the given action for each mapping of this map, walking the 
+     * tables of the segments directly without acquiring any lock. The 
+     * traversal is weakly consistent, like the one of the iterators.
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     */
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        for(int s=segments.length-1; s >= 0; s--) {
+            Segment seg = segments[s];
+            if(seg.count == 0) continue;
+            Node[] tab = seg.table;
+            for(int i=tab.length-1; i >= 0; i--) {
+                for(Node e = tab[i]; e != null; e = e.next) action.accept(e.key, seg.valueOf(e));
+            }
+        }
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the given
+     * function on its key and value. Each value is replaced atomically, only 
+     * if the mapping has not been updated concurrently since it was read; 
+     * otherwise the function is invoked again on the new value. Mappings
+     * removed concurrently are skipped.
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the function is null, or if it returns null
+     */
+    @Override
+    public void replaceAll(HBiFunction function) {
+        if(function == null) throw new NullPointerException();
+        for(int s=segments.length-1; s >= 0; s--) {
+            Segment seg = segments[s];
+            if(seg.count == 0) continue;
+            Node[] tab = seg.table;
+            for(int i=tab.length-1; i >= 0; i--) {
+                for(Node e = tab[i]; e != null; e = e.next) {
+                    Object old = seg.valueOf(e);
+                    while(old != null) {
+                        Object value = function.apply(e.key, old);
+                        if(value == null) throw new NullPointerException();
+                        if(seg.replace(e.key, e.hash, old, value)) break;
+                        old = seg.get(e.key, e.hash);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        EntryIterator it = new EntryIterator();
+        while(it.hasNext()) {
+            Node e = it.nextNode();
+            res += e.key.toString() + "=" + it.valueOf(e).toString() + " ";
+        }
+        return res;
+    }
+
+    /**
+     * Spreads the hash of the key, so that both the high bits used to select
+     * the segment and the low bits used to select the bin depend on all the
+     * bits of hashCode().
+     * @param key key whose hash has to be computed
+     * @return the spread hash of the key
+     */
+    static int hash(Object key) {
+        int h = key.hashCode();
+        h += (h << 15) ^ 0xffffcd7d;
+        h ^= (h >>> 10);
+        h += (h << 3);
+        h ^= (h >>> 6);
+        h += (h << 2) + (h << 14);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the segment which contains the keys with the specified hash.
+     * @param hash spread hash of the key
+     * @return the segment of the key
+     */
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Node of the hash chains. Key, hash and link are immutable, so that a
+     * chain can be traversed without locking while it is being modified:
+     * removals replace the nodes preceding the removed one instead of
+     * unlinking it.
+     */
+    static final class Node {
+
+        final Object key;
+        final int hash;
+        final Node next;
+        volatile Object value;
+
+        Node(Object key, int hash, Node next, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Segment of the map: a hash table whose updates are serialized by the
+     * segment monitor. Every structural modification ends with a write of the
+     * volatile count, which readers read before traversing the table.
+     */
+    static final class Segment {
+
+        volatile int count;
+        volatile Node[] table;
+        int modCount;
+        private int threshold;
+
+        Segment(int capacity) {
+            setTable(new Node[capacity]);
+        }
+
+        private void setTable(Node[] tab) {
+            threshold = tab.length - (tab.length >>> 2);
+            table = tab;
+        }
+
+        Object get(Object key, int hash) {
+            if(count != 0) {
+                Node[] tab = table;
+                Node e = tab[hash & (tab.length - 1)];
+                while(e != null) {
+                    if(e.hash == hash && key.equals(e.key)) {
+                        Object v = e.value;
+                        if(v != null) return v;
+                        return readValueUnderLock(e);
+                    }
+                    e = e.next;
+                }
+            }
+            return null;
+        }
+
+        boolean containsKey(Object key, int hash) {
+            if(count != 0) {
+                Node[] tab = table;
+                Node e = tab[hash & (tab.length - 1)];
+                while(e != null) {
+                    if(e.hash == hash && key.equals(e.key)) return true;
+                    e = e.next;
+                }
+            }
+            return false;
+        }
+
+        boolean containsValue(Object value) {
+            if(count != 0) {
+                Node[] tab = table;
+                for(int i=0; i < tab.length; i++) {
+                    for(Node e = tab[i]; e != null; e = e.next) {
+                        Object v = e.value;
+                        if(v == null) v = readValueUnderLock(e);
+                        if(value.equals(v)) return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Reads the value of a node which has been observed before its
+         * initialization was visible to the current thread (possible only if
+         * the node has been published by a concurrent put).
+         * @param e node whose value has to be read
+         * @return the value of the node
+         */
+        synchronized Object readValueUnderLock(Node e) {
+            return e.value;
+        }
+
+        Object valueOf(Node e) {
+            Object v = e.value;
+            if(v == null) v = readValueUnderLock(e);
+            return v;
+        }
+
+        /**
+         * Replaces the value of the mapping of the key, only if it's still
+         * mapped to the expected value, or to any value if the expected value
+         * is null.
+         */
+        synchronized boolean replace(Object key, int hash, Object expected, Object value) {
+            Node[] tab = table;
+            for(Node e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+                if(e.hash == hash && key.equals(e.key)) {
+                    if(expected != null && !expected.equals(e.value)) return false;
+                    e.value = value;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized Object put(Object key, int hash, Object value, boolean onlyIfAbsent) {
+            int c = count;
+            if(c++ > threshold) rehash();
+            Node[] tab = table;
+            int index = hash & (tab.length - 1);
+            Node first = tab[index];
+            for(Node e = first; e != null; e = e.next) {
+                if(e.hash == hash && key.equals(e.key)) {
+                    Object old = e.value;
+                    if(!onlyIfAbsent) e.value = value;
+                    return old;
+                }
+            }
+            modCount++;
+            tab[index] = new Node(key, hash, first, value);
+            count = c;
+            return null;
+        }
+
+        /**
+         * Removes the mapping of the key, if it's mapped to the specified value
+         * or if the specified value is null.
+         */
+        synchronized Object remove(Object key, int hash, Object value) {
+            Node[] tab = table;
+            int index = hash & (tab.length - 1);
+            Node first = tab[index];
+            Node e = first;
+            while(e != null && (e.hash != hash || !key.equals(e.key))) e = e.next;
+            if(e == null) return null;
+            Object old = e.value;
+            if(value != null && !value.equals(old)) return null;
+            Node newFirst = e.next;
+            for(Node p = first; p != e; p = p.next)
+                newFirst = new Node(p.key, p.hash, newFirst, p.value);
+            tab[index] = newFirst;
+            modCount++;
+            count = count - 1;
+            return old;
+        }
+
+        synchronized void clear() {
+            if(count != 0) {
+                Node[] tab = table;
+                for(int i=0; i < tab.length; i++) tab[i] = null;
+                modCount++;
+                count = 0;
+            }
+        }
+
+        /**
+         * Doubles the capacity of the table. The nodes are copied in the new
+         * table, so that readers which are traversing the old one are not
+         * affected.
+         */
+        private void rehash() {
+            Node[] old = table;
+            if(old.length >= MAX_SEGMENT_CAPACITY) return;
+            Node[] tab = new Node[old.length << 1];
+            int mask = tab.length - 1;
+            for(int i=0; i < old.length; i++) {
+                for(Node e = old[i]; e != null; e = e.next) {
+                    int index = e.hash & mask;
+                    tab[index] = new Node(e.key, e.hash, tab[index], e.value);
+                }
+            }
+            setTable(tab);
+        }
+
+    }
+
+    public class MapEntry implements HMap.Entry {
+
+        private final Object key;
+        private Object value;
+
+        public MapEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Compares the specified object with this entry for equality.
+         * Returns true if the given object is also a map entry and the two
+         * entries represent the same mapping.
+         * @param o object to be compared for equality with this map entry
+         * @return true if the specified object is equal to this map entry
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        /**
+         * Returns the key corresponding to this entry.
+         * @return the key corresponding to this entry
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the value corresponding to this entry.
+         * @return the value corresponding to this entry
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value corresponding to this entry with the specified
+         * value, writing it through to the map while the key is still mapped:
+         * a mapping removed after the entry was returned is not put back.
+         * @param value new value to be stored in this entry
+         * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
+         */
+        @Override
+        public Object setValue(Object value) {
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            this.value = value;
+            int hash = hash(key);
+            segmentFor(hash).replace(key, hash, null, value);
+            return old;
+        }
+
+        /**
+         * Returns the hash code value for this map entry.
+         * @return the hash code value for this map entry
+         */
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * Weakly consistent iterator over the nodes of the map. Segments and bins
+     * are visited backwards, each table being read once when its segment is
+     * reached.
+     */
+    class HashIterator {
+
+        private int nextSegment;
+        private int nextBin;
+        private Node[] currentTable;
+        private Node nextNode;
+        private Node lastReturned;
+
+        public HashIterator() {
+            nextSegment = segments.length - 1;
+            nextBin = -1;
+            advance();
+        }
+
+        private void advance() {
+            if(nextNode != null && (nextNode = nextNode.next) != null) return;
+            while(nextBin >= 0) {
+                if((nextNode = currentTable[nextBin--]) != null) return;
+            }
+            while(nextSegment >= 0) {
+                Segment seg = segments[nextSegment--];
+                if(seg.count != 0) {
+                    currentTable = seg.table;
+                    for(int j=currentTable.length-1; j >= 0; j--) {
+                        if((nextNode = currentTable[j]) != null) {
+                            nextBin = j - 1;
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        Node nextNode() {
+            if(nextNode == null) throw new NoSuchElementException();
+            lastReturned = nextNode;
+            advance();
+            return lastReturned;
+        }
+
+        Object valueOf(Node e) {
+            Object v = e.value;
+            if(v == null) v = segmentFor(e.hash).readValueUnderLock(e);
+            return v;
+        }
+
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            ConcurrentMap.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+
+    }
+
+    class EntryIterator extends HashIterator implements HIterator {
+
+        @Override
+        public Object next() {
+            Node e = nextNode();
+            return new MapEntry(e.key, valueOf(e));
+        }
+
+    }
+
+    class ElementIterator extends HashIterator implements HIterator {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementIterator(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object next() {
+            Node e = nextNode();
+            if(type) return e.key;
+            return valueOf(e);
+        }
+
+    }
+
+    /**
+     * Common behaviour of the views of the map.
+     */
+    abstract class View implements HSet {
+
+        @Override
+        public boolean add(Object e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentMap.this.clear();
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            if (other.size() != size()) return false;
+            return containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ConcurrentMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(!c.contains(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentMap.this.size();
+        }
+
+        /**
+         * Returns the element of this view for the specified node.
+         * @param e node of the map
+         * @param value value of the node
+         * @return the element of this view
+         */
+        abstract Object element(Node e, Object value);
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int s=segments.length-1; s >= 0; s--) {
+                Segment seg = segments[s];
+                if(seg.count == 0) continue;
+                Node[] tab = seg.table;
+                for(int i=tab.length-1; i >= 0; i--) {
+                    for(Node e = tab[i]; e != null; e = e.next) action.accept(element(e, seg.valueOf(e)));
+                }
+            }
+        }
+
+        /**
+         * Removes the mappings whose element satisfies the given predicate.
+         * A mapping is removed only if its value has not been updated 
+         * concurrently since it was tested.
+         * @param filter predicate which returns true for the elements to be removed
+         * @return true if any mappings were removed
+         */
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            for(int s=segments.length-1; s >= 0; s--) {
+                Segment seg = segments[s];
+                if(seg.count == 0) continue;
+                Node[] tab = seg.table;
+                for(int i=tab.length-1; i >= 0; i--) {
+                    for(Node e = tab[i]; e != null; e = e.next) {
+                        Object value = seg.valueOf(e);
+                        if(filter.test(element(e, value)) && seg.remove(e.key, e.hash, value) != null) removed = true;
+                    }
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Returns an array containing all of the elements in this view.
+         * The size of the map could change during the iteration, so the
+         * elements are first collected in a list.
+         * @return an array containing all of the elements in this view.
+         */
+        @Override
+        public Object[] toArray() {
+            return snapshot().toArray();
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            return snapshot().toArray(a);
+        }
+
+        private List snapshot() {
+            List res = new List();
+            HIterator it = iterator();
+            while(it.hasNext()) res.add(it.next());
+            return res;
+        }
+
+    }
+
+    class EntrySet extends View {
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            Object value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        Object element(Node e, Object value) {
+            return new MapEntry(e.key, value);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if(key == null || value == null) return false;
+            int hash = hash(key);
+            return segmentFor(hash).remove(key, hash, value) != null;
+        }
+
+    }
+
+    class ElementSet extends View {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementSet(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return containsKey(o);
+            return containsValue(o);
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new ElementIterator(type);
+        }
+
+        @Override
+        Object element(Node e, Object value) {
+            if(type) return e.key;
+            return value;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return ConcurrentMap.this.remove(o) != null;
+            EntryIterator it = new EntryIterator();
+            while(it.hasNext()) {
+                Node e = it.nextNode();
+                if(o.equals(it.valueOf(e)) && segmentFor(e.hash).remove(e.key, e.hash, o) != null)
+                    return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,836 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HCollection;
+import interfaces.HComparator;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import interfaces.HSortedSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * Concurrent implementation of HSortedSet interface, backed by a lock-free
+ * skip list.
+ * The elements are stored in ascending order in a linked list, and every node
+ * is also linked in a random number of sparser lists above it (one level out
+ * of four on average), so that searches, insertions and removals take
+ * logarithmic time. No operation acquires a lock: the links are updated with
+ * compare-and-set operations, so threads which insert or remove different
+ * elements proceed in parallel, and reads never block.
+ *
+ * A node is removed in two steps: its links are marked, starting from the
+ * highest level, and the thread which marks the link of the lowest level is
+ * the one which removed the element. The marked nodes are then unlinked by
+ * any thread which traverses them while searching for a position.
+ *
+ * The iterators of the set and of its views are weakly consistent: they
+ * never throw exceptions because of concurrent modifications, they return the
+ * elements in ascending order, every element which was contained in the set
+ * when the iterator was created and not removed afterwards, and they may or
+ * may not return the elements added during the iteration. Unlike most
+ * collections, size() is not a constant-time operation: the elements are
+ * counted by traversing the set, and the result may be inaccurate if the set
+ * is concurrently modified. The same holds for the bulk operations (addAll,
+ * removeAll, retainAll, containsAll, equals and toArray), which are not
+ * performed atomically.
+ *
+ * The elements are compared by the comparator given at creation time, or by
+ * their natural ordering. Null elements are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public class ConcurrentSkipListSet implements HSortedSet {
+
+    /**
+     * Number of levels of the head of the skip list: the expected number of
+     * elements of the highest level is one out of 4^15 elements.
+     */
+    private static final int MAX_LEVEL = 16;
+
+    private final HComparator comparator;
+    private final Node head = new Node(null, MAX_LEVEL - 1);
+    // unbounded view of the set, which implements its operations
+    private final SubSet all = new SubSet(null, null);
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty set, sorted according to
+     * the natural ordering of its elements.
+     */
+    public ConcurrentSkipListSet() {
+        this(null);
+    }
+
+    /**
+     * Constructor with comparator.
+     * This constructor will initialize a new empty set, sorted according to
+     * the specified comparator.
+     * @param comparator the comparator used to order the elements, or null for the natural ordering
+     */
+    public ConcurrentSkipListSet(HComparator comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     * @param e element to be added to this set
+     * @return true if this set did not already contain the specified element
+     * @throws NullPointerException if the specified element is null
+     * @throws ClassCastException if the element cannot be compared to the elements of the set
+     */
+    @Override
+    public boolean add(Object e) {
+        return all.add(e);
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this set, one
+     * at a time.
+     * @param c collection containing elements to be added to this set
+     * @return true if this set changed as a result of the call
+     * @throws NullPointerException if the specified collection is null, or if it contains null elements
+     */
+    @Override
+    public boolean addAll(HCollection c) {
+        return all.addAll(c);
+    }
+
+    /**
+     * Removes all of the elements from this set, one at a time.
+     */
+    @Override
+    public void clear() {
+        all.clear();
+    }
+
+    /**
+     * Returns true if this set contains the specified element.
+     * The call is wait-free: the marked nodes are skipped, not unlinked.
+     * @param o element whose presence in this set is to be tested
+     * @return true if this set contains the specified element
+     * @throws NullPointerException if the specified element is null
+     * @throws ClassCastException if the element cannot be compared to the elements of the set
+     */
+    @Override
+    public boolean contains(Object o) {
+        return all.contains(o);
+    }
+
+    @Override
+    public boolean containsAll(HCollection c) {
+        return all.containsAll(c);
+    }
+
+    /**
+     * Compares the specified object with this set for equality.
+     * Returns true if the specified object is also a set, the two sets have
+     * the same size, and every member of the specified set is contained in
+     * this set.
+     * @param o object to be compared for equality with this set
+     * @return true if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        return all.equals(o);
+    }
+
+    /**
+     * Returns the hash code value for this set, which is the sum of the hash
+     * codes of its elements.
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        return all.hashCode();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the elements in this set, in
+     * ascending order.
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public HIterator iterator() {
+        return all.iterator();
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     * @param o object to be removed from this set, if present
+     * @return true if this set contained the specified element
+     * @throws NullPointerException if the specified element is null
+     * @throws ClassCastException if the element cannot be compared to the elements of the set
+     */
+    @Override
+    public boolean remove(Object o) {
+        return all.remove(o);
+    }
+
+    @Override
+    public boolean removeAll(HCollection c) {
+        return all.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(HCollection c) {
+        return all.retainAll(c);
+    }
+
+    /**
+     * Returns the number of elements in this set, which are counted by
+     * traversing the set.
+     * @return the number of elements in this set
+     */
+    @Override
+    public int size() {
+        return all.size();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return all.toArray();
+    }
+
+    @Override
+    public Object[] toArray(Object[] a) {
+        return all.toArray(a);
+    }
+
+    @Override
+    public void forEach(HConsumer action) {
+        all.forEach(action);
+    }
+
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        return all.removeIf(filter);
+    }
+
+    @Override
+    public HComparator comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the first (lowest) element currently in this set.
+     * @return the first element currently in this set
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public Object first() {
+        return all.first();
+    }
+
+    /**
+     * Returns the last (highest) element currently in this set.
+     * @return the last element currently in this set
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public Object last() {
+        return all.last();
+    }
+
+    /**
+     * Retrieves and removes the first (lowest) element, or returns null if
+     * this set is empty. If several threads poll the set concurrently, each
+     * element is returned by one of them only.
+     * @return the first element, or null if this set is empty
+     */
+    @Override
+    public Object pollFirst() {
+        return all.pollFirst();
+    }
+
+    /**
+     * Retrieves and removes the last (highest) element, or returns null if
+     * this set is empty. If several threads poll the set concurrently, each
+     * element is returned by one of them only.
+     * @return the last element, or null if this set is empty
+     */
+    @Override
+    public Object pollLast() {
+        return all.pollLast();
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements range from
+     * fromElement, inclusive, to toElement, exclusive. If fromElement and
+     * toElement are equal, the returned set is empty.
+     *
+     * The returned set is backed by this set, so changes in the returned set
+     * are reflected in this set, and vice-versa. It supports all of the
+     * operations of this set, concurrently with them, and it throws an
+     * IllegalArgumentException on an attempt to insert an element outside its
+     * range.
+     * @param fromElement low endpoint (inclusive) of the returned set
+     * @param toElement high endpoint (exclusive) of the returned set
+     * @return a view of the portion of this set whose elements range from fromElement to toElement
+     * @throws NullPointerException if fromElement or toElement is null
+     * @throws ClassCastException if the elements cannot be compared to one another
+     * @throws IllegalArgumentException if fromElement is greater than toElement
+     */
+    @Override
+    public HSortedSet subSet(Object fromElement, Object toElement) {
+        return all.subSet(fromElement, toElement);
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements are strictly
+     * less than toElement. The returned set is backed by this set, as for
+     * subSet.
+     * @param toElement high endpoint (exclusive) of the returned set
+     * @return a view of the portion of this set whose elements are strictly less than toElement
+     * @throws NullPointerException if toElement is null
+     * @throws ClassCastException if toElement is not comparable
+     */
+    @Override
+    public HSortedSet headSet(Object toElement) {
+        return all.headSet(toElement);
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements are greater
+     * than or equal to fromElement. The returned set is backed by this set, as
+     * for subSet.
+     * @param fromElement low endpoint (inclusive) of the returned set
+     * @return a view of the portion of this set whose elements are greater than or equal to fromElement
+     * @throws NullPointerException if fromElement is null
+     * @throws ClassCastException if fromElement is not comparable
+     */
+    @Override
+    public HSortedSet tailSet(Object fromElement) {
+        return all.tailSet(fromElement);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        return all.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object e1, Object e2) {
+        if(comparator == null) return ((Comparable) e1).compareTo(e2);
+        return comparator.compare(e1, e2);
+    }
+
+    /**
+     * Returns the level of a new node: level l is chosen with probability
+     * 3/4^(l+1), up to MAX_LEVEL - 1.
+     */
+    private static int randomLevel() {
+        int r = ThreadLocalRandom.current().nextInt() | (1 << (2 * (MAX_LEVEL - 1)));
+        return Integer.numberOfTrailingZeros(r) >> 1;
+    }
+
+    /**
+     * Searches the position of the element at each level: preds[l] is the last
+     * node of level l whose element is less than e, and succs[l] the node
+     * which follows it (or null). The marked nodes found along the way are
+     * unlinked; if a predecessor turns out to be marked too, the search starts
+     * again from the head.
+     * @return true if succs[0] contains the element
+     */
+    private boolean find(Object e, Node[] preds, Node[] succs) {
+        boolean[] marked = new boolean[1];
+        retry:
+        while(true) {
+            Node pred = head;
+            for(int level=MAX_LEVEL-1; level >= 0; level--) {
+                Node curr = pred.succ(level);
+                while(curr != null) {
+                    Node succ = curr.succ(level, marked);
+                    if(marked[0]) {
+                        if(!pred.next[level].compareAndSet(curr, succ, false, false)) continue retry;
+                        curr = succ;
+                    } else if(compare(curr.element, e) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return succs[0] != null && compare(succs[0].element, e) == 0;
+        }
+    }
+
+    /**
+     * Returns the first node which is not marked and whose element is greater
+     * than (or equal to, if inclusive) the specified one; or the first node,
+     * if the element is null. The traversal doesn't modify the list.
+     */
+    private Node ceiling(Object e, boolean inclusive) {
+        boolean[] marked = new boolean[1];
+        Node pred = head;
+        Node curr = null;
+        for(int level=MAX_LEVEL-1; level >= 0; level--) {
+            curr = pred.succ(level);
+            while(curr != null) {
+                Node succ = curr.succ(level, marked);
+                if(marked[0]) {
+                    curr = succ;
+                } else if(e != null && (inclusive ? compare(curr.element, e) < 0 : compare(curr.element, e) <= 0)) {
+                    pred = curr;
+                    curr = succ;
+                } else {
+                    break;
+                }
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * Returns the last node which is not marked and whose element is less than
+     * the specified one; or the last node, if the element is null. Returns
+     * null if there is no such node.
+     */
+    private Node lower(Object e) {
+        boolean[] marked = new boolean[1];
+        Node pred = head;
+        for(int level=MAX_LEVEL-1; level >= 0; level--) {
+            Node curr = pred.succ(level);
+            while(curr != null) {
+                Node succ = curr.succ(level, marked);
+                if(!marked[0]) {
+                    if(e != null && compare(curr.element, e) >= 0) break;
+                    pred = curr;
+                }
+                curr = succ;
+            }
+        }
+        return pred == head ? null : pred;
+    }
+
+    /**
+     * Returns the first node following the specified one which is not marked.
+     */
+    private static Node successor(Node node) {
+        Node n = node.succ(0);
+        while(n != null && n.next[0].isMarked()) n = n.succ(0);
+        return n;
+    }
+
+    private boolean insert(Object e) {
+        int topLevel = randomLevel();
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        boolean[] marked = new boolean[1];
+        while(true) {
+            if(find(e, preds, succs)) return false;
+            Node node = new Node(e, topLevel);
+            for(int level=0; level <= topLevel; level++) node.next[level].set(succs[level], false);
+            if(!preds[0].next[0].compareAndSet(succs[0], node, false, false)) continue;
+            // the element is in the set: the upper levels only speed up the searches
+            for(int level=1; level <= topLevel; level++) {
+                while(true) {
+                    Node pred = preds[level];
+                    Node succ = succs[level];
+                    Node next = node.succ(level, marked);
+                    // the node is being removed: it must not be linked any further
+                    if(marked[0]) return true;
+                    if(next != succ && !node.next[level].compareAndSet(next, succ, false, false)) continue;
+                    if(pred.next[level].compareAndSet(succ, node, false, false)) break;
+                    if(!find(e, preds, succs) || succs[0] != node) return true;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean delete(Object e) {
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        boolean[] marked = new boolean[1];
+        if(!find(e, preds, succs)) return false;
+        Node victim = succs[0];
+        for(int level=victim.topLevel; level > 0; level--) {
+            Node succ = victim.succ(level, marked);
+            while(!marked[0]) {
+                victim.next[level].compareAndSet(succ, succ, false, true);
+                succ = victim.succ(level, marked);
+            }
+        }
+        Node succ = victim.succ(0, marked);
+        while(true) {
+            boolean removed = victim.next[0].compareAndSet(succ, succ, false, true);
+            succ = victim.succ(0, marked);
+            if(removed) {
+                // unlinks the node
+                find(e, preds, succs);
+                return true;
+            }
+            if(marked[0]) return false;
+        }
+    }
+
+    /**
+     * Node of the skip list, linked in the levels from 0 to topLevel. The
+     * mark of a link means that the node is being removed.
+     */
+    static final class Node {
+
+        final Object element;
+        final int topLevel;
+        final AtomicMarkableReference<Node>[] next;
+
+        @SuppressWarnings("unchecked")
+        Node(Object element, int topLevel) {
+            this.element = element;
+            this.topLevel = topLevel;
+            next = (AtomicMarkableReference<Node>[]) new AtomicMarkableReference<?>[topLevel + 1];
+            for(int i=0; i <= topLevel; i++) next[i] = new AtomicMarkableReference<Node>(null, false);
+        }
+
+        Node succ(int level) {
+            return next[level].getReference();
+        }
+
+        /**
+         * Returns the successor at the given level, and stores the mark of the link in marked[0].
+         */
+        Node succ(int level, boolean[] marked) {
+            return next[level].get(marked);
+        }
+
+    }
+
+    /**
+     * Weakly consistent iterator over the elements of the range [lo, hi), in
+     * ascending order. It holds the node of the next element, so that element
+     * is returned even if it is removed after hasNext() has been called.
+     */
+    class RangeIterator implements HIterator {
+
+        private final Object hi;
+        private Node next;
+        private Object lastReturned;
+
+        RangeIterator(Object lo, Object hi) {
+            this.hi = hi;
+            next = bounded(ceiling(lo, true));
+        }
+
+        private Node bounded(Node node) {
+            if(node != null && hi != null && compare(node.element, hi) >= 0) return null;
+            return node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Object next() {
+            if(next == null) throw new NoSuchElementException();
+            lastReturned = next.element;
+            next = bounded(successor(next));
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            delete(lastReturned);
+            lastReturned = null;
+        }
+
+    }
+
+    /**
+     * View of the portion of the set whose elements range from lo, inclusive,
+     * to hi, exclusive; a null bound means that the view is unbounded on that
+     * side. The unbounded view implements the operations of the set.
+     */
+    class SubSet implements HSortedSet {
+
+        private final Object lo;
+        private final Object hi;
+
+        SubSet(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(Object e) {
+            return (lo == null || compare(e, lo) >= 0) && (hi == null || compare(e, hi) < 0);
+        }
+
+        /**
+         * Returns true if the element is in the closed range [lo, hi], that
+         * is, if it's a valid bound for a view of this view.
+         */
+        private boolean isBound(Object e) {
+            return (lo == null || compare(e, lo) >= 0) && (hi == null || compare(e, hi) <= 0);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the element is out of the range of this view
+         */
+        @Override
+        public boolean add(Object e) {
+            if(e == null) throw new NullPointerException();
+            if(lo == null && hi == null) compare(e, e);
+            else if(!inRange(e)) throw new IllegalArgumentException();
+            return insert(e);
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean changed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                changed = add(it.next()) || changed;
+            return changed;
+        }
+
+        @Override
+        public void clear() {
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!inRange(o)) return false;
+            Node node = ceiling(o, true);
+            return node != null && compare(node.element, o) == 0;
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HSet)) return false;
+            HSet other = (HSet) o;
+            if (other.size() != size()) return false;
+            HIterator it = other.iterator();
+            while(it.hasNext()) {
+                Object e = it.next();
+                try {
+                    if(!contains(e)) return false;
+                } catch(ClassCastException ex) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new RangeIterator(lo, hi);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            return inRange(o) && delete(o);
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(!c.contains(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            int n = 0;
+            for(Node node = new RangeIterator(lo, hi).next; node != null; node = successor(node)) {
+                if(hi != null && compare(node.element, hi) >= 0) break;
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * Returns an array containing all of the elements in this view.
+         * The size of the set could change during the iteration, so the
+         * elements are first collected in a list.
+         * @return an array containing all of the elements in this view.
+         */
+        @Override
+        public Object[] toArray() {
+            return snapshot().toArray();
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            return snapshot().toArray(a);
+        }
+
+        private List snapshot() {
+            List res = new List();
+            HIterator it = iterator();
+            while(it.hasNext()) res.add(it.next());
+            return res;
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            HIterator it = iterator();
+            while(it.hasNext()) action.accept(it.next());
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                Object e = it.next();
+                if(filter.test(e) && delete(e)) removed = true;
+            }
+            return removed;
+        }
+
+        @Override
+        public HComparator comparator() {
+            return comparator;
+        }
+
+        @Override
+        public Object first() {
+            HIterator it = iterator();
+            if(!it.hasNext()) throw new NoSuchElementException();
+            return it.next();
+        }
+
+        @Override
+        public Object last() {
+            Node node = lastNode();
+            if(node == null) throw new NoSuchElementException();
+            return node.element;
+        }
+
+        private Node lastNode() {
+            Node node = lower(hi);
+            if(node != null && lo != null && compare(node.element, lo) < 0) return null;
+            return node;
+        }
+
+        /**
+         * Retrieves and removes the first element of this view. If a
+         * concurrent thread removes the element first, the next one is tried.
+         */
+        @Override
+        public Object pollFirst() {
+            while(true) {
+                HIterator it = iterator();
+                if(!it.hasNext()) return null;
+                Object e = it.next();
+                if(delete(e)) return e;
+            }
+        }
+
+        @Override
+        public Object pollLast() {
+            while(true) {
+                Node node = lastNode();
+                if(node == null) return null;
+                if(delete(node.element)) return node.element;
+            }
+        }
+
+        /**
+         * @throws IllegalArgumentException if fromElement is greater than toElement, or if they lie outside the range of this view
+         */
+        @Override
+        public HSortedSet subSet(Object fromElement, Object toElement) {
+            if(fromElement == null || toElement == null) throw new NullPointerException();
+            if(compare(fromElement, toElement) > 0 || !isBound(fromElement) || !isBound(toElement)) throw new IllegalArgumentException();
+            return new SubSet(fromElement, toElement);
+        }
+
+        @Override
+        public HSortedSet headSet(Object toElement) {
+            if(toElement == null) throw new NullPointerException();
+            compare(toElement, toElement);
+            if(!isBound(toElement)) throw new IllegalArgumentException();
+            return new SubSet(lo, toElement);
+        }
+
+        @Override
+        public HSortedSet tailSet(Object fromElement) {
+            if(fromElement == null) throw new NullPointerException();
+            compare(fromElement, fromElement);
+            if(!isBound(fromElement)) throw new IllegalArgumentException();
+            return new SubSet(fromElement, hi);
+        }
+
+        @Override
+        public String toString() {
+            String res = "";
+            HIterator it = iterator();
+            while(it.hasNext()) res += it.next().toString() + " ";
+            return res;
+        }
+
+    }
+
+}
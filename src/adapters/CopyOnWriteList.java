@@ -0,0 +1,888 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe implementation of the HList interface, in which every
+ * modification copies the array of the elements.
+ * The elements are stored in an array which is never modified once it's
+ * published in a volatile field: get, size, the searches and the other reads
+ * work on the array they read from the field, without any lock, and the
+ * iterators traverse the array which was published when they were created.
+ * The iterators never block nor throw ConcurrentModificationException, and
+ * they don't see the modifications made after their creation; they don't
+ * support remove, set nor add.
+ *
+ * The modifications are serialized by a lock, and each of them publishes a
+ * new array: a single element is added, removed or replaced by one array
+ * copy, and so is any bulk operation (addAll, removeAll, retainAll, removeIf,
+ * replaceAll and clear). The method update applies a batch of modifications
+ * to a List holding a copy of the elements, and publishes the result with a
+ * single write, so that many changes cost one copy and readers see them all
+ * or none. The list is meant for data which is read much more often than it's
+ * modified. Null elements are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public class CopyOnWriteList implements HList {
+
+    /**
+     * Array shared by the empty lists.
+     */
+    private static final Object[] EMPTY = {};
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Object[] array;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty list.
+     */
+    public CopyOnWriteList() {
+        array = EMPTY;
+    }
+
+    /**
+     * Constructor with a collection.
+     * This constructor will initialize a new list containing the elements of
+     * the specified collection, in the order returned by its iterator.
+     * @param c collection whose elements are to be placed into this list
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    public CopyOnWriteList(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        Object[] elements = c.toArray();
+        for(int i=0; i < elements.length; i++) {
+            if(elements[i] == null) throw new NullPointerException();
+        }
+        array = elements;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right (adds one to their indices).
+     * @param index index at which the specified element is to be inserted.
+     * @param element element to be inserted.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public void add(int index, Object element) {
+        if(element == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(index < 0 || index > a.length) throw new IndexOutOfBoundsException();
+            Object[] res = new Object[a.length + 1];
+            System.arraycopy(a, 0, res, 0, index);
+            res[index] = element;
+            System.arraycopy(a, index, res, index + 1, a.length - index);
+            array = res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     * @param o element that has to be inserted.
+     * @return true
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public boolean add(Object o) {
+        if(o == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            Object[] a = array;
+            Object[] res = Arrays.copyOf(a, a.length + 1);
+            res[a.length] = o;
+            array = res;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends all of the elements in the specified collection to the end of
+     * this list, with a single array copy.
+     * @param c elements to be inserted into this list.
+     * @return true if this list changed as a result of the call.
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    @Override
+    public boolean addAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        return insert(-1, c.toArray());
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this list at
+     * the specified position, with a single array copy. If the collection
+     * contains a null element the list is not modified.
+     * @param index index at which to insert first element from the specified collection.
+     * @param c elements to be inserted into this list.
+     * @return true if this list changed as a result of the call.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    @Override
+    public boolean addAll(int index, HCollection c) {
+        if(c == null) throw new NullPointerException();
+        if(index < 0) throw new IndexOutOfBoundsException();
+        return insert(index, c.toArray());
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            array = EMPTY;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if this list contains the specified element.
+     * @param o element whose presence in this list is to be tested.
+     * @return true if this list contains the specified element.
+     * @throws NullPointerException if the parameter is null.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns true if this list contains all of the elements of the specified
+     * collection. The elements are looked up in the same snapshot of the list.
+     * @param c collection to be checked for containment in this list.
+     * @return true if this list contains all of the elements of the specified collection.
+     * @throws NullPointerException if the parameter is null.
+     */
+    @Override
+    public boolean containsAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        Object[] a = array;
+        HIterator it = c.iterator();
+        while(it.hasNext()) {
+            if(indexOf(a, it.next(), 0, a.length) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compares the specified object with this list for equality.
+     * Returns true if the object is an HList with the same elements, in the
+     * same order, of a snapshot of this list.
+     * @param o the object to be compared for equality with this list.
+     * @return true if the specified object is equal to this list.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof HList)) return false;
+        Object[] a = array;
+        return equals(a, 0, a.length, (HList) o);
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of element to return.
+     * @return the element at the specified position in this list.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object get(int index) {
+        Object[] a = array;
+        if(index < 0 || index >= a.length) throw new IndexOutOfBoundsException();
+        return a[index];
+    }
+
+    /**
+     * Returns the hash code value for this list, computed as the one of List.
+     * @return the hash code value for this list.
+     */
+    @Override
+    public int hashCode() {
+        Object[] a = array;
+        return hashCode(a, 0, a.length);
+    }
+
+    /**
+     * Returns the index in this list of the first occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the first occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int indexOf(Object o) {
+        Object[] a = array;
+        return indexOf(a, o, 0, a.length);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return array.length == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements of the current snapshot of this
+     * list. The iterator does not support the remove operation.
+     * @return an iterator over the elements in this list in proper sequence.
+     */
+    @Override
+    public HIterator iterator() {
+        Object[] a = array;
+        return new ArrayIterator(a, 0, 0, a.length);
+    }
+
+    /**
+     * Returns the index in this list of the last occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the last occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        Object[] a = array;
+        return lastIndexOf(a, o, 0, a.length);
+    }
+
+    @Override
+    public HListIterator listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator over the elements of the current snapshot of
+     * this list, starting at the specified position. The iterator does not
+     * support the remove, set and add operations.
+     * @param index index of first element to be returned from the list iterator.
+     * @return a list iterator of the elements in this list, starting at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     */
+    @Override
+    public HListIterator listIterator(int index) {
+        Object[] a = array;
+        if(index < 0 || index > a.length) throw new IndexOutOfBoundsException();
+        return new ArrayIterator(a, 0, index, a.length);
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     * @param index the index of the element to removed.
+     * @return the element previously at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object remove(int index) {
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(index < 0 || index >= a.length) throw new IndexOutOfBoundsException();
+            Object old = a[index];
+            array = without(a, index, index + 1);
+            return old;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first occurrence in this list of the specified element.
+     * @param o element to be removed from this list, if present.
+     * @return true if this list contained the specified element.
+     * @throws NullPointerException if the parameter is null.
+     */
+    @Override
+    public boolean remove(Object o) {
+        return removeFirst(o, 0, -1) >= 0;
+    }
+
+    /**
+     * Removes from this list all the elements that are contained in the
+     * specified collection, with a single array copy.
+     * @param c collection that defines which elements will be removed from this list.
+     * @return true if this list changed as a result of the call.
+     * @throws NullPointerException if the parameter is null.
+     */
+    @Override
+    public boolean removeAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        return removeMatching(0, -1, containedIn(c, true)) > 0;
+    }
+
+    /**
+     * Retains only the elements in this list that are contained in the
+     * specified collection, with a single array copy.
+     * @param c collection that defines which elements this list will retain.
+     * @return true if this list changed as a result of the call.
+     * @throws NullPointerException if the parameter is null.
+     */
+    @Override
+    public boolean retainAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        return removeMatching(0, -1, containedIn(c, false)) > 0;
+    }
+
+    /**
+     * Performs the given action for each element of the current snapshot of
+     * this list.
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the action is null.
+     */
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        Object[] a = array;
+        for(int i=0; i < a.length; i++) action.accept(a[i]);
+    }
+
+    /**
+     * Removes all of the elements of this list that satisfy the given
+     * predicate, with a single array copy. If the predicate throws an
+     * exception the list is not modified.
+     * @param filter a predicate which returns true for elements to be removed
+     * @return true if any elements were removed
+     * @throws NullPointerException if the filter is null.
+     */
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        if(filter == null) throw new NullPointerException();
+        return removeMatching(0, -1, filter) > 0;
+    }
+
+    /**
+     * Replaces each element of this list with the result of applying the
+     * operator to that element, with a single array copy. If the operator
+     * throws an exception the list is not modified.
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the operator is null, or if it returns null.
+     */
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        if(operator == null) throw new NullPointerException();
+        replaceRange(0, -1, operator);
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element.
+     * @param index index of element to replace.
+     * @param element element to be stored at the specified position.
+     * @return the element previously at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public Object set(int index, Object element) {
+        if(element == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(index < 0 || index >= a.length) throw new IndexOutOfBoundsException();
+            Object old = a[index];
+            if(old != element) {
+                Object[] res = a.clone();
+                res[index] = element;
+                array = res;
+            }
+            return old;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return array.length;
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * fromIndex, inclusive, and toIndex, exclusive.
+     * The modifications made through the view are applied to this list, as
+     * the ones of the other methods, and the view keeps track of its own
+     * size. The modifications made to this list through other references
+     * could move the elements of the range: in that case the view keeps
+     * showing the same indices, and throws IndexOutOfBoundsException if they
+     * are not in the list anymore.
+     * @param fromIndex low endpoint (inclusive) of the subList.
+     * @param toIndex high endpoint (exclusive) of the subList.
+     * @return a view of the specified range within this list.
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    @Override
+    public HList subList(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || fromIndex > toIndex || toIndex > size()) throw new IndexOutOfBoundsException();
+        return new SubList(null, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns an array containing all of the elements of the current snapshot
+     * of this list, in proper sequence.
+     * @return an array containing all of the elements in this list.
+     */
+    @Override
+    public Object[] toArray() {
+        return array.clone();
+    }
+
+    /**
+     * Returns an array containing all of the elements of the current snapshot
+     * of this list, stored in the specified array if it's big enough.
+     * @param a the array into which the elements of this list are to be stored, if it is big enough
+     * @return an array containing the elements of this list.
+     * @throws NullPointerException if the parameter is null
+     */
+    @Override
+    public Object[] toArray(Object[] a) {
+        Object[] snapshot = array;
+        return toArray(snapshot, 0, snapshot.length, a);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        Object[] a = array;
+        String res = "";
+        for(int i=0; i < a.length; i++) res += a[i].toString() + " ";
+        return res;
+    }
+
+    /**
+     * Applies a batch of modifications to this list, publishing them with a
+     * single write.
+     * The consumer receives a List which holds a copy of the elements of this
+     * list, and can modify it with any of its methods (including sort and
+     * removeRange); when it returns, the content of the List becomes the
+     * content of this list. The readers see either none or all of the
+     * modifications, and the whole batch costs two array copies: the one the
+     * List works on, and the one which is published, so that a reference to
+     * the List kept by the consumer can't change this list. Other 
+     * modifications of this list wait until the batch is done. If the 
+     * consumer throws an exception this list is not modified.
+     * @param batch operation which modifies the List it receives
+     * @throws NullPointerException if batch is null
+     */
+    public void update(HConsumer batch) {
+        if(batch == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            List copy = new List(array.clone());
+            batch.accept(copy);
+            array = Arrays.copyOf(copy.array(), copy.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes from this list all of the elements whose index is between
+     * fromIndex, inclusive, and toIndex, exclusive, with a single array copy.
+     * @param fromIndex index of first element to be removed
+     * @param toIndex index after last element to be removed
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(fromIndex < 0 || fromIndex > toIndex || toIndex > a.length) throw new IndexOutOfBoundsException();
+            if(fromIndex != toIndex) array = without(a, fromIndex, toIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the elements at the specified index, or at the end of the list
+     * if index is -1.
+     */
+    private boolean insert(int index, Object[] added) {
+        for(int i=0; i < added.length; i++) {
+            if(added[i] == null) throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(index == -1) index = a.length;
+            if(index > a.length) throw new IndexOutOfBoundsException();
+            if(added.length == 0) return false;
+            Object[] res = new Object[a.length + added.length];
+            System.arraycopy(a, 0, res, 0, index);
+            System.arraycopy(added, 0, res, index, added.length);
+            System.arraycopy(a, index, res, index + added.length, a.length - index);
+            array = res;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first occurrence of the element with index in [from, to),
+     * where a negative to stands for the end of the list.
+     * @return the index of the element removed, or -1
+     */
+    int removeFirst(Object o, int from, int to) {
+        if(o == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(to < 0) to = a.length;
+            if(to > a.length) throw new IndexOutOfBoundsException();
+            int index = indexOf(a, o, from, to);
+            if(index >= 0) array = without(a, index, index + 1);
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the elements with index in [from, to) which satisfy the
+     * predicate, where a negative to stands for the end of the list. The
+     * predicate is evaluated on all of them before the array is published.
+     * @return the number of elements removed
+     */
+    int removeMatching(int from, int to, HPredicate filter) {
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(to < 0) to = a.length;
+            if(to > a.length) throw new IndexOutOfBoundsException();
+            Object[] res = new Object[a.length];
+            System.arraycopy(a, 0, res, 0, from);
+            int kept = from;
+            for(int i=from; i < to; i++) {
+                if(!filter.test(a[i])) res[kept++] = a[i];
+            }
+            int removed = to - kept;
+            if(removed == 0) return 0;
+            System.arraycopy(a, to, res, kept, a.length - to);
+            array = Arrays.copyOf(res, a.length - removed);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the elements with index in [from, to) with the results of the
+     * operator, where a negative to stands for the end of the list.
+     */
+    void replaceRange(int from, int to, HUnaryOperator operator) {
+        lock.lock();
+        try {
+            Object[] a = array;
+            if(to < 0) to = a.length;
+            if(to > a.length) throw new IndexOutOfBoundsException();
+            Object[] res = a.clone();
+            for(int i=from; i < to; i++) {
+                Object elem = operator.apply(a[i]);
+                if(elem == null) throw new NullPointerException();
+                res[i] = elem;
+            }
+            array = res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a predicate which tests whether an element is (if contained is
+     * true) or is not (otherwise) in the collection.
+     */
+    private static HPredicate containedIn(HCollection c, final boolean contained) {
+        final HCollection lookup = List.lookupOf(c);
+        return new HPredicate() {
+            @Override
+            public boolean test(Object o) {
+                return lookup.contains(o) == contained;
+            }
+        };
+    }
+
+    private static Object[] without(Object[] a, int from, int to) {
+        Object[] res = new Object[a.length - (to - from)];
+        System.arraycopy(a, 0, res, 0, from);
+        System.arraycopy(a, to, res, from, a.length - to);
+        return res;
+    }
+
+    private static int indexOf(Object[] a, Object o, int from, int to) {
+        if(o == null) throw new NullPointerException();
+        for(int i=from; i < to; i++) {
+            if(o.equals(a[i])) return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(Object[] a, Object o, int from, int to) {
+        if(o == null) throw new NullPointerException();
+        for(int i=to-1; i >= from; i--) {
+            if(o.equals(a[i])) return i;
+        }
+        return -1;
+    }
+
+    private static boolean equals(Object[] a, int from, int to, HList other) {
+        if(other.size() != to - from) return false;
+        HIterator it = other.iterator();
+        for(int i=from; i < to; i++) {
+            if(!it.hasNext() || !a[i].equals(it.next())) return false;
+        }
+        return !it.hasNext();
+    }
+
+    private static int hashCode(Object[] a, int from, int to) {
+        int hashCode = 1;
+        for(int i=from; i < to; i++) hashCode = 31 * hashCode + a[i].hashCode();
+        return hashCode;
+    }
+
+    private static Object[] toArray(Object[] a, int from, int to, Object[] dest) {
+        if(dest == null) throw new NullPointerException();
+        Object[] res = dest.length >= to - from ? dest : new Object[to - from];
+        System.arraycopy(a, from, res, 0, to - from);
+        return res;
+    }
+
+    /**
+     * SubList inner class.
+     * The view holds its offset in the list and its size, which is updated
+     * by the modifications made through it and through its own sublists.
+     */
+    class SubList implements HList {
+
+        private final SubList parent;
+        private final int offset;
+        private int size;
+
+        SubList(SubList parent, int offset, int size) {
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        /**
+         * Returns the current snapshot of the list, checking that it still
+         * contains the range of this view.
+         */
+        private Object[] snapshot() {
+            Object[] a = array;
+            if(offset + size > a.length) throw new IndexOutOfBoundsException();
+            return a;
+        }
+
+        private void resize(int delta) {
+            for(SubList s = this; s != null; s = s.parent) s.size += delta;
+        }
+
+        @Override
+        public boolean add(Object o) {
+            add(size, o);
+            return true;
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            if(index < 0 || index > size) throw new IndexOutOfBoundsException();
+            CopyOnWriteList.this.add(offset + index, element);
+            resize(1);
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(int index, HCollection c) {
+            if(c == null) throw new NullPointerException();
+            if(index < 0 || index > size) throw new IndexOutOfBoundsException();
+            Object[] added = c.toArray();
+            boolean res = insert(offset + index, added);
+            resize(added.length);
+            return res;
+        }
+
+        @Override
+        public void clear() {
+            removeRange(offset, offset + size);
+            resize(-size);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            Object[] a = snapshot();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(CopyOnWriteList.indexOf(a, it.next(), offset, offset + size) < 0) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(o == this) return true;
+            if(!(o instanceof HList)) return false;
+            return CopyOnWriteList.equals(snapshot(), offset, offset + size, (HList) o);
+        }
+
+        @Override
+        public Object get(int index) {
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            return snapshot()[offset + index];
+        }
+
+        @Override
+        public int hashCode() {
+            return CopyOnWriteList.hashCode(snapshot(), offset, offset + size);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            int index = CopyOnWriteList.indexOf(snapshot(), o, offset, offset + size);
+            return index < 0 ? -1 : index - offset;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public HIterator iterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            int index = CopyOnWriteList.lastIndexOf(snapshot(), o, offset, offset + size);
+            return index < 0 ? -1 : index - offset;
+        }
+
+        @Override
+        public HListIterator listIterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public HListIterator listIterator(int index) {
+            if(index < 0 || index > size) throw new IndexOutOfBoundsException();
+            return new ArrayIterator(snapshot(), offset, index, offset + size);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(removeFirst(o, offset, offset + size) < 0) return false;
+            resize(-1);
+            return true;
+        }
+
+        @Override
+        public Object remove(int index) {
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            Object old = CopyOnWriteList.this.remove(offset + index);
+            resize(-1);
+            return old;
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            return removeIf(containedIn(c, true));
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            return removeIf(containedIn(c, false));
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            Object[] a = snapshot();
+            for(int i=offset; i < offset + size; i++) action.accept(a[i]);
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            int removed = removeMatching(offset, offset + size, filter);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public void replaceAll(HUnaryOperator operator) {
+            if(operator == null) throw new NullPointerException();
+            replaceRange(offset, offset + size, operator);
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            return CopyOnWriteList.this.set(offset + index, element);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public HList subList(int fromIndex, int toIndex) {
+            if(fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+            return new SubList(this, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(snapshot(), offset, offset + size);
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            return CopyOnWriteList.toArray(snapshot(), offset, offset + size, a);
+        }
+
+        @Override
+        public String toString() {
+            Object[] a = snapshot();
+            String res = "";
+            for(int i=offset; i < offset + size; i++) res += a[i].toString() + " ";
+            return res;
+        }
+
+    }
+
+}
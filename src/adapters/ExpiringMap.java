@@ -0,0 +1,766 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import interfaces.HTicker;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the HMap interface whose mappings expire after a fixed
+ * time since they were last written, since they were last read, or both.
+ * The mappings are stored in a Map, from each key to a node which holds the
+ * value, the time of the last write and the expiration time of the mapping;
+ * the nodes are also scheduled in a TimerWheel, by their expiration time.
+ *
+ * An expired mapping is invisible as soon as it expires: get, containsKey,
+ * put and remove compare the expiration time of the node they look up with
+ * the current time, and remove the node if it has expired. The other expired
+ * mappings are removed by the wheel, without any scan of the map: every
+ * operation reads the time and advances the wheel, which empties the buckets
+ * whose span has elapsed. Most of the times no span has elapsed and this
+ * costs a comparison; otherwise the work is proportional to the number of
+ * nodes which expired or moved to a finer level of the wheel. size, isEmpty,
+ * the bulk operations and the views also visit the nodes which expire in the
+ * current second, so that they never see an expired mapping.
+ *
+ * The views and their iterators show the mappings which were not expired
+ * when the operation (or the iterator) started. Reading a mapping with get
+ * counts as an access, which postpones its expiration if the map expires the
+ * mappings after access; containsKey, the views and the iterators don't.
+ * The times are read from an HTicker, which is System.nanoTime() unless
+ * another one is passed to the constructor. Null keys and null values are
+ * not allowed, and the class is not synchronized.
+ * @author Giacomo Camposampiero
+ */
+public class ExpiringMap implements HMap {
+
+    /**
+     * Longest duration accepted, so that the expiration times can be compared
+     * by their difference (about 146 years).
+     */
+    static final long MAXIMUM_EXPIRY = Long.MAX_VALUE >> 1;
+
+    private static final HTicker SYSTEM_TICKER = new HTicker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Map data = new Map();
+    private final TimerWheel wheel;
+    private final HTicker ticker;
+    private final long expireAfterWrite;
+    private final long expireAfterAccess;
+    private long expirations;
+
+    /**
+     * Constructor.
+     * This constructor will initialize a new empty map, which reads the time
+     * from System.nanoTime().
+     * @param expireAfterWrite nanoseconds after the last write of a mapping
+     *        when it expires, or 0 if the writes don't make mappings expire
+     * @param expireAfterAccess nanoseconds after the last read or write of a
+     *        mapping when it expires, or 0 if the reads don't postpone the
+     *        expiration of the mappings
+     * @throws IllegalArgumentException if a duration is negative, or if both
+     *         are 0
+     */
+    public ExpiringMap(long expireAfterWrite, long expireAfterAccess) {
+        this(expireAfterWrite, expireAfterAccess, SYSTEM_TICKER);
+    }
+
+    /**
+     * Constructor.
+     * This constructor will initialize a new empty map, which reads the time
+     * from the given ticker.
+     * @param expireAfterWrite nanoseconds after the last write of a mapping
+     *        when it expires, or 0 if the writes don't make mappings expire
+     * @param expireAfterAccess nanoseconds after the last read or write of a
+     *        mapping when it expires, or 0 if the reads don't postpone the
+     *        expiration of the mappings
+     * @param ticker source of the time of the map
+     * @throws IllegalArgumentException if a duration is negative, or if both
+     *         are 0
+     * @throws NullPointerException if the ticker is null
+     */
+    public ExpiringMap(long expireAfterWrite, long expireAfterAccess, HTicker ticker) {
+        if(ticker == null) throw new NullPointerException();
+        if(expireAfterWrite < 0 || expireAfterAccess < 0) throw new IllegalArgumentException();
+        if(expireAfterWrite == 0 && expireAfterAccess == 0) throw new IllegalArgumentException();
+        this.expireAfterWrite = Math.min(expireAfterWrite, MAXIMUM_EXPIRY);
+        this.expireAfterAccess = Math.min(expireAfterAccess, MAXIMUM_EXPIRY);
+        this.ticker = ticker;
+        wheel = new TimerWheel(ticker.read());
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     * The mappings removed are not counted as expired.
+     */
+    @Override
+    public void clear() {
+        data.clear();
+        wheel.clear();
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key which
+     * has not expired. The call doesn't count as an access to the mapping.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if(key == null) throw new NullPointerException();
+        long now = advance();
+        Node n = (Node) data.get(key);
+        if(n == null) return false;
+        if(n.time - now <= 0) {
+            expire(n);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        cleanUp();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            if(value.equals(((Node) it.next()).value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a Set view of the mappings contained in this map.
+     * The set is backed by the map, so changes to the map are reflected in
+     * the set, and vice-versa; the setValue operation of its entries writes
+     * through to the map, and counts as a write of the mapping.
+     *
+     * The set supports element removal, which removes the corresponding
+     * mapping from the map, via the Iterator.remove, Set.remove, removeAll,
+     * retainAll and clear operations. It does not support the add or addAll
+     * operations.
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(!(obj instanceof HMap)) return false;
+        HMap other = (HMap) obj;
+        if(other.size() != size()) return false;
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            if(!n.value.equals(other.get(n.key))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key or if the mapping has expired.
+     * The call counts as an access to the mapping.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null if this
+     *         map contains no mapping for the key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object get(Object key) {
+        if(key == null) throw new NullPointerException();
+        long now = advance();
+        Node n = (Node) data.get(key);
+        if(n == null) return null;
+        if(n.time - now <= 0) {
+            expire(n);
+            return null;
+        }
+        if(expireAfterAccess > 0) {
+            n.time = expirationTime(n, now);
+            wheel.schedule(n);
+        }
+        return n.value;
+    }
+
+    /**
+     * Returns the hash code value for this map, which is the sum of the hash
+     * codes of its entries.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        cleanUp();
+        int hash = 0;
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            hash += n.key.hashCode() ^ n.value.hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     * The set is backed by the map, as the one returned by entrySet().
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public HSet keySet() {
+        return new ElementSet(true);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map, and
+     * schedules the expiration of the mapping. If the map previously contained
+     * a mapping for the key which had not expired, the old value is replaced.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key
+     * @throws NullPointerException if the specified key or value is null
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        long now = advance();
+        Node n = (Node) data.get(key);
+        if(n != null) {
+            if(n.time - now > 0) {
+                Object old = n.value;
+                write(n, value, now);
+                return old;
+            }
+            expire(n);
+        }
+        n = new Node(key);
+        data.put(key, n);
+        write(n, value, now);
+        return null;
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map, one at a
+     * time.
+     * @param t mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     * @throws NullPointerException if the specified map contains null keys or values
+     */
+    @Override
+    public void putAll(HMap t) {
+        if(t == null) throw new NullPointerException();
+        HIterator it = t.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key or if it had expired.
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object remove(Object key) {
+        if(key == null) throw new NullPointerException();
+        long now = advance();
+        Node n = (Node) data.get(key);
+        if(n == null) return null;
+        if(n.time - now <= 0) {
+            expire(n);
+            return null;
+        }
+        removeNode(n);
+        return n.value;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map which have not
+     * expired. The expired ones are removed first.
+     * @return the number of key-value mappings in this map
+     */
+    @Override
+    public int size() {
+        cleanUp();
+        return data.size();
+    }
+
+    /**
+     * Returns a Collection view of the values contained in this map.
+     * The collection is backed by the map, as the one returned by entrySet().
+     * @return a collection view of the values contained in this map
+     */
+    @Override
+    public HCollection values() {
+        return new ElementSet(false);
+    }
+
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        cleanUp();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            action.accept(n.key, n.value);
+        }
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the given
+     * function on its key and value. Each replacement counts as a write of
+     * the mapping.
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the function is null, or if it returns null
+     */
+    @Override
+    public void replaceAll(HBiFunction function) {
+        if(function == null) throw new NullPointerException();
+        cleanUp();
+        long now = wheel.time();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object value = function.apply(n.key, n.value);
+            if(value == null) throw new NullPointerException();
+            write(n, value, now);
+        }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        cleanUp();
+        String res = "";
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            res += n.key.toString() + "=" + n.value.toString() + " ";
+        }
+        return res;
+    }
+
+    /**
+     * Returns the number of mappings removed because they expired.
+     * @return the number of expired mappings
+     */
+    public long expirationCount() {
+        return expirations;
+    }
+
+    /**
+     * Removes all the mappings which have expired. The map does it on its own
+     * at every operation; the method is useful to release the expired mappings
+     * of a map which is not used for a while.
+     */
+    public void cleanUp() {
+        advance();
+        removeExpired(wheel.expireCurrent(null));
+    }
+
+    /**
+     * Reads the time and advances the wheel to it, removing the mappings
+     * which expired in the buckets whose span has elapsed.
+     * @return the current time
+     */
+    private long advance() {
+        long now = ticker.read();
+        removeExpired(wheel.advance(now));
+        return now;
+    }
+
+    private void removeExpired(TimerWheel.Node expired) {
+        while(expired != null) {
+            Node n = (Node) expired;
+            expired = n.nextExpired;
+            n.nextExpired = null;
+            data.remove(n.key);
+            expirations++;
+        }
+    }
+
+    private void expire(Node n) {
+        removeNode(n);
+        expirations++;
+    }
+
+    void removeNode(Node n) {
+        data.remove(n.key);
+        wheel.deschedule(n);
+    }
+
+    /**
+     * Stores the value in the node and schedules it again, as written at the
+     * given time.
+     */
+    private void write(Node n, Object value, long now) {
+        n.value = value;
+        n.written = now;
+        n.time = expirationTime(n, now);
+        wheel.schedule(n);
+    }
+
+    /**
+     * Returns the time when the node expires, if it's accessed now.
+     */
+    private long expirationTime(Node n, long now) {
+        if(expireAfterAccess == 0) return n.written + expireAfterWrite;
+        long time = now + expireAfterAccess;
+        if(expireAfterWrite > 0 && n.written + expireAfterWrite - time < 0) return n.written + expireAfterWrite;
+        return time;
+    }
+
+    /**
+     * Mapping of the map, scheduled in the wheel by its expiration time.
+     */
+    static final class Node extends TimerWheel.Node {
+
+        final Object key;
+        Object value;
+        long written;
+
+        Node(Object key) {
+            this.key = key;
+        }
+
+    }
+
+    public class MapEntry implements HMap.Entry {
+
+        private final Node node;
+        private Object value;
+
+        public MapEntry(Node node) {
+            this.node = node;
+            this.value = node.value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return node.key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public Object getKey() {
+            return node.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value corresponding to this entry with the specified
+         * value, writing it through to the map if the mapping is still in it.
+         * The call counts as a write of the mapping, but it doesn't advance
+         * the wheel, so that it can be used while iterating over the map.
+         * @param value new value to be stored in this entry
+         * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
+         */
+        @Override
+        public Object setValue(Object value) {
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            this.value = value;
+            if(data.get(node.key) == node) {
+                long now = ticker.read();
+                // the node must expire after the time of the wheel
+                if(now - wheel.time() < 0) now = wheel.time();
+                write(node, value, now);
+            }
+            return old;
+        }
+
+        @Override
+        public int hashCode() {
+            return node.key.hashCode() ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * Iterator over the elements of a view, which walks the nodes of the map
+     * after the expired ones have been removed.
+     */
+    class ExpiringIterator implements HIterator {
+
+        private final HIterator nodes;
+        private final int kind;
+        private Node lastReturned;
+
+        ExpiringIterator(int kind) {
+            cleanUp();
+            this.nodes = data.values().iterator();
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nodes.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if(!nodes.hasNext()) throw new NoSuchElementException();
+            lastReturned = (Node) nodes.next();
+            return element(lastReturned, kind);
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            nodes.remove();
+            wheel.deschedule(lastReturned);
+            lastReturned = null;
+        }
+
+    }
+
+    private Object element(Node n, int kind) {
+        if(kind == Map.KEYS) return n.key;
+        if(kind == Map.VALUES) return n.value;
+        return new MapEntry(n);
+    }
+
+    /**
+     * Common behaviour of the views of the map.
+     */
+    abstract class View implements HSet {
+
+        abstract int kind();
+
+        @Override
+        public boolean add(Object e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            ExpiringMap.this.clear();
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            if (other.size() != size()) return false;
+            return containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ExpiringMap.this.isEmpty();
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new ExpiringIterator(kind());
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(!c.contains(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return ExpiringMap.this.size();
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            HIterator it = iterator();
+            while(it.hasNext()) action.accept(it.next());
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(filter.test(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return snapshot().toArray();
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            return snapshot().toArray(a);
+        }
+
+        private List snapshot() {
+            List res = new List();
+            HIterator it = iterator();
+            while(it.hasNext()) res.add(it.next());
+            return res;
+        }
+
+    }
+
+    class EntrySet extends View {
+
+        @Override
+        int kind() {
+            return Map.ENTRIES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            if(entry.getKey() == null || !containsKey(entry.getKey())) return false;
+            return ((Node) data.get(entry.getKey())).value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!contains(o)) return false;
+            removeNode((Node) data.get(((HMap.Entry) o).getKey()));
+            return true;
+        }
+
+    }
+
+    class ElementSet extends View {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementSet(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        int kind() {
+            return type ? Map.KEYS : Map.VALUES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return containsKey(o);
+            return containsValue(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return ExpiringMap.this.remove(o) != null;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(o.equals(it.next())) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package adapters;
+
+/**
+ * Approximate counter of the frequency of the keys, used by TinyLfuCache to
+ * decide which keys deserve a place in the cache.
+ * The sketch is a count-min sketch of 4-bit counters, sixteen in each long:
+ * every key increments one counter in each of four rows (a row being a group
+ * of four counters of the same long), and its frequency is estimated as the
+ * minimum of the four counters. The counters saturate at 15.
+ *
+ * The frequencies age: after a number of increments equal to ten times the
+ * maximum size of the cache, all the counters are halved, so that keys which
+ * were popular in the past and aren't anymore lose their advantage.
+ *
+ * The sketch isn't thread-safe: the cache uses it under its eviction lock.
+ * @author Giacomo Camposampiero
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor.
+     * @param maximumSize maximum number of keys of the cache, greater than zero
+     */
+    FrequencySketch(int maximumSize) {
+        int length = 1;
+        while(length < maximumSize && length < (1 << 30)) length <<= 1;
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = maximumSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : 10 * maximumSize;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the key, at most 15.
+     * @param key key whose frequency has to be estimated
+     * @return the estimated frequency of the key
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = 15;
+        for(int i=0; i < 4; i++) {
+            int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+            if(count < frequency) frequency = count;
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the counters of the key, and halves all the counters when
+     * the sample period has elapsed.
+     * @param key key which has been accessed
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for(int i=0; i < 4; i++) added |= incrementAt(indexOf(hash, i), start + i);
+        if(added && ++additions == sampleSize) reset();
+    }
+
+    /**
+     * Increments the counter at the specified offset of a long, unless it's
+     * saturated.
+     * @return true if the counter has been incremented
+     */
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if((table[index] & mask) == mask) return false;
+        table[index] += 1L << offset;
+        return true;
+    }
+
+    /**
+     * Halves all the counters. The increments lost by the truncation (one for
+     * every odd counter, counted four times per key) are subtracted from the
+     * number of additions.
+     */
+    private void reset() {
+        int odd = 0;
+        for(int i=0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int h) {
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+
+}
@@ -0,0 +1,204 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HPredicate;
+
+/**
+ * Common behaviour of the immutable collections: ImmutableList, ImmutableSet
+ * and the views of ImmutableMap.
+ * The elements are stored in an array of exactly size() cells, which is
+ * never modified after the construction, and the hash code of the collection
+ * is computed once by the constructor of the subclass. The reads don't
+ * acquire any lock, and every operation which would modify the collection
+ * throws UnsupportedOperationException, even when it would leave it unchanged.
+ * @author Giacomo Camposampiero
+ */
+abstract class ImmutableCollection implements HCollection {
+
+    final Object[] elements;
+    final int hash;
+
+    ImmutableCollection(Object[] elements, int hash) {
+        this.elements = elements;
+        this.hash = hash;
+    }
+
+    @Override
+    public boolean add(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        HIterator it = c.iterator();
+        while(it.hasNext()) {
+            if(!contains(it.next())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this collection, computed when it was
+     * created.
+     * @return the hash code value for this collection.
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements of this collection, which does
+     * not support the remove operation.
+     * @return an iterator over the elements of this collection
+     */
+    @Override
+    public HIterator iterator() {
+        return new ArrayIterator(elements, 0, 0, elements.length);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    @Override
+    public Object[] toArray(Object[] a) {
+        if(a == null) throw new NullPointerException();
+        Object[] res = a.length >= elements.length ? a : new Object[elements.length];
+        System.arraycopy(elements, 0, res, 0, elements.length);
+        if(res.length > elements.length) res[elements.length] = null;
+        return res;
+    }
+
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        for(int i=0; i < elements.length; i++) action.accept(elements[i]);
+    }
+
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        for(int i=0; i < elements.length; i++) res += elements[i].toString() + " ";
+        return res;
+    }
+
+    /**
+     * Returns a copy of the elements of the collection, checking that none of
+     * them is null.
+     * @param c collection to be copied
+     * @return an array with the elements of c
+     * @throws NullPointerException if c is null or contains null elements
+     */
+    static Object[] copyElements(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        Object[] a = c.toArray();
+        for(int i=0; i < a.length; i++) {
+            if(a[i] == null) throw new NullPointerException();
+        }
+        return a;
+    }
+
+    /**
+     * Returns the capacity of the index of a hashed collection of n elements:
+     * the smallest power of two which is at least twice n, so that the probe
+     * sequences stay short.
+     * @param n number of elements
+     * @return the number of slots of the index
+     */
+    static int indexCapacity(int n) {
+        int capacity = 1;
+        while(capacity < 2 * n) capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Inserts keys[n] in the index, unless an equal key is already indexed
+     * among keys[0, n). The index is an open-addressing table with linear
+     * probing, whose slots hold the position of a key plus one (0 for a free
+     * slot).
+     * @param slots index of the keys
+     * @param keys keys of the collection
+     * @param n position of the key to be inserted
+     * @return false if an equal key is already indexed
+     */
+    static boolean index(int[] slots, Object[] keys, int n) {
+        Object key = keys[n];
+        int mask = slots.length - 1;
+        for(int i = Set.hash(key) & mask;; i = (i + 1) & mask) {
+            int s = slots[i];
+            if(s == 0) {
+                slots[i] = n + 1;
+                return true;
+            }
+            if(keys[s - 1].equals(key)) return false;
+        }
+    }
+
+    /**
+     * Looks a key up in an index built by index(int[], Object[], int).
+     * @param slots index of the keys
+     * @param keys keys of the collection
+     * @param key key to look for
+     * @return the position of the key, or -1 if it's not in the collection
+     * @throws NullPointerException if the key is null
+     */
+    static int lookup(int[] slots, Object[] keys, Object key) {
+        int mask = slots.length - 1;
+        for(int i = Set.hash(key) & mask;; i = (i + 1) & mask) {
+            int s = slots[i];
+            if(s == 0) return -1;
+            Object k = keys[s - 1];
+            if(k == key || k.equals(key)) return s - 1;
+        }
+    }
+
+}
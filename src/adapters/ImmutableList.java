@@ -0,0 +1,188 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HUnaryOperator;
+
+/**
+ * Immutable implementation of the HList interface.
+ * The elements are stored in an array of exactly size() cells and the hash
+ * code is computed when the list is created, so the list takes less memory
+ * than a List of the same elements and hashCode runs in constant time. The
+ * reads don't acquire any lock, so the list can be shared by any number of
+ * threads, and every operation which would modify the list throws
+ * UnsupportedOperationException. Null elements are not allowed.
+ *
+ * Immutable lists are created by List.freeze() or by copyOf(HCollection).
+ * @author Giacomo Camposampiero
+ */
+public final class ImmutableList extends ImmutableCollection implements HList {
+
+    private static final ImmutableList EMPTY = new ImmutableList(new Object[0]);
+
+    /**
+     * Constructor.
+     * This constructor will initialize a list whose elements are the ones of
+     * the given array, which is not copied and must not be modified anymore.
+     * @param elements elements of the list, not null
+     */
+    ImmutableList(Object[] elements) {
+        super(elements, hashCode(elements, 0, elements.length));
+    }
+
+    /**
+     * Returns an immutable list containing the elements of the specified
+     * collection, in the order returned by its iterator. If the collection is
+     * already an ImmutableList it's returned as it is.
+     * @param c collection whose elements are to be placed into the list
+     * @return an immutable list with the elements of c
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    public static ImmutableList copyOf(HCollection c) {
+        if(c instanceof ImmutableList) return (ImmutableList) c;
+        Object[] a = copyElements(c);
+        return a.length == 0 ? EMPTY : new ImmutableList(a);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(int index, HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Compares the specified object with this list for equality.
+     * Returns true if the object is an HList with the same elements in the
+     * same order. Two lists whose hash codes differ are told apart without
+     * visiting them, if the other one is immutable too.
+     * @param o the object to be compared for equality with this list.
+     * @return true if the specified object is equal to this list.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof HList)) return false;
+        HList other = (HList) o;
+        if(other.size() != elements.length) return false;
+        if(other instanceof ImmutableList && other.hashCode() != hash) return false;
+        HIterator it = other.iterator();
+        for(int i=0; i < elements.length; i++) {
+            if(!it.hasNext() || !elements[i].equals(it.next())) return false;
+        }
+        return !it.hasNext();
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of element to return.
+     * @return the element at the specified position in this list.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object get(int index) {
+        if(index < 0 || index >= elements.length) throw new IndexOutOfBoundsException();
+        return elements[index];
+    }
+
+    /**
+     * Returns the index in this list of the first occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the first occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int indexOf(Object o) {
+        if(o == null) throw new NullPointerException();
+        for(int i=0; i < elements.length; i++) {
+            if(o.equals(elements[i])) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index in this list of the last occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the last occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        if(o == null) throw new NullPointerException();
+        for(int i=elements.length-1; i >= 0; i--) {
+            if(o.equals(elements[i])) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public HListIterator listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator over the elements of this list, starting at the
+     * specified position. The iterator does not support the remove, set and
+     * add operations.
+     * @param index index of first element to be returned from the list iterator.
+     * @return a list iterator of the elements in this list, starting at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     */
+    @Override
+    public HListIterator listIterator(int index) {
+        if(index < 0 || index > elements.length) throw new IndexOutOfBoundsException();
+        return new ArrayIterator(elements, 0, index, elements.length);
+    }
+
+    @Override
+    public Object remove(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns an immutable list with the elements of this list between the
+     * specified fromIndex, inclusive, and toIndex, exclusive. The elements
+     * are copied, so that the new list has an exact-size array too.
+     * @param fromIndex low endpoint (inclusive) of the subList.
+     * @param toIndex high endpoint (exclusive) of the subList.
+     * @return an immutable list with the specified range of this list.
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    @Override
+    public HList subList(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || fromIndex > toIndex || toIndex > elements.length) throw new IndexOutOfBoundsException();
+        if(fromIndex == 0 && toIndex == elements.length) return this;
+        Object[] res = new Object[toIndex - fromIndex];
+        System.arraycopy(elements, fromIndex, res, 0, res.length);
+        return new ImmutableList(res);
+    }
+
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    private static int hashCode(Object[] a, int from, int to) {
+        int hashCode = 1;
+        for(int i=from; i < to; i++) hashCode = 31 * hashCode + a[i].hashCode();
+        return hashCode;
+    }
+
+}
@@ -0,0 +1,384 @@
+package adapters;
+
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HSet;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable implementation of the HMap interface.
+ * The keys and the values are stored in two parallel arrays of exactly size()
+ * cells, in the order in which the mappings were returned by the map the
+ * ImmutableMap was copied from, and the keys are indexed by an open-addressing
+ * table of ints with linear probing, which holds their positions in the
+ * arrays. The table has at least twice as many slots as the keys, so a lookup
+ * probes very few slots, and no entry object is stored: the map takes a few
+ * words per mapping, against the entry and the bucket of a Map. The hash
+ * codes of the map and of its key set are computed when the map is created.
+ *
+ * The reads don't acquire any lock, so the map can be shared by any number of
+ * threads, and every operation which would modify the map or one of its views
+ * throws UnsupportedOperationException. keySet() is an ImmutableSet and
+ * values() an ImmutableList sharing the arrays of the map; the entries of
+ * entrySet() are created by its iterator and don't support setValue.
+ * Immutable maps are created by Map.freeze() or by copyOf(HMap). Null keys
+ * and null values are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public final class ImmutableMap implements HMap {
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] slots;
+    private final int hash;
+    private final ImmutableSet keySet;
+    private final ImmutableList valueList;
+
+    /**
+     * Constructor.
+     * This constructor will initialize a map with the given mappings, whose
+     * arrays are not copied, and its keySet() and values() views.
+     */
+    private ImmutableMap(Object[] keys, Object[] values, int[] slots, int hash, int keysHash) {
+        this.keys = keys;
+        this.values = values;
+        this.slots = slots;
+        this.hash = hash;
+        keySet = new ImmutableSet(keys, slots, keysHash);
+        valueList = new ImmutableList(values);
+    }
+
+    /**
+     * Returns an immutable map containing the mappings of the specified map.
+     * If the map is already an ImmutableMap it's returned as it is.
+     * @param m map whose mappings are to be placed into the immutable map
+     * @return an immutable map with the mappings of m
+     * @throws NullPointerException if the map is null or contains null keys or values
+     */
+    public static ImmutableMap copyOf(HMap m) {
+        if(m == null) throw new NullPointerException();
+        if(m instanceof ImmutableMap) return (ImmutableMap) m;
+        // the entries are read from a snapshot, in case the map is concurrently modified
+        Object[] entries = m.entrySet().toArray();
+        Object[] keys = new Object[entries.length];
+        Object[] values = new Object[entries.length];
+        int[] slots = new int[ImmutableCollection.indexCapacity(entries.length)];
+        int n = 0, hash = 0, keysHash = 0;
+        for(int i=0; i < entries.length; i++) {
+            HMap.Entry e = (HMap.Entry) entries[i];
+            Object key = e.getKey(), value = e.getValue();
+            if(key == null || value == null) throw new NullPointerException();
+            keys[n] = key;
+            if(ImmutableCollection.index(slots, keys, n)) {
+                values[n++] = value;
+                hash += key.hashCode() ^ value.hashCode();
+                keysHash += key.hashCode();
+            }
+        }
+        if(n < entries.length) {
+            keys = Arrays.copyOf(keys, n);
+            values = Arrays.copyOf(values, n);
+        }
+        return new ImmutableMap(keys, values, slots, hash, keysHash);
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if(key == null) throw new NullPointerException();
+        return ImmutableCollection.lookup(slots, keys, key) >= 0;
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        for(int i=0; i < values.length; i++) {
+            if(value.equals(values[i])) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns an immutable Set view of the mappings contained in this map.
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(!(obj instanceof HMap)) return false;
+        HMap other = (HMap) obj;
+        if(other.size() != keys.length) return false;
+        if(other instanceof ImmutableMap && other.hashCode() != hash) return false;
+        for(int i=0; i < keys.length; i++) {
+            if(!values[i].equals(other.get(keys[i]))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object get(Object key) {
+        if(key == null) throw new NullPointerException();
+        int index = ImmutableCollection.lookup(slots, keys, key);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * Returns the hash code value for this map, computed when it was created.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Returns the keys of this map, as an ImmutableSet sharing the array and
+     * the index of the map.
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public HSet keySet() {
+        return keySet;
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(HMap t) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the values of this map, as an ImmutableList sharing the array
+     * of the map, in the same order as the keys of keySet().
+     * @return a collection view of the values contained in this map
+     */
+    @Override
+    public HCollection values() {
+        return valueList;
+    }
+
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        for(int i=0; i < keys.length; i++) action.accept(keys[i], values[i]);
+    }
+
+    @Override
+    public void replaceAll(HBiFunction function) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        for(int i=0; i < keys.length; i++) res += keys[i].toString() + "=" + values[i].toString() + " ";
+        return res;
+    }
+
+    /**
+     * Immutable mapping returned by the iterator of entrySet().
+     */
+    public static final class MapEntry implements HMap.Entry {
+
+        private final Object key;
+        private final Object value;
+
+        MapEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * Set of the mappings of the map. It has no elements array: its entries
+     * are created on the fly from the arrays of the map, so every method of
+     * ImmutableCollection which reads the elements is overridden.
+     */
+    class EntrySet extends ImmutableCollection implements HSet {
+
+        EntrySet() {
+            super(null, ImmutableMap.this.hash);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) return false;
+            HMap.Entry entry = (HMap.Entry) o;
+            Object value = entry.getKey() == null ? null : get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(o == this) return true;
+            if(!(o instanceof HSet)) return false;
+            HSet other = (HSet) o;
+            return other.size() == keys.length && containsAll(other);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new HIterator() {
+                private int cursor;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < keys.length;
+                }
+
+                @Override
+                public Object next() {
+                    if(cursor >= keys.length) throw new NoSuchElementException();
+                    MapEntry e = new MapEntry(keys[cursor], values[cursor]);
+                    cursor++;
+                    return e;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return entries();
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            Object[] res = a.length >= keys.length ? a : new Object[keys.length];
+            for(int i=0; i < keys.length; i++) res[i] = new MapEntry(keys[i], values[i]);
+            if(res.length > keys.length) res[keys.length] = null;
+            return res;
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=0; i < keys.length; i++) action.accept(new MapEntry(keys[i], values[i]));
+        }
+
+        @Override
+        public String toString() {
+            return ImmutableMap.this.toString();
+        }
+
+        private Object[] entries() {
+            Object[] res = new Object[keys.length];
+            for(int i=0; i < keys.length; i++) res[i] = new MapEntry(keys[i], values[i]);
+            return res;
+        }
+
+    }
+
+}
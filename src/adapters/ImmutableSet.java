@@ -0,0 +1,93 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HSet;
+import java.util.Arrays;
+
+/**
+ * Immutable implementation of the HSet interface.
+ * The elements are stored in an array of exactly size() cells, in the order
+ * in which they were returned by the collection the set was copied from, and
+ * they are indexed by an open-addressing table of ints with linear probing,
+ * which holds the positions of the elements in the array. The table has at
+ * least twice as many slots as the elements, so a lookup probes very few
+ * slots, and each slot takes four bytes instead of a reference and an entry
+ * object. The hash code of the set is computed when the set is created.
+ *
+ * The reads don't acquire any lock, so the set can be shared by any number
+ * of threads, and every operation which would modify the set throws
+ * UnsupportedOperationException. Null elements are not allowed.
+ * Immutable sets are created by Set.freeze() or by copyOf(HCollection), and
+ * the keySet() view of an ImmutableMap is an ImmutableSet too.
+ * @author Giacomo Camposampiero
+ */
+public final class ImmutableSet extends ImmutableCollection implements HSet {
+
+    private final int[] slots;
+
+    /**
+     * Constructor.
+     * This constructor will initialize a set whose elements are the ones of
+     * the given array, indexed by slots; neither of them is copied.
+     * @param elements distinct elements of the set, not null
+     * @param slots index of the elements
+     * @param hash sum of the hash codes of the elements
+     */
+    ImmutableSet(Object[] elements, int[] slots, int hash) {
+        super(elements, hash);
+        this.slots = slots;
+    }
+
+    /**
+     * Returns an immutable set containing the distinct elements of the
+     * specified collection. If the collection is already an ImmutableSet it's
+     * returned as it is.
+     * @param c collection whose elements are to be placed into the set
+     * @return an immutable set with the elements of c
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    public static ImmutableSet copyOf(HCollection c) {
+        if(c instanceof ImmutableSet) return (ImmutableSet) c;
+        Object[] a = copyElements(c);
+        int[] slots = new int[indexCapacity(a.length)];
+        int n = 0, hash = 0;
+        for(int i=0; i < a.length; i++) {
+            // the distinct elements are compacted at the beginning of the array
+            a[n] = a[i];
+            if(index(slots, a, n)) hash += a[n++].hashCode();
+        }
+        if(n < a.length) a = Arrays.copyOf(a, n);
+        return new ImmutableSet(a, slots, hash);
+    }
+
+    /**
+     * Returns true if this set contains the specified element.
+     * @param o element whose presence in this set is to be tested.
+     * @return true if this set contains the specified element.
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public boolean contains(Object o) {
+        if(o == null) throw new NullPointerException();
+        return lookup(slots, elements, o) >= 0;
+    }
+
+    /**
+     * Compares the specified object with this set for equality.
+     * Returns true if the object is an HSet with the same elements. Two sets
+     * whose hash codes differ are told apart without visiting them, if the
+     * other one is immutable too.
+     * @param o the object to be compared for equality with this set.
+     * @return true if the specified object is equal to this set.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof HSet)) return false;
+        HSet other = (HSet) o;
+        if(other.size() != elements.length) return false;
+        if(other instanceof ImmutableSet && other.hashCode() != hash) return false;
+        return containsAll(other);
+    }
+
+}
@@ -0,0 +1,1035 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIntIterator;
+import interfaces.HIntList;
+import interfaces.HIntListIterator;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of HIntList interface.
+ * The elements are stored in a growable int[] array, so that the list holds 
+ * the numbers themselves instead of references to Integer objects: reads are 
+ * plain array loads and no wrapper is allocated when elements are added.
+ * The capacity of the array is doubled every time the list needs to grow.
+ * 
+ * The asList() method returns a HList view of the list, which boxes the 
+ * elements on demand, for the code that needs to handle the list as a 
+ * collection of objects.
+ * @author Giacomo Camposampiero
+ */
+public class IntList implements HIntList {
+
+    /**
+     * Default capacity of the backing array.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private int[] elements;
+    private int size;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty list.
+     */
+    public IntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with initial capacity.
+     * This constructor will initialize a new empty list, whose backing array 
+     * is able to store the specified number of elements without growing.
+     * @param initialCapacity initial capacity of the list
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntList(int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException();
+        elements = new int[initialCapacity];
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     * @param value element to be appended to this list
+     * @return true
+     */
+    @Override
+    public boolean add(int value) {
+        if (size == elements.length) grow(size + 1);
+        elements[size++] = value;
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right (adds one to their indices). 
+     * @param index index at which the specified element is to be inserted.
+     * @param value element to be inserted. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     */
+    @Override
+    public void add(int index, int value) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        insert(index, value);
+    }
+
+    /**
+     * Appends all of the elements in the specified list to the end of this list.
+     * @param c elements to be inserted into this list.
+     * @return true if this list changed as a result of the call. 
+     * @throws NullPointerException if the specified list is null
+     */
+    @Override
+    public boolean addAll(HIntList c) {
+        return addAll(size, c);
+    }
+
+    /**
+     * Inserts all of the elements in the specified list into this list at the
+     * specified position. The tail of this list is shifted only once.
+     * @param index index at which to insert first element from the specified list.
+     * @param c elements to be inserted into this list.
+     * @return true if this list changed as a result of the call. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the specified list is null
+     */
+    @Override
+    public boolean addAll(int index, HIntList c) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        int[] values = c.toArray();
+        insertAll(index, values);
+        return values.length > 0;
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns true if this list contains the specified element.
+     * @param value element whose presence in this list is to be tested. 
+     * @return true if this list contains the specified element. 
+     */
+    @Override
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Compares the specified object with this list for equality.
+     * Returns true if the specified object is also a HIntList with the same
+     * elements in the same order.
+     * @param o the object to be compared for equality with this list. 
+     * @return true if the specified object is equal to this list.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof HIntList)) {
+            return false;
+        }
+        HIntList other = (HIntList) o;
+        if (other.size() != size) {
+            return false;
+        }
+        for (int i=0; i < size; i++) {
+            if (elements[i] != other.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of element to return. 
+     * @return the element at the specified position in this list. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        return elements[index];
+    }
+
+    /**
+     * Returns the hash code value for this list, which equals the hash code 
+     * of a List containing the same elements as Integer objects.
+     * @return the hash code value for this list.
+     */
+    @Override
+    public int hashCode() {
+        return hash(elements, 0, size);
+    }
+
+    /**
+     * Returns the index in this list of the first occurrence of the specified 
+     * element, or -1 if this list does not contain this element.
+     * @param value element to search for.     
+     * @return the index of the first occurrence of the element, or -1
+     */
+    @Override
+    public int indexOf(int value) {
+        for (int i=0; i < size; i++) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if this list contains no elements.
+     * @return true if this list contains no elements.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     * @return an iterator over the elements in this list.
+     */
+    @Override
+    public HIntIterator iterator() {
+        return new IntListIterator(null, 0, 0, size);
+    }
+
+    /**
+     * Returns the index in this list of the last occurrence of the specified 
+     * element, or -1 if this list does not contain this element.
+     * @param value element to search for. 
+     * @return the index of the last occurrence of the element, or -1
+     */
+    @Override
+    public int lastIndexOf(int value) {
+        for (int i=size-1; i >= 0; i--) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a list iterator of the elements in this list (in proper sequence).
+     * @return a list iterator of the elements in this list.
+     */
+    @Override
+    public HIntListIterator listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator of the elements in this list (in proper sequence),
+     * starting at the specified position in this list.
+     * @param index index of first element to be returned from the list iterator.
+     * @return a list iterator of the elements in this list.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     */
+    @Override
+    public HIntListIterator listIterator(int index) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        return new IntListIterator(null, 0, index, size);
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     * Shifts any subsequent elements to the left (subtracts one from their indices).
+     * @param index the index of the element to removed.   
+     * @return the element previously at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public int removeAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        int old = elements[index];
+        removeRange(index, index + 1);
+        return old;
+    }
+
+    /**
+     * Removes the first occurrence in this list of the specified element, if 
+     * it is present.
+     * @param value element to be removed from this list, if present. 
+     * @return true if this list contained the specified element. 
+     */
+    @Override
+    public boolean removeValue(int value) {
+        int index = indexOf(value);
+        if (index < 0) return false;
+        removeRange(index, index + 1);
+        return true;
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the 
+     * specified element.
+     * @param index index of element to replace.
+     * @param value element to be stored at the specified position. 
+     * @return the element previously at the specified position. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public int set(int index, int value) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        int old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     * @return the number of elements in this list.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified 
+     * fromIndex, inclusive, and toIndex, exclusive.
+     * The returned list is backed by this list, and structural modifications 
+     * performed through it are reflected in this list and in the sublists it 
+     * has been obtained from. Its semantics become undefined if this list is
+     * structurally modified in any other way.
+     * @param fromIndex low endpoint (inclusive) of the subList.
+     * @param toIndex high endpoint (exclusive) of the subList. 
+     * @return a view of the specified range within this list. 
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    @Override
+    public HIntList subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        return new SubList(null, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this list in proper 
+     * sequence. The returned array is a copy of the backing array.
+     * @return an array containing all of the elements in this list.
+     */
+    @Override
+    public int[] toArray() {
+        int[] res = new int[size];
+        System.arraycopy(elements, 0, res, 0, size);
+        return res;
+    }
+
+    /**
+     * Returns a HList view of this list, which boxes the elements in Integer
+     * objects when they are read and unboxes them when they are written.
+     * @return a HList view of this list
+     */
+    @Override
+    public HList asList() {
+        return new ListView(this);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        for (int i=0; i < size; i++) res += elements[i] + " ";
+        return res;
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it can 
+     * hold at least the number of elements specified by the minimum capacity 
+     * argument without growing.
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) grow(minCapacity);
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            int[] trimmed = new int[size];
+            System.arraycopy(elements, 0, trimmed, 0, size);
+            elements = trimmed;
+        }
+    }
+
+    /**
+     * Computes the hash code of a range of elements as List.hashCode() would 
+     * do on the corresponding Integer objects.
+     */
+    private static int hash(int[] elements, int from, int to) {
+        int hashCode = 1;
+        for (int i=from; i < to; i++) {
+            int e = elements[i];
+            hashCode = 31 * hashCode + e;
+        }
+        return hashCode;
+    }
+
+    /**
+     * Grows the backing array, doubling its capacity, so that it can contain 
+     * at least the specified number of elements.
+     * @param minCapacity the desired minimum capacity
+     */
+    private void grow(int minCapacity) {
+        int capacity = elements.length + Math.max(elements.length, 1);
+        if (capacity < minCapacity) capacity = minCapacity;
+        int[] grown = new int[capacity];
+        System.arraycopy(elements, 0, grown, 0, size);
+        elements = grown;
+    }
+
+    /**
+     * Inserts the element at the specified position, shifting the tail of the
+     * list to the right. Parameters are not checked.
+     */
+    private void insert(int index, int value) {
+        if (size == elements.length) grow(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+    }
+
+    /**
+     * Inserts the elements at the specified position, shifting the tail of the
+     * list to the right only once. Parameters are not checked.
+     */
+    private void insertAll(int index, int[] values) {
+        int n = values.length;
+        if (n == 0) return;
+        if (size + n > elements.length) grow(size + n);
+        System.arraycopy(elements, index, elements, index + n, size - index);
+        System.arraycopy(values, 0, elements, index, n);
+        size += n;
+    }
+
+    /**
+     * Removes the elements in the range [from, to), shifting the tail of the
+     * list to the left. Parameters are not checked.
+     */
+    private void removeRange(int from, int to) {
+        System.arraycopy(elements, to, elements, from, size - to);
+        size -= to - from;
+    }
+
+    /**
+     * Removes, from the elements with index in [from, to), those whose boxed
+     * value satisfies the specified predicate. The predicate is first 
+     * evaluated on all the elements, recording the matches in a bit set, so 
+     * that an exception thrown by it leaves the list unchanged; then the 
+     * retained elements are compacted towards from in place, and the tail of
+     * the list is moved only once. Parameters are not checked.
+     * @param from low endpoint (inclusive) of the range
+     * @param to high endpoint (exclusive) of the range
+     * @param filter predicate which returns true for the elements to be removed
+     * @return the number of elements removed
+     */
+    private int removeMatching(int from, int to, HPredicate filter) {
+        int first = from;
+        while (first < to && !filter.test(Integer.valueOf(elements[first]))) first++;
+        if (first == to) return 0;
+        long[] matches = new long[((to - first) >> 6) + 1];
+        matches[0] = 1L;
+        for (int i=first+1; i < to; i++) {
+            if (filter.test(Integer.valueOf(elements[i]))) matches[(i - first) >> 6] |= 1L << (i - first);
+        }
+        int kept = first;
+        for (int i=first; i < to; i++) {
+            if ((matches[(i - first) >> 6] & (1L << (i - first))) == 0) elements[kept++] = elements[i];
+        }
+        removeRange(kept, to);
+        return to - kept;
+    }
+
+    /**
+     * Inner class IntListIterator, implements HIntListIterator interface.
+     * If the iterator has been created by a sublist, the owner sublist is 
+     * resized when elements are added or removed through the iterator.
+     */
+    class IntListIterator implements HIntListIterator {
+
+        private final SubList owner;
+        private final int lowerBound;
+        private int upperBound;
+        private int cursor;
+        private int current;
+
+        public IntListIterator(SubList owner, int lowerBound, int index, int upperBound) {
+            this.owner = owner;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.cursor = index;
+            current = -1;
+        }
+
+        @Override
+        public void add(int value) {
+            insert(cursor++, value);
+            upperBound++;
+            current = -1;
+            if (owner != null) owner.resize(1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < upperBound;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > lowerBound;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            current = cursor++;
+            return elements[current];
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor - lowerBound;
+        }
+
+        @Override
+        public int previousInt() {
+            if (!hasPrevious()) throw new NoSuchElementException();
+            current = --cursor;
+            return elements[current];
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - lowerBound - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (current == -1) throw new IllegalStateException();
+            removeRange(current, current + 1);
+            if (current < cursor) cursor--;
+            upperBound--;
+            current = -1;
+            if (owner != null) owner.resize(-1);
+        }
+
+        @Override
+        public void set(int value) {
+            if (current == -1) throw new IllegalStateException();
+            elements[current] = value;
+        }
+
+    }
+
+    /**
+     * SubList inner class.
+     * Every sublist keeps a reference to the sublist it has been obtained from
+     * (if any), so that structural modifications update the size of the whole 
+     * chain of views.
+     */
+    class SubList implements HIntList {
+
+        private final SubList parent;
+        private final int offset;
+        private int size;
+
+        public SubList(SubList parent, int offset, int size) {
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        private void resize(int delta) {
+            for (SubList s = this; s != null; s = s.parent) s.size += delta;
+        }
+
+        @Override
+        public boolean add(int value) {
+            add(size, value);
+            return true;
+        }
+
+        @Override
+        public void add(int index, int value) {
+            if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+            insert(offset + index, value);
+            resize(1);
+        }
+
+        @Override
+        public boolean addAll(HIntList c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(int index, HIntList c) {
+            if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+            int[] values = c.toArray();
+            insertAll(offset + index, values);
+            resize(values.length);
+            return values.length > 0;
+        }
+
+        @Override
+        public void clear() {
+            removeRange(offset, offset + size);
+            resize(-size);
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return indexOf(value) >= 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof HIntList)) {
+                return false;
+            }
+            HIntList other = (HIntList) o;
+            if (other.size() != size) {
+                return false;
+            }
+            for (int i=0; i < size; i++) {
+                if (elements[offset + i] != other.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            return elements[offset + index];
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(elements, offset, offset + size);
+        }
+
+        @Override
+        public int indexOf(int value) {
+            for (int i=0; i < size; i++) {
+                if (elements[offset + i] == value) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public HIntIterator iterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public int lastIndexOf(int value) {
+            for (int i=size-1; i >= 0; i--) {
+                if (elements[offset + i] == value) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public HIntListIterator listIterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public HIntListIterator listIterator(int index) {
+            if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+            return new IntListIterator(this, offset, offset + index, offset + size);
+        }
+
+        @Override
+        public int removeAt(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            int old = elements[offset + index];
+            removeRange(offset + index, offset + index + 1);
+            resize(-1);
+            return old;
+        }
+
+        @Override
+        public boolean removeValue(int value) {
+            int index = indexOf(value);
+            if (index < 0) return false;
+            removeAt(index);
+            return true;
+        }
+
+        @Override
+        public int set(int index, int value) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            int old = elements[offset + index];
+            elements[offset + index] = value;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public HIntList subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+            return new SubList(this, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        public int[] toArray() {
+            int[] res = new int[size];
+            System.arraycopy(elements, offset, res, 0, size);
+            return res;
+        }
+
+        /**
+         * Removes the elements of this sublist whose boxed value satisfies the
+         * specified predicate, compacting the backing array in a single pass.
+         * @param filter predicate which returns true for the elements to be removed
+         * @return the number of elements removed
+         */
+        int removeMatching(HPredicate filter) {
+            int removed = IntList.this.removeMatching(offset, offset + size, filter);
+            resize(-removed);
+            return removed;
+        }
+
+        @Override
+        public HList asList() {
+            return new ListView(this);
+        }
+
+        @Override
+        public String toString() {
+            String res = "";
+            for (int i=0; i < size; i++) res += elements[offset + i] + " ";
+            return res;
+        }
+
+    }
+
+    /**
+     * HList view of a HIntList.
+     * Elements are boxed in Integer objects when they are read, and unboxed 
+     * when they are written: only non-null Integer objects can be added to the
+     * view (a ClassCastException is thrown for other objects).
+     */
+    static class ListView implements HList {
+
+        private final HIntList list;
+
+        public ListView(HIntList list) {
+            this.list = list;
+        }
+
+        private static int unbox(Object o) {
+            if (o == null) throw new NullPointerException();
+            return ((Integer) o).intValue();
+        }
+
+        /**
+         * Removes the elements which are (if retain is false) or are not (if
+         * retain is true) contained in the specified collection.
+         * @param c collection to be checked
+         * @param retain true to retain the elements contained in c, false to remove them
+         * @return true if the list changed as a result of the call
+         */
+        private boolean filter(HCollection c, final boolean retain) {
+            final HCollection lookup = List.lookupOf(c);
+            return removeMatching(new HPredicate() {
+                @Override
+                public boolean test(Object o) {
+                    return lookup.contains(o) != retain;
+                }
+            }) > 0;
+        }
+
+        /**
+         * Removes the elements which satisfy the predicate, compacting the 
+         * backing array of the viewed list in place in a single pass.
+         * @param filter predicate which returns true for the elements to be removed
+         * @return the number of elements removed
+         */
+        private int removeMatching(HPredicate filter) {
+            if (list instanceof SubList) return ((SubList) list).removeMatching(filter);
+            IntList whole = (IntList) list;
+            return whole.removeMatching(0, whole.size, filter);
+        }
+
+        @Override
+        public boolean add(Object o) {
+            return list.add(unbox(o));
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            list.add(index, unbox(element));
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            return addAll(list.size(), c);
+        }
+
+        @Override
+        public boolean addAll(int index, HCollection c) {
+            if (index < 0 || index > list.size()) throw new IndexOutOfBoundsException();
+            IntList values = new IntList(c.size());
+            HIterator it = c.iterator();
+            while (it.hasNext()) values.add(unbox(it.next()));
+            return list.addAll(index, values);
+        }
+
+        @Override
+        public void clear() {
+            list.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o == null) throw new NullPointerException();
+            return (o instanceof Integer) && list.contains(((Integer) o).intValue());
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            boolean res = true;
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                res = contains(it.next()) && res;
+            }
+            return res;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof HList)) {
+                return false;
+            }
+            HList other = (HList) o;
+            if (other.size() != size()) {
+                return false;
+            }
+            for (int i=0; i < size(); i++) {
+                if (!get(i).equals(other.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Object get(int index) {
+            return Integer.valueOf(list.get(index));
+        }
+
+        @Override
+        public int hashCode() {
+            return list.hashCode();
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            if (o == null) throw new NullPointerException();
+            if (!(o instanceof Integer)) return -1;
+            return list.indexOf(((Integer) o).intValue());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return list.isEmpty();
+        }
+
+        @Override
+        public HIterator iterator() {
+            return listIterator();
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            if (o == null) throw new NullPointerException();
+            if (!(o instanceof Integer)) return -1;
+            return list.lastIndexOf(((Integer) o).intValue());
+        }
+
+        @Override
+        public HListIterator listIterator() {
+            return new ViewIterator(list.listIterator());
+        }
+
+        @Override
+        public HListIterator listIterator(int index) {
+            return new ViewIterator(list.listIterator(index));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (o == null) throw new NullPointerException();
+            return (o instanceof Integer) && list.removeValue(((Integer) o).intValue());
+        }
+
+        @Override
+        public Object remove(int index) {
+            return Integer.valueOf(list.removeAt(index));
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if (c == null) throw new NullPointerException();
+            return filter(c, false);
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if (c == null) throw new NullPointerException();
+            return filter(c, true);
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if (action == null) throw new NullPointerException();
+            HIntIterator it = list.iterator();
+            while (it.hasNext()) action.accept(Integer.valueOf(it.nextInt()));
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if (filter == null) throw new NullPointerException();
+            return removeMatching(filter) > 0;
+        }
+
+        @Override
+        public void replaceAll(HUnaryOperator operator) {
+            if (operator == null) throw new NullPointerException();
+            for (int i=0; i < list.size(); i++) list.set(i, unbox(operator.apply(Integer.valueOf(list.get(i)))));
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            return Integer.valueOf(list.set(index, unbox(element)));
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public HList subList(int fromIndex, int toIndex) {
+            return new ListView(list.subList(fromIndex, toIndex));
+        }
+
+        @Override
+        public Object[] toArray() {
+            return toArray(new Object[list.size()]);
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            int[] values = list.toArray();
+            Object[] res;
+            if (a.length >= values.length) res = a;
+            else res = new Object[values.length];
+            for (int i=0; i < values.length; i++) res[i] = Integer.valueOf(values[i]);
+            return res;
+        }
+
+        @Override
+        public String toString() {
+            return list.toString();
+        }
+
+        /**
+         * HListIterator view of a HIntListIterator.
+         */
+        static class ViewIterator implements HListIterator {
+
+            private final HIntListIterator it;
+
+            public ViewIterator(HIntListIterator it) {
+                this.it = it;
+            }
+
+            @Override
+            public void add(Object o) {
+                if (o == null) throw new IllegalArgumentException();
+                it.add(((Integer) o).intValue());
+            }
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public boolean hasPrevious() {
+                return it.hasPrevious();
+            }
+
+            @Override
+            public Object next() {
+                return Integer.valueOf(it.nextInt());
+            }
+
+            @Override
+            public int nextIndex() {
+                return it.nextIndex();
+            }
+
+            @Override
+            public Object previous() {
+                return Integer.valueOf(it.previousInt());
+            }
+
+            @Override
+            public int previousIndex() {
+                return it.previousIndex();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+
+            @Override
+            public void set(Object o) {
+                if (o == null) throw new IllegalArgumentException();
+                it.set(((Integer) o).intValue());
+            }
+
+        }
+
+    }
+
+}
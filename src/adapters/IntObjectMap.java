@@ -0,0 +1,846 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIntIterator;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from primitive int keys to objects.
+ * The mappings are stored in an open-addressing hash table with linear
+ * probing, made of two parallel arrays of keys and values: get(int),
+ * put(int, Object) and remove(int) perform a single probe sequence and never
+ * box the key nor allocate an entry object. An empty slot is recognised by a
+ * null value, removed mappings leave a tombstone which is purged on rehash.
+ *
+ * As in the Map class, null values are not allowed. The asMap() method
+ * returns a HMap view of the map, whose keys are Integer objects, for the
+ * code that needs to handle it as a regular map.
+ * @author Giacomo Camposampiero
+ */
+public class IntObjectMap {
+
+    /**
+     * Marker stored in the value slot of removed mappings.
+     */
+    private static final Object DELETED = new Object();
+
+    /**
+     * Default capacity of the table (must be a power of two).
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    // number of slots which are not empty (mappings and tombstones)
+    private int used;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty map.
+     */
+    public IntObjectMap() {
+        this(0);
+    }
+
+    /**
+     * Constructor with initial capacity.
+     * This constructor will initialize a new empty map which is able to hold
+     * the specified number of mappings without being rehashed.
+     * @param initialCapacity number of mappings the map should hold without rehashing
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntObjectMap(int initialCapacity) {
+        if(initialCapacity < 0) throw new IllegalArgumentException();
+        int capacity = DEFAULT_CAPACITY;
+        while(threshold(capacity) < initialCapacity) capacity <<= 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    public void clear() {
+        for(int i=0; i < values.length; i++) values[i] = null;
+        size = 0;
+        used = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(int key) {
+        return probe(key) >= 0;
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * This operation requires a scan of the whole table.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        for(int i=0; i < values.length; i++) {
+            Object v = values[i];
+            if(v != null && v != DELETED && value.equals(v)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also an IntObjectMap and the two
+     * maps represent the same mappings.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) {
+            return true;
+        }
+        if(!(obj instanceof IntObjectMap)) {
+            return false;
+        }
+        IntObjectMap other = (IntObjectMap) obj;
+        if(other.size != size) {
+            return false;
+        }
+        for(int i=0; i < values.length; i++) {
+            Object v = values[i];
+            if(v != null && v != DELETED && !v.equals(other.get(keys[i]))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null if this
+     *         map contains no mapping for the key
+     */
+    public Object get(int key) {
+        int index = probe(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * Returns the hash code value for this map, which equals the hash code of
+     * a HMap containing the same mappings with Integer keys.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for(int i=0; i < values.length; i++) {
+            Object v = values[i];
+            if(v != null && v != DELETED) hash += keys[i] ^ v.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Returns true if this map contains no key-value mappings.
+     * @return true if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an iterator over the keys of this map, which returns them as
+     * primitive values. The keys are returned in no particular order, and the
+     * remove operation of the iterator removes the corresponding mapping.
+     * @return an iterator over the keys of this map
+     */
+    public HIntIterator keyIterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Returns an array containing all the keys of this map.
+     * @return an array containing all the keys of this map
+     */
+    public int[] keys() {
+        int[] res = new int[size];
+        int j = 0;
+        for(int i=0; i < values.length; i++) {
+            Object v = values[i];
+            if(v != null && v != DELETED) res[j++] = keys[i];
+        }
+        return res;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value is
+     * replaced by the specified value.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key
+     * @throws NullPointerException if the specified value is null
+     */
+    public Object put(int key, Object value) {
+        if(value == null) throw new NullPointerException();
+        int index = probe(key);
+        if(index >= 0) {
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+        index = -index - 1;
+        if(values[index] == null) used++;
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if(used > threshold(values.length)) rehash();
+        return null;
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map.
+     * @param t mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     */
+    public void putAll(IntObjectMap t) {
+        for(int i=0; i < t.values.length; i++) {
+            Object v = t.values[i];
+            if(v != null && v != DELETED) put(t.keys[i], v);
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key.
+     */
+    public Object remove(int key) {
+        int index = probe(key);
+        if(index < 0) return null;
+        Object old = values[index];
+        values[index] = DELETED;
+        size--;
+        return old;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a HMap view of this map, whose keys are the keys of this map
+     * boxed in Integer objects. The view is backed by this map, so changes to
+     * one are reflected in the other. Only Integer keys can be put in the view.
+     * @return a HMap view of this map
+     */
+    public HMap asMap() {
+        return new MapView();
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        for(int i=0; i < values.length; i++) {
+            Object v = values[i];
+            if(v != null && v != DELETED) res += keys[i] + "=" + v.toString() + " ";
+        }
+        return res;
+    }
+
+    /**
+     * Spreads the key over the whole integer, so that the low bits used to
+     * index the table depend on all its bits.
+     * @param key key whose hash has to be computed
+     * @return the spread hash of the key
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the maximum number of used slots of a table of the specified
+     * capacity (load factor 0.75).
+     * @param capacity capacity of the table
+     * @return the maximum number of used slots
+     */
+    private static int threshold(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Looks for the specified key with a single probe sequence.
+     * If the key is found, its slot is returned. Otherwise the result is
+     * (-(insertion slot) - 1), where the insertion slot is the first tombstone
+     * met along the sequence, or the empty slot which terminated it.
+     * @param key key to look for
+     * @return the slot of the key, or (-(insertion slot) - 1)
+     */
+    private int probe(int key) {
+        int mask = values.length - 1;
+        int i = hash(key) & mask;
+        int free = -1;
+        Object v;
+        while((v = values[i]) != null) {
+            if(v == DELETED) {
+                if(free < 0) free = i;
+            } else if(keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(free < 0 ? i : free) - 1;
+    }
+
+    /**
+     * Rebuilds the table purging the tombstones. The capacity is doubled only
+     * if the mappings (and not the tombstones) fill more than half of it.
+     */
+    private void rehash() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int capacity = oldValues.length;
+        if(size >= threshold(capacity) / 2) capacity <<= 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for(int j=0; j < oldValues.length; j++) {
+            Object v = oldValues[j];
+            if(v == null || v == DELETED) continue;
+            int i = hash(oldKeys[j]) & mask;
+            while(values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = v;
+        }
+        used = size;
+    }
+
+    /**
+     * Iterator over the occupied slots of the table.
+     * Removals leave tombstones, so they don't move the other mappings.
+     */
+    class SlotIterator {
+
+        private final int[] keyTab;
+        private final Object[] valueTab;
+        private int next;
+        int current;
+
+        public SlotIterator() {
+            keyTab = keys;
+            valueTab = values;
+            current = -1;
+            next = advance(0);
+        }
+
+        private int advance(int i) {
+            while(i < valueTab.length && (valueTab[i] == null || valueTab[i] == DELETED)) i++;
+            return i;
+        }
+
+        public boolean hasNext() {
+            return next < valueTab.length;
+        }
+
+        int nextSlot() {
+            if(!hasNext()) throw new NoSuchElementException();
+            current = next;
+            next = advance(next + 1);
+            return current;
+        }
+
+        int key(int slot) {
+            return keyTab[slot];
+        }
+
+        Object value(int slot) {
+            return valueTab[slot];
+        }
+
+        public void remove() {
+            if(current == -1) throw new IllegalStateException();
+            if(valueTab != values) {
+                IntObjectMap.this.remove(keyTab[current]);
+            } else if(valueTab[current] != DELETED) {
+                valueTab[current] = DELETED;
+                size--;
+            }
+            current = -1;
+        }
+
+    }
+
+    class KeyIterator extends SlotIterator implements HIntIterator {
+
+        @Override
+        public int nextInt() {
+            return key(nextSlot());
+        }
+
+    }
+
+    class EntryIterator extends SlotIterator implements HIterator {
+
+        @Override
+        public Object next() {
+            int slot = nextSlot();
+            return new MapEntry(key(slot), value(slot));
+        }
+
+    }
+
+    class ElementIterator extends SlotIterator implements HIterator {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementIterator(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object next() {
+            int slot = nextSlot();
+            if(type) return Integer.valueOf(key(slot));
+            return value(slot);
+        }
+
+    }
+
+    public class MapEntry implements HMap.Entry {
+
+        private final int key;
+        private Object value;
+
+        public MapEntry(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Compares the specified object with this entry for equality.
+         * Returns true if the given object is also a map entry and the two
+         * entries represent the same mapping.
+         * @param o object to be compared for equality with this map entry
+         * @return true if the specified object is equal to this map entry
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return Integer.valueOf(key).equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        /**
+         * Returns the key corresponding to this entry, boxed in an Integer.
+         * @return the key corresponding to this entry
+         */
+        @Override
+        public Object getKey() {
+            return Integer.valueOf(key);
+        }
+
+        /**
+         * Returns the value corresponding to this entry.
+         * @return the value corresponding to this entry
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value corresponding to this entry with the specified
+         * value, writing it through to the map while the key is still mapped.
+         * Once the mapping has been removed only the entry is changed, as for
+         * the entries of Map, so the mapping is never put back.
+         * @param value new value to be stored in this entry
+         * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
+         */
+        @Override
+        public Object setValue(Object value) {
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            this.value = value;
+            if(containsKey(key)) put(key, value);
+            return old;
+        }
+
+        /**
+         * Returns the hash code value for this map entry.
+         * @return the hash code value for this map entry
+         */
+        @Override
+        public int hashCode() {
+            return key ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * HMap view of the map. Keys are exchanged as Integer objects: keys of
+     * other types are never contained in the view and cannot be put in it.
+     */
+    class MapView implements HMap {
+
+        @Override
+        public void clear() {
+            IntObjectMap.this.clear();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if(key == null) throw new NullPointerException();
+            return (key instanceof Integer) && IntObjectMap.this.containsKey(((Integer) key).intValue());
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return IntObjectMap.this.containsValue(value);
+        }
+
+        @Override
+        public HSet entrySet() {
+            return new EntrySet();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HMap)) {
+                return false;
+            }
+            HMap other = (HMap) obj;
+            if (other.size() != size) {
+                return false;
+            }
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v != null && v != DELETED && !v.equals(other.get(Integer.valueOf(keys[i])))) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if(key == null) throw new NullPointerException();
+            if(!(key instanceof Integer)) return null;
+            return IntObjectMap.this.get(((Integer) key).intValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return IntObjectMap.this.hashCode();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public HSet keySet() {
+            return new ElementSet(true);
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            if(key == null) throw new NullPointerException();
+            return IntObjectMap.this.put(((Integer) key).intValue(), value);
+        }
+
+        @Override
+        public void putAll(HMap t) {
+            if(t == null) throw new NullPointerException();
+            HIterator it = t.entrySet().iterator();
+            while(it.hasNext()) {
+                HMap.Entry entry = (HMap.Entry) it.next();
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public Object remove(Object key) {
+            if(key == null) throw new NullPointerException();
+            if(!(key instanceof Integer)) return null;
+            return IntObjectMap.this.remove(((Integer) key).intValue());
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public HCollection values() {
+            return new ElementSet(false);
+        }
+
+        @Override
+        public void forEach(HBiConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v != null && v != DELETED) action.accept(Integer.valueOf(keys[i]), v);
+            }
+        }
+
+        @Override
+        public void replaceAll(HBiFunction function) {
+            if(function == null) throw new NullPointerException();
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v == null || v == DELETED) continue;
+                v = function.apply(Integer.valueOf(keys[i]), v);
+                if(v == null) throw new NullPointerException();
+                values[i] = v;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return IntObjectMap.this.toString();
+        }
+
+    }
+
+    /**
+     * Common behaviour of the views of the HMap view.
+     */
+    abstract class View implements HSet {
+
+        @Override
+        public boolean add(Object e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            IntObjectMap.this.clear();
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            if (other.size() != size()) return false;
+            return containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(!c.contains(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the element of this view for the mapping in the specified
+         * slot of the table.
+         * @param slot slot of a mapping
+         * @return the element of this view
+         */
+        abstract Object element(int slot);
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v != null && v != DELETED) action.accept(element(i));
+            }
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v != null && v != DELETED && filter.test(element(i))) {
+                    values[i] = DELETED;
+                    size--;
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return toArray(new Object[size]);
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            Object[] res = a.length >= size ? a : new Object[size];
+            int i = 0;
+            HIterator it = iterator();
+            while(it.hasNext()) res[i++] = it.next();
+            return res;
+        }
+
+    }
+
+    class EntrySet extends View {
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            if(!(entry.getKey() instanceof Integer)) return false;
+            Object value = get(((Integer) entry.getKey()).intValue());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        Object element(int slot) {
+            return new MapEntry(keys[slot], values[slot]);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!contains(o)) return false;
+            IntObjectMap.this.remove(((Integer) ((HMap.Entry) o).getKey()).intValue());
+            return true;
+        }
+
+    }
+
+    class ElementSet extends View {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementSet(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!type) return containsValue(o);
+            return (o instanceof Integer) && containsKey(((Integer) o).intValue());
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new ElementIterator(type);
+        }
+
+        @Override
+        Object element(int slot) {
+            if(type) return Integer.valueOf(keys[slot]);
+            return values[slot];
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return (o instanceof Integer) && IntObjectMap.this.remove(((Integer) o).intValue()) != null;
+            for(int i=0; i < values.length; i++) {
+                Object v = values[i];
+                if(v != null && v != DELETED && o.equals(v)) {
+                    values[i] = DELETED;
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -1,30 +1,101 @@
 package adapters;
 
 import interfaces.HCollection;
+import interfaces.HComparator;
+import interfaces.HConsumer;
 import interfaces.HIterator;
 import interfaces.HList;
 import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
 import exceptions.IllegalStateException;
 import java.util.NoSuchElementException;
-import java.util.Vector;
 
 /**
  * Implementation of List interface Java 1.4.2.
  * This implementation is the actual concrete implementation for Collection 
  * interface too. If a concrete implementation of a Collection is needed, a List
  * object should be instantiated.
+ * 
+ * The elements are stored in a growable array which is accessed without any 
+ * synchronization: the list is not thread safe. When the array is full it is 
+ * grown according to the growth policy of the list, which either doubles its 
+ * capacity or increments it by a fixed amount. Lists created with the empty
+ * constructor share a zero length array until the first element is added.
  * @author Giacomo Camposampiero 
  */
 public class List implements HList {
 
-    private final Vector vec;
+    /**
+     * Default capacity of the backing array.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Array shared by the empty lists created with the empty constructor.
+     */
+    private static final Object[] EMPTY = {};
+
+    /**
+     * Size above which the argument of a bulk removal is copied in a Set, so 
+     * that each element of the list is looked up in constant time.
+     */
+    static final int HASHED_LOOKUP_THRESHOLD = 16;
+
+    private Object[] elements;
+    private int size;
+    private final int capacityIncrement;
 
     /**
      * Empty constructor.
      * This constructor will initialize a new empty list.
      */
     public List() {
-        vec = new Vector();
+        this.elements = EMPTY;
+        this.capacityIncrement = 0;
+    }
+
+    /**
+     * Constructor with initial capacity.
+     * This constructor will initialize a new empty list, whose backing array 
+     * is able to store the specified number of elements without growing.
+     * The capacity of the list is doubled every time it needs to grow.
+     * @param initialCapacity initial capacity of the list
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public List(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    /**
+     * Constructor with initial capacity and growth policy.
+     * This constructor will initialize a new empty list, whose backing array 
+     * is able to store the specified number of elements without growing.
+     * Every time the list needs to grow its capacity is incremented by 
+     * capacityIncrement; if capacityIncrement is zero, the capacity is doubled.
+     * @param initialCapacity initial capacity of the list
+     * @param capacityIncrement amount by which the capacity is increased when 
+     *        the list overflows, or zero to double it
+     * @throws IllegalArgumentException if one of the parameters is negative
+     */
+    public List(int initialCapacity, int capacityIncrement) {
+        if (initialCapacity < 0 || capacityIncrement < 0) throw new IllegalArgumentException();
+        this.elements = new Object[initialCapacity];
+        this.capacityIncrement = capacityIncrement;
+    }
+
+    /**
+     * Constructor adopting an array.
+     * This constructor will initialize a list whose backing array is the given
+     * one, without copying it: the list contains all its elements, which must
+     * not be null, and the caller must not use the array anymore. The capacity
+     * of the list is doubled every time it needs to grow.
+     * @param elements backing array of the list
+     */
+    List(Object[] elements) {
+        this.elements = elements;
+        this.size = elements.length;
+        this.capacityIncrement = 0;
     }
 
     /**
@@ -43,8 +114,8 @@ public class List implements HList {
     @Override
     public void add(int index, Object element) {
         if (element == null) throw new NullPointerException();
-        if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
-        vec.insertElementAt(element, index);
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        insert(index, element);
     }
 
     /**
@@ -58,7 +129,9 @@ public class List implements HList {
      */
     @Override
     public boolean add(Object o) {
-        add(size(), o);
+        if (o == null) throw new NullPointerException();
+        if (size == elements.length) grow(size + 1);
+        elements[size++] = o;
         return true;
     }
 
@@ -89,6 +162,11 @@ public class List implements HList {
      * 
      * The behavior of this operation is unspecified if the specified collection
      * is modified while the operation is in progress.
+     * 
+     * The elements are taken from c.toArray() (a single array copy when c is 
+     * a List), the gap is opened by moving the tail of the list only once, and
+     * the elements are copied into it. If the collection contains a null 
+     * element the list is not modified.
      * @param index  index at which to insert first element from the specified collection.
      * @param c  elements to be inserted into this list.    
      * @return  true if this list changed as a result of the call. 
@@ -99,13 +177,17 @@ public class List implements HList {
     @Override
     public boolean addAll(int index, HCollection c) {
         if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
-        boolean res = false;
-        HIterator it = c.iterator();
-        while (it.hasNext()) {
-            add(index++, it.next());
-            res = true;
+        Object[] added = c.toArray();
+        int n = added.length;
+        if (n == 0) return false;
+        for (int i=0; i < n; i++) {
+            if (added[i] == null) throw new NullPointerException();
         }
-        return res;
+        if (size + n > elements.length) grow(size + n);
+        System.arraycopy(elements, index, elements, index + n, size - index);
+        System.arraycopy(added, 0, elements, index, n);
+        size += n;
+        return true;
     }
     
     /**
@@ -114,7 +196,8 @@ public class List implements HList {
      */
     @Override
     public void clear() {
-        vec.removeAllElements();
+        for (int i=0; i < size; i++) elements[i] = null;
+        size = 0;
     }
 
     /**
@@ -128,7 +211,7 @@ public class List implements HList {
     @Override
     public boolean contains(Object o) {
         if (o == null) throw new NullPointerException();
-        return vec.contains(o);
+        return indexOf(o) >= 0;
     }
 
     /**
@@ -167,11 +250,11 @@ public class List implements HList {
             return false;
         }
         HList other = (HList) o;
-        if (other.size() != size()) {
+        if (other.size() != size) {
             return false;
         }
-        for (int i=0; i < size(); i++) {
-            if (!get(i).equals(other.get(i))) {
+        for (int i=0; i < size; i++) {
+            if (!elements[i].equals(other.get(i))) {
                 return false;
             }
         }
@@ -186,9 +269,8 @@ public class List implements HList {
     @Override
     public int hashCode() {
         int hashCode = 1;
-        for(int i=0; i < size(); i++) {
-            Object obj = get(i);
-            hashCode = 31 * hashCode + obj.hashCode();
+        for(int i=0; i < size; i++) {
+            hashCode = 31 * hashCode + elements[i].hashCode();
         }
         return hashCode;
     }
@@ -201,8 +283,8 @@ public class List implements HList {
      */
     @Override
     public Object get(int index) {
-        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
-        return vec.elementAt(index);
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        return elements[index];
     }
 
     /**
@@ -218,7 +300,10 @@ public class List implements HList {
     @Override
     public int indexOf(Object o) {
         if (o == null) throw new NullPointerException();
-        return vec.indexOf(o);
+        for (int i=0; i < size; i++) {
+            if (o.equals(elements[i])) return i;
+        }
+        return -1;
     }
 
     /**
@@ -227,7 +312,7 @@ public class List implements HList {
      */
     @Override
     public boolean isEmpty() {
-        return vec.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -256,7 +341,10 @@ public class List implements HList {
     @Override
     public int lastIndexOf(Object o) {
         if (o == null) throw new NullPointerException();
-        return vec.lastIndexOf(o);
+        for (int i=size-1; i >= 0; i--) {
+            if (o.equals(elements[i])) return i;
+        }
+        return -1;
     }
 
     /**
@@ -307,9 +395,9 @@ public class List implements HList {
      */
     @Override
     public Object remove(int index) {
-        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
-        Object old = get(index);
-        vec.removeElementAt(index);
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Object old = elements[index];
+        removeAt(index);
         return old;
     }
 
@@ -325,8 +413,10 @@ public class List implements HList {
      */
     @Override
     public boolean remove(Object o) {
-        if (o == null) throw new NullPointerException();
-        return vec.remove(o);
+        int index = indexOf(o);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
     }
 
     /**
@@ -341,17 +431,7 @@ public class List implements HList {
     @Override
     public boolean removeAll(HCollection c) {
         if(c == null) throw new NullPointerException();
-        boolean removed = false;
-        int i = 0;
-        while(i < size()) {
-            if(c.contains(get(i))) {
-                remove(i);
-                removed = true;
-            } else {
-                i++;
-            }
-        }  
-        return removed;
+        return filter(0, size, c, false) > 0;
     }
 
     /**
@@ -366,12 +446,46 @@ public class List implements HList {
     @Override
     public boolean retainAll(HCollection c) {
         if(c == null) throw new NullPointerException();
-        List toRemove = new List();
-        for(int i=0; i< size(); i++) {
-            Object elem = get(i);
-            if(!c.contains(elem)) toRemove.add(elem);
-        }
-        return removeAll(toRemove);   
+        return filter(0, size, c, true) > 0;
+    }
+
+    /**
+     * Performs the given action for each element of this list, in proper 
+     * sequence, with a plain loop over the backing array.
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the action is null.
+     */
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        for (int i=0; i < size; i++) action.accept(elements[i]);
+    }
+
+    /**
+     * Removes all of the elements of this list that satisfy the given 
+     * predicate, in a single pass. The predicate is evaluated on every element
+     * before the list is modified, so if it throws an exception the list is 
+     * left unchanged.
+     * @param filter predicate which returns true for the elements to be removed
+     * @return true if any elements were removed
+     * @throws NullPointerException if the filter is null.
+     */
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        if(filter == null) throw new NullPointerException();
+        return removeMatching(0, size, filter) > 0;
+    }
+
+    /**
+     * Replaces each element of this list with the result of applying the 
+     * operator to that element.
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the operator is null, or if it returns null.
+     */
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        if(operator == null) throw new NullPointerException();
+        replaceRange(0, size, operator);
     }
 
     /**
@@ -386,9 +500,9 @@ public class List implements HList {
     @Override
     public Object set(int index, Object element) {
         if (element == null) throw new NullPointerException();
-        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
-        Object old = get(index);
-        vec.setElementAt(element, index);
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Object old = elements[index];
+        elements[index] = element;
         return old;
     }
 
@@ -398,7 +512,7 @@ public class List implements HList {
      */
     @Override
     public int size() {
-        return vec.size();
+        return size;
     }
 
     /**
@@ -441,8 +555,8 @@ public class List implements HList {
      */
     @Override
     public Object[] toArray() {
-        Object[] res = new Object[size()];
-        vec.copyInto(res);
+        Object[] res = new Object[size];
+        System.arraycopy(elements, 0, res, 0, size);
         return res;
     }
 
@@ -469,9 +583,9 @@ public class List implements HList {
     @Override
     public Object[] toArray(Object[] a) {
         Object[] res; 
-        if(a.length >= size()) res = a;
-        else res = new Object[size()];
-        vec.copyInto(res);
+        if(a.length >= size) res = a;
+        else res = new Object[size];
+        System.arraycopy(elements, 0, res, 0, size);
         return res;
     }
     
@@ -482,10 +596,273 @@ public class List implements HList {
     @Override
     public String toString() {
         String res = "";
-        for(int i=0; i < size(); i++) res += get(i).toString() + " ";
+        for(int i=0; i < size; i++) res += elements[i].toString() + " ";
         return res;
     }
 
+    /**
+     * Removes from this list all of the elements whose index is between 
+     * fromIndex, inclusive, and toIndex, exclusive.
+     * Shifts any succeeding elements to the left (reduces their index) with a
+     * single array copy. If fromIndex and toIndex are equal the list is not
+     * modified.
+     * @param fromIndex index of first element to be removed
+     * @param toIndex index after last element to be removed
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        int removed = toIndex - fromIndex;
+        if (removed == 0) return;
+        System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+        for (int i=size-removed; i < size; i++) elements[i] = null;
+        size -= removed;
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified 
+     * comparator. If the comparator is null, the elements are sorted according
+     * to their natural ordering, and they must implement Comparable.
+     * 
+     * The sort is stable and is performed in place on the backing array, with
+     * a workspace as long as the list: lists of at least 8192 elements are 
+     * sorted by a parallel merge sort on the common ForkJoinPool. If the 
+     * comparator throws an exception the list may be left partially sorted, 
+     * but it still contains the same elements.
+     * @param c the comparator used to compare the elements, or null for the natural ordering
+     * @throws ClassCastException if the list contains elements that are not mutually comparable
+     */
+    public void sort(HComparator c) {
+        MergeSort.sort(elements, 0, size, c);
+    }
+
+    /**
+     * Sorts the elements of this list whose index is between fromIndex, 
+     * inclusive, and toIndex, exclusive, as sort(HComparator) does on the 
+     * whole list.
+     * @param fromIndex index of first element to be sorted
+     * @param toIndex index after last element to be sorted
+     * @param c the comparator used to compare the elements, or null for the natural ordering
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     * @throws ClassCastException if the range contains elements that are not mutually comparable
+     */
+    public void sort(int fromIndex, int toIndex, HComparator c) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        MergeSort.sort(elements, fromIndex, toIndex, c);
+    }
+
+    /**
+     * Searches the specified element in this list, which must be sorted 
+     * according to the specified comparator (or to the natural ordering of 
+     * its elements, if the comparator is null). If the list is not sorted the
+     * result is undefined; if the list contains several elements equal to the
+     * key, there is no guarantee on which one will be found.
+     * @param key the element to be searched
+     * @param c the comparator by which the list is ordered, or null for the natural ordering
+     * @return the index of the key, if it is contained in the list; otherwise (-(insertion point) - 1), where the insertion point is the index of the first element greater than the key, or size() if there is none
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key is not comparable to the elements of the list
+     */
+    public int binarySearch(Object key, HComparator c) {
+        if (key == null) throw new NullPointerException();
+        return MergeSort.binarySearch(elements, 0, size, key, c);
+    }
+
+    /**
+     * Searches the specified element between the indexes fromIndex, 
+     * inclusive, and toIndex, exclusive, of this list, as 
+     * binarySearch(Object, HComparator) does on the whole list. The range 
+     * must be sorted.
+     * @param fromIndex index of first element of the range
+     * @param toIndex index after last element of the range
+     * @param key the element to be searched
+     * @param c the comparator by which the range is ordered, or null for the natural ordering
+     * @return the index of the key in this list, if it is contained in the range; otherwise (-(insertion point) - 1), where the insertion point is an index in [fromIndex, toIndex]
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     * @throws NullPointerException if the key is null
+     * @throws ClassCastException if the key is not comparable to the elements of the range
+     */
+    public int binarySearch(int fromIndex, int toIndex, Object key, HComparator c) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        if (key == null) throw new NullPointerException();
+        return MergeSort.binarySearch(elements, fromIndex, toIndex, key, c);
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it can 
+     * hold at least the number of elements specified by the minimum capacity 
+     * argument without growing.
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) grow(minCapacity);
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.
+     * This operation can be used to minimize the storage of a list which is
+     * not going to grow anymore.
+     */
+    public void trimToSize() {
+        if (size == 0) {
+            elements = EMPTY;
+        } else if (size < elements.length) {
+            Object[] trimmed = new Object[size];
+            System.arraycopy(elements, 0, trimmed, 0, size);
+            elements = trimmed;
+        }
+    }
+
+    /**
+     * Returns an immutable copy of this list, whose elements are stored in an
+     * array of exactly size() cells and whose hash code is computed once.
+     * The copy doesn't change when this list is modified, and it can be read
+     * by any number of threads without synchronization.
+     * @return an ImmutableList with the elements of this list
+     */
+    public ImmutableList freeze() {
+        return ImmutableList.copyOf(this);
+    }
+
+    /**
+     * Grows the backing array according to the growth policy of the list, so 
+     * that it can contain at least the specified number of elements.
+     * @param minCapacity the desired minimum capacity
+     */
+    private void grow(int minCapacity) {
+        int capacity = elements.length;
+        if (elements == EMPTY) capacity = DEFAULT_CAPACITY;
+        else capacity += (capacityIncrement > 0) ? capacityIncrement : Math.max(capacity, 1);
+        if (capacity < minCapacity) capacity = minCapacity;
+        Object[] grown = new Object[capacity];
+        System.arraycopy(elements, 0, grown, 0, size);
+        elements = grown;
+    }
+
+    /**
+     * Inserts the element at the specified position, shifting the tail of the
+     * list to the right. Parameters are not checked.
+     * @param index index at which the element is to be inserted
+     * @param element element to be inserted
+     */
+    private void insert(int index, Object element) {
+        if (size == elements.length) grow(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    /**
+     * Removes the element at the specified position, shifting the tail of the
+     * list to the left. Parameters are not checked.
+     * @param index index of the element to be removed
+     */
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) System.arraycopy(elements, index + 1, elements, index, moved);
+        elements[--size] = null;
+    }
+
+    /**
+     * Returns a collection with the same elements of the specified one, whose
+     * contains method takes constant time: large collections which are not 
+     * sets are copied into a Set.
+     * @param c collection to be looked up
+     * @return c itself, or a Set containing its elements
+     */
+    static HCollection lookupOf(HCollection c) {
+        if(c instanceof interfaces.HSet || c.size() <= HASHED_LOOKUP_THRESHOLD) return c;
+        Set lookup = new Set(c.size());
+        lookup.addAll(c);
+        return lookup;
+    }
+
+    /**
+     * Returns the array which stores the elements of this list (only its 
+     * first size() cells are used), to be traversed without copying it.
+     * @return the backing array of this list
+     */
+    Object[] array() {
+        return elements;
+    }
+
+    /**
+     * Removes in a single pass, from the elements with index in [from, to), 
+     * those which are (if retain is false) or are not (if retain is true) 
+     * contained in the specified collection. The retained elements are 
+     * compacted towards from, and the tail of the list is moved only once.
+     * Parameters are not checked.
+     * @param from low endpoint (inclusive) of the range
+     * @param to high endpoint (exclusive) of the range
+     * @param c collection to be checked
+     * @param retain true to retain the elements contained in c, false to remove them
+     * @return the number of elements removed
+     */
+    int filter(int from, int to, HCollection c, boolean retain) {
+        if (from == to) return 0;
+        HCollection lookup = lookupOf(c);
+        int kept = from;
+        for (int i=from; i < to; i++) {
+            Object elem = elements[i];
+            if (lookup.contains(elem) == retain) elements[kept++] = elem;
+        }
+        int removed = to - kept;
+        if (removed > 0) {
+            System.arraycopy(elements, to, elements, kept, size - to);
+            for (int i=size-removed; i < size; i++) elements[i] = null;
+            size -= removed;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes, from the elements with index in [from, to), those which satisfy 
+     * the specified predicate. The predicate is first evaluated on all the 
+     * elements, recording the matches in a bit set, so that an exception 
+     * thrown by it leaves the list unchanged; then the retained elements are
+     * compacted towards from, and the tail of the list is moved only once.
+     * Parameters are not checked.
+     * @param from low endpoint (inclusive) of the range
+     * @param to high endpoint (exclusive) of the range
+     * @param filter predicate which returns true for the elements to be removed
+     * @return the number of elements removed
+     */
+    int removeMatching(int from, int to, HPredicate filter) {
+        int first = from;
+        while (first < to && !filter.test(elements[first])) first++;
+        if (first == to) return 0;
+        long[] matches = new long[((to - first) >> 6) + 1];
+        matches[0] = 1L;
+        for (int i=first+1; i < to; i++) {
+            if (filter.test(elements[i])) matches[(i - first) >> 6] |= 1L << (i - first);
+        }
+        int kept = first;
+        for (int i=first; i < to; i++) {
+            if ((matches[(i - first) >> 6] & (1L << (i - first))) == 0) elements[kept++] = elements[i];
+        }
+        int removed = to - kept;
+        System.arraycopy(elements, to, elements, kept, size - to);
+        for (int i=size-removed; i < size; i++) elements[i] = null;
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Replaces the elements with index in [from, to) with the results of the
+     * specified operator. Parameters are not checked.
+     * @param from low endpoint (inclusive) of the range
+     * @param to high endpoint (exclusive) of the range
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the operator returns null
+     */
+    void replaceRange(int from, int to, HUnaryOperator operator) {
+        for (int i=from; i < to; i++) {
+            Object elem = operator.apply(elements[i]);
+            if (elem == null) throw new NullPointerException();
+            elements[i] = elem;
+        }
+    }
+
     /**
      * Inner class ListIterator, implements HListIterator interface. 
      */
@@ -507,7 +884,7 @@ public class List implements HList {
         @Override
         public void add(Object o) {
             if(o == null) throw new IllegalArgumentException();
-            vec.add(cursor++, o);
+            insert(cursor++, o);
             upperBound++;
             current = -1;
         }
@@ -526,7 +903,7 @@ public class List implements HList {
         public Object previous() {
             if(!hasPrevious()) throw new NoSuchElementException();
             current = --cursor;
-            return vec.get(current);
+            return elements[current];
         }
 
         @Override
@@ -538,7 +915,7 @@ public class List implements HList {
         public void set(Object o) {
             if(current == -1) throw new IllegalStateException();
             if(o == null) throw new IllegalArgumentException();
-            vec.set(current, o);
+            elements[current] = o;
         }
 
         @Override
@@ -550,13 +927,13 @@ public class List implements HList {
         public Object next() {
             if(!hasNext()) throw new NoSuchElementException();
             current = cursor++;
-            return vec.get(current);
+            return elements[current];
         }
 
         @Override
         public void remove() {
             if(current == -1) throw new IllegalStateException();
-            vec.remove(current);
+            removeAt(current);
             if(current != cursor) cursor--;
             upperBound--;
             current = -1;
@@ -566,8 +943,10 @@ public class List implements HList {
     
     /**
      * SubList inner class.
+     * The lists returned by subList(int, int) are instances of this class, 
+     * which can be cast to List.SubList to sort and search their range.
      */
-    class SubList implements HList {
+    public class SubList implements HList {
 
         private final int fromIndex;
         private int toIndex;
@@ -584,6 +963,16 @@ public class List implements HList {
             this.toIndex = toIndex;
             this.upper = upper;
         }
+
+        /**
+         * Moves the end of this sublist, and of all the sublists it was
+         * created from, after delta elements have been inserted (or removed,
+         * if delta is negative) through it.
+         * @param delta change of the size of the sublist
+         */
+        private void resize(int delta) {
+            for (SubList s = this; s != null; s = s.upper) s.toIndex += delta;
+        }
  
         @Override
         public boolean add(Object o) {
@@ -595,8 +984,7 @@ public class List implements HList {
         public void add(int index, Object element) {
             if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
             List.this.add(fromIndex + index, element);
-            if(upper != null) upper.toIndex++;
-            toIndex++;
+            resize(1);
         }
 
         @Override
@@ -607,18 +995,17 @@ public class List implements HList {
         @Override
         public boolean addAll(int index, HCollection c) {
             if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
-            boolean res =  List.this.addAll(fromIndex + index, c);
-            if(upper != null) upper.toIndex += c.size();
-            toIndex += c.size();
+            int before = List.this.size();
+            boolean res = List.this.addAll(fromIndex + index, c);
+            resize(List.this.size() - before);
             return res;
         }
 
         @Override
         public void clear() {
             int size = size();
-            while(fromIndex < toIndex)
-                List.this.remove(--toIndex);
-            if(upper != null) upper.toIndex -= size;
+            removeRange(fromIndex, toIndex);
+            shrink(size);
         }
 
         @Override
@@ -710,7 +1097,7 @@ public class List implements HList {
 
         @Override
         public HListIterator listIterator(int index) {
-            if(index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+            if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
             return new SubListIterator(fromIndex, fromIndex + index, toIndex);
         }
 
@@ -728,36 +1115,74 @@ public class List implements HList {
         public Object remove(int index) {
             if(index < 0 || index >= size()) throw new IndexOutOfBoundsException();
             Object toReturn = List.this.remove(fromIndex + index);
-            if(upper != null) upper.toIndex--;
-            toIndex--;
+            resize(-1);
             return toReturn;
         }
 
         @Override
         public boolean removeAll(HCollection c) {
             if(c == null) throw new NullPointerException();
-            boolean removed = false;
-            int i = 0;
-            while(i < size()) {
-                if(c.contains(get(i))) {
-                    remove(i);
-                    removed = true;
-                } else {
-                    i++;
-                }
-            }  
-            return removed;
+            return shrink(filter(fromIndex, toIndex, c, false));
         }
 
         @Override
         public boolean retainAll(HCollection c) {
             if(c == null) throw new NullPointerException();
-            List toRemove = new List();
-            for(int i=0; i< size(); i++) {
-                Object elem = get(i);
-                if(!c.contains(elem)) toRemove.add(elem);
-            }
-            return removeAll(toRemove);  
+            return shrink(filter(fromIndex, toIndex, c, true));
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=fromIndex; i < toIndex; i++) action.accept(elements[i]);
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            return shrink(removeMatching(fromIndex, toIndex, filter));
+        }
+
+        @Override
+        public void replaceAll(HUnaryOperator operator) {
+            if(operator == null) throw new NullPointerException();
+            replaceRange(fromIndex, toIndex, operator);
+        }
+        
+        /**
+         * Sorts this sublist in place, as List.sort(HComparator) does. The
+         * elements out of the sublist are not moved.
+         * @param c the comparator used to compare the elements, or null for the natural ordering
+         * @throws ClassCastException if the sublist contains elements that are not mutually comparable
+         */
+        public void sort(HComparator c) {
+            MergeSort.sort(elements, fromIndex, toIndex, c);
+        }
+
+        /**
+         * Searches the specified element in this sublist, which must be 
+         * sorted, as List.binarySearch(Object, HComparator) does.
+         * @param key the element to be searched
+         * @param c the comparator by which the sublist is ordered, or null for the natural ordering
+         * @return the index of the key in this sublist, if it is contained in it; otherwise (-(insertion point) - 1)
+         * @throws NullPointerException if the key is null
+         * @throws ClassCastException if the key is not comparable to the elements of the sublist
+         */
+        public int binarySearch(Object key, HComparator c) {
+            if(key == null) throw new NullPointerException();
+            int index = MergeSort.binarySearch(elements, fromIndex, toIndex, key, c);
+            return index >= 0 ? index - fromIndex : index + fromIndex;
+        }
+
+        /**
+         * Updates the bounds of this sublist (and of the enclosing ones) after
+         * the removal of the specified number of its elements.
+         * @param removed number of elements removed
+         * @return true if at least one element has been removed
+         */
+        private boolean shrink(int removed) {
+            resize(-removed);
+            return removed > 0;
         }
          
         @Override
@@ -771,6 +1196,23 @@ public class List implements HList {
             return toIndex - fromIndex;
         } 
         
+        /**
+         * Returns the index of the first element of this sublist in the 
+         * backing array of the main list.
+         * @return the offset of this sublist
+         */
+        int offset() {
+            return fromIndex;
+        }
+        
+        /**
+         * Returns the backing array of the main list.
+         * @return the backing array of the main list
+         */
+        Object[] array() {
+            return elements;
+        }
+        
         @Override
         public HList subList(int fromIndex, int toIndex) {
             if(fromIndex < 0 || fromIndex > toIndex || toIndex > size()) throw new IndexOutOfBoundsException();
@@ -815,13 +1257,13 @@ public class List implements HList {
             @Override
             public void add(Object o) {
                 super.add(o);
-                toIndex++;
+                resize(1);
             }
             
             @Override
             public void remove() {
                 super.remove();
-                toIndex--;
+                resize(-1);
             }
 
         }
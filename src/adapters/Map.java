@@ -1,27 +1,178 @@
 package adapters;
 
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
 import interfaces.HCollection;
+import interfaces.HConsumer;
 import interfaces.HIterator;
 import interfaces.HMap;
+import interfaces.HPredicate;
 import interfaces.HSet;
-import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.NoSuchElementException;
 
 /**
  * Implementation of Map interface Java 1.4.2.
+ * The mappings are stored in a hash table with separate chaining, whose nodes
+ * are the MapEntry objects themselves: the iterators of the entrySet() view 
+ * return the live entries of the table, and the iterators of the keySet() and
+ * values() views read keys and values directly from them, so that a scan of 
+ * the map doesn't allocate any object other than the iterator.
+ * 
+ * A map created with the value index enabled also keeps, for every distinct
+ * value, the number of keys mapped to it and the chain of their entries: 
+ * containsValue and the contains, remove and retainAll operations of the 
+ * values() view become hash lookups instead of full scans of the map. Only
+ * the entries of such a map (IndexedEntry) carry the links of the chains,
+ * so the other maps don't pay for the index.
+ * 
+ * Small maps (up to SMALL_CAPACITY mappings) don't use the hash table: their
+ * keys and values are stored in a flat array (key, value, key, value, ...), 
+ * without any entry object, and they are looked up with a linear scan. Empty 
+ * maps share a zero length array. The map switches to the hash table when it 
+ * grows past SMALL_CAPACITY mappings, and goes back to the flat layout when
+ * it's cleared. The entries returned by the entrySet() iterator of a small 
+ * map are created on the fly; their setValue writes through to the map. 
+ * Maps with the value index always use the hash table.
+ * 
+ * A bounded map (created by lru(int) with a maximum size) can be used as a 
+ * LRU cache: its entries (LinkedEntry) are also linked in a doubly linked 
+ * list in access order, from the least recently used to the most recently 
+ * used one. A get or put of a key 
+ * moves its entry to the end of the list, by relinking it, without 
+ * allocating any object; a put which makes the map grow past its maximum size
+ * removes the entry at the head of the list, and passes its key and value to
+ * the eviction listener of the map, if any. Bounded maps always use the hash
+ * table.
  * @author Giacomo Camposampiero
  */
 public class Map implements HMap {
     
-    Hashtable table;
+    /**
+     * Default number of buckets of the table (must be a power of two).
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * Maximum number of buckets of the table.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+    
+    /**
+     * Maximum number of mappings of a map stored in the flat array.
+     */
+    private static final int SMALL_CAPACITY = 8;
+    
+    /**
+     * Array shared by all the empty maps in the flat layout.
+     */
+    private static final Object[] EMPTY = {};
+    
+    /**
+     * Elements of a view of the map: entries, keys or values.
+     */
+    static final int ENTRIES = 0;
+    static final int KEYS = 1;
+    static final int VALUES = 2;
+    
+    /**
+     * Flat array of keys and values, null if the map uses the hash table.
+     */
+    Object[] inline;
+    MapEntry[] table;
+    int size;
+    private int threshold;
+    
+    /**
+     * Value index (value --> number of keys mapped to it), null if the map 
+     * has been created without it.
+     */
+    private ValueNode[] valueIndex;
+    private int distinctValues;
+    
+    // sum of the hash codes of the mappings (key.hashCode() ^ value.hashCode())
+    private int hashSum;
+    
+    /**
+     * Maximum number of mappings of a bounded map, 0 if the map is unbounded.
+     */
+    private final int maxSize;
+    
+    /**
+     * Access-ordered list of the entries of a bounded map: eldest is the least
+     * recently used entry, youngest the most recently used one.
+     */
+    private LinkedEntry eldest;
+    private LinkedEntry youngest;
+    private final HBiConsumer evictionListener;
 
     /**
      * Empty constructor.
      * This constructor will initialize a new empty map.
      */
     public Map() {
-        table = new Hashtable();
+        this(false);
+    }
+    
+    /**
+     * Constructor.
+     * This constructor will initialize a new empty map, which keeps an index
+     * of its values if indexValues is true. The index makes the reverse 
+     * lookups (containsValue, values().contains, values().remove and 
+     * values().retainAll) as fast as the lookups by key, at the cost of some 
+     * additional memory and of a slower put and remove.
+     * @param indexValues true if the map has to keep an index of its values
+     */
+    public Map(boolean indexValues) {
+        maxSize = 0;
+        evictionListener = null;
+        if(indexValues) {
+            table = new MapEntry[DEFAULT_CAPACITY];
+            threshold = threshold(DEFAULT_CAPACITY);
+            valueIndex = new ValueNode[DEFAULT_CAPACITY];
+        } else {
+            inline = EMPTY;
+        }
+    }
+
+    /**
+     * Constructor of a bounded map, used by the lru factory methods.
+     * @param maxSize maximum number of mappings of the map, positive
+     * @param evictionListener action performed for each evicted mapping, or null
+     */
+    private Map(int maxSize, HBiConsumer evictionListener) {
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+        table = new MapEntry[DEFAULT_CAPACITY];
+        threshold = threshold(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns a new empty bounded map, which holds at most maxSize mappings: 
+     * when a put adds a mapping to a full map, the least recently used 
+     * mapping (the one whose key has been passed to get or put least 
+     * recently) is removed.
+     * @param maxSize maximum number of mappings of the map
+     * @return a new empty LRU map
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    public static Map lru(int maxSize) {
+        return lru(maxSize, null);
+    }
+    
+    /**
+     * Returns a new empty bounded map with an eviction listener, which holds 
+     * at most maxSize mappings, as lru(int). The key and the value of every 
+     * mapping removed because the map is full are passed to the listener, 
+     * after the mapping has been removed; the mappings removed through 
+     * remove, clear or the views of the map are not.
+     * @param maxSize maximum number of mappings of the map
+     * @param evictionListener action performed for each evicted mapping, or null
+     * @return a new empty LRU map
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    public static Map lru(int maxSize, HBiConsumer evictionListener) {
+        if(maxSize <= 0) throw new IllegalArgumentException();
+        return new Map(maxSize, evictionListener);
     }
 
     /**
@@ -30,7 +181,19 @@ public class Map implements HMap {
      */
     @Override
     public void clear() {
-        table.clear();
+        size = 0;
+        hashSum = 0;
+        if(valueIndex == null && maxSize == 0) {
+            inline = EMPTY;
+            table = null;
+            return;
+        }
+        for(int i=0; i < table.length; i++) table[i] = null;
+        if(valueIndex != null) {
+            for(int i=0; i < valueIndex.length; i++) valueIndex[i] = null;
+            distinctValues = 0;
+        }
+        eldest = youngest = null;
     }
 
     /**
@@ -45,7 +208,8 @@ public class Map implements HMap {
     @Override
     public boolean containsKey(Object key) {
         if(key == null) throw new NullPointerException();
-        return table.containsKey(key);
+        if(inline != null) return scan(key) >= 0;
+        return getEntry(key) != null;
     }
 
     /**
@@ -59,7 +223,19 @@ public class Map implements HMap {
     @Override
     public boolean containsValue(Object value) {
         if(value == null) throw new NullPointerException();
-        return table.containsValue(value);
+        if(valueIndex != null) return findValue(value) != null;
+        if(inline != null) {
+            for(int i=1; i < 2 * size; i += 2) {
+                if(value.equals(inline[i])) return true;
+            }
+            return false;
+        }
+        for(int i=0; i < table.length; i++) {
+            for(MapEntry e = table[i]; e != null; e = e.next) {
+                if(value.equals(e.value)) return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -73,6 +249,9 @@ public class Map implements HMap {
      * the iterator, other structural changes on the map which are not performed
      * throug the returned set does not effect the validity of the returned set.
      * 
+     * The iterator returns the live entries of the map, without copying them:
+     * their setValue operation writes through to the map.
+     * 
      * The set supports element removal, which removes the corresponding mapping
      * from the map, via the Iterator.remove, Set.remove, removeAll, retainAll 
      * and clear operations. It does not support the add or addAll operations.
@@ -91,6 +270,8 @@ public class Map implements HMap {
      * 
      * This ensures that the equals method works properly across different 
      * implementations of the Map interface.
+     * Two maps whose hash codes differ are told apart without visiting their
+     * mappings.
      * @param obj object to be compared for equality with this map
      * @return true if the specified object is equal to this map
      */
@@ -118,6 +299,7 @@ public class Map implements HMap {
      * 
      * The map doesn't allow null values, so a null return value explicitly 
      * represent the absence of the specified key in the map.
+     * In a bounded map, the mapping becomes the most recently used one.
      * @param key the key whose associated value is to be returned
      * @return the value to which the specified key is mapped, or null if this 
      *         map contains no mapping for the key
@@ -126,7 +308,14 @@ public class Map implements HMap {
     @Override
     public Object get(Object key) {
         if(key == null) throw new NullPointerException();
-        return table.get(key);
+        if(inline != null) {
+            int i = scan(key);
+            return i < 0 ? null : inline[2 * i + 1];
+        }
+        MapEntry e = getEntry(key);
+        if(e == null) return null;
+        if(maxSize > 0) touch(e);
+        return e.value;
     }
     
     /**
@@ -137,11 +326,16 @@ public class Map implements HMap {
      * This ensures that m1.equals(m2) implies that m1.hashCode()==m2.hashCode()
      * for any two maps  m1 and m2, as required by the general contract of 
      * Object.hashCode
+     * 
+     * The sum is kept up to date by the modifications of the map (including 
+     * the ones performed through its views and entries), so this method runs
+     * in constant time. As for any hashed collection, the hash codes of keys 
+     * and values must not change while they are contained in the map.
      * @return the hash code value for this map
      */
     @Override
     public int hashCode() {
-        return entrySet().hashCode();
+        return hashSum;
     }
 
     /**
@@ -150,7 +344,7 @@ public class Map implements HMap {
      */
     @Override
     public boolean isEmpty() {
-        return table.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -178,6 +372,8 @@ public class Map implements HMap {
      * If the map previously contained a mapping for the key, the old value is 
      * replaced by the specified value (a map m is said to contain a mapping for
      * a key k if and only if m.containsKey(k) would return true.)
+     * In a bounded map, the mapping becomes the most recently used one; if 
+     * the map was full, the least recently used mapping is evicted.
      * @param key key with which the specified value is to be associated
      * @param value value to be associated with the specified key
      * @return the previous value associated with key, or null if there was no 
@@ -188,7 +384,47 @@ public class Map implements HMap {
     @Override
     public Object put(Object key, Object value) {
         if(key == null || value == null) throw new NullPointerException();
-        return table.put(key, value);
+        if(inline != null) {
+            int i = scan(key);
+            if(i >= 0) {
+                Object old = inline[2 * i + 1];
+                inline[2 * i + 1] = value;
+                int h = key.hashCode();
+                hashSum += (h ^ value.hashCode()) - (h ^ old.hashCode());
+                return old;
+            }
+            if(size < SMALL_CAPACITY) {
+                if(2 * size == inline.length) {
+                    Object[] grown = new Object[2 * Math.min(Math.max(2, size * 2), SMALL_CAPACITY)];
+                    System.arraycopy(inline, 0, grown, 0, 2 * size);
+                    inline = grown;
+                }
+                inline[2 * size] = key;
+                inline[2 * size + 1] = value;
+                size++;
+                hashSum += key.hashCode() ^ value.hashCode();
+                return null;
+            }
+            inflate();
+        }
+        int hash = hash(key);
+        int index = hash & (table.length - 1);
+        for(MapEntry e = table[index]; e != null; e = e.next) {
+            if(e.hash == hash && key.equals(e.key)) {
+                Object old = e.value;
+                replaceValue(e, value);
+                if(maxSize > 0) touch(e);
+                return old;
+            }
+        }
+        MapEntry e = newEntry(hash, key, value, table[index]);
+        table[index] = e;
+        hashSum += key.hashCode() ^ value.hashCode();
+        if(valueIndex != null) indexValue(e);
+        if(maxSize > 0) linkLast(e);
+        if(++size > threshold) resize();
+        if(size > maxSize && maxSize > 0) evict();
+        return null;
     }
 
     /**
@@ -230,7 +466,15 @@ public class Map implements HMap {
     @Override
     public Object remove(Object key) {
         if(key == null ) throw new NullPointerException();
-        return table.remove(key);
+        if(inline != null) {
+            int i = scan(key);
+            if(i < 0) return null;
+            Object old = inline[2 * i + 1];
+            removeInline(i);
+            return old;
+        }
+        MapEntry e = removeEntry(key);
+        return e == null ? null : e.value;
     }
 
     /**
@@ -239,7 +483,7 @@ public class Map implements HMap {
      */
     @Override
     public int size() {
-        return table.size();
+        return size;
     }
 
     /**
@@ -263,15 +507,544 @@ public class Map implements HMap {
     public HCollection values() {
         return new ElementSet(false);
     }
+
+    /**
+     * Performs the given action for each mapping of this map, reading keys 
+     * and values directly from the table (or from the flat array of a small
+     * map), without allocating any entry.
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     */
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        if(inline != null) {
+            Object[] flat = inline;
+            for(int i=0; i < size; i++) action.accept(flat[2 * i], flat[2 * i + 1]);
+            return;
+        }
+        MapEntry[] tab = table;
+        for(int i=0; i < tab.length; i++) {
+            for(MapEntry e = tab[i]; e != null; e = e.next) action.accept(e.key, e.value);
+        }
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the given
+     * function on its key and value, keeping the value index and the hash 
+     * code of the map updated.
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the function is null, or if it returns null
+     */
+    @Override
+    public void replaceAll(HBiFunction function) {
+        if(function == null) throw new NullPointerException();
+        if(inline != null) {
+            for(int i=0; i < size; i++) {
+                Object key = inline[2 * i], old = inline[2 * i + 1];
+                Object value = function.apply(key, old);
+                if(value == null) throw new NullPointerException();
+                int h = key.hashCode();
+                hashSum += (h ^ value.hashCode()) - (h ^ old.hashCode());
+                inline[2 * i + 1] = value;
+            }
+            return;
+        }
+        for(int i=0; i < table.length; i++) {
+            for(MapEntry e = table[i]; e != null; e = e.next) {
+                Object value = function.apply(e.key, e.value);
+                if(value == null) throw new NullPointerException();
+                replaceValue(e, value);
+            }
+        }
+    }
+    
+    /**
+     * Returns an immutable copy of this map, whose keys and values are stored
+     * in two parallel arrays of exactly size() cells, with the keys indexed by
+     * a compact table of ints and no entry objects.
+     * The copy doesn't change when this map is modified, and it can be read
+     * by any number of threads without synchronization.
+     * @return an ImmutableMap with the mappings of this map
+     */
+    public ImmutableMap freeze() {
+        return ImmutableMap.copyOf(this);
+    }
+    
+    /**
+     * Spreads the hash of the key, so that the low bits used to select the 
+     * bucket depend on all the bits of hashCode().
+     * @param key key whose hash has to be computed
+     * @return the spread hash of the key
+     */
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Returns the maximum number of mappings of a table with the specified 
+     * number of buckets (load factor 0.75).
+     * @param capacity number of buckets of the table
+     * @return the maximum number of mappings
+     */
+    private static int threshold(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+    
+    /**
+     * Looks for the specified key in the flat array.
+     * @param key key to look for, not null
+     * @return the index of the mapping of the key, or -1 if it isn't contained
+     */
+    private int scan(Object key) {
+        for(int i=0; i < size; i++) {
+            Object k = inline[2 * i];
+            if(k == key || k.equals(key)) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Removes the mapping at the specified index of the flat array, shifting 
+     * the following mappings to the left.
+     * @param index index of the mapping to be removed
+     */
+    void removeInline(int index) {
+        hashSum -= inline[2 * index].hashCode() ^ inline[2 * index + 1].hashCode();
+        int moved = 2 * (size - index - 1);
+        if(moved > 0) System.arraycopy(inline, 2 * index + 2, inline, 2 * index, moved);
+        size--;
+        inline[2 * size] = null;
+        inline[2 * size + 1] = null;
+    }
+    
+    /**
+     * Moves the mappings of the flat array to a new hash table.
+     */
+    private void inflate() {
+        Object[] old = inline;
+        table = new MapEntry[DEFAULT_CAPACITY];
+        threshold = threshold(DEFAULT_CAPACITY);
+        inline = null;
+        int mask = DEFAULT_CAPACITY - 1;
+        for(int i=0; i < size; i++) {
+            int hash = hash(old[2 * i]);
+            int index = hash & mask;
+            table[index] = new MapEntry(hash, old[2 * i], old[2 * i + 1], table[index]);
+        }
+    }
+    
+    /**
+     * Creates an entry to be stored in the table, of the subclass which holds
+     * the links required by the map.
+     * @param hash spread hash of the key
+     * @param key key of the mapping
+     * @param value value of the mapping
+     * @param next next entry of the bucket
+     * @return the new entry
+     */
+    private MapEntry newEntry(int hash, Object key, Object value, MapEntry next) {
+        if(valueIndex != null) return new IndexedEntry(hash, key, value, next);
+        if(maxSize > 0) return new LinkedEntry(hash, key, value, next);
+        return new MapEntry(hash, key, value, next);
+    }
+    
+    /**
+     * Returns the entry of the specified key, or null if the map contains no 
+     * mapping for it.
+     * @param key key to look for, not null
+     * @return the entry of the key, or null
+     */
+    MapEntry getEntry(Object key) {
+        int hash = hash(key);
+        for(MapEntry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if(e.hash == hash && key.equals(e.key)) return e;
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the value of the specified key, or null if the map contains no
+     * mapping for it.
+     * Unlike get, the lookup doesn't make the mapping the most recently used
+     * one of a bounded map, so the membership tests of the views don't change
+     * the order of eviction.
+     * @param key key to look for, not null
+     * @return the value of the key, or null
+     */
+    Object lookup(Object key) {
+        if(inline != null) {
+            int i = scan(key);
+            return i < 0 ? null : inline[2 * i + 1];
+        }
+        MapEntry e = getEntry(key);
+        return e == null ? null : e.value;
+    }
+    
+    /**
+     * Unlinks the entry of the specified key from its bucket.
+     * @param key key whose entry has to be removed, not null
+     * @return the removed entry, or null if the map contains no mapping for the key
+     */
+    MapEntry removeEntry(Object key) {
+        int hash = hash(key);
+        int index = hash & (table.length - 1);
+        MapEntry prev = null;
+        for(MapEntry e = table[index]; e != null; prev = e, e = e.next) {
+            if(e.hash == hash && key.equals(e.key)) {
+                if(prev == null) table[index] = e.next;
+                else prev.next = e.next;
+                size--;
+                hashSum -= e.key.hashCode() ^ e.value.hashCode();
+                e.stored = false;
+                if(valueIndex != null) unindexValue(e);
+                if(maxSize > 0) unlink(e);
+                return e;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Appends the specified entry to the access-ordered list.
+     * @param entry entry stored in the table, a LinkedEntry
+     */
+    private void linkLast(MapEntry entry) {
+        LinkedEntry e = (LinkedEntry) entry;
+        e.before = youngest;
+        e.after = null;
+        if(youngest == null) eldest = e;
+        else youngest.after = e;
+        youngest = e;
+    }
+    
+    /**
+     * Removes the specified entry from the access-ordered list.
+     * @param entry entry linked in the list, a LinkedEntry
+     */
+    private void unlink(MapEntry entry) {
+        LinkedEntry e = (LinkedEntry) entry;
+        if(e.before == null) eldest = e.after;
+        else e.before.after = e.after;
+        if(e.after == null) youngest = e.before;
+        else e.after.before = e.before;
+        e.before = e.after = null;
+    }
+    
+    /**
+     * Moves the specified entry to the end of the access-ordered list, as the
+     * most recently used one.
+     * @param e entry linked in the list
+     */
+    private void touch(MapEntry e) {
+        if(e == youngest) return;
+        unlink(e);
+        linkLast(e);
+    }
+    
+    /**
+     * Removes the least recently used mapping of a full bounded map, and 
+     * passes it to the eviction listener.
+     */
+    private void evict() {
+        MapEntry e = eldest;
+        removeEntry(e.key);
+        if(evictionListener != null) evictionListener.accept(e.key, e.value);
+    }
+    
+    /**
+     * Returns the element of a view of the specified stored entry.
+     * @param e entry stored in the table
+     * @param kind ENTRIES, KEYS or VALUES
+     * @return the entry, its key or its value
+     */
+    private static Object element(MapEntry e, int kind) {
+        if(kind == KEYS) return e.key;
+        if(kind == VALUES) return e.value;
+        return e;
+    }
+    
+    /**
+     * Returns the element of a view of the mapping at the specified index of
+     * the flat array. The entries are created on the fly.
+     * @param index index of the mapping
+     * @param kind ENTRIES, KEYS or VALUES
+     * @return an entry, the key or the value of the mapping
+     */
+    private Object element(int index, int kind) {
+        if(kind == KEYS) return inline[2 * index];
+        if(kind == VALUES) return inline[2 * index + 1];
+        return new MapEntry(inline[2 * index], inline[2 * index + 1], true);
+    }
+    
+    /**
+     * Performs the given action for each element of a view, walking the table
+     * (or the flat array) directly.
+     * @param action the action to be performed for each element
+     * @param kind ENTRIES, KEYS or VALUES
+     */
+    void forEachElement(HConsumer action, int kind) {
+        if(inline != null) {
+            for(int i=0; i < size; i++) action.accept(element(i, kind));
+            return;
+        }
+        MapEntry[] tab = table;
+        for(int i=0; i < tab.length; i++) {
+            for(MapEntry e = tab[i]; e != null; e = e.next) action.accept(element(e, kind));
+        }
+    }
+    
+    /**
+     * Removes the mappings whose element of a view satisfies the specified
+     * predicate, in a single pass over the table (or the flat array).
+     * @param filter predicate which returns true for the elements to be removed
+     * @param kind ENTRIES, KEYS or VALUES
+     * @return true if any mappings were removed
+     */
+    boolean removeMatching(HPredicate filter, int kind) {
+        boolean removed = false;
+        if(inline != null) {
+            int i = 0;
+            while(i < size) {
+                if(filter.test(element(i, kind))) {
+                    removeInline(i);
+                    removed = true;
+                } else {
+                    i++;
+                }
+            }
+            return removed;
+        }
+        for(int i=0; i < table.length; i++) {
+            MapEntry e = table[i];
+            while(e != null) {
+                MapEntry next = e.next;
+                if(filter.test(element(e, kind))) {
+                    removeEntry(e.key);
+                    removed = true;
+                }
+                e = next;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Copies the elements of a view in the first size cells of the specified 
+     * array, walking the table (or the flat array) directly.
+     * @param res array big enough to contain all the elements
+     * @param kind ENTRIES, KEYS or VALUES
+     * @return the array passed as parameter
+     */
+    Object[] copyElements(Object[] res, int kind) {
+        if(inline != null) {
+            for(int i=0; i < size; i++) res[i] = element(i, kind);
+            return res;
+        }
+        int j = 0;
+        for(int i=0; i < table.length; i++) {
+            for(MapEntry e = table[i]; e != null; e = e.next) res[j++] = element(e, kind);
+        }
+        return res;
+    }
+    
+    /**
+     * Doubles the number of buckets of the table, moving the entries (and not
+     * copying them) to their new buckets.
+     */
+    private void resize() {
+        MapEntry[] old = table;
+        if(old.length >= MAX_CAPACITY) return;
+        MapEntry[] tab = new MapEntry[old.length << 1];
+        int mask = tab.length - 1;
+        for(int i=0; i < old.length; i++) {
+            MapEntry e = old[i];
+            while(e != null) {
+                MapEntry next = e.next;
+                int index = e.hash & mask;
+                e.next = tab[index];
+                tab[index] = e;
+                e = next;
+            }
+        }
+        table = tab;
+        threshold = threshold(tab.length);
+    }
+    
+    /**
+     * Replaces the value of a stored entry, keeping the value index and the 
+     * hash code of the map updated.
+     * @param e entry stored in the table
+     * @param value new value of the entry, not null
+     */
+    void replaceValue(MapEntry e, Object value) {
+        if(valueIndex != null) unindexValue(e);
+        int h = e.key.hashCode();
+        hashSum += (h ^ value.hashCode()) - (h ^ e.value.hashCode());
+        e.value = value;
+        if(valueIndex != null) indexValue(e);
+    }
+    
+    /**
+     * Returns the node of the value index of the specified value, or null if
+     * no key is mapped to it.
+     * @param value value to look for, not null
+     * @return the node of the value, or null
+     */
+    ValueNode findValue(Object value) {
+        int hash = hash(value);
+        for(ValueNode n = valueIndex[hash & (valueIndex.length - 1)]; n != null; n = n.next) {
+            if(n.hash == hash && value.equals(n.value)) return n;
+        }
+        return null;
+    }
+    
+    /**
+     * Adds the specified entry to the chain of its value, creating the node of
+     * the value if it isn't already in the index.
+     * @param entry entry stored in the table, an IndexedEntry
+     */
+    private void indexValue(MapEntry entry) {
+        IndexedEntry e = (IndexedEntry) entry;
+        int hash = hash(entry.value);
+        int index = hash & (valueIndex.length - 1);
+        ValueNode n = valueIndex[index];
+        while(n != null && !(n.hash == hash && entry.value.equals(n.value))) n = n.next;
+        if(n == null) {
+            n = new ValueNode(hash, entry.value, valueIndex[index]);
+            valueIndex[index] = n;
+            if(++distinctValues > threshold(valueIndex.length)) resizeValueIndex();
+        }
+        e.prevSameValue = null;
+        e.nextSameValue = n.first;
+        if(n.first != null) n.first.prevSameValue = e;
+        n.first = e;
+        n.count++;
+    }
+    
+    /**
+     * Removes the specified entry from the chain of its value, removing the 
+     * node of the value from the index if no other key is mapped to it.
+     * @param entry entry stored in the table, an IndexedEntry
+     */
+    private void unindexValue(MapEntry entry) {
+        IndexedEntry e = (IndexedEntry) entry;
+        int hash = hash(entry.value);
+        int index = hash & (valueIndex.length - 1);
+        ValueNode prev = null;
+        ValueNode n = valueIndex[index];
+        while(!(n.hash == hash && entry.value.equals(n.value))) {
+            prev = n;
+            n = n.next;
+        }
+        if(e.prevSameValue == null) n.first = e.nextSameValue;
+        else e.prevSameValue.nextSameValue = e.nextSameValue;
+        if(e.nextSameValue != null) e.nextSameValue.prevSameValue = e.prevSameValue;
+        e.prevSameValue = e.nextSameValue = null;
+        if(--n.count == 0) {
+            if(prev == null) valueIndex[index] = n.next;
+            else prev.next = n.next;
+            distinctValues--;
+        }
+    }
+    
+    /**
+     * Doubles the number of buckets of the value index.
+     */
+    private void resizeValueIndex() {
+        ValueNode[] old = valueIndex;
+        if(old.length >= MAX_CAPACITY) return;
+        ValueNode[] tab = new ValueNode[old.length << 1];
+        int mask = tab.length - 1;
+        for(int i=0; i < old.length; i++) {
+            ValueNode n = old[i];
+            while(n != null) {
+                ValueNode next = n.next;
+                int index = n.hash & mask;
+                n.next = tab[index];
+                tab[index] = n;
+                n = next;
+            }
+        }
+        valueIndex = tab;
+    }
+    
+    /**
+     * Removes all the mappings whose value is not contained in the specified 
+     * collection, visiting every distinct value once through the value index.
+     * @param c collection containing the values to be retained
+     * @return true if the map changed as a result of the call
+     */
+    private boolean retainValues(HCollection c) {
+        boolean modified = false;
+        for(int i=0; i < valueIndex.length; i++) {
+            ValueNode n = valueIndex[i];
+            while(n != null) {
+                ValueNode next = n.next;
+                if(!c.contains(n.value)) {
+                    while(n.first != null) removeEntry(n.first.getKey());
+                    modified = true;
+                }
+                n = next;
+            }
+        }
+        return modified;
+    }
+    
+    /**
+     * Node of the value index: a distinct value, the number of keys mapped to
+     * it and the first entry of the chain of their entries.
+     */
+    static final class ValueNode {
+        
+        final int hash;
+        final Object value;
+        int count;
+        IndexedEntry first;
+        ValueNode next;
+        
+        ValueNode(int hash, Object value, ValueNode next) {
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+        
+    }
     
+    /**
+     * Map entry. The entries stored in the table of the map are linked in 
+     * their bucket through the next field; entries created through the public
+     * constructor are not linked to any map.
+     */
     public class MapEntry implements HMap.Entry {
         
+        final int hash;
         private final Object key;
         private Object value;
+        MapEntry next;
+        boolean stored;
+        boolean inlined;
 
         public MapEntry(Object key, Object value) {
             this.key = key;
             this.value = value;
+            this.hash = 0;
+        }
+        
+        MapEntry(Object key, Object value, boolean inlined) {
+            this.key = key;
+            this.value = value;
+            this.hash = 0;
+            this.inlined = inlined;
+        }
+        
+        MapEntry(int hash, Object key, Object value, MapEntry next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+            this.stored = true;
         }
 
         /**
@@ -320,14 +1093,20 @@ public class Map implements HMap {
 
         /**
          * Replaces the value corresponding to this entry with the specified value.  
+         * If this entry has been returned by the iterator of the entrySet() view,
+         * the new value is written through to the map.
          * The behavior of this call is undefined if the mapping has already been removed from the map (by the iterator's <tt>remove</tt> operation).
          * @param value new value to be stored in this entry
          * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
          */
         @Override
         public Object setValue(Object value) {
-            Object old = value;
-            this.value = value;
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            if(stored) replaceValue(this, value);
+            else this.value = value;
+            if(inlined && containsKey(key)) put(key, value);
             return old;
         }
 
@@ -345,11 +1124,44 @@ public class Map implements HMap {
         
     }
     
+    /**
+     * Entry of a map with the value index, linked in the chain of the entries
+     * mapped to the same value.
+     */
+    class IndexedEntry extends MapEntry {
+        
+        IndexedEntry prevSameValue;
+        IndexedEntry nextSameValue;
+        
+        IndexedEntry(int hash, Object key, Object value, MapEntry next) {
+            super(hash, key, value, next);
+        }
+        
+    }
+    
+    /**
+     * Entry of a bounded map, linked in the access-ordered list.
+     */
+    class LinkedEntry extends MapEntry {
+        
+        LinkedEntry before;
+        LinkedEntry after;
+        
+        LinkedEntry(int hash, Object key, Object value, MapEntry next) {
+            super(hash, key, value, next);
+        }
+        
+    }
+    
     class EntrySet implements HSet {
         
         public EntrySet() {
         }
         
+        Map map() {
+            return Map.this;
+        }
+        
         @Override
         public boolean add(Object e) {
             throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
@@ -362,15 +1174,16 @@ public class Map implements HMap {
 
         @Override
         public void clear() {
-            table.clear();
+            Map.this.clear();
         }
         
         @Override
         public boolean contains(Object o) {
             if(o == null) throw new NullPointerException();
-            if(!o.getClass().equals(adapters.Map.MapEntry.class)) throw new IllegalArgumentException();
-            Map.Entry entry = (Map.Entry) o;
-            return table.containsKey(entry.getKey()) && table.get(entry.getKey()).equals(entry.getValue());
+            if(!(o instanceof HMap.Entry)) return false;
+            HMap.Entry entry = (HMap.Entry) o;
+            Object value = entry.getKey() == null ? null : lookup(entry.getKey());
+            return value != null && value.equals(entry.getValue());
         }
 
         @Override
@@ -386,11 +1199,12 @@ public class Map implements HMap {
         @Override 
         public boolean equals(Object o) {
             if (o == this) return true; 
-            if (!(o.getClass().equals(this.getClass()))) { 
+            if (!(o instanceof HSet)) { 
                 return false; 
             }    
-            EntrySet other = (EntrySet) o;
+            HSet other = (HSet) o;
             if (other.size() != size()) return false;
+            if (other instanceof EntrySet && other.hashCode() != hashCode()) return false;
             HIterator it = iterator();
             while(it.hasNext())
                 if(!other.contains(it.next())) 
@@ -400,16 +1214,12 @@ public class Map implements HMap {
 
         @Override 
         public int hashCode() {
-            int hash = 0;
-            HIterator it = iterator();
-            while(it.hasNext()) 
-                hash += it.next().hashCode();
-            return hash;
+            return hashSum;
         }
 
         @Override
         public boolean isEmpty() {
-            return table.isEmpty();
+            return size == 0;
         }
 
         @Override
@@ -420,10 +1230,9 @@ public class Map implements HMap {
         @Override
         public boolean remove(Object o) {
             if(o == null) throw new NullPointerException();
-            if(!o.getClass().equals(adapters.Map.MapEntry.class)) throw new IllegalArgumentException();
-            Map.Entry entry = (Map.Entry) o;
-            Object ret = table.remove(entry.getKey());
-            return ret == null;    
+            if(!contains(o)) return false;
+            Map.this.remove(((HMap.Entry) o).getKey());
+            return true;
         }
 
         @Override
@@ -449,17 +1258,12 @@ public class Map implements HMap {
 
         @Override
         public int size() {
-            return table.size();
+            return size;
         }
 
         @Override
         public Object[] toArray() {
-            Object[] res = new Object[size()];
-            HIterator it = iterator();
-            int i = 0;
-            while(it.hasNext()) 
-                res[i++] = it.next();
-            return res;
+            return copyElements(new Object[size()], ENTRIES);
         }
 
         @Override
@@ -471,40 +1275,27 @@ public class Map implements HMap {
             } else {
                 res = new Object[size()];
             }        
-            int i = 0;
-            HIterator it = iterator();
-            while(it.hasNext()) res[i++] = it.next();
-            return res;
+            return copyElements(res, ENTRIES);
         }
-        
-        class EntrySetIterator implements HIterator {
-        
-            HMap.Entry current;
-            Enumeration keys;
 
-            public EntrySetIterator() {
-                current = null;
-                keys = table.keys();
-            }
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            forEachElement(action, ENTRIES);
+        }
 
-            @Override
-            public boolean hasNext() {
-                return keys.hasMoreElements();
-            }
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            return removeMatching(filter, ENTRIES);
+        }
+        
+        class EntrySetIterator extends HashIterator {
 
             @Override
             public Object next() {
-                if(!hasNext()) throw new NoSuchElementException();   
-                Object key = keys.nextElement();
-                current = new Map.MapEntry(key, table.get(key));
-                return current;
-            }
-
-            @Override
-            public void remove() {
-                if(current == null) throw new exceptions.IllegalStateException();
-                table.remove(current.getKey());
-                current = null;
+                step();
+                return entry();
             }
 
         }
@@ -520,6 +1311,18 @@ public class Map implements HMap {
             this.type = type;
         }        
         
+        Map map() {
+            return Map.this;
+        }
+        
+        boolean isKeySet() {
+            return type;
+        }
+        
+        private int kind() {
+            return type ? KEYS : VALUES;
+        }
+        
         @Override
         public boolean add(Object e) {
             throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
@@ -532,7 +1335,7 @@ public class Map implements HMap {
 
         @Override
         public void clear() {
-            table.clear();
+            Map.this.clear();
         }
 
         @Override
@@ -549,16 +1352,11 @@ public class Map implements HMap {
         @Override 
         public boolean equals(Object o) {
             if (o == this) return true; 
-            if (!(o.getClass().equals(this.getClass()))) { 
+            if (!(o instanceof HSet)) { 
                 return false; 
             }    
-            ElementSet other = (ElementSet) o;
-            if (other.size() != size()) return false;
-            HIterator it = iterator();
-            while(it.hasNext())
-                if(!other.contains(it.next())) 
-                    return false;
-            return true;
+            HSet other = (HSet) o;
+            return other.size() == size() && containsAll(other);
         }
 
         @Override 
@@ -572,7 +1370,7 @@ public class Map implements HMap {
 
         @Override
         public boolean isEmpty() {
-            return table.isEmpty();
+            return size == 0;
         }
 
         @Override
@@ -590,12 +1388,17 @@ public class Map implements HMap {
         @Override
         public boolean remove(Object o) {
             if(o == null) throw new NullPointerException();
-            if(type) return table.remove(o) == null;
-            HIterator it = entrySet().iterator();
+            if(type) return Map.this.remove(o) != null;
+            if(valueIndex != null) {
+                ValueNode n = findValue(o);
+                if(n == null) return false;
+                removeEntry(n.first.getKey());
+                return true;
+            }
+            HashIterator it = new MapElementIterator();
             while(it.hasNext()) {
-                Map.MapEntry entry = (Map.MapEntry) it.next();
-                if(entry.getValue().equals(o)) {
-                    table.remove(entry.getKey());
+                if(o.equals(it.next())) {
+                    it.remove();
                     return true;
                 }
             }
@@ -614,6 +1417,7 @@ public class Map implements HMap {
         @Override
         public boolean retainAll(HCollection c) {
             if(c == null) throw new NullPointerException();
+            if(!type && valueIndex != null) return retainValues(c);
             List toRemove = new List();
             HIterator it = iterator();
             while(it.hasNext()) {
@@ -625,17 +1429,12 @@ public class Map implements HMap {
 
         @Override
         public int size() {
-            return table.size();
+            return size;
         }
 
         @Override
         public Object[] toArray() {
-            Object[] res = new Object[size()];
-            HIterator it = iterator();
-            int i = 0;
-            while(it.hasNext()) 
-                res[i++] = it.next();
-            return res;
+            return copyElements(new Object[size()], kind());
         }
 
         @Override
@@ -647,39 +1446,112 @@ public class Map implements HMap {
             } else {
                 res = new Object[size()];
             }        
-            int i = 0;
-            HIterator it = iterator();
-            while(it.hasNext()) res[i++] = it.next();
-            return res;
+            return copyElements(res, kind());
         }
-        
-        class MapElementIterator implements HIterator {
 
-            private final HIterator it;
-            
-            public MapElementIterator() {
-                it = entrySet().iterator();
-            }
-            
-            @Override
-            public boolean hasNext() {
-                return it.hasNext();
-            }
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            forEachElement(action, kind());
+        }
 
-            @Override
-            public Object next() {
-                Map.Entry o = (Map.Entry) it.next();
-                if(type) return o.getKey();
-                return o.getValue();
-            }
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            return removeMatching(filter, kind());
+        }
+        
+        class MapElementIterator extends HashIterator {
 
             @Override
-            public void remove() {
-                it.remove();
+            public Object next() {
+                step();
+                if(type) return key();
+                return value();
             }
             
         }
         
     }
     
-}
\ No newline at end of file
+    /**
+     * Base iterator over the mappings, which walks the buckets of the table 
+     * (or the flat array of a small map) directly, and returns the stored 
+     * entries without copying them.
+     */
+    abstract class HashIterator implements HIterator {
+        
+        // true if the map was in the flat layout when the iterator was created
+        private final boolean flat;
+        private int cursor;
+        private int last = -1;
+        
+        private MapEntry next;
+        private MapEntry current;
+        private int index;
+        
+        HashIterator() {
+            flat = inline != null;
+            if(!flat) advance(null);
+        }
+        
+        /**
+         * Moves next to the entry which follows the specified one, or to the 
+         * first entry of the table if the specified one is null.
+         * @param e last entry returned, or null
+         */
+        private void advance(MapEntry e) {
+            MapEntry[] tab = table;
+            next = e == null ? null : e.next;
+            while(next == null && index < tab.length) next = tab[index++];
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if(flat) return cursor < size;
+            return next != null;
+        }
+        
+        /**
+         * Moves the iterator to the next mapping.
+         * @throws NoSuchElementException if there are no more mappings
+         */
+        void step() {
+            if(!hasNext()) throw new NoSuchElementException();
+            if(flat) {
+                last = cursor++;
+            } else {
+                current = next;
+                advance(current);
+            }
+        }
+        
+        Object key() {
+            return flat ? inline[2 * last] : current.key;
+        }
+        
+        Object value() {
+            return flat ? inline[2 * last + 1] : current.value;
+        }
+        
+        MapEntry entry() {
+            return flat ? new MapEntry(inline[2 * last], inline[2 * last + 1], true) : current;
+        }
+        
+        @Override
+        public void remove() {
+            if(flat) {
+                if(last < 0) throw new exceptions.IllegalStateException();
+                removeInline(last);
+                cursor = last;
+                last = -1;
+                return;
+            }
+            if(current == null) throw new exceptions.IllegalStateException();
+            removeEntry(current.key);
+            current = null;
+        }
+        
+    }
+    
+}
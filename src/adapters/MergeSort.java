@@ -0,0 +1,274 @@
+package adapters;
+
+import interfaces.HComparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of a range of an array, used by List.sort.
+ *
+ * Short runs are sorted with a binary insertion sort, and the sorted halves
+ * are merged through a workspace as long as the range; two halves already in
+ * order are not merged at all, so sorting a sorted range takes linear time.
+ * Ranges of at least PARALLEL_THRESHOLD elements are sorted on the common
+ * ForkJoinPool: the halves are sorted in parallel, and the merges are split in
+ * independent parts by a binary search of the middle element of the longer
+ * run in the other one. This is the only part of the List engine which
+ * depends on java.util.concurrent.
+ *
+ * If the comparator throws an exception the range is left partially sorted,
+ * but it still contains all of its elements: the comparisons of an insertion
+ * are made before the elements are moved, and an interrupted merge copies the
+ * rest of its runs back in the array.
+ * @author Giacomo Camposampiero
+ */
+final class MergeSort {
+
+    /**
+     * Length of the runs which are sorted by insertion.
+     */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /**
+     * Length of the ranges (and of the merges) above which the work is split
+     * among the threads of the pool.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private MergeSort() {
+    }
+
+    /**
+     * Sorts the elements of a[fromIndex, toIndex) according to the specified
+     * comparator, or to their natural ordering if the comparator is null.
+     * @param a array containing the range to be sorted
+     * @param fromIndex index of the first element to be sorted
+     * @param toIndex index after the last element to be sorted
+     * @param c the comparator, or null for the natural ordering
+     * @throws ClassCastException if the elements are not mutually comparable
+     */
+    static void sort(Object[] a, int fromIndex, int toIndex, HComparator c) {
+        int n = toIndex - fromIndex;
+        if(n < 2) return;
+        if(n <= INSERTION_THRESHOLD) {
+            insertionSort(a, fromIndex, toIndex, c);
+            return;
+        }
+        Object[] work = new Object[n];
+        if(n < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2)
+            mergeSort(a, work, fromIndex, fromIndex, toIndex, c);
+        else
+            ForkJoinPool.commonPool().invoke(new Sorter(a, work, fromIndex, fromIndex, toIndex, c));
+    }
+
+    /**
+     * Searches the specified key in the sorted range a[fromIndex, toIndex).
+     * @param a array containing the range
+     * @param fromIndex index of the first element of the range
+     * @param toIndex index after the last element of the range
+     * @param key the element to be searched
+     * @param c the comparator, or null for the natural ordering
+     * @return the index of the key, if it is contained in the range; otherwise (-(insertion point) - 1)
+     * @throws ClassCastException if the key is not comparable to the elements
+     */
+    static int binarySearch(Object[] a, int fromIndex, int toIndex, Object key, HComparator c) {
+        int low = fromIndex;
+        int high = toIndex - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(a[mid], key, c);
+            if(cmp < 0) low = mid + 1;
+            else if(cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object o1, Object o2, HComparator c) {
+        if(c == null) return ((Comparable) o1).compareTo(o2);
+        return c.compare(o1, o2);
+    }
+
+    /**
+     * Binary insertion sort of a[from, to).
+     */
+    private static void insertionSort(Object[] a, int from, int to, HComparator c) {
+        for(int i=from+1; i < to; i++) {
+            Object pivot = a[i];
+            int low = from;
+            int high = i;
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                if(compare(pivot, a[mid], c) < 0) high = mid;
+                else low = mid + 1;
+            }
+            System.arraycopy(a, low, a, low + 1, i - low);
+            a[low] = pivot;
+        }
+    }
+
+    /**
+     * Sequential merge sort of a[from, to), which uses work[from - base, to - base)
+     * as workspace.
+     */
+    private static void mergeSort(Object[] a, Object[] work, int base, int from, int to, HComparator c) {
+        if(to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, work, base, from, mid, c);
+        mergeSort(a, work, base, mid, to, c);
+        if(compare(a[mid - 1], a[mid], c) <= 0) return;
+        System.arraycopy(a, from, work, from - base, to - from);
+        merge(work, from - base, mid - base, mid - base, to - base, a, from, c);
+    }
+
+    /**
+     * Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst, from
+     * the index dstIndex. With equal elements, the ones of the first run come
+     * first.
+     */
+    private static void merge(Object[] src, int lo1, int hi1, int lo2, int hi2, Object[] dst, int dstIndex, HComparator c) {
+        int i = lo1;
+        int j = lo2;
+        int k = dstIndex;
+        try {
+            while(i < hi1 && j < hi2) {
+                if(compare(src[j], src[i], c) < 0) dst[k++] = src[j++];
+                else dst[k++] = src[i++];
+            }
+        } finally {
+            System.arraycopy(src, i, dst, k, hi1 - i);
+            System.arraycopy(src, j, dst, k + hi1 - i, hi2 - j);
+        }
+    }
+
+    /**
+     * Returns the index of the first element of the sorted run src[from, to)
+     * which is greater than the key (strict) or not less than the key.
+     */
+    private static int bound(Object[] src, int from, int to, Object key, boolean strict, HComparator c) {
+        while(from < to) {
+            int mid = (from + to) >>> 1;
+            int cmp = compare(src[mid], key, c);
+            if(cmp < 0 || (strict && cmp == 0)) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+
+    /**
+     * Task which sorts a[from, to), using work[from - base, to - base) as
+     * workspace.
+     */
+    static final class Sorter extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] a;
+        private final Object[] work;
+        private final int base;
+        private final int from;
+        private final int to;
+        private final HComparator c;
+
+        Sorter(Object[] a, Object[] work, int base, int from, int to, HComparator c) {
+            this.a = a;
+            this.work = work;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from < PARALLEL_THRESHOLD) {
+                mergeSort(a, work, base, from, to, c);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Sorter right = new Sorter(a, work, base, mid, to, c);
+            right.fork();
+            try {
+                new Sorter(a, work, base, from, mid, c).compute();
+            } finally {
+                right.join();
+            }
+            if(compare(a[mid - 1], a[mid], c) <= 0) return;
+            System.arraycopy(a, from, work, from - base, to - from);
+            new Merger(work, from - base, mid - base, mid - base, to - base, a, from, c).compute();
+        }
+
+    }
+
+    /**
+     * Task which merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into
+     * dst, from the index dstIndex.
+     */
+    static final class Merger extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final Object[] dst;
+        private final int dstIndex;
+        private final HComparator c;
+
+        Merger(Object[] src, int lo1, int hi1, int lo2, int hi2, Object[] dst, int dstIndex, HComparator c) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.dstIndex = dstIndex;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if(n1 + n2 < PARALLEL_THRESHOLD || n1 == 0 || n2 == 0) {
+                merge(src, lo1, hi1, lo2, hi2, dst, dstIndex, c);
+                return;
+            }
+            // the middle element of the longer run splits both runs: the
+            // elements of the first run come first when they are equal
+            int split1 = lo1;
+            int split2 = lo2;
+            boolean split = false;
+            try {
+                if(n1 >= n2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = bound(src, lo2, hi2, src[split1], false, c);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = bound(src, lo1, hi1, src[split2], true, c);
+                }
+                split = true;
+            } finally {
+                if(!split) {
+                    System.arraycopy(src, lo1, dst, dstIndex, n1);
+                    System.arraycopy(src, lo2, dst, dstIndex + n1, n2);
+                }
+            }
+            Merger right = new Merger(src, split1, hi1, split2, hi2, dst, dstIndex + (split1 - lo1) + (split2 - lo2), c);
+            right.fork();
+            try {
+                new Merger(src, lo1, split1, lo2, split2, dst, dstIndex, c).compute();
+            } finally {
+                right.join();
+            }
+        }
+
+    }
+
+}
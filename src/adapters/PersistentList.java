@@ -0,0 +1,874 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent implementation of the HList interface: a list which never
+ * changes, whose updates return a new version of the list sharing most of
+ * its structure with the old one.
+ * The elements are stored in a trie of arrays of 32 cells (a radix-balanced
+ * vector): the leaves hold the elements, the inner nodes hold up to 32
+ * children, and the index of an element selects the child at every level
+ * with 5 of its bits. The last elements (up to 32) are kept in a separate
+ * tail array, so that appending an element only copies the tail, and once in
+ * 32 times the path from the root to the new leaf. get and with (the update
+ * of an element) visit log32(n) nodes, which is at most 7 for any list;
+ * with copies the path to the element and shares all the rest, so every
+ * version costs O(log n) memory instead of the O(n) of a copy.
+ * Appending and removing the last element (plus and minusLast) take
+ * constant time, amortized.
+ *
+ * A list returned by subList shares the trie of the list it comes from: it
+ * keeps the index in the trie of its first element (its origin), and only
+ * the nodes on the paths to the ends of the range are copied, with the
+ * cells out of the range cleared so that the elements left out are not
+ * retained. A slice takes O(log n) time and memory; the trie loses the
+ * levels it doesn't need anymore.
+ *
+ * A Transient is a mutable copy of a list, which updates in place the nodes
+ * it has created itself, and copies the other ones only the first time they
+ * are modified: it's meant to build a list, or to apply many updates, before
+ * turning the result into a new PersistentList with persistent(). A
+ * transient must be used by a single thread.
+ *
+ * The list satisfies the read contract of HList, and all of its reads are
+ * lock-free; the operations of HList which would modify the list throw
+ * UnsupportedOperationException. Null elements are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public final class PersistentList implements HList {
+
+    private static final int SHIFT = 5;
+    private static final int WIDTH = 1 << SHIFT;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+
+    /**
+     * The empty list.
+     */
+    public static final PersistentList EMPTY = new PersistentList(0, 0, SHIFT, EMPTY_NODE, new Object[0]);
+
+    // index in the trie of the first element
+    private final int origin;
+    private final int size;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+    // computed on first use: 0 if not computed yet
+    private int hash;
+
+    private PersistentList(int origin, int size, int shift, Node root, Object[] tail) {
+        this.origin = origin;
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns a persistent list containing the elements of the specified
+     * collection, in the order returned by its iterator. The list is built by
+     * a Transient. If the collection is already a PersistentList it's returned
+     * as it is.
+     * @param c collection whose elements are to be placed into the list
+     * @return a persistent list with the elements of c
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    public static PersistentList copyOf(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        if(c instanceof PersistentList) return (PersistentList) c;
+        return EMPTY.plusAll(c);
+    }
+
+    // ------------------------------------------------------------ updates
+
+    /**
+     * Returns a new version of this list with the specified element appended.
+     * @param e element to be appended
+     * @return the new version of the list
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentList plus(Object e) {
+        if(e == null) throw new NullPointerException();
+        if(tail.length < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = e;
+            return new PersistentList(origin, size + 1, shift, root, newTail);
+        }
+        int end = origin + size;
+        Node tailNode = new Node(null, tail);
+        Node newRoot;
+        int newShift = shift;
+        if((end >>> SHIFT) > (1 << shift)) {
+            // the trie is full: it grows by one level
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += SHIFT;
+        }
+        else newRoot = pushTail(null, end, shift, root, tailNode);
+        return new PersistentList(origin, size + 1, newShift, newRoot, new Object[] {e});
+    }
+
+    /**
+     * Returns a new version of this list with the elements of the specified
+     * collection appended, in the order returned by its iterator. The
+     * elements are appended by a Transient.
+     * @param c elements to be appended
+     * @return the new version of the list
+     * @throws NullPointerException if the collection is null or contains null elements
+     */
+    public PersistentList plusAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        Object[] added = c.toArray();
+        if(added.length == 0) return this;
+        Transient t = asTransient();
+        for(int i=0; i < added.length; i++) t.add(added[i]);
+        return t.persistent();
+    }
+
+    /**
+     * Returns a new version of this list with the element at the specified
+     * position replaced. Only the path from the root to the element is copied.
+     * @param index index of the element to replace
+     * @param e element to be stored at the specified position
+     * @return the new version of the list
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentList with(int index, Object e) {
+        if(e == null) throw new NullPointerException();
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        int i = origin + index;
+        if(i >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[i & MASK] = e;
+            return new PersistentList(origin, size, shift, root, newTail);
+        }
+        return new PersistentList(origin, size, shift, assoc(null, shift, root, i, e), tail);
+    }
+
+    /**
+     * Returns a new version of this list without its last element.
+     * @return the new version of the list
+     * @throws NoSuchElementException if the list is empty
+     */
+    public PersistentList minusLast() {
+        if(size == 0) throw new NoSuchElementException();
+        if(size == 1) return EMPTY;
+        if(tail.length > 1) return new PersistentList(origin, size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        // the tail becomes empty: the last leaf of the trie becomes the tail
+        return asTransient().removeLast().persistent();
+    }
+
+    /**
+     * Returns a Transient holding the elements of this list, which shares the
+     * structure of the list until it's modified.
+     * @return a transient copy of this list
+     */
+    public Transient asTransient() {
+        return new Transient(this);
+    }
+
+    // ------------------------------------------------------------ reads
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of element to return.
+     * @return the element at the specified position in this list.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object get(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        int i = origin + index;
+        return arrayFor(i)[i & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean containsAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        HIterator it = c.iterator();
+        while(it.hasNext()) {
+            if(!contains(it.next())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index in this list of the first occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the first occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int indexOf(Object o) {
+        if(o == null) throw new NullPointerException();
+        int end = origin + size;
+        for(int i=origin; i < end; i = (i | MASK) + 1) {
+            Object[] leaf = arrayFor(i);
+            int n = Math.min(WIDTH, end - (i & ~MASK));
+            for(int j=i & MASK; j < n; j++) {
+                if(o.equals(leaf[j])) return (i & ~MASK) + j - origin;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index in this list of the last occurrence of the specified
+     * element, or -1 if this list does not contain this element.
+     * @param o element to search for.
+     * @return the index of the last occurrence of the element, or -1
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        if(o == null) throw new NullPointerException();
+        for(int i=size-1; i >= 0; i--) {
+            if(o.equals(get(i))) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the specified object with this list for equality.
+     * Returns true if the object is an HList with the same elements in the
+     * same order.
+     * @param o the object to be compared for equality with this list.
+     * @return true if the specified object is equal to this list.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof HList)) return false;
+        HList other = (HList) o;
+        if(other.size() != size) return false;
+        HIterator mine = iterator();
+        HIterator it = other.iterator();
+        while(mine.hasNext()) {
+            if(!it.hasNext() || !mine.next().equals(it.next())) return false;
+        }
+        return !it.hasNext();
+    }
+
+    /**
+     * Returns the hash code value for this list, computed as the one of List
+     * the first time it's requested.
+     * @return the hash code value for this list.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0) {
+            h = 1;
+            HIterator it = iterator();
+            while(it.hasNext()) h = 31 * h + it.next().hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public HIterator iterator() {
+        return new VectorIterator(origin, origin + size, 0);
+    }
+
+    @Override
+    public HListIterator listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator over the elements of this list, starting at the
+     * specified position. The iterator does not support the remove, set and
+     * add operations.
+     * @param index index of first element to be returned from the list iterator.
+     * @return a list iterator of the elements in this list, starting at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     */
+    @Override
+    public HListIterator listIterator(int index) {
+        if(index < 0 || index > size) throw new IndexOutOfBoundsException();
+        return new VectorIterator(origin, origin + size, index);
+    }
+
+    /**
+     * Returns a persistent list with the elements of this list between the
+     * specified fromIndex, inclusive, and toIndex, exclusive. The new list
+     * shares the trie of this list, except for the paths to the ends of the
+     * range, so it's built in O(log n) time.
+     * @param fromIndex low endpoint (inclusive) of the subList.
+     * @param toIndex high endpoint (exclusive) of the subList.
+     * @return a persistent list with the specified range of this list.
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    @Override
+    public HList subList(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        if(fromIndex == 0 && toIndex == size) return this;
+        return asTransient().slice(fromIndex, toIndex).persistent();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toArray(0, size);
+    }
+
+    @Override
+    public Object[] toArray(Object[] a) {
+        if(a == null) throw new NullPointerException();
+        Object[] res = a.length >= size ? a : new Object[size];
+        copyInto(0, size, res);
+        return res;
+    }
+
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        int end = origin + size;
+        for(int i=origin; i < end; i = (i | MASK) + 1) {
+            Object[] leaf = arrayFor(i);
+            int n = Math.min(WIDTH, end - (i & ~MASK));
+            for(int j=i & MASK; j < n; j++) action.accept(leaf[j]);
+        }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        HIterator it = iterator();
+        while(it.hasNext()) res += it.next().toString() + " ";
+        return res;
+    }
+
+    // ------------------------------------------------------------ unsupported
+
+    @Override
+    public boolean add(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(int index, HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(HCollection c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        throw new UnsupportedOperationException();
+    }
+
+    // ------------------------------------------------------------ trie
+
+    /**
+     * Returns the index in the trie of the first element stored in the tail.
+     */
+    private int tailOffset() {
+        return tailOffset(origin + size);
+    }
+
+    /**
+     * Returns the index of the first element stored in the tail of a trie
+     * whose last element has index end - 1.
+     */
+    private static int tailOffset(int end) {
+        return end < WIDTH ? 0 : ((end - 1) >>> SHIFT) << SHIFT;
+    }
+
+    /**
+     * Returns the leaf (or the tail) which holds the element of the given
+     * index in the trie.
+     */
+    private Object[] arrayFor(int index) {
+        return arrayFor(index, origin + size, shift, root, tail);
+    }
+
+    private static Object[] arrayFor(int index, int end, int shift, Node root, Object[] tail) {
+        if(index >= tailOffset(end)) return tail;
+        Node node = root;
+        for(int level=shift; level > 0; level -= SHIFT) node = (Node) node.array[(index >>> level) & MASK];
+        return node.array;
+    }
+
+    private Object[] toArray(int from, int to) {
+        Object[] res = new Object[to - from];
+        copyInto(from, to, res);
+        return res;
+    }
+
+    private void copyInto(int from, int to, Object[] res) {
+        int i = origin + from;
+        int end = origin + to;
+        while(i < end) {
+            Object[] leaf = arrayFor(i);
+            int n = Math.min(WIDTH - (i & MASK), end - i);
+            System.arraycopy(leaf, i & MASK, res, i - origin - from, n);
+            i += n;
+        }
+    }
+
+    /**
+     * Returns a path of new nodes, of the given height, leading to node.
+     */
+    private static Node newPath(Object edit, int level, Node node) {
+        if(level == 0) return node;
+        Node res = new Node(edit, new Object[WIDTH]);
+        res.array[0] = newPath(edit, level - SHIFT, node);
+        return res;
+    }
+
+    /**
+     * Returns a copy of parent (or parent itself, if it's owned by edit) in
+     * which the full tail of a trie whose last element has index end - 1 has
+     * been appended as the last leaf.
+     */
+    private static Node pushTail(Object edit, int end, int level, Node parent, Node tailNode) {
+        Node res = parent.editable(edit);
+        int index = ((end - 1) >>> level) & MASK;
+        if(level == SHIFT) res.array[index] = tailNode;
+        else {
+            Node child = (Node) parent.array[index];
+            res.array[index] = child != null ? pushTail(edit, end, level - SHIFT, child, tailNode) : newPath(edit, level - SHIFT, tailNode);
+        }
+        return res;
+    }
+
+    /**
+     * Returns a copy of node (or node itself, if it's owned by edit) without
+     * the last leaf of a trie whose last element has index end - 1, or null
+     * if it becomes empty.
+     */
+    private static Node popTail(Object edit, int end, int level, Node node) {
+        int index = ((end - 2) >>> level) & MASK;
+        if(level > SHIFT) {
+            Node child = popTail(edit, end, level - SHIFT, (Node) node.array[index]);
+            if(child == null && index == 0) return null;
+            Node res = node.editable(edit);
+            res.array[index] = child;
+            return res;
+        }
+        if(index == 0) return null;
+        Node res = node.editable(edit);
+        res.array[index] = null;
+        return res;
+    }
+
+    /**
+     * Returns a copy of node (or node itself, if it's owned by edit) in which
+     * the element of the given index has been replaced.
+     */
+    private static Node assoc(Object edit, int level, Node node, int index, Object e) {
+        Node res = node.editable(edit);
+        if(level == 0) res.array[index & MASK] = e;
+        else {
+            int sub = (index >>> level) & MASK;
+            res.array[sub] = assoc(edit, level - SHIFT, (Node) node.array[sub], index, e);
+        }
+        return res;
+    }
+
+    /**
+     * Returns a copy of node (or node itself, if it's owned by edit) without
+     * the elements whose index is greater than last, which must be the last
+     * index of a leaf.
+     */
+    private static Node trimRight(Object edit, int level, Node node, int last) {
+        Node res = node.editable(edit);
+        int index = (last >>> level) & MASK;
+        for(int i=index+1; i < WIDTH; i++) res.array[i] = null;
+        if(level > SHIFT) res.array[index] = trimRight(edit, level - SHIFT, (Node) node.array[index], last);
+        return res;
+    }
+
+    /**
+     * Returns a copy of node (or node itself, if it's owned by edit) without
+     * the elements whose index is less than first.
+     */
+    private static Node trimLeft(Object edit, int level, Node node, int first) {
+        Node res = node.editable(edit);
+        int index = (first >>> level) & MASK;
+        for(int i=0; i < index; i++) res.array[i] = null;
+        Node child = (Node) node.array[index];
+        if(level > SHIFT) res.array[index] = trimLeft(edit, level - SHIFT, child, first);
+        else {
+            Node leaf = child.editable(edit);
+            for(int i=0; i < (first & MASK); i++) leaf.array[i] = null;
+            res.array[index] = leaf;
+        }
+        return res;
+    }
+
+    /**
+     * Node of the trie: an array of 32 children, or of 32 elements for the
+     * leaves. The nodes created by a Transient are owned by its edit token,
+     * and only that transient modifies them in place; the nodes of the
+     * persistent lists have a null token and are never modified.
+     */
+    static final class Node {
+
+        final Object edit;
+        final Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        Node editable(Object edit) {
+            if(edit != null && this.edit == edit) return this;
+            return new Node(edit, array.clone());
+        }
+
+    }
+
+    /**
+     * Iterator over the elements with index in the trie in [lowerBound, 
+     * upperBound), which keeps the current leaf so that it visits the trie 
+     * once every 32 elements.
+     */
+    class VectorIterator implements HListIterator {
+
+        private final int lowerBound;
+        private final int upperBound;
+        private int cursor;
+        private Object[] leaf;
+        private int leafBase = -1;
+
+        VectorIterator(int lowerBound, int upperBound, int index) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.cursor = lowerBound + index;
+        }
+
+        private Object element(int index) {
+            int base = index & ~MASK;
+            if(base != leafBase) {
+                leaf = arrayFor(index);
+                leafBase = base;
+            }
+            return leaf[index & MASK];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < upperBound;
+        }
+
+        @Override
+        public Object next() {
+            if(cursor >= upperBound) throw new NoSuchElementException();
+            return element(cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > lowerBound;
+        }
+
+        @Override
+        public Object previous() {
+            if(cursor <= lowerBound) throw new NoSuchElementException();
+            return element(--cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor - lowerBound;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - lowerBound - 1;
+        }
+
+        @Override
+        public void add(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Mutable copy of a PersistentList, used to build a list or to apply many
+     * updates with a single new version at the end.
+     * The transient owns the nodes it creates, and modifies them in place;
+     * the nodes it shares with the persistent lists are copied the first
+     * time they are modified. The tail always has 32 cells. After
+     * persistent() has been called the transient can't be used anymore.
+     * The class is not synchronized.
+     */
+    public static final class Transient {
+
+        private Object edit = new Object();
+        private int origin;
+        private int size;
+        private int shift;
+        private Node root;
+        private Object[] tail;
+
+        Transient(PersistentList list) {
+            origin = list.origin;
+            size = list.size;
+            shift = list.shift;
+            root = list.root;
+            tail = Arrays.copyOf(list.tail, WIDTH);
+        }
+
+        private void ensureEditable() {
+            if(edit == null) throw new IllegalStateException();
+        }
+
+        /**
+         * Appends the specified element.
+         * @param e element to be appended
+         * @return this transient
+         * @throws NullPointerException if the element is null
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Transient add(Object e) {
+            if(e == null) throw new NullPointerException();
+            ensureEditable();
+            int end = origin + size;
+            if(end - tailOffset(end) < WIDTH) {
+                tail[end & MASK] = e;
+                size++;
+                return this;
+            }
+            Node tailNode = new Node(edit, tail);
+            tail = new Object[WIDTH];
+            tail[0] = e;
+            if((end >>> SHIFT) > (1 << shift)) {
+                Node newRoot = new Node(edit, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(edit, shift, tailNode);
+                root = newRoot;
+                shift += SHIFT;
+            }
+            else root = pushTail(edit, end, shift, root, tailNode);
+            size++;
+            return this;
+        }
+
+        /**
+         * Replaces the element at the specified position.
+         * @param index index of the element to replace
+         * @param e element to be stored at the specified position
+         * @return this transient
+         * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+         * @throws NullPointerException if the element is null
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Transient set(int index, Object e) {
+            if(e == null) throw new NullPointerException();
+            ensureEditable();
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            int i = origin + index;
+            if(i >= tailOffset(origin + size)) tail[i & MASK] = e;
+            else root = assoc(edit, shift, root, i, e);
+            return this;
+        }
+
+        /**
+         * Removes the last element.
+         * @return this transient
+         * @throws NoSuchElementException if the transient is empty
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Transient removeLast() {
+            ensureEditable();
+            if(size == 0) throw new NoSuchElementException();
+            int end = origin + size;
+            if(size == 1 || end - tailOffset(end) > 1) {
+                size--;
+                tail[(end - 1) & MASK] = null;
+                return this;
+            }
+            Object[] newTail = arrayFor(end - 2, end, shift, root, tail).clone();
+            Node newRoot = popTail(edit, end, shift, root);
+            root = newRoot == null ? EMPTY_NODE : newRoot;
+            tail = newTail;
+            size--;
+            normalize();
+            return this;
+        }
+
+        /**
+         * Keeps only the elements with index in [from, to): the leaf of the
+         * last one becomes the tail, and the paths to the first and the last
+         * one are copied (or updated in place, if they are owned by this
+         * transient) without the elements out of the range.
+         */
+        Transient slice(int from, int to) {
+            ensureEditable();
+            if(from == to) {
+                origin = size = 0;
+                shift = SHIFT;
+                root = EMPTY_NODE;
+                tail = new Object[WIDTH];
+                return this;
+            }
+            int end = origin + to;
+            int treeEnd = tailOffset(origin + size);
+            if(end <= treeEnd) {
+                tail = arrayFor(end - 1, origin + size, shift, root, tail).clone();
+                int newTreeEnd = tailOffset(end);
+                root = newTreeEnd == 0 ? EMPTY_NODE : trimRight(edit, shift, root, newTreeEnd - 1);
+            }
+            for(int i=((end - 1) & MASK) + 1; i < WIDTH; i++) tail[i] = null;
+            origin += from;
+            size = to - from;
+            if(from > 0 && origin < tailOffset(end)) root = trimLeft(edit, shift, root, origin);
+            normalize();
+            return this;
+        }
+
+        /**
+         * Drops the levels of the trie which aren't needed anymore by the
+         * elements in [origin, origin + size): the root is replaced by its
+         * only child which holds elements, as long as there is one, and by an
+         * empty node if all the elements are in the tail.
+         */
+        private void normalize() {
+            int treeEnd = tailOffset(origin + size);
+            if(origin >= treeEnd) {
+                origin -= treeEnd;
+                for(int i=0; i < origin; i++) tail[i] = null;
+                root = EMPTY_NODE;
+                shift = SHIFT;
+                return;
+            }
+            while(shift > SHIFT && (origin >>> shift) == ((treeEnd - 1) >>> shift)) {
+                int index = origin >>> shift;
+                root = (Node) root.array[index];
+                origin -= index << shift;
+                treeEnd -= index << shift;
+                shift -= SHIFT;
+            }
+        }
+
+        /**
+         * Returns the element at the specified position.
+         * @param index index of element to return.
+         * @return the element at the specified position
+         * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Object get(int index) {
+            ensureEditable();
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException();
+            int i = origin + index;
+            return arrayFor(i, origin + size, shift, root, tail)[i & MASK];
+        }
+
+        /**
+         * Returns the number of elements of this transient.
+         * @return the number of elements
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns a PersistentList with the elements of this transient, which
+         * can't be used anymore.
+         * @return the new persistent list
+         * @throws IllegalStateException if persistent() has already been called
+         */
+        public PersistentList persistent() {
+            ensureEditable();
+            edit = null;
+            if(size == 0) return EMPTY;
+            int end = origin + size;
+            Object[] newTail = Arrays.copyOf(tail, end - tailOffset(end));
+            return new PersistentList(origin, size, shift, root, newTail);
+        }
+
+    }
+
+}
@@ -0,0 +1,860 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent implementation of the HMap interface: a map which never changes,
+ * whose updates return a new version of the map sharing most of its structure
+ * with the old one.
+ * The mappings are stored in a hash array mapped trie (HAMT): every node
+ * consumes 5 bits of the hash of the key, and holds a bitmap of the 32
+ * possible children together with a compact array of only the children that
+ * are present, each of them a mapping or a child node. Keys whose hashes are
+ * equal on all the 32 bits are kept in a collision node. A lookup visits at
+ * most 7 nodes; plus and minus copy only the nodes on the path to the key, so
+ * every version costs O(log n) memory instead of the O(n) of a copy.
+ * The hash code of the map is kept up to date by the updates.
+ *
+ * A Transient is a mutable copy of a map, which updates in place the nodes it
+ * has created itself and copies the other ones only the first time they are
+ * modified: it's meant to build a map, or to apply many updates, before
+ * turning the result into a new PersistentMap with persistent(). A transient
+ * must be used by a single thread.
+ *
+ * The map satisfies the read contract of HMap, and all of its reads are
+ * lock-free; the operations of HMap which would modify the map or one of its
+ * views throw UnsupportedOperationException. Null keys and null values are
+ * not allowed.
+ * @author Giacomo Camposampiero
+ */
+public final class PersistentMap implements HMap {
+
+    private static final int SHIFT = 5;
+    private static final int MASK = (1 << SHIFT) - 1;
+
+    private static final BitmapNode EMPTY_NODE = new BitmapNode(null, 0, new Object[0]);
+
+    /**
+     * The empty map.
+     */
+    public static final PersistentMap EMPTY = new PersistentMap(EMPTY_NODE, 0, 0);
+
+    private final Node root;
+    private final int size;
+    private final int hash;
+
+    private PersistentMap(Node root, int size, int hash) {
+        this.root = root;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns a persistent map containing the mappings of the specified map.
+     * The map is built by a Transient. If the map is already a PersistentMap
+     * it's returned as it is.
+     * @param m map whose mappings are to be placed into the persistent map
+     * @return a persistent map with the mappings of m
+     * @throws NullPointerException if the map is null or contains null keys or values
+     */
+    public static PersistentMap copyOf(HMap m) {
+        if(m == null) throw new NullPointerException();
+        if(m instanceof PersistentMap) return (PersistentMap) m;
+        return EMPTY.plusAll(m);
+    }
+
+    // ------------------------------------------------------------ updates
+
+    /**
+     * Returns a new version of this map in which the specified key is mapped
+     * to the specified value. If the key is already mapped to the same value
+     * (the same object) this map is returned.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the new version of the map
+     * @throws NullPointerException if the key or the value is null
+     */
+    public PersistentMap plus(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        Box box = new Box();
+        Node newRoot = root.assoc(null, 0, Set.hash(key), key, value, box);
+        if(newRoot == root) return this;
+        return new PersistentMap(newRoot, box.added ? size + 1 : size, updatedHash(hash, key, value, box.old));
+    }
+
+    /**
+     * Returns a new version of this map with the mappings of the specified
+     * map added. The mappings are added by a Transient.
+     * @param m mappings to be added
+     * @return the new version of the map
+     * @throws NullPointerException if the map is null or contains null keys or values
+     */
+    public PersistentMap plusAll(HMap m) {
+        if(m == null) throw new NullPointerException();
+        // the entries are read from a snapshot, in case the map is concurrently modified
+        Object[] entries = m.entrySet().toArray();
+        if(entries.length == 0) return this;
+        Transient t = asTransient();
+        for(int i=0; i < entries.length; i++) {
+            HMap.Entry e = (HMap.Entry) entries[i];
+            t.put(e.getKey(), e.getValue());
+        }
+        return t.persistent();
+    }
+
+    /**
+     * Returns a new version of this map without the mapping for the specified
+     * key. If there is no such mapping this map is returned.
+     * @param key key whose mapping is to be removed
+     * @return the new version of the map
+     * @throws NullPointerException if the key is null
+     */
+    public PersistentMap minus(Object key) {
+        if(key == null) throw new NullPointerException();
+        Box box = new Box();
+        Node newRoot = root.without(null, 0, Set.hash(key), key, box);
+        if(box.old == null) return this;
+        if(newRoot == null) return EMPTY;
+        return new PersistentMap(newRoot, size - 1, hash - (key.hashCode() ^ box.old.hashCode()));
+    }
+
+    /**
+     * Returns a Transient holding the mappings of this map, which shares the
+     * structure of the map until it's modified.
+     * @return a transient copy of this map
+     */
+    public Transient asTransient() {
+        return new Transient(this);
+    }
+
+    // ------------------------------------------------------------ reads
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * @param key key whose presence in this map is to be tested
+     * @return true if this map contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns true if this map maps one or more keys to the specified value.
+     * @param value value whose presence in this map is to be tested
+     * @return true if this map maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        TrieIterator it = new TrieIterator(root);
+        while(it.hasNext()) {
+            it.advance();
+            if(value.equals(it.value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object get(Object key) {
+        if(key == null) throw new NullPointerException();
+        return root.find(0, Set.hash(key), key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Compares the specified object with this map for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings. Two persistent maps whose hash codes
+     * differ are told apart without visiting them.
+     * @param obj object to be compared for equality with this map
+     * @return true if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(!(obj instanceof HMap)) return false;
+        HMap other = (HMap) obj;
+        if(other.size() != size) return false;
+        if(other instanceof PersistentMap && other.hashCode() != hash) return false;
+        TrieIterator it = new TrieIterator(root);
+        while(it.hasNext()) {
+            it.advance();
+            if(!it.value.equals(other.get(it.key))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map, kept up to date by the updates.
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns an immutable Set view of the mappings contained in this map.
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public HSet entrySet() {
+        return new View(View.ENTRIES);
+    }
+
+    /**
+     * Returns an immutable Set view of the keys contained in this map.
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public HSet keySet() {
+        return new View(View.KEYS);
+    }
+
+    /**
+     * Returns an immutable Collection view of the values contained in this map.
+     * @return a collection view of the values contained in this map
+     */
+    @Override
+    public HCollection values() {
+        return new View(View.VALUES);
+    }
+
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        TrieIterator it = new TrieIterator(root);
+        while(it.hasNext()) {
+            it.advance();
+            action.accept(it.key, it.value);
+        }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        TrieIterator it = new TrieIterator(root);
+        while(it.hasNext()) {
+            it.advance();
+            res += it.key.toString() + "=" + it.value.toString() + " ";
+        }
+        return res;
+    }
+
+    // ------------------------------------------------------------ unsupported
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(HMap t) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(HBiFunction function) {
+        throw new UnsupportedOperationException();
+    }
+
+    // ------------------------------------------------------------ trie
+
+    private static int updatedHash(int hash, Object key, Object value, Object old) {
+        if(old != null) hash -= key.hashCode() ^ old.hashCode();
+        return hash + (key.hashCode() ^ value.hashCode());
+    }
+
+    /**
+     * Result of an update of the trie: the value the key was mapped to, if
+     * any, and whether a new mapping has been added.
+     */
+    static final class Box {
+        Object old;
+        boolean added;
+    }
+
+    /**
+     * Node of the trie. Its array holds pairs of cells: a key and its value,
+     * or null and a child node. The nodes created by a Transient are owned by
+     * its edit token, and only that transient modifies them in place; the
+     * nodes of the persistent maps have a null token and are never modified.
+     */
+    abstract static class Node {
+
+        final Object edit;
+        Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box);
+
+        abstract Node without(Object edit, int shift, int hash, Object key, Box box);
+
+    }
+
+    /**
+     * Node with a bitmap of the children present among the 32 selected by
+     * the 5 bits of the hash at its level; the array holds only those
+     * children, in the order of their bits.
+     */
+    static final class BitmapNode extends Node {
+
+        int bitmap;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit, array);
+            this.bitmap = bitmap;
+        }
+
+        private BitmapNode editable(Object edit) {
+            return isEditable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        private BitmapNode editAndSet(Object edit, int i, Object a) {
+            BitmapNode res = editable(edit);
+            res.array[i] = a;
+            return res;
+        }
+
+        private BitmapNode editAndSet(Object edit, int i, Object a, int j, Object b) {
+            BitmapNode res = editable(edit);
+            res.array[i] = a;
+            res.array[j] = b;
+            return res;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if((bitmap & bit) == 0) return null;
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[2 * index], v = array[2 * index + 1];
+            if(k == null) return ((Node) v).find(shift + SHIFT, hash, key);
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if((bitmap & bit) != 0) {
+                Object k = array[2 * index], v = array[2 * index + 1];
+                if(k == null) {
+                    Node child = ((Node) v).assoc(edit, shift + SHIFT, hash, key, value, box);
+                    return child == v ? this : editAndSet(edit, 2 * index + 1, child);
+                }
+                if(key.equals(k)) {
+                    box.old = v;
+                    return v == value ? this : editAndSet(edit, 2 * index + 1, value);
+                }
+                // two different keys on the same path: they are moved to a new child
+                box.added = true;
+                Node child = createNode(edit, shift + SHIFT, k, v, hash, key, value);
+                return editAndSet(edit, 2 * index, null, 2 * index + 1, child);
+            }
+            box.added = true;
+            int n = Integer.bitCount(bitmap);
+            Object[] newArray = new Object[2 * (n + 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            newArray[2 * index] = key;
+            newArray[2 * index + 1] = value;
+            System.arraycopy(array, 2 * index, newArray, 2 * (index + 1), 2 * (n - index));
+            if(isEditable(edit)) {
+                array = newArray;
+                bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box box) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if((bitmap & bit) == 0) return this;
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[2 * index], v = array[2 * index + 1];
+            if(k == null) {
+                Node child = ((Node) v).without(edit, shift + SHIFT, hash, key, box);
+                if(child == v) return this;
+                if(child != null) return editAndSet(edit, 2 * index + 1, child);
+            }
+            else if(key.equals(k)) box.old = v;
+            else return this;
+            if(bitmap == bit) return null;
+            int n = Integer.bitCount(bitmap);
+            Object[] newArray = new Object[2 * (n - 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            System.arraycopy(array, 2 * (index + 1), newArray, 2 * index, 2 * (n - index - 1));
+            if(isEditable(edit)) {
+                array = newArray;
+                bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, newArray);
+        }
+
+        /**
+         * Returns a node holding two different keys, which are equal on the
+         * bits of the hash before shift.
+         */
+        private static Node createNode(Object edit, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = Set.hash(key1);
+            if(hash1 == hash2) return new CollisionNode(edit, hash1, new Object[] {key1, value1, key2, value2});
+            Box box = new Box();
+            return new BitmapNode(edit, 0, new Object[0])
+                .assoc(edit, shift, hash1, key1, value1, box)
+                .assoc(edit, shift, hash2, key2, value2, box);
+        }
+
+    }
+
+    /**
+     * Node holding the keys whose hashes are all equal, in an unordered array
+     * of pairs.
+     */
+    static final class CollisionNode extends Node {
+
+        final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for(int i=0; i < array.length; i += 2) {
+                if(key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box) {
+            if(hash != this.hash) {
+                // the hashes differ at this level: the node is nested in a bitmap node
+                BitmapNode parent = new BitmapNode(edit, 1 << ((this.hash >>> shift) & MASK), new Object[] {null, this});
+                return parent.assoc(edit, shift, hash, key, value, box);
+            }
+            int i = indexOf(key);
+            if(i >= 0) {
+                box.old = array[i + 1];
+                if(array[i + 1] == value) return this;
+                if(isEditable(edit)) {
+                    array[i + 1] = value;
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(edit, hash, newArray);
+            }
+            box.added = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if(isEditable(edit)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box box) {
+            int i = indexOf(key);
+            if(i < 0) return this;
+            box.old = array[i + 1];
+            if(array.length == 2) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            if(isEditable(edit)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+    }
+
+    /**
+     * Depth-first visit of the mappings of a trie, with an explicit stack of
+     * the arrays being visited and of the positions in them. After advance()
+     * the current mapping is in key and value.
+     */
+    static final class TrieIterator {
+
+        // 7 levels of bitmap nodes and a collision node
+        private final Object[][] arrays = new Object[9][];
+        private final int[] positions = new int[9];
+        private int depth;
+        Object key;
+        Object value;
+
+        TrieIterator(Node root) {
+            arrays[0] = root.array;
+            seek();
+        }
+
+        /**
+         * Moves the top of the stack to the next mapping, descending into
+         * the child nodes and leaving the exhausted arrays.
+         */
+        private void seek() {
+            while(depth >= 0) {
+                Object[] a = arrays[depth];
+                int p = positions[depth];
+                if(p >= a.length) {
+                    depth--;
+                    continue;
+                }
+                if(a[p] != null) return;
+                positions[depth] = p + 2;
+                depth++;
+                arrays[depth] = ((Node) a[p + 1]).array;
+                positions[depth] = 0;
+            }
+        }
+
+        boolean hasNext() {
+            return depth >= 0;
+        }
+
+        void advance() {
+            if(depth < 0) throw new NoSuchElementException();
+            Object[] a = arrays[depth];
+            int p = positions[depth];
+            key = a[p];
+            value = a[p + 1];
+            positions[depth] = p + 2;
+            seek();
+        }
+
+    }
+
+    /**
+     * Immutable mapping returned by the iterator of entrySet().
+     */
+    public static final class MapEntry implements HMap.Entry {
+
+        private final Object key;
+        private final Object value;
+
+        MapEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * View of the entries, of the keys or of the values of the map. It has no
+     * elements array: its elements are read from the trie on the fly, so
+     * every method of ImmutableCollection which reads the elements is
+     * overridden.
+     */
+    class View extends ImmutableCollection implements HSet {
+
+        static final int ENTRIES = 0;
+        static final int KEYS = 1;
+        static final int VALUES = 2;
+
+        private final int type;
+
+        View(int type) {
+            super(null, 0);
+            this.type = type;
+        }
+
+        private Object element(TrieIterator it) {
+            it.advance();
+            if(type == KEYS) return it.key;
+            if(type == VALUES) return it.value;
+            return new MapEntry(it.key, it.value);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type == KEYS) return containsKey(o);
+            if(type == VALUES) return containsValue(o);
+            if(!(o instanceof HMap.Entry)) return false;
+            HMap.Entry entry = (HMap.Entry) o;
+            Object value = entry.getKey() == null ? null : get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(o == this) return true;
+            if(!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            return other.size() == size && containsAll(other);
+        }
+
+        /**
+         * Returns the hash code value for this view: the one of the map for
+         * the entries, the sum of the hash codes of the elements otherwise.
+         * @return the hash code value for this view.
+         */
+        @Override
+        public int hashCode() {
+            if(type == ENTRIES) return PersistentMap.this.hash;
+            int res = 0;
+            TrieIterator it = new TrieIterator(root);
+            while(it.hasNext()) res += element(it).hashCode();
+            return res;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new HIterator() {
+                private final TrieIterator it = new TrieIterator(root);
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return element(it);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return toArray(new Object[size]);
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            Object[] res = a.length >= size ? a : new Object[size];
+            TrieIterator it = new TrieIterator(root);
+            for(int i=0; it.hasNext(); i++) res[i] = element(it);
+            return res;
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            TrieIterator it = new TrieIterator(root);
+            while(it.hasNext()) action.accept(element(it));
+        }
+
+        @Override
+        public String toString() {
+            if(type == ENTRIES) return PersistentMap.this.toString();
+            String res = "";
+            TrieIterator it = new TrieIterator(root);
+            while(it.hasNext()) res += element(it).toString() + " ";
+            return res;
+        }
+
+    }
+
+    /**
+     * Mutable copy of a PersistentMap, used to build a map or to apply many
+     * updates with a single new version at the end.
+     * The transient owns the nodes it creates, and modifies them in place;
+     * the nodes it shares with the persistent maps are copied the first time
+     * they are modified. After persistent() has been called the transient
+     * can't be used anymore. The class is not synchronized.
+     */
+    public static final class Transient {
+
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+        private int hash;
+
+        Transient(PersistentMap map) {
+            root = map.root;
+            size = map.size;
+            hash = map.hash;
+        }
+
+        private void ensureEditable() {
+            if(edit == null) throw new IllegalStateException();
+        }
+
+        /**
+         * Associates the specified value with the specified key.
+         * @param key key with which the specified value is to be associated
+         * @param value value to be associated with the specified key
+         * @return previous value associated with the key, or null
+         * @throws NullPointerException if the key or the value is null
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Object put(Object key, Object value) {
+            if(key == null || value == null) throw new NullPointerException();
+            ensureEditable();
+            Box box = new Box();
+            root = root.assoc(edit, 0, Set.hash(key), key, value, box);
+            if(box.added) size++;
+            hash = updatedHash(hash, key, value, box.old);
+            return box.old;
+        }
+
+        /**
+         * Removes the mapping for the specified key, if present.
+         * @param key key whose mapping is to be removed
+         * @return previous value associated with the key, or null
+         * @throws NullPointerException if the key is null
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Object remove(Object key) {
+            if(key == null) throw new NullPointerException();
+            ensureEditable();
+            Box box = new Box();
+            Node newRoot = root.without(edit, 0, Set.hash(key), key, box);
+            if(box.old != null) {
+                root = newRoot == null ? EMPTY_NODE : newRoot;
+                size--;
+                hash -= key.hashCode() ^ box.old.hashCode();
+            }
+            return box.old;
+        }
+
+        /**
+         * Returns the value to which the specified key is mapped, or null.
+         * @param key the key whose associated value is to be returned
+         * @return the value to which the specified key is mapped, or null
+         * @throws NullPointerException if the key is null
+         * @throws IllegalStateException if persistent() has been called
+         */
+        public Object get(Object key) {
+            if(key == null) throw new NullPointerException();
+            ensureEditable();
+            return root.find(0, Set.hash(key), key);
+        }
+
+        /**
+         * Returns the number of mappings of this transient.
+         * @return the number of mappings
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns a PersistentMap with the mappings of this transient, which
+         * can't be used anymore.
+         * @return the new persistent map
+         * @throws IllegalStateException if persistent() has already been called
+         */
+        public PersistentMap persistent() {
+            ensureEditable();
+            edit = null;
+            return size == 0 ? EMPTY : new PersistentMap(root, size, hash);
+        }
+
+    }
+
+}
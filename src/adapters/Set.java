@@ -1,28 +1,86 @@
 package adapters;
 
 import interfaces.HCollection;
+import interfaces.HConsumer;
 import interfaces.HIterator;
+import interfaces.HPredicate;
 import interfaces.HSet;
 import exceptions.IllegalStateException;
-import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.NoSuchElementException;
 
 /**
  * Implementation of Set interface Java 1.4.2.
- * Object Adapter of an Hashtable.
+ * The elements are stored directly in an open-addressing hash table with 
+ * linear probing: every operation performs a single probe sequence over a 
+ * plain array, without boxing the hash of the element and without acquiring 
+ * any monitor. Removed elements leave a tombstone in their slot, so removals 
+ * never move other elements and iterations in progress stay consistent.
+ * Tombstones are purged when the table is rehashed.
+ * 
+ * Small sets (up to SMALL_CAPACITY elements) don't use the hash table: their
+ * elements are stored in a flat array, in the first size slots, and they are
+ * looked up with a linear scan. Empty sets share a zero length array. The set
+ * switches to the hashed layout when it grows past SMALL_CAPACITY elements;
+ * the two layouts are told apart by the length of the array, which is never 
+ * smaller than DEFAULT_CAPACITY for a hash table.
+ * 
+ * The sum of the hash codes of the elements is updated by every operation 
+ * which adds or removes an element, so hashCode() doesn't need to visit the 
+ * set. As for any hashed collection, the hash codes of the elements must not
+ * change while they are contained in the set.
  * @author Giacomo Camposampiero
  */
 public class Set implements HSet{
 
-    Hashtable table;
+    /**
+     * Marker stored in the slots of removed elements.
+     */
+    static final Object DELETED = new Object();
+    
+    /**
+     * Default capacity of the table (must be a power of two).
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * Maximum number of elements of a set stored in a flat array.
+     */
+    private static final int SMALL_CAPACITY = 8;
+    
+    /**
+     * Array shared by all the empty sets in the flat layout.
+     */
+    private static final Object[] EMPTY = {};
+    
+    Object[] table;
+    int size;
+    
+    // number of slots which are not null (elements and tombstones)
+    private int used;
+    
+    // sum of the hash codes of the elements
+    private int hashSum;
     
     /**
      * Empty constructor.
      * This constructor will initialize an empty set, with no elements contained.
      */
     public Set() {
-        this.table = new Hashtable();
+        this.table = EMPTY;
+    }
+    
+    /**
+     * Constructor with initial capacity.
+     * This constructor will initialize an empty set which is able to hold the 
+     * specified number of elements without being rehashed.
+     * @param initialCapacity number of elements the set should hold without rehashing
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public Set(int initialCapacity) {
+        if(initialCapacity < 0) throw new IllegalArgumentException();
+        if(initialCapacity == 0) this.table = EMPTY;
+        else if(initialCapacity <= SMALL_CAPACITY) this.table = new Object[initialCapacity];
+        else this.table = new Object[capacityFor(initialCapacity)];
     }
     
     /**
@@ -35,18 +93,40 @@ public class Set implements HSet{
      * 
      * null is not a valid value in then set, so the attempt of adding a null to 
      * the set will result in the throwing of an un-checked exception
-     * The method is based on hashCode, and hash collision problem is solved in 
-     * a trivial way: only the first object with a specific hash is inserted; 
-     * the insertion of a different object that has the same hash won't result 
-     * in a modification of the set.
+     * Elements with the same hash are stored in different slots of the table, 
+     * so they are both inserted if they are not equal.
      * @param o  element to be appended to this set. 
      * @return true if this set did not already contain the specified element.  
      * @throws NullPointerException if the specified element is null.
      */
     @Override
     public boolean add(Object o) {
-        if(contains(o)) return false;
-        table.put(o.hashCode(), o);
+        if(o == null) throw new NullPointerException();
+        if(isFlat()) {
+            if(scan(o) >= 0) return false;
+            if(size < table.length) {
+                table[size++] = o;
+                hashSum += o.hashCode();
+                return true;
+            }
+            if(size < SMALL_CAPACITY) {
+                Object[] grown = new Object[Math.min(Math.max(2, size * 2), SMALL_CAPACITY)];
+                System.arraycopy(table, 0, grown, 0, size);
+                grown[size++] = o;
+                table = grown;
+                hashSum += o.hashCode();
+                return true;
+            }
+            inflate();
+        }
+        int index = probe(o);
+        if(index >= 0) return false;
+        index = -index - 1;
+        if(table[index] == null) used++;
+        table[index] = o;
+        size++;
+        hashSum += o.hashCode();
+        if(used > threshold(table.length)) rehash();
         return true;
     }
 
@@ -57,10 +137,6 @@ public class Set implements HSet{
      * modifies this set so that its value is the union of the two sets. 
      * The behavior of this operation is unspecified if the specified collection 
      * is modified while the operation is in progress. 
-     * 
-     * Hash collision problem is solved in a trivial way: only the first object 
-     * with a specific hash is inserted; the insertion of a different object that
-     * has the same hash won't result in a modification of the set.
      * @param c  collection whose elements are to be added to this set. 
      * @return true if this set changed as a result of the call.
      * @throws NullPointerException if the specified element is null.
@@ -81,7 +157,10 @@ public class Set implements HSet{
      */
     @Override
     public void clear() {
-        table.clear();
+        table = EMPTY;
+        size = 0;
+        used = 0;
+        hashSum = 0;
     }
 
     /**
@@ -94,9 +173,9 @@ public class Set implements HSet{
      */
     @Override
     public boolean contains(Object o) {
-        int hash = o.hashCode();
-        if(!table.containsKey(hash)) return false;
-        return o.equals(table.get(hash));
+        if(o == null) throw new NullPointerException();
+        if(isFlat()) return scan(o) >= 0;
+        return probe(o) >= 0;
     }
 
     /**
@@ -124,22 +203,20 @@ public class Set implements HSet{
      * (or equivalently, every member of this set is contained in the specified set). 
      * This definition ensures that the equals method works properly across 
      * different implementations of the set interface. 
+     * Two sets whose hash codes differ are told apart without visiting them.
      * @param o  the object to be compared for equality with this set. 
      * @return  true if the specified object is equal to this set.
      */
     @Override 
     public boolean equals(Object o) {
         if (o == this) return true; 
-        if (!(o.getClass().equals(this.getClass()))) { 
+        if (!(o instanceof HSet)) { 
             return false; 
         }    
-        Set other = (Set) o;
+        HSet other = (HSet) o;
         if (other.size() != size()) return false;
-        HIterator it = iterator();
-        while(it.hasNext())
-            if(!other.contains(it.next())) 
-                return false;
-        return true;
+        if (other instanceof Set && ((Set) other).hashSum != hashSum) return false;
+        return containsAll(other);
     }
     
     /**
@@ -149,15 +226,13 @@ public class Set implements HSet{
      * be zero. This ensures that s1.equals(s2) implies that s1.hashCode()==s2.hashCode() 
      * for any two sets s1 and s2, as required by the general contract of the 
      * Object.hashCode method. 
+     * The sum is kept up to date by the modifications of the set, so this 
+     * method runs in constant time.
      * @return  the hash code value for this set.
      */
     @Override 
     public int hashCode() {
-        int hash = 0;
-        HIterator it = iterator();
-        while(it.hasNext()) 
-            hash += it.next().hashCode();
-        return hash;
+        return hashSum;
     }
     
     /**
@@ -166,7 +241,7 @@ public class Set implements HSet{
      */
     @Override
     public boolean isEmpty() {
-        return table.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -200,8 +275,18 @@ public class Set implements HSet{
      */
     @Override
     public boolean remove(Object o) {
-        if(!contains(o)) return false;
-        table.remove(o.hashCode());
+        if(o == null) throw new NullPointerException();
+        if(isFlat()) {
+            int index = scan(o);
+            if(index < 0) return false;
+            removeFlat(index);
+            return true;
+        }
+        int index = probe(o);
+        if(index < 0) return false;
+        hashSum -= table[index].hashCode();
+        table[index] = DELETED;
+        size--;
         return true;
     }
 
@@ -218,12 +303,14 @@ public class Set implements HSet{
     @Override
     public boolean removeAll(HCollection c) {
         if(c == null) throw new NullPointerException();
-        HIterator it = iterator();
+        if(isFlat()) return filterFlat(c, false);
         boolean removed = false;
-        while(it.hasNext()) {
-            Object elem = it.next();
-            if(c.contains(elem)) {
-                remove(elem);
+        for(int i=0; i < table.length; i++) {
+            Object elem = table[i];
+            if(elem != null && elem != DELETED && c.contains(elem)) {
+                hashSum -= elem.hashCode();
+                table[i] = DELETED;
+                size--;
                 removed = true;
             }
         }
@@ -244,13 +331,74 @@ public class Set implements HSet{
     @Override
     public boolean retainAll(HCollection c) {
         if(c == null) throw new NullPointerException();
-        List toRemove = new List();
-        HIterator it = iterator();
-        while(it.hasNext()) {
-            Object elem = it.next();
-            if(!c.contains(elem)) toRemove.add(elem);
+        if(isFlat()) return filterFlat(c, true);
+        boolean removed = false;
+        for(int i=0; i < table.length; i++) {
+            Object elem = table[i];
+            if(elem != null && elem != DELETED && !c.contains(elem)) {
+                hashSum -= elem.hashCode();
+                table[i] = DELETED;
+                size--;
+                removed = true;
+            }
         }
-        return removeAll(toRemove); 
+        return removed;
+    }
+
+    /**
+     * Performs the given action for each element of this set, with a plain 
+     * loop over the table (or over the flat array of a small set).
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the action is null.
+     */
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        Object[] tab = table;
+        if(isFlat()) {
+            for(int i=0; i < size; i++) action.accept(tab[i]);
+            return;
+        }
+        for(int i=0; i < tab.length; i++) {
+            Object elem = tab[i];
+            if(elem != null && elem != DELETED) action.accept(elem);
+        }
+    }
+
+    /**
+     * Removes all of the elements of this set that satisfy the given predicate,
+     * in a single pass over the table. If the predicate throws an exception, 
+     * the elements already tested and matched remain removed.
+     * @param filter predicate which returns true for the elements to be removed
+     * @return true if any elements were removed
+     * @throws NullPointerException if the filter is null.
+     */
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        if(filter == null) throw new NullPointerException();
+        boolean removed = false;
+        if(isFlat()) {
+            int i = 0;
+            while(i < size) {
+                if(filter.test(table[i])) {
+                    removeFlat(i);
+                    removed = true;
+                } else {
+                    i++;
+                }
+            }
+            return removed;
+        }
+        for(int i=0; i < table.length; i++) {
+            Object elem = table[i];
+            if(elem != null && elem != DELETED && filter.test(elem)) {
+                hashSum -= elem.hashCode();
+                table[i] = DELETED;
+                size--;
+                removed = true;
+            }
+        }
+        return removed;
     }
     
     /**
@@ -259,7 +407,7 @@ public class Set implements HSet{
      */
     @Override
     public int size() {
-        return table.size();
+        return size;
     }
 
     /**
@@ -268,12 +416,7 @@ public class Set implements HSet{
      */
     @Override
     public Object[] toArray() {
-        Object[] res = new Object[size()];
-        HIterator it = iterator();
-        int i = 0;
-        while(it.hasNext()) 
-            res[i++] = it.next();
-        return res;
+        return copyInto(new Object[size]);
     }
 
     /**
@@ -310,43 +453,230 @@ public class Set implements HSet{
         } else {
             res = new Object[size()];
         }        
-        int i = 0;
-        HIterator it = iterator();
-        while(it.hasNext()) res[i++] = it.next();
+        return copyInto(res);
+    }
+    
+    /**
+     * Copies the elements of the set in the first size() cells of the array.
+     * @param res array big enough to contain all the elements of this set
+     * @return the array passed as parameter
+     */
+    private Object[] copyInto(Object[] res) {
+        int j = 0;
+        for(int i=0; i < table.length; i++) {
+            Object elem = table[i];
+            if(elem != null && elem != DELETED) res[j++] = elem;
+        }
         return res;
     }
     
+    /**
+     * Spreads the hash of the element over the whole integer, so that the low
+     * bits used to index the table depend on all the bits of hashCode().
+     * @param o element whose hash has to be computed
+     * @return the spread hash of the element
+     */
+    static int hash(Object o) {
+        int h = o.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Returns the smallest power of two capacity able to hold the specified 
+     * number of elements without exceeding the load factor.
+     * @param elements number of elements to be stored
+     * @return the capacity of the table
+     */
+    static int capacityFor(int elements) {
+        int capacity = DEFAULT_CAPACITY;
+        while(threshold(capacity) < elements) capacity <<= 1;
+        return capacity;
+    }
+    
+    /**
+     * Returns the maximum number of used slots of a table of the specified 
+     * capacity (load factor 0.75).
+     * @param capacity capacity of the table
+     * @return the maximum number of used slots
+     */
+    static int threshold(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+    
+    /**
+     * Returns true if the elements are stored in a flat array instead of a 
+     * hash table.
+     * @return true if the set uses the flat layout
+     */
+    boolean isFlat() {
+        return table.length < DEFAULT_CAPACITY;
+    }
+    
+    /**
+     * Looks for the specified element in the flat array.
+     * @param o element to look for, not null
+     * @return the index of the element, or -1 if it isn't contained
+     */
+    private int scan(Object o) {
+        for(int i=0; i < size; i++) {
+            Object cur = table[i];
+            if(cur == o || cur.equals(o)) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Removes the element at the specified index of the flat array, shifting
+     * the following elements to the left.
+     * @param index index of the element to be removed
+     */
+    private void removeFlat(int index) {
+        hashSum -= table[index].hashCode();
+        int moved = size - index - 1;
+        if(moved > 0) System.arraycopy(table, index + 1, table, index, moved);
+        table[--size] = null;
+    }
+    
+    /**
+     * Removes from the flat array, in a single pass, the elements which are
+     * (if retain is false) or are not (if retain is true) contained in the 
+     * specified collection.
+     * @param c collection to be checked
+     * @param retain true to retain the elements contained in c, false to remove them
+     * @return true if this set changed as a result of the call
+     */
+    private boolean filterFlat(HCollection c, boolean retain) {
+        int kept = 0;
+        for(int i=0; i < size; i++) {
+            if(c.contains(table[i]) == retain) table[kept++] = table[i];
+            else hashSum -= table[i].hashCode();
+        }
+        if(kept == size) return false;
+        for(int i=kept; i < size; i++) table[i] = null;
+        size = kept;
+        return true;
+    }
+    
+    /**
+     * Moves the elements of the flat array to a new hash table.
+     */
+    private void inflate() {
+        Object[] old = table;
+        table = new Object[DEFAULT_CAPACITY];
+        int mask = DEFAULT_CAPACITY - 1;
+        for(int j=0; j < size; j++) {
+            int i = hash(old[j]) & mask;
+            while(table[i] != null) i = (i + 1) & mask;
+            table[i] = old[j];
+        }
+        used = size;
+    }
+    
+    /**
+     * Looks for the specified element with a single probe sequence.
+     * If the element is found, its slot is returned. Otherwise the result is 
+     * (-(insertion slot) - 1), where the insertion slot is the first tombstone 
+     * met along the sequence, or the empty slot which terminated it.
+     * @param o element to look for, not null
+     * @return the slot of the element, or (-(insertion slot) - 1)
+     */
+    private int probe(Object o) {
+        int mask = table.length - 1;
+        int i = hash(o) & mask;
+        int free = -1;
+        Object cur;
+        while((cur = table[i]) != null) {
+            if(cur == DELETED) {
+                if(free < 0) free = i;
+            } else if(cur == o || cur.equals(o)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(free < 0 ? i : free) - 1;
+    }
+    
+    /**
+     * Rebuilds the table purging the tombstones. The capacity is doubled only 
+     * if the elements (and not the tombstones) fill more than half of it.
+     */
+    private void rehash() {
+        Object[] old = table;
+        int capacity = old.length;
+        if(size >= threshold(capacity) / 2) capacity <<= 1;
+        Object[] tab = new Object[capacity];
+        int mask = capacity - 1;
+        for(int j=0; j < old.length; j++) {
+            Object elem = old[j];
+            if(elem == null || elem == DELETED) continue;
+            int i = hash(elem) & mask;
+            while(tab[i] != null) i = (i + 1) & mask;
+            tab[i] = elem;
+        }
+        table = tab;
+        used = size;
+    }
+    
     class SetIterator implements HIterator {
         
-        Object currentKey;
-        Enumeration keys;
+        private final Object[] tab;
+        private int next;
+        private int current;
         
         public SetIterator() {
-            currentKey = null;
-            keys = table.keys();
+            tab = table;
+            current = -1;
+            next = advance(0);
+        }
+        
+        private int advance(int i) {
+            while(i < tab.length && (tab[i] == null || tab[i] == DELETED)) i++;
+            return i;
         }
         
         @Override
         public boolean hasNext() {
-            return keys.hasMoreElements();
+            return next < tab.length;
         }
 
         @Override
         public Object next() {
             if(!hasNext()) throw new NoSuchElementException();   
-            currentKey = keys.nextElement();
-            return table.get(currentKey);
+            current = next;
+            next = advance(next + 1);
+            return tab[current];
         }
 
         @Override
         public void remove() {
-            if(currentKey == null) throw new IllegalStateException();
-            table.remove(currentKey);
-            currentKey = null;
+            if(current == -1) throw new IllegalStateException();
+            if(tab != table) {
+                Set.this.remove(tab[current]);
+            } else if(isFlat()) {
+                // the following elements are shifted to the left
+                if(tab[current] != null) removeFlat(current);
+                next = advance(current);
+            } else if(tab[current] != DELETED) {
+                hashSum -= tab[current].hashCode();
+                tab[current] = DELETED;
+                size--;
+            }
+            current = -1;
         }
         
     }
     
+    /**
+     * Returns an immutable copy of this set, whose elements are stored in an
+     * array of exactly size() cells, indexed by a compact table of ints.
+     * The copy doesn't change when this set is modified, and it can be read
+     * by any number of threads without synchronization.
+     * @return an ImmutableSet with the elements of this set
+     */
+    public ImmutableSet freeze() {
+        return ImmutableSet.copyOf(this);
+    }
+
     @Override
     public String toString() {
         String res = "";
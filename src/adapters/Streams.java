@@ -0,0 +1,327 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HSet;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bridge between the collections of this package and java.util.stream.
+ * This is the only class of the package which depends on the Java 8 API: the
+ * collections keep implementing the J2SE 1.4.2 interfaces (List.sort only
+ * needs java.util.concurrent, through MergeSort).
+ *
+ * The spliterators traverse the storage of the collections directly, without
+ * copying it:
+ * <ul>
+ * <li>List and its sublists: the backing array, split in halves (SIZED,
+ * SUBSIZED, ORDERED);</li>
+ * <li>other lists (e.g. TieredList): the indices, split in halves and read
+ * through get(int);</li>
+ * <li>Set: the slots of the hash table, split in halves; the size of the
+ * halves is estimated as for java.util.HashSet;</li>
+ * <li>Map views (entrySet, keySet, values): the buckets of the hash table,
+ * split in halves. The entries are the live ones of the map.</li>
+ * </ul>
+ * Small sets and maps (in the flat layout) and any other HCollection are
+ * traversed through their iterator, and are split in batches.
+ *
+ * As for the iterators, the collection must not be structurally modified while
+ * a stream is being evaluated; the spliterators are bound to the storage of
+ * the collection when they are created.
+ * @author Giacomo Camposampiero
+ */
+public final class Streams {
+
+    private Streams() {
+    }
+
+    /**
+     * Returns a sequential Stream with the specified collection as its source.
+     * @param c collection whose elements are streamed
+     * @return a sequential stream over the elements of the collection
+     * @throws NullPointerException if the specified collection is null
+     */
+    public static Stream<Object> stream(HCollection c) {
+        return StreamSupport.stream(spliterator(c), false);
+    }
+
+    /**
+     * Returns a parallel Stream with the specified collection as its source.
+     * The elements are partitioned among the threads of the common
+     * ForkJoinPool by splitting the storage of the collection.
+     * @param c collection whose elements are streamed
+     * @return a parallel stream over the elements of the collection
+     * @throws NullPointerException if the specified collection is null
+     */
+    public static Stream<Object> parallelStream(HCollection c) {
+        return StreamSupport.stream(spliterator(c), true);
+    }
+
+    /**
+     * Returns a Spliterator over the elements of the specified collection.
+     * @param c collection whose elements are traversed
+     * @return a spliterator over the elements of the collection
+     * @throws NullPointerException if the specified collection is null
+     */
+    public static Spliterator<Object> spliterator(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        if(c instanceof List) {
+            List list = (List) c;
+            return Spliterators.spliterator(list.array(), 0, list.size(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+        if(c instanceof List.SubList) {
+            List.SubList sub = (List.SubList) c;
+            return Spliterators.spliterator(sub.array(), sub.offset(), sub.offset() + sub.size(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+        if(c instanceof HList) {
+            return new IndexSpliterator((HList) c, 0, c.size());
+        }
+        if(c instanceof Set) {
+            Set set = (Set) c;
+            if(!set.isFlat()) return new SlotSpliterator(set.table, 0, set.table.length, set.size, true);
+        }
+        if(c instanceof Map.EntrySet) {
+            Map map = ((Map.EntrySet) c).map();
+            if(map.inline == null) return new BucketSpliterator(map.table, 0, map.table.length, map.size, true, Map.ENTRIES);
+        }
+        if(c instanceof Map.ElementSet) {
+            Map.ElementSet view = (Map.ElementSet) c;
+            Map map = view.map();
+            if(map.inline == null) return new BucketSpliterator(map.table, 0, map.table.length, map.size, true, view.isKeySet() ? Map.KEYS : Map.VALUES);
+        }
+        int characteristics = Spliterator.NONNULL;
+        if(c instanceof HSet && !(c instanceof Map.ElementSet && !((Map.ElementSet) c).isKeySet())) characteristics |= Spliterator.DISTINCT;
+        return Spliterators.spliterator(new IteratorAdapter(c.iterator()), c.size(), characteristics);
+    }
+
+    /**
+     * Adapter of an HIterator to the java.util.Iterator interface.
+     */
+    static final class IteratorAdapter implements Iterator<Object> {
+
+        private final HIterator it;
+
+        IteratorAdapter(HIterator it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            return it.next();
+        }
+
+        @Override
+        public void remove() {
+            it.remove();
+        }
+
+    }
+
+    /**
+     * Spliterator over the indices [index, fence) of a list, whose elements
+     * are read through get(int).
+     */
+    static final class IndexSpliterator implements Spliterator<Object> {
+
+        private final HList list;
+        private int index;
+        private final int fence;
+
+        IndexSpliterator(HList list, int index, int fence) {
+            this.list = list;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            if(index >= fence) return false;
+            action.accept(list.get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=index; i < fence; i++) action.accept(list.get(i));
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if(index >= mid) return null;
+            Spliterator<Object> prefix = new IndexSpliterator(list, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+    }
+
+    /**
+     * Spliterator over the slots [index, fence) of the hash table of a Set,
+     * which skips the empty slots and the tombstones.
+     */
+    static final class SlotSpliterator implements Spliterator<Object> {
+
+        private final Object[] tab;
+        private int index;
+        private final int fence;
+        private long est;
+        // true if est is the exact number of elements (the whole table)
+        private boolean exact;
+
+        SlotSpliterator(Object[] tab, int index, int fence, long est, boolean exact) {
+            this.tab = tab;
+            this.index = index;
+            this.fence = fence;
+            this.est = est;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            while(index < fence) {
+                Object elem = tab[index++];
+                if(elem != null && elem != Set.DELETED) {
+                    action.accept(elem);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=index; i < fence; i++) {
+                Object elem = tab[i];
+                if(elem != null && elem != Set.DELETED) action.accept(elem);
+            }
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if(index >= mid) return null;
+            est >>>= 1;
+            exact = false;
+            Spliterator<Object> prefix = new SlotSpliterator(tab, index, mid, est, false);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (exact ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+    }
+
+    /**
+     * Spliterator over the buckets [index, fence) of the hash table of a Map,
+     * which returns the entries, the keys or the values of the mappings.
+     */
+    static final class BucketSpliterator implements Spliterator<Object> {
+
+        private final Map.MapEntry[] tab;
+        private int index;
+        private final int fence;
+        private long est;
+        // true if est is the exact number of mappings (the whole table)
+        private boolean exact;
+        private final int kind;
+        // next entry of the bucket being traversed
+        private Map.MapEntry current;
+
+        BucketSpliterator(Map.MapEntry[] tab, int index, int fence, long est, boolean exact, int kind) {
+            this.tab = tab;
+            this.index = index;
+            this.fence = fence;
+            this.est = est;
+            this.exact = exact;
+            this.kind = kind;
+        }
+
+        private Object element(Map.MapEntry e) {
+            if(kind == Map.KEYS) return e.getKey();
+            if(kind == Map.VALUES) return e.getValue();
+            return e;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            while(current == null && index < fence) current = tab[index++];
+            if(current == null) return false;
+            Map.MapEntry e = current;
+            current = e.next;
+            action.accept(element(e));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Object> action) {
+            if(action == null) throw new NullPointerException();
+            for(Map.MapEntry e = current; e != null; e = e.next) action.accept(element(e));
+            current = null;
+            for(int i=index; i < fence; i++) {
+                for(Map.MapEntry e = tab[i]; e != null; e = e.next) action.accept(element(e));
+            }
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if(index >= mid || current != null) return null;
+            est >>>= 1;
+            exact = false;
+            Spliterator<Object> prefix = new BucketSpliterator(tab, index, mid, est, false, kind);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (exact ? Spliterator.SIZED : 0) | (kind == Map.VALUES ? 0 : Spliterator.DISTINCT) | Spliterator.NONNULL;
+        }
+
+    }
+
+}
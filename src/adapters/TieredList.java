@@ -0,0 +1,1150 @@
+package adapters;
+
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
+import exceptions.IllegalStateException;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of List interface Java 1.4.2, optimized for insertions and 
+ * removals in the middle of long lists.
+ * 
+ * The elements are stored in a tiered vector: an array of chunks of k slots 
+ * (k is a power of two), each of them used as a circular buffer. All the 
+ * chunks are full, except the last one. The element of index i is found in 
+ * chunk i/k, at offset i%k from its head, so get and set take constant time.
+ * An insertion or a removal shifts the elements of a single chunk (at most 
+ * k/2 moves, choosing the shorter side) and then moves one element between 
+ * each pair of following chunks, which is a constant time operation on the 
+ * circular buffers: its cost is O(k + n/k). The chunk size is kept close to 
+ * the square root of the size of the list, by rebuilding the chunks when the
+ * size crosses k*k (or falls below k*k/16), so insertions and removals at any
+ * position, also through the list iterator, take O(sqrt(n)) amortized time.
+ * 
+ * The list is not thread safe.
+ * @author Giacomo Camposampiero 
+ */
+public class TieredList implements HList {
+
+    /**
+     * Base 2 logarithm of the smallest chunk size.
+     */
+    private static final int MIN_SHIFT = 4;
+
+    private Object[][] chunks;
+    private int[] heads;
+    private int chunkCount;
+    private int shift;
+    private int mask;
+    private int size;
+
+    /**
+     * Empty constructor.
+     * This constructor will initialize a new empty list.
+     */
+    public TieredList() {
+        reset(MIN_SHIFT);
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right (adds one to their indices). 
+     * 
+     * Null parameters are not accepted in this list, an exception will be thrown
+     * as result of an attempt to add a null object to the list
+     * @param index index at which the specified element is to be inserted.
+     * @param element element to be inserted. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the parameter is a null reference.
+     *         which is not considered a valid type of entry for the collection
+     */    
+    @Override
+    public void add(int index, Object element) {
+        if (element == null) throw new NullPointerException();
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        insert(index, element);
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     * Null parameters are not accepted in this list, an exception will be thrown 
+     * as result of an attempt to add a null object to the list
+     * @param o  element that has to be inserted. 
+     * @return  true if this list changed as a result of the call  
+     * @throws NullPointerException whether the parameter is a null reference, 
+     *         which is not considered a valid type of entry for the collection
+     */
+    @Override
+    public boolean add(Object o) {
+        if (o == null) throw new NullPointerException();
+        insert(size, o);
+        return true;
+    }
+
+    /**
+     * Appends all of the elements in the specified collection to the end of 
+     * this list, in the order that they are returned by the specified collection's 
+     * iterator.
+     * The behavior of this operation is undefined if the specified collection 
+     * is modified while the operation is in progress.
+     * @param c  elements to be inserted into this list.
+     * @return  true if this collection changed as a result of the call. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the element parameter is null
+     * @throws NullPointerException if the collection contains null elements
+     */
+    @Override
+    public boolean addAll(HCollection c) {
+         return addAll(size(), c);
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this list at
+     * the specified position.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right (increases their indices). New elements will appear 
+     * in this list in the order that they are returned by the specified 
+     * collection's iterator.
+     * 
+     * The behavior of this operation is unspecified if the specified collection
+     * is modified while the operation is in progress.
+     * @param index  index at which to insert first element from the specified collection.
+     * @param c  elements to be inserted into this list.    
+     * @return  true if this list changed as a result of the call. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()]
+     * @throws NullPointerException if the element parameter is null
+     * @throws NullPointerException if the collection contains null elementes
+     */
+    @Override
+    public boolean addAll(int index, HCollection c) {
+        if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
+        Object[] added = c.toArray();
+        // checked before any insertion, so that a null element leaves the list unchanged
+        for (int i=0; i < added.length; i++) {
+            if (added[i] == null) throw new NullPointerException();
+        }
+        if (added.length <= (1 << shift)) {
+            for (int i=0; i < added.length; i++) insert(index++, added[i]);
+            return added.length > 0;
+        }
+        Object[] all = new Object[size + added.length];
+        copyTo(0, all, 0, index);
+        System.arraycopy(added, 0, all, index, added.length);
+        copyTo(index, all, index + added.length, size - index);
+        rebuild(all, all.length);
+        return true;
+    }
+    
+    /**
+     * Removes all of the elements from this list.
+     * This list will be empty after this method returns unless it throws an exception. 
+     */
+    @Override
+    public void clear() {
+        reset(MIN_SHIFT);
+    }
+
+    /**
+     * Returns true if this list contains the specified element.
+     * More formally, returns true if and only if this list contains at least one
+     * element e such that (o==null ? e==null : o.equals(e)). 
+     * @param o  element whose presence in this list is to be tested. 
+     * @return  true if this list contains the specified element. 
+     * @throws NullPointerException if the parameters is null.
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) throw new NullPointerException();
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns true if this list contains all of the elements of the specified collection.
+     * @param c  collection to be checked for containment in this list. 
+     * @return  true if this list contains all of the elements of the specified collection. 
+     * @throws NullPointerException if the parameters is null.
+     * @throws NullPointerException if the specified collection contains one or more null elements.
+     */
+    @Override
+    public boolean containsAll(HCollection c) {
+        boolean res = true;
+        HIterator it = c.iterator();
+        while (it.hasNext()) {
+            res = contains(it.next()) && res;
+        }
+        return res;
+    }
+
+    /**
+     * Compares the specified object with this list for equality.
+     * The general contract for the Object.equals method states that equals must
+     * be symmetric (in other words, a.equals(b) if and only if b.equals(a)). 
+     * @param o  the object to be compared for equality with this list. 
+     * @return  true if the specified object is equal to this list.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null) {
+            return false;
+        }
+        if (!(o instanceof interfaces.HList)) {
+            return false;
+        }
+        HList other = (HList) o;
+        if (other.size() != size) {
+            return false;
+        }
+        for (int i=0; i < size; i++) {
+            if (!element(i).equals(other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this list.
+     * In particular, c1.equals(c2) implies that c1.hashCode()==c2.hashCode(). 
+     * @return the hash code value for this list.
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for(int i=0; i < size; i++) {
+            hashCode = 31 * hashCode + element(i).hashCode();
+        }
+        return hashCode;
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of element to return. 
+     * @return  the element at the specified position in this list. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        return element(index);
+    }
+
+    /**
+     * Returns the index in this list of the first occurrence of the specified 
+     * element, or -1 if this list does not contain this element.
+     * More formally, returns the lowest index i such that 
+     * (o==null ? get(i)==null : o.equals(get(i))), or -1 if there is no such index. 
+     * @param o  element to search for.     
+     * @return  the index in this list of the first occurrence of the specified 
+     *          element, or -1 if this list does not contain this element. 
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (o == null) throw new NullPointerException();
+        for (int i=0; i < size; i++) {
+            if (o.equals(element(i))) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if this list contains no elements.
+     * @return  true if this list contains no elements.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence. 
+     * Many iterators can be istantiated on the same list, and they won't cause
+     * cuncurrency problems if they all perform only readings from the list.
+     * If a structural modification is performed on the list, this will result in
+     * an incoherent behaviour of the iterator, which may throw unreported exceptions
+     * or values. 
+     * @return  an iterator over the elements in this collection.
+     */
+    @Override
+    public HIterator iterator() {
+        return new ListIterator(0, 0, size());
+    }
+
+    /**
+     * Returns the index in this list of the last occurrence of the specified 
+     * element, or -1 if this list does not contain this element.
+     * More formally, returns the highest index i such that 
+     * (o==null ? get(i)==null : o.equals(get(i))), or -1 if there is no such index. 
+     * @param o  element to search for. 
+     * @return the index in this list of the last occurrence of the specified element, or -1 if this list does not contain this element. 
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o == null) throw new NullPointerException();
+        for (int i=size-1; i >= 0; i--) {
+            if (o.equals(element(i))) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a list iterator of the elements in this list (in proper sequence).
+     * Many iterators can be istantiated on the same list, and they won't cause
+     * cuncurrency problems if they all perform only readings from the list.
+     * If a structural modification is performed on the list, this will result in
+     * an incoherent behaviour of the iterator, which may throw unreported exceptions
+     * or values. 
+     * @return a list iterator of the elements in this list (in proper sequence).
+     */
+    @Override
+    public HListIterator listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns a list iterator of the elements in this list (in proper sequence),
+     * starting at the specified position in this list.
+     * The specified index indicates the first element that would be returned by
+     * an initial call to the next method. An initial call to the previous method
+     * would return the element with the specified index minus one. 
+     * 
+     * Many iterators can be istantiated on the same list, and they won't cause
+     * cuncurrency problems if they all perform only readings from the list.
+     * If a structural modification is performed on the list, this will result in
+     * an incoherent behaviour of the iterator, which may throw unreported exceptions
+     * or values. 
+     * @param index  index of first element to be returned from the list iterator 
+     *               (by a call to the next method). 
+     * @return  a list iterator of the elements in this list (in proper sequence), 
+     *          starting at the specified position in this list. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public HListIterator listIterator(int index) {
+        if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
+        return new ListIterator(0, index, size());
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     * Shifts any subsequent elements to the left (subtracts one from their indices).
+     * Returns the element that was removed from the list. 
+     * @param index the index of the element to removed.   
+     * @return the element previously at the specified position.
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     */
+    @Override
+    public Object remove(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Object old = element(index);
+        removeAt(index);
+        return old;
+    }
+
+    /**
+     * Removes the first occurrence in this list of the specified element, if it is present.
+     * More formally, removes an element e such that (o==null ? e==null : o.equals(e)),
+     * if this list contains one or more such elements. 
+     * Returns true if this list contained the specified element (or equivalently, 
+     * if this list changed as a result of the call). 
+     * @param o  element to be removed from this list, if present. 
+     * @return  true if this list contained the specified element. 
+     * @throws NullPointerException if the parameters is null.
+     */
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes from this list all the elements that are contained in the specified 
+     * collection.
+     * After this call returns, this list will contain no elements in common with 
+     * the specified collection. 
+     * @param c collection that defines which elements will be removed from this list.  
+     * @return true if this list changed as a result of the call. 
+     * @throws NullPointerException if the parameters is null.
+     */
+    @Override
+    public boolean removeAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        return filter(c, false);
+    }
+
+    /**
+     * Retains only the elements in this list that are contained in the specified 
+     * collection.
+     * In other words, removes from this list all of its elements that are not 
+     * contained in the specified collection.  
+     * @param c collection that defines which elements this list will retain. 
+     * @return true if this list changed as a result of the call. 
+     * @throws NullPointerException if the parameters is null.
+     */
+    @Override
+    public boolean retainAll(HCollection c) {
+        if(c == null) throw new NullPointerException();
+        return filter(c, true);
+    }
+
+    /**
+     * Performs the given action for each element of this list, in proper 
+     * sequence, walking the chunks directly.
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the action is null.
+     */
+    @Override
+    public void forEach(HConsumer action) {
+        if(action == null) throw new NullPointerException();
+        for (int c=0; c < chunkCount; c++) {
+            Object[] chunk = chunks[c];
+            int head = heads[c];
+            int n = Math.min(mask + 1, size - (c << shift));
+            for (int p=0; p < n; p++) action.accept(chunk[(head + p) & mask]);
+        }
+    }
+
+    /**
+     * Removes all of the elements of this list that satisfy the given 
+     * predicate, in a single pass. The predicate is evaluated on every element
+     * before the list is modified, so if it throws an exception the list is 
+     * left unchanged.
+     * @param filter predicate which returns true for the elements to be removed
+     * @return true if any elements were removed
+     * @throws NullPointerException if the filter is null.
+     */
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        if(filter == null) throw new NullPointerException();
+        return removeMatching(0, size, filter) > 0;
+    }
+
+    /**
+     * Replaces each element of this list with the result of applying the 
+     * operator to that element.
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the operator is null, or if it returns null.
+     */
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        if(operator == null) throw new NullPointerException();
+        for (int c=0; c < chunkCount; c++) {
+            Object[] chunk = chunks[c];
+            int head = heads[c];
+            int n = Math.min(mask + 1, size - (c << shift));
+            for (int p=0; p < n; p++) {
+                Object elem = operator.apply(chunk[(head + p) & mask]);
+                if (elem == null) throw new NullPointerException();
+                chunk[(head + p) & mask] = elem;
+            }
+        }
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the 
+     * specified element.
+     * @param index  index of element to replace.
+     * @param element element to be stored at the specified position. 
+     * @return the element previously at the specified position. 
+     * @throws IndexOutOfBoundsException if the index parameter isn't in the interval [0, size()-1]
+     * @throws NullPointerException if the element parameter is null
+     */
+    @Override
+    public Object set(int index, Object element) {
+        if (element == null) throw new NullPointerException();
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Object[] chunk = chunks[index >>> shift];
+        int slot = (heads[index >>> shift] + index) & mask;
+        Object old = chunk[slot];
+        chunk[slot] = element;
+        return old;
+    }
+
+    /**
+     * Returns the number of elements in this collection.
+     * @return the number of elements in this collection.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified fromIndex, 
+     * inclusive, and toIndex, exclusive.
+     * If fromIndex and toIndex are equal, the returned list is empty.
+     * 
+     * The returned list is backed by this list, so non-structural changes in the
+     * returned list are reflected in this list, and vice-versa. The returned list
+     * supports all of the optional list operations supported by this list.
+     * 
+     * The semantics of the list returned by this method become undefined if the
+     * backing list (i.e., this list) is structurally modified in any way other 
+     * than via the returned list. (Structural modifications are those that change
+     * the size of this list, or otherwise perturb it in such a fashion that iterations
+     * in progress may yield incorrect results.) 
+     * 
+     * If the modifications are performed in an area which indexes are higher than 
+     * the upper bound of the list, it won't cause any inconsistency in the sublist.
+     * On the other hand, if the modification is performed in an area of index
+     * lower than the last index of the sublist, this will cause an inconsistency.
+     * @param fromIndex  low endpoint (inclusive) of the subList.
+     * @param toIndex  high endpoint (exclusive) of the subList. 
+     * @return  a view of the specified range within this list. 
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    @Override
+    public HList subList(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || fromIndex > toIndex || toIndex > size()) throw new IndexOutOfBoundsException();
+        return new SubList(fromIndex, toIndex);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this listin proper sequence.
+     * The returned array will be "safe" in that no references to it are maintained 
+     * by this list. (In other words, this method must allocate a new array even 
+     * if this list is backed by an array). The caller is thus free to modify the 
+     * returned array.
+     * @return  an array containing all of the elements in this list.
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] res = new Object[size];
+        copyTo(0, res, 0, size);
+        return res;
+    }
+
+    /**
+     * Returns an array containing all of the elements in this list in proper sequence.
+     * The runtime type of the returned array is that of the specified array if 
+     * a parameter is big enough to contain all the elements of this list (all 
+     * the elements of the list are copied inside the a parameter).
+     * 
+     * If parameter a is not big enough, a new Object[] array will be instantiated, 
+     * and the return array won't be of the specified array type.
+     * The returned array will be "safe" in that no references to it are maintained 
+     * by this list. (In other words, this method must allocate a new array even 
+     * if this list is backed by an array). The caller is thus free to modify the
+     * returned array.
+     * 
+     * If the parameter a is big enough to contain all the element of this list, 
+     * the elements will be stored in the parametric array. Only the first size() 
+     * cell of the array will be written, the others will mantain their actual value.
+     * @param a the array into which the elements of this list are to be stored, if it is big enough 
+     * @return an array containing the elements of this list. 
+     * @throws NullPointerException if the parameter is null
+     */
+    @Override
+    public Object[] toArray(Object[] a) {
+        Object[] res; 
+        if(a.length >= size) res = a;
+        else res = new Object[size];
+        copyTo(0, res, 0, size);
+        return res;
+    }
+    
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        for(int i=0; i < size; i++) res += element(i).toString() + " ";
+        return res;
+    }
+
+    /**
+     * Removes from this list all of the elements whose index is between 
+     * fromIndex, inclusive, and toIndex, exclusive.
+     * Shifts any succeeding elements to the left (reduces their index). Short
+     * ranges are removed one element at a time, longer ones by rebuilding the
+     * chunks in a single pass. If fromIndex and toIndex are equal the list is
+     * not modified.
+     * @param fromIndex index of first element to be removed
+     * @param toIndex index after last element to be removed
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex < 0 || toIndex > size || fromIndex > toIndex).
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) throw new IndexOutOfBoundsException();
+        int removed = toIndex - fromIndex;
+        if (removed <= (1 << shift)) {
+            for (int i=0; i < removed; i++) removeAt(fromIndex);
+            return;
+        }
+        Object[] all = new Object[size - removed];
+        copyTo(0, all, 0, fromIndex);
+        copyTo(toIndex, all, fromIndex, size - toIndex);
+        rebuild(all, all.length);
+    }
+
+    /**
+     * Returns the element at the specified position. The index is not checked.
+     * @param index index of the element
+     * @return the element at the specified position
+     */
+    private Object element(int index) {
+        return chunks[index >>> shift][(heads[index >>> shift] + index) & mask];
+    }
+
+    /**
+     * Empties the list, using chunks of 2^shift slots.
+     * @param shift base 2 logarithm of the chunk size
+     */
+    private void reset(int shift) {
+        this.shift = shift;
+        this.mask = (1 << shift) - 1;
+        chunks = new Object[4][];
+        heads = new int[4];
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Replaces the content of the list with the first n elements of the
+     * specified array, choosing the smallest chunk size k such that k*k >= n.
+     * @param src array containing the new elements
+     * @param n number of elements
+     */
+    private void rebuild(Object[] src, int n) {
+        int s = MIN_SHIFT;
+        while ((1L << (2 * s)) < n) s++;
+        reset(s);
+        int k = 1 << s;
+        int count = (n + k - 1) >>> s;
+        chunks = new Object[Math.max(count, 4)][];
+        heads = new int[chunks.length];
+        for (int c=0; c < count; c++) {
+            chunks[c] = new Object[k];
+            System.arraycopy(src, c << s, chunks[c], 0, Math.min(k, n - (c << s)));
+        }
+        chunkCount = count;
+        size = n;
+    }
+
+    /**
+     * Copies n elements of the list, starting from the specified position, to
+     * the specified array. Parameters are not checked.
+     * @param from position of the first element to be copied
+     * @param dst destination array
+     * @param dstPos position of the first element in the destination array
+     * @param n number of elements to be copied
+     */
+    private void copyTo(int from, Object[] dst, int dstPos, int n) {
+        while (n > 0) {
+            int c = from >>> shift;
+            int offset = from & mask;
+            int slot = (heads[c] + offset) & mask;
+            int len = Math.min(n, Math.min(mask + 1 - offset, mask + 1 - slot));
+            System.arraycopy(chunks[c], slot, dst, dstPos, len);
+            from += len;
+            dstPos += len;
+            n -= len;
+        }
+    }
+
+    /**
+     * Appends a new empty chunk.
+     */
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            Object[][] grown = new Object[chunkCount * 2][];
+            System.arraycopy(chunks, 0, grown, 0, chunkCount);
+            int[] grownHeads = new int[chunkCount * 2];
+            System.arraycopy(heads, 0, grownHeads, 0, chunkCount);
+            chunks = grown;
+            heads = grownHeads;
+        }
+        chunks[chunkCount] = new Object[mask + 1];
+        heads[chunkCount++] = 0;
+    }
+
+    /**
+     * Inserts the element at the specified position. Parameters are not checked.
+     * @param index index at which the element is to be inserted
+     * @param element element to be inserted
+     */
+    private void insert(int index, Object element) {
+        if (size == chunkCount << shift) addChunk();
+        int c = index >>> shift;
+        // each chunk after c passes its last element to the following one
+        for (int j=chunkCount-1; j > c; j--) {
+            Object[] prev = chunks[j-1];
+            int last = (heads[j-1] + mask) & mask;
+            heads[j] = (heads[j] - 1) & mask;
+            chunks[j][heads[j]] = prev[last];
+            prev[last] = null;
+        }
+        int n = (c == chunkCount - 1) ? size - (c << shift) : mask;
+        int offset = index & mask;
+        Object[] chunk = chunks[c];
+        int head = heads[c];
+        if (offset < n - offset) {
+            head = (head - 1) & mask;
+            for (int p=0; p < offset; p++) chunk[(head + p) & mask] = chunk[(head + p + 1) & mask];
+            heads[c] = head;
+        } else {
+            for (int p=n; p > offset; p--) chunk[(head + p) & mask] = chunk[(head + p - 1) & mask];
+        }
+        chunk[(head + offset) & mask] = element;
+        size++;
+        if (size > (1L << (2 * shift))) rebuild(toArray(), size);
+    }
+
+    /**
+     * Removes the element at the specified position. Parameters are not checked.
+     * @param index index of the element to be removed
+     */
+    private void removeAt(int index) {
+        int c = index >>> shift;
+        int n = (c == chunkCount - 1) ? size - (c << shift) : mask + 1;
+        int offset = index & mask;
+        Object[] chunk = chunks[c];
+        int head = heads[c];
+        if (offset < n - 1 - offset) {
+            for (int p=offset; p > 0; p--) chunk[(head + p) & mask] = chunk[(head + p - 1) & mask];
+            chunk[head] = null;
+            heads[c] = (head + 1) & mask;
+        } else {
+            for (int p=offset; p < n - 1; p++) chunk[(head + p) & mask] = chunk[(head + p + 1) & mask];
+            chunk[(head + n - 1) & mask] = null;
+        }
+        // each chunk after c passes its first element to the previous one
+        for (int j=c+1; j < chunkCount; j++) {
+            Object[] next = chunks[j];
+            int first = heads[j];
+            chunks[j-1][(heads[j-1] + mask) & mask] = next[first];
+            next[first] = null;
+            heads[j] = (first + 1) & mask;
+        }
+        size--;
+        if (size == (chunkCount - 1) << shift) chunks[--chunkCount] = null;
+        if (shift > MIN_SHIFT && size < (1L << (2 * shift - 4))) rebuild(toArray(), size);
+    }
+
+    /**
+     * Removes in a single pass the elements which are (if retain is false) or
+     * are not (if retain is true) contained in the specified collection.
+     * @param c collection to be checked
+     * @param retain true to retain the elements contained in c, false to remove them
+     * @return true if this list changed as a result of the call
+     */
+    private boolean filter(HCollection c, boolean retain) {
+        return filterRange(0, size, c, retain) > 0;
+    }
+
+    /**
+     * Removes in a single pass the elements of the range [from, to) which are
+     * (if retain is false) or are not (if retain is true) contained in the
+     * specified collection.
+     * @param from index of the first element of the range
+     * @param to index after the last element of the range
+     * @param c collection to be checked
+     * @param retain true to retain the elements contained in c, false to remove them
+     * @return the number of elements removed
+     */
+    private int filterRange(int from, int to, HCollection c, final boolean retain) {
+        final HCollection lookup = List.lookupOf(c);
+        return removeMatching(from, to, new HPredicate() {
+            @Override
+            public boolean test(Object o) {
+                return lookup.contains(o) != retain;
+            }
+        });
+    }
+
+    /**
+     * Removes the elements of the range [from, to) which satisfy the
+     * predicate: the elements are copied once, the ones kept are compacted
+     * and the chunks are rebuilt, so the cost is O(n) whatever the number of
+     * elements removed. The predicate is evaluated on every element of the
+     * range before the list is modified.
+     * @param from index of the first element of the range
+     * @param to index after the last element of the range
+     * @param filter predicate which returns true for the elements to be removed
+     * @return the number of elements removed
+     */
+    private int removeMatching(int from, int to, HPredicate filter) {
+        Object[] all = toArray();
+        int kept = from;
+        for (int i=from; i < to; i++) {
+            if (!filter.test(all[i])) all[kept++] = all[i];
+        }
+        int removed = to - kept;
+        if (removed == 0) return 0;
+        System.arraycopy(all, to, all, kept, size - to);
+        rebuild(all, size - removed);
+        return removed;
+    }
+
+    /**
+     * Inner class ListIterator, implements HListIterator interface. 
+     */
+    class ListIterator implements HListIterator {
+        
+        private int cursor;
+        private int current;
+        
+        private int upperBound;
+        private final int lowerBound;
+        
+        public ListIterator(int lowerBond, int index, int upperBond) {
+            this.lowerBound = lowerBond;
+            this.upperBound = upperBond;
+            this.cursor = index;
+            current = -1;
+        }
+
+        @Override
+        public void add(Object o) {
+            if(o == null) throw new IllegalArgumentException();
+            insert(cursor++, o);
+            upperBound++;
+            current = -1;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > lowerBound;
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor - lowerBound; 
+        }
+
+        @Override
+        public Object previous() {
+            if(!hasPrevious()) throw new NoSuchElementException();
+            current = --cursor;
+            return element(current);
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - lowerBound - 1;
+        }
+
+        @Override
+        public void set(Object o) {
+            if(current == -1) throw new IllegalStateException();
+            if(o == null) throw new IllegalArgumentException();
+            TieredList.this.set(current, o);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < upperBound;
+        }
+
+        @Override
+        public Object next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            current = cursor++;
+            return element(current);
+        }
+
+        @Override
+        public void remove() {
+            if(current == -1) throw new IllegalStateException();
+            removeAt(current);
+            if(current != cursor) cursor--;
+            upperBound--;
+            current = -1;
+        }
+
+    }
+    
+    /**
+     * SubList inner class.
+     */
+    class SubList implements HList {
+
+        private final int fromIndex;
+        private int toIndex;
+        private final SubList upper;
+
+        public SubList(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            upper = null;
+        }
+
+        public SubList(int fromIndex, int toIndex, SubList upper) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.upper = upper;
+        }
+
+        /**
+         * Moves the end of this sublist, and of all the sublists it was
+         * created from, after delta elements have been inserted (or removed,
+         * if delta is negative) through it.
+         * @param delta change of the size of the sublist
+         */
+        private void resize(int delta) {
+            for (SubList s = this; s != null; s = s.upper) s.toIndex += delta;
+        }
+ 
+        @Override
+        public boolean add(Object o) {
+            add(size(), o);
+            return true;
+        }
+        
+        @Override
+        public void add(int index, Object element) {
+            if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
+            TieredList.this.add(fromIndex + index, element);
+            resize(1);
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            return addAll(size(), c);
+        }
+        
+        @Override
+        public boolean addAll(int index, HCollection c) {
+            if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
+            int before = TieredList.this.size;
+            boolean res = TieredList.this.addAll(fromIndex + index, c);
+            resize(TieredList.this.size - before);
+            return res;
+        }
+
+        @Override
+        public void clear() {
+            int size = size();
+            removeRange(fromIndex, toIndex);
+            resize(-size);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) != -1;        
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            boolean res = true;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                res = contains(it.next()) && res;
+            return res;                
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o == null) {
+                return false;
+            }
+            if (!(o instanceof interfaces.HList)) {
+                return false;
+            }
+            HList other = (HList) o;
+            if (other.size() != size()) {
+                return false;
+            }
+            for (int i=0; i < size(); i++) {
+                if (!get(i).equals(other.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = 1;
+            for(int i=0; i < size(); i++) {
+                Object obj = get(i);
+                hashCode = 31 * hashCode + obj.hashCode();
+            }
+            return hashCode;
+        }
+        
+        @Override
+        public Object get(int index) {
+            if(index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+            return TieredList.this.get(fromIndex + index);
+        }
+        
+        @Override
+        public int indexOf(Object o) {
+            if(o == null) throw new NullPointerException();
+            for(int i=0; i < size(); i++) {
+                if(o.equals(get(i))) return i;
+            }
+            return -1;
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return fromIndex == toIndex;
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new SubListIterator(fromIndex, fromIndex, toIndex);
+        }
+        
+        @Override
+        public int lastIndexOf(Object o) {
+            if(o == null) throw new NullPointerException();
+            int res = -1;
+            for(int i=0; i < size(); i++) {
+                if(o.equals(get(i))) res = i;
+            }
+            return res;
+        }
+
+        @Override
+        public HListIterator listIterator() {
+            return new SubListIterator(fromIndex, fromIndex, toIndex);
+        }
+
+        @Override
+        public HListIterator listIterator(int index) {
+            if(index < 0 || index > size()) throw new IndexOutOfBoundsException();
+            return new SubListIterator(fromIndex, fromIndex + index, toIndex);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            int index = indexOf(o);
+            if (index >= 0) {
+                remove(index);
+                return true;
+            }
+            return false;
+        }
+        
+        @Override
+        public Object remove(int index) {
+            if(index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+            Object toReturn = TieredList.this.remove(fromIndex + index);
+            resize(-1);
+            return toReturn;
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            int removed = filterRange(fromIndex, toIndex, c, false);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            int removed = filterRange(fromIndex, toIndex, c, true);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            for(int i=fromIndex; i < toIndex; i++) action.accept(element(i));
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            int removed = removeMatching(fromIndex, toIndex, filter);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public void replaceAll(HUnaryOperator operator) {
+            if(operator == null) throw new NullPointerException();
+            for(int i=0; i < size(); i++) set(i, operator.apply(get(i)));
+        }
+         
+        @Override
+        public Object set(int index, Object element) {
+            if(index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+            return TieredList.this.set(fromIndex + index, element);
+        }
+        
+        @Override
+        public int size() {
+            return toIndex - fromIndex;
+        } 
+        
+        @Override
+        public HList subList(int fromIndex, int toIndex) {
+            if(fromIndex < 0 || fromIndex > toIndex || toIndex > size()) throw new IndexOutOfBoundsException();
+            return new SubList(this.fromIndex + fromIndex, this.fromIndex + toIndex, this);
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] arr = new Object[size()];
+            for(int i=0; i < size(); i++) arr[i] = get(i);
+            return arr;
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            Object[] arr;
+            if(a.length >= size()) {
+                arr = a;
+            } else {
+                arr = new Object[size()];
+            }
+            for(int i=0; i < size(); i++) arr[i] = get(i);
+            return arr;
+        }
+        
+        @Override
+        public String toString() {
+            String res = "";
+            for(int i=0; i < size(); i++) res += get(i).toString() + " ";
+            return res;
+        }
+        
+        /**
+         * SubList iterator, extends List iterator class.
+         */
+        class SubListIterator extends ListIterator {
+
+            public SubListIterator(int lowerBound, int index, int upperBond) {
+                super(lowerBound, index, upperBond);
+            }
+
+            @Override
+            public void add(Object o) {
+                super.add(o);
+                resize(1);
+            }
+            
+            @Override
+            public void remove() {
+                super.remove();
+                resize(-1);
+            }
+
+        }
+
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package adapters;
+
+/**
+ * Hierarchical timer wheel, which schedules the expiration of the mappings of
+ * an ExpiringMap.
+ * The wheel has five levels of buckets, each bucket holding a circular doubly
+ * linked list of nodes: the buckets of the first level span about a second
+ * (2^30 ns), the ones of the following levels about a minute, an hour, a day
+ * and six days. A node is linked in the finest level whose range covers its
+ * expiration time, so scheduling, rescheduling and descheduling a node take
+ * constant time.
+ *
+ * When the time advances, the buckets of each level whose span has elapsed
+ * are emptied: their expired nodes are returned to the caller, while the
+ * other ones are scheduled again, ending in a finer level. A level is visited
+ * only when the time crosses the span of one of its buckets, so advancing the
+ * wheel costs nothing most of the times, and the work of the cascades is
+ * amortized over the operations which move the time forward.
+ * The times are compared by their difference, and the buckets are indexed by
+ * the time elapsed since the creation of the wheel, so that the times can be
+ * negative or wrap around as the values of System.nanoTime() do. The class is
+ * not synchronized.
+ * @author Giacomo Camposampiero
+ */
+final class TimerWheel {
+
+    /**
+     * Number of buckets of each level, all powers of two.
+     */
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    /**
+     * Span of a bucket of each level, as a power of two of nanoseconds: each
+     * level covers as much time as a bucket of the next one.
+     */
+    static final int[] SHIFTS = {30, 36, 42, 47, 49};
+
+    private final Node[][] wheel = new Node[BUCKETS.length][];
+    // time of the creation of the wheel, which the ticks are counted from
+    private final long origin;
+    private long nanos;
+
+    /**
+     * Constructor.
+     * This constructor will initialize an empty wheel, whose time is now.
+     * @param now current time, in nanoseconds
+     */
+    TimerWheel(long now) {
+        origin = nanos = now;
+        for(int i=0; i < BUCKETS.length; i++) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for(int j=0; j < BUCKETS[i]; j++) {
+                Node sentinel = new Node();
+                sentinel.prev = sentinel.next = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Returns the time the wheel has been advanced to.
+     * @return the time of the wheel, in nanoseconds
+     */
+    long time() {
+        return nanos;
+    }
+
+    /**
+     * Links the node in the bucket of its expiration time, unlinking it first
+     * if it's already scheduled. The node must expire after the time of the
+     * wheel.
+     * @param n node to be scheduled
+     */
+    void schedule(Node n) {
+        if(n.next != null) unlink(n);
+        Node sentinel = findBucket(n.time);
+        n.prev = sentinel.prev;
+        n.next = sentinel;
+        sentinel.prev.next = n;
+        sentinel.prev = n;
+    }
+
+    /**
+     * Unlinks the node from its bucket, if it's scheduled.
+     * @param n node to be descheduled
+     */
+    void deschedule(Node n) {
+        if(n.next != null) unlink(n);
+    }
+
+    /**
+     * Unlinks all the nodes of the wheel.
+     */
+    void clear() {
+        for(int i=0; i < wheel.length; i++) {
+            for(int j=0; j < wheel[i].length; j++) {
+                Node sentinel = wheel[i][j];
+                Node n = sentinel.next;
+                while(n != sentinel) {
+                    Node next = n.next;
+                    n.prev = n.next = null;
+                    n = next;
+                }
+                sentinel.prev = sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time, emptying the buckets whose span
+     * has elapsed. The nodes which expired by then are unlinked and returned
+     * as a chain, linked through their nextExpired field.
+     * @param now current time, in nanoseconds
+     * @return the first of the expired nodes, or null if none expired
+     */
+    Node advance(long now) {
+        long previous = nanos;
+        if(now - previous <= 0) return null;
+        nanos = now;
+        Node expired = null;
+        for(int i=0; i < SHIFTS.length; i++) {
+            long previousTicks = ticks(previous, i);
+            long delta = Math.max(ticks(now, i) - previousTicks, 0);
+            if(delta == 0) break;
+            expired = expire(i, previousTicks, delta, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Unlinks the nodes of the current bucket of the first level which expired
+     * by the time of the wheel. After advance, they are the only expired nodes
+     * left in the wheel: the method makes an exact count of the live mappings
+     * possible, at the cost of a visit of the nodes which expire in the same
+     * span of the first level.
+     * @param expired chain of expired nodes the ones found are prepended to
+     * @return the first of the expired nodes
+     */
+    Node expireCurrent(Node expired) {
+        Node sentinel = wheel[0][(int) (ticks(nanos, 0) & (BUCKETS[0] - 1))];
+        Node n = sentinel.next;
+        while(n != sentinel) {
+            Node next = n.next;
+            if(n.time - nanos <= 0) {
+                unlink(n);
+                n.nextExpired = expired;
+                expired = n;
+            }
+            n = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Empties the buckets of a level from the one of previousTicks to the
+     * current one, at most once each.
+     */
+    private Node expire(int level, long previousTicks, long delta, Node expired) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for(int s=0; s < steps; s++) {
+            Node sentinel = buckets[(start + s) & mask];
+            Node n = sentinel.next;
+            // detaches the list first: a node could be scheduled again in the same bucket
+            sentinel.prev = sentinel.next = sentinel;
+            while(n != sentinel) {
+                Node next = n.next;
+                n.prev = n.next = null;
+                if(n.time - nanos <= 0) {
+                    n.nextExpired = expired;
+                    expired = n;
+                }
+                else schedule(n);
+                n = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the sentinel of the bucket the given expiration time belongs to.
+     */
+    private Node findBucket(long time) {
+        long duration = time - nanos;
+        int last = SHIFTS.length - 1;
+        for(int i=0; i < last; i++) {
+            if(duration < 1L << SHIFTS[i + 1]) {
+                return wheel[i][(int) (ticks(time, i) & (BUCKETS[i] - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    /**
+     * Returns the number of buckets of the given level elapsed from the
+     * creation of the wheel to the given time.
+     */
+    private long ticks(long time, int level) {
+        return (time - origin) >>> SHIFTS[level];
+    }
+
+    private static void unlink(Node n) {
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        n.prev = n.next = null;
+    }
+
+    /**
+     * Element of the wheel: its expiration time and its links in the bucket.
+     * A node is scheduled when its next link is not null; the sentinels of the
+     * buckets are nodes linked to themselves.
+     */
+    static class Node {
+
+        long time;
+        Node prev;
+        Node next;
+        Node nextExpired;
+
+        Node() {
+        }
+
+    }
+
+}
@@ -0,0 +1,1059 @@
+package adapters;
+
+import exceptions.IllegalStateException;
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent bounded cache implementing the HMap interface, whose eviction
+ * policy is W-TinyLFU.
+ * The cache holds at most maximumSize mappings, split in two regions:
+ * <ul>
+ * <li>a small admission window (1% of the cache), in LRU order, which gives
+ * the new keys the time to build up their frequency;</li>
+ * <li>a main region, in segmented LRU order: a probation segment, for the
+ * keys which have been admitted but not used since, and a protected segment
+ * (80% of the main region), for the keys which have been used while in
+ * probation.</li>
+ * </ul>
+ * The key which leaves the window when it's full competes with the least
+ * recently used key of the probation segment, and only the one with the
+ * higher estimated frequency stays in the cache. The frequencies are counted
+ * by a FrequencySketch, which also remembers the keys that are not in the
+ * cache, so that a scan of keys which are used once can't flush the popular
+ * ones, as it happens with a plain LRU cache.
+ *
+ * The mappings are stored in a ConcurrentMap, so get never acquires a lock.
+ * The policy, instead, is guarded by a single eviction lock: a read records
+ * its access in a small buffer of the calling thread's stripe, and the
+ * buffered accesses are applied to the policy in batches, by the thread which
+ * finds a buffer full and the lock free, or by the next write. When a buffer
+ * is full and the lock is busy, the access is dropped: the policy only needs
+ * an approximate recency. Writes update the policy under the lock, after
+ * draining the buffers.
+ *
+ * The cache counts its hits, misses and evictions. Only get counts as an
+ * access: containsKey, the views and the iterators don't affect the policy
+ * nor the counters. The iterators are weakly consistent, as the ones of
+ * ConcurrentMap. Null keys and null values are not allowed.
+ * @author Giacomo Camposampiero
+ */
+public class TinyLfuCache implements HMap {
+
+    /**
+     * Queues of the policy.
+     */
+    private static final int NONE = -1;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    /**
+     * Value of the nodes which have been removed from the cache.
+     */
+    static final Object RETIRED = new Object();
+
+    /**
+     * Number of accesses recorded by each stripe of the read buffer (must be
+     * a power of two).
+     */
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    /**
+     * Number of stripes of the read buffer: four per processor, rounded to a
+     * power of two, at most 64.
+     */
+    private static final int STRIPES;
+
+    static {
+        int stripes = 1;
+        while(stripes < 4 * Runtime.getRuntime().availableProcessors() && stripes < 64) stripes <<= 1;
+        STRIPES = stripes;
+    }
+
+    // key --> Node
+    final ConcurrentMap data = new ConcurrentMap();
+    private final int maximumSize;
+    private final int maxWindow;
+    private final int maxMain;
+    private final int maxProtected;
+
+    // policy, guarded by the eviction lock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Node window = new Node();
+    private final Node probation = new Node();
+    private final Node protectedSegment = new Node();
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    private final ReadBuffer[] readBuffers = new ReadBuffer[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     * This constructor will initialize a new empty cache, which holds at most
+     * maximumSize mappings.
+     * @param maximumSize maximum number of mappings of the cache
+     * @throws IllegalArgumentException if maximumSize is not positive
+     */
+    public TinyLfuCache(int maximumSize) {
+        if(maximumSize <= 0) throw new IllegalArgumentException();
+        this.maximumSize = maximumSize;
+        maxWindow = Math.max(1, maximumSize / 100);
+        maxMain = maximumSize - maxWindow;
+        maxProtected = maxMain - maxMain / 5;
+        sketch = new FrequencySketch(maximumSize);
+        for(int i=0; i < STRIPES; i++) readBuffers[i] = new ReadBuffer();
+    }
+
+    /**
+     * Removes all of the mappings from this cache.
+     * Mappings which are concurrently added to the cache could be contained in
+     * it when this call returns. The counters are not reset.
+     */
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            HIterator it = data.values().iterator();
+            while(it.hasNext()) {
+                Node n = (Node) it.next();
+                if(retire(n) != null) data.remove(n.key, n);
+                if(n.queue != NONE) unlink(n);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if this cache contains a mapping for the specified key.
+     * The call doesn't count as an access to the mapping.
+     * @param key key whose presence in this cache is to be tested
+     * @return true if this cache contains a mapping for the specified key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    /**
+     * Returns true if this cache maps one or more keys to the specified value.
+     * @param value value whose presence in this cache is to be tested
+     * @return true if this cache maps one or more keys to the specified value
+     * @throws NullPointerException if the specified value is null
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(value == null) throw new NullPointerException();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            if(value.equals(((Node) it.next()).value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a Set view of the mappings contained in this cache.
+     * The set is backed by the cache, so changes to the cache are reflected in
+     * the set, and vice-versa. Its iterator is weakly consistent, and the
+     * setValue operation of its entries writes through to the cache.
+     *
+     * The set supports element removal, which removes the corresponding
+     * mapping from the cache, via the Iterator.remove, Set.remove, removeAll,
+     * retainAll and clear operations. It does not support the add or addAll
+     * operations.
+     * @return a set view of the mappings contained in this cache
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * Compares the specified object with this cache for equality.
+     * Returns true if the given object is also a map and the two maps
+     * represent the same mappings.
+     * @param obj object to be compared for equality with this cache
+     * @return true if the specified object is equal to this cache
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(!(obj instanceof HMap)) return false;
+        HMap other = (HMap) obj;
+        if(other.size() != size()) return false;
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object value = n.value;
+            if(value != RETIRED && !value.equals(other.get(n.key))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * cache contains no mapping for the key.
+     * The call doesn't acquire any lock, unless it finds the read buffer of
+     * its stripe full: in that case it tries to apply the buffered accesses to
+     * the policy. The call is counted as a hit or as a miss.
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or null if this
+     *         cache contains no mapping for the key
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object get(Object key) {
+        Node n = (Node) data.get(key);
+        Object value = n == null ? RETIRED : n.value;
+        if(value == RETIRED) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(n);
+        return value;
+    }
+
+    /**
+     * Returns the hash code value for this cache, which is the sum of the
+     * hash codes of its entries.
+     * @return the hash code value for this cache
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object value = n.value;
+            if(value != RETIRED) hash += n.key.hashCode() ^ value.hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this cache.
+     * The set is backed by the cache, as the one returned by entrySet().
+     * @return a set view of the keys contained in this cache
+     */
+    @Override
+    public HSet keySet() {
+        return new ElementSet(true);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this cache.
+     * If the cache previously contained a mapping for the key, the old value
+     * is replaced and the call counts as an access to the mapping; otherwise
+     * the mapping enters the admission window, and a mapping could be evicted
+     * to make room for it (possibly the new one, once it leaves the window).
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key
+     * @throws NullPointerException if the specified key or value is null
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if(key == null || value == null) throw new NullPointerException();
+        Node node = null;
+        while(true) {
+            Node prior = (Node) data.get(key);
+            if(prior == null) {
+                if(node == null) node = new Node(key, value);
+                prior = (Node) data.putIfAbsent(key, node);
+                if(prior == null) {
+                    afterWrite(node);
+                    return null;
+                }
+            }
+            Object old = prior.value;
+            while(old != RETIRED && !Node.VALUE.compareAndSet(prior, old, value)) old = prior.value;
+            if(old != RETIRED) {
+                afterRead(prior);
+                return old;
+            }
+            // the mapping is being removed: completes its removal and retries
+            data.remove(key, prior);
+        }
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this cache, one at
+     * a time.
+     * @param t mappings to be stored in this cache
+     * @throws NullPointerException if the specified map is null
+     * @throws NullPointerException if the specified map contains null keys or values
+     */
+    @Override
+    public void putAll(HMap t) {
+        if(t == null) throw new NullPointerException();
+        HIterator it = t.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this cache if it is present.
+     * The removal is not counted as an eviction.
+     * @param key key whose mapping is to be removed from the cache
+     * @return the previous value associated with key, or null if there was no
+     *         mapping for key.
+     * @throws NullPointerException if the specified key is null
+     */
+    @Override
+    public Object remove(Object key) {
+        Node n = (Node) data.get(key);
+        return n == null ? null : removeNode(n);
+    }
+
+    /**
+     * Returns the number of key-value mappings in this cache.
+     * It could briefly exceed the maximum size while concurrent insertions
+     * are waiting to update the policy.
+     * @return the number of key-value mappings in this cache
+     */
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns a Collection view of the values contained in this cache.
+     * The collection is backed by the cache, as the one returned by entrySet().
+     * @return a collection view of the values contained in this cache
+     */
+    @Override
+    public HCollection values() {
+        return new ElementSet(false);
+    }
+
+    @Override
+    public void forEach(HBiConsumer action) {
+        if(action == null) throw new NullPointerException();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object value = n.value;
+            if(value != RETIRED) action.accept(n.key, value);
+        }
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the given
+     * function on its key and value. Each value is replaced only if it has
+     * not been updated concurrently since it was read; otherwise the function
+     * is invoked again on the new value. The replacements don't count as
+     * accesses.
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the function is null, or if it returns null
+     */
+    @Override
+    public void replaceAll(HBiFunction function) {
+        if(function == null) throw new NullPointerException();
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object old = n.value;
+            while(old != RETIRED) {
+                Object value = function.apply(n.key, old);
+                if(value == null) throw new NullPointerException();
+                if(Node.VALUE.compareAndSet(n, old, value)) break;
+                old = n.value;
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        String res = "";
+        HIterator it = data.values().iterator();
+        while(it.hasNext()) {
+            Node n = (Node) it.next();
+            Object value = n.value;
+            if(value != RETIRED) res += n.key.toString() + "=" + value.toString() + " ";
+        }
+        return res;
+    }
+
+    /**
+     * Returns the maximum number of mappings of this cache.
+     * @return the maximum size of this cache
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of calls of get which found a mapping.
+     * @return the number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of calls of get which didn't find a mapping.
+     * @return the number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of mappings removed by the policy to respect the
+     * maximum size.
+     * @return the number of evictions
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of the hits to the calls of get, or 1 if get has never
+     * been called.
+     * @return the hit rate of this cache
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long requests = h + misses.sum();
+        return requests == 0 ? 1.0 : (double) h / requests;
+    }
+
+    /**
+     * Applies the buffered accesses to the policy. The cache does it on its
+     * own, when the buffers fill up and at every write; the method is useful
+     * when the order of the evictions has to be predictable.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the node as removed, replacing its value with RETIRED, so that the
+     * value can't be read nor updated anymore.
+     * @param n node of the cache
+     * @return the value of the node, or null if it had already been removed
+     */
+    private static Object retire(Node n) {
+        while(true) {
+            Object value = n.value;
+            if(value == RETIRED) return null;
+            if(Node.VALUE.compareAndSet(n, value, RETIRED)) return value;
+        }
+    }
+
+    /**
+     * Removes the mapping of the specified node, if it's still in the cache.
+     * @param n node of the cache
+     * @return the value of the node, or null if it had already been removed
+     */
+    Object removeNode(Node n) {
+        Object old = retire(n);
+        if(old != null) afterRemove(n);
+        return old;
+    }
+
+    /**
+     * Removes the mapping of the specified node only if it's still mapped to
+     * the expected value.
+     * @param n node of the cache
+     * @param expected value read from the node
+     * @return true if the mapping has been removed
+     */
+    boolean retire(Node n, Object expected) {
+        if(!Node.VALUE.compareAndSet(n, expected, RETIRED)) return false;
+        afterRemove(n);
+        return true;
+    }
+
+    /**
+     * Removes a retired node from the map and from the policy.
+     */
+    private void afterRemove(Node n) {
+        data.remove(n.key, n);
+        evictionLock.lock();
+        try {
+            if(n.queue != NONE) unlink(n);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Records an access to the node in the read buffer of the stripe of the
+     * current thread, and drains the buffers if that one is full.
+     */
+    private void afterRead(Node n) {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        ReadBuffer buffer = readBuffers[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        if(buffer.offer(n) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds a new node to the admission window, and evicts the mappings in
+     * excess.
+     */
+    private void afterWrite(Node n) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            // the mapping could have been removed before getting the lock
+            if(n.value == RETIRED) return;
+            sketch.increment(n.key);
+            linkLast(window, n, WINDOW);
+            windowSize++;
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void drainReadBuffers() {
+        for(int i=0; i < STRIPES; i++) readBuffers[i].drain(this);
+    }
+
+    /**
+     * Applies an access to the policy: the node moves to the end of its
+     * queue, and a node of the probation segment is promoted to the protected
+     * one (whose least recently used nodes are demoted if it overflows).
+     */
+    void onAccess(Node n) {
+        if(n.queue == NONE) return;
+        sketch.increment(n.key);
+        if(n.queue == WINDOW) {
+            unlink(n);
+            linkLast(window, n, WINDOW);
+            windowSize++;
+        } else if(n.queue == PROBATION) {
+            unlink(n);
+            linkLast(protectedSegment, n, PROTECTED);
+            protectedSize++;
+            while(protectedSize > maxProtected) {
+                Node demoted = protectedSegment.next;
+                unlink(demoted);
+                linkLast(probation, demoted, PROBATION);
+                probationSize++;
+            }
+        } else {
+            unlink(n);
+            linkLast(protectedSegment, n, PROTECTED);
+            protectedSize++;
+        }
+    }
+
+    /**
+     * Moves the nodes in excess from the window to the main region. When the
+     * main region is full, every node leaving the window competes with the
+     * first node of the probation segment (or of the protected one, if the
+     * probation segment is empty), and the loser is evicted.
+     */
+    private void evictEntries() {
+        while(windowSize > maxWindow) {
+            Node candidate = window.next;
+            unlink(candidate);
+            if(probationSize + protectedSize < maxMain) {
+                linkLast(probation, candidate, PROBATION);
+                probationSize++;
+                continue;
+            }
+            Node victim = probationSize > 0 ? probation.next : protectedSegment.next;
+            if(victim == protectedSegment || !admit(candidate, victim)) {
+                evict(candidate);
+            } else {
+                evict(victim);
+                linkLast(probation, candidate, PROBATION);
+                probationSize++;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the candidate has to take the place of the victim: if
+     * its estimated frequency is higher or, with a small probability, if it's
+     * a warm key. The random admission prevents an attacker from keeping a
+     * key out of the cache by making the victim artificially hot.
+     */
+    private boolean admit(Node candidate, Node victim) {
+        int candidateFrequency = sketch.frequency(candidate.key);
+        int victimFrequency = sketch.frequency(victim.key);
+        if(candidateFrequency > victimFrequency) return true;
+        return candidateFrequency >= 6 && (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    /**
+     * Removes a node chosen by the policy. If the node has been removed
+     * concurrently, it's only unlinked, and the eviction is not counted.
+     */
+    private void evict(Node n) {
+        if(n.queue != NONE) unlink(n);
+        if(retire(n) != null) {
+            data.remove(n.key, n);
+            evictions.increment();
+        }
+    }
+
+    private void linkLast(Node head, Node n, int queue) {
+        n.queue = queue;
+        n.prev = head.prev;
+        n.next = head;
+        head.prev.next = n;
+        head.prev = n;
+    }
+
+    /**
+     * Unlinks the node from its queue, updating the size of the queue.
+     */
+    private void unlink(Node n) {
+        if(n.queue == WINDOW) windowSize--;
+        else if(n.queue == PROBATION) probationSize--;
+        else protectedSize--;
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        n.prev = n.next = null;
+        n.queue = NONE;
+    }
+
+    /**
+     * Mapping of the cache, which is also a node of one of the queues of the
+     * policy. The value is updated by compare-and-set, and it becomes RETIRED
+     * when the mapping is removed; the links and the queue are guarded by the
+     * eviction lock. The heads of the queues are nodes without key, linked in
+     * a circular list.
+     */
+    static final class Node {
+
+        static final AtomicReferenceFieldUpdater<Node, Object> VALUE = AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+        final Object key;
+        volatile Object value;
+        Node prev;
+        Node next;
+        int queue = NONE;
+
+        Node() {
+            key = null;
+            value = RETIRED;
+            prev = next = this;
+        }
+
+        Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Stripe of the read buffer: a ring of READ_BUFFER_SIZE slots, filled by
+     * any thread through a compare-and-set of the write counter and drained
+     * under the eviction lock. A thread which loses the race for a slot, or
+     * finds the ring full, drops its access.
+     */
+    static final class ReadBuffer {
+
+        private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        // written only under the eviction lock
+        private volatile long readCounter;
+
+        /**
+         * Records an access to the node, if there is room for it.
+         * @return true if the buffer is full and has to be drained
+         */
+        boolean offer(Node n) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if(size >= READ_BUFFER_SIZE) return true;
+            if(!writeCounter.compareAndSet(tail, tail + 1)) return false;
+            buffer.lazySet((int) (tail & READ_BUFFER_MASK), n);
+            return size + 1 == READ_BUFFER_SIZE;
+        }
+
+        /**
+         * Applies the recorded accesses to the policy, stopping at the first
+         * slot which has been claimed but not written yet.
+         */
+        void drain(TinyLfuCache cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if(head == tail) return;
+            for(; head != tail; head++) {
+                int index = (int) (head & READ_BUFFER_MASK);
+                Node n = buffer.get(index);
+                if(n == null) break;
+                buffer.lazySet(index, null);
+                cache.onAccess(n);
+            }
+            readCounter = head;
+        }
+
+    }
+
+    public class MapEntry implements HMap.Entry {
+
+        private final Object key;
+        private Object value;
+
+        public MapEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HMap.Entry)) {
+                return false;
+            }
+            HMap.Entry other = (HMap.Entry) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value corresponding to this entry with the specified
+         * value, writing it through to the cache.
+         * @param value new value to be stored in this entry
+         * @return old value corresponding to the entry
+         * @throws NullPointerException if the specified value is null
+         */
+        @Override
+        public Object setValue(Object value) {
+            if(value == null) throw new NullPointerException();
+            Object old = this.value;
+            this.value = value;
+            put(key, value);
+            return old;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+    }
+
+    /**
+     * Weakly consistent iterator over the elements of a view, which walks the
+     * nodes of the cache and skips the ones being removed. It holds the value
+     * of the next node, so that it's returned even if the mapping is removed
+     * after hasNext() has been called.
+     */
+    class CacheIterator implements HIterator {
+
+        private final HIterator nodes = data.values().iterator();
+        private final int kind;
+        private Node next;
+        private Object nextValue;
+        private Node lastReturned;
+
+        CacheIterator(int kind) {
+            this.kind = kind;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while(nodes.hasNext()) {
+                Node n = (Node) nodes.next();
+                Object value = n.value;
+                if(value != RETIRED) {
+                    next = n;
+                    nextValue = value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Object next() {
+            if(next == null) throw new NoSuchElementException();
+            lastReturned = next;
+            Object e = element(next, nextValue, kind);
+            advance();
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            removeNode(lastReturned);
+            lastReturned = null;
+        }
+
+    }
+
+    private Object element(Node n, Object value, int kind) {
+        if(kind == Map.KEYS) return n.key;
+        if(kind == Map.VALUES) return value;
+        return new MapEntry(n.key, value);
+    }
+
+    /**
+     * Common behaviour of the views of the cache.
+     */
+    abstract class View implements HSet {
+
+        abstract int kind();
+
+        @Override
+        public boolean add(Object e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            TinyLfuCache.this.clear();
+        }
+
+        @Override
+        public boolean containsAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            HIterator it = c.iterator();
+            while(it.hasNext()) {
+                if(!contains(it.next())) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof HCollection)) return false;
+            HCollection other = (HCollection) o;
+            if (other.size() != size()) return false;
+            return containsAll(other);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            HIterator it = iterator();
+            while(it.hasNext())
+                hash += it.next().hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return data.isEmpty();
+        }
+
+        @Override
+        public HIterator iterator() {
+            return new CacheIterator(kind());
+        }
+
+        @Override
+        public boolean removeAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = c.iterator();
+            while(it.hasNext())
+                removed = remove(it.next()) || removed;
+            return removed;
+        }
+
+        @Override
+        public boolean retainAll(HCollection c) {
+            if(c == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = iterator();
+            while(it.hasNext()) {
+                if(!c.contains(it.next())) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            if(action == null) throw new NullPointerException();
+            HIterator it = data.values().iterator();
+            while(it.hasNext()) {
+                Node n = (Node) it.next();
+                Object value = n.value;
+                if(value != RETIRED) action.accept(element(n, value, kind()));
+            }
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            if(filter == null) throw new NullPointerException();
+            boolean removed = false;
+            HIterator it = data.values().iterator();
+            while(it.hasNext()) {
+                Node n = (Node) it.next();
+                Object value = n.value;
+                if(value != RETIRED && filter.test(element(n, value, kind())) && retire(n, value)) removed = true;
+            }
+            return removed;
+        }
+
+        /**
+         * Returns an array containing all of the elements in this view.
+         * The size of the cache could change during the iteration, so the
+         * elements are first collected in a list.
+         * @return an array containing all of the elements in this view.
+         */
+        @Override
+        public Object[] toArray() {
+            return snapshot().toArray();
+        }
+
+        @Override
+        public Object[] toArray(Object[] a) {
+            if(a == null) throw new NullPointerException();
+            return snapshot().toArray(a);
+        }
+
+        private List snapshot() {
+            List res = new List();
+            HIterator it = iterator();
+            while(it.hasNext()) res.add(it.next());
+            return res;
+        }
+
+    }
+
+    class EntrySet extends View {
+
+        @Override
+        int kind() {
+            return Map.ENTRIES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            Node n = entry.getKey() == null ? null : (Node) data.get(entry.getKey());
+            return n != null && n.value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(!(o instanceof HMap.Entry)) throw new IllegalArgumentException();
+            HMap.Entry entry = (HMap.Entry) o;
+            Node n = entry.getKey() == null ? null : (Node) data.get(entry.getKey());
+            if(n == null) return false;
+            Object value = n.value;
+            return value != RETIRED && value.equals(entry.getValue()) && retire(n, value);
+        }
+
+    }
+
+    class ElementSet extends View {
+
+        //true --> keys, false --> values
+        private final boolean type;
+
+        public ElementSet(boolean type) {
+            this.type = type;
+        }
+
+        @Override
+        int kind() {
+            return type ? Map.KEYS : Map.VALUES;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return containsKey(o);
+            return containsValue(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(o == null) throw new NullPointerException();
+            if(type) return TinyLfuCache.this.remove(o) != null;
+            HIterator it = data.values().iterator();
+            while(it.hasNext()) {
+                Node n = (Node) it.next();
+                Object value = n.value;
+                if(o.equals(value) && retire(n, value)) return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+/**
+ * A single benchmarked operation.
+ * The runner calls setUp() once for every implementation, size and key
+ * distribution, then calls run() repeatedly, passing the number of the
+ * invocation: run() must perform one operation and return a value which
+ * depends on its result, so that the JIT can't eliminate it.
+ * Operations which modify the collection must leave it in the same state in
+ * which they found it (for example adding and then removing an element), so
+ * that the size measured is the size declared.
+ * @author Giacomo Camposampiero
+ */
+public abstract class Benchmark {
+
+    private final String group;
+    private final String name;
+    private final boolean keyed;
+
+    /**
+     * Constructor.
+     * @param group name of the group of the benchmark (List, Set, Map)
+     * @param name name of the operation
+     * @param keyed true if the operation uses the probes of the fixture, and
+     *        so it has to be measured for every key distribution
+     */
+    protected Benchmark(String group, String name, boolean keyed) {
+        this.group = group;
+        this.name = name;
+        this.keyed = keyed;
+    }
+
+    /**
+     * Returns the identifier of the benchmark, in the form group.name.
+     * @return the identifier of the benchmark
+     */
+    public String getId() {
+        return group + "." + name;
+    }
+
+    /**
+     * Returns true if the benchmark has to be measured for every key
+     * distribution.
+     * @return true if the operation uses the probes of the fixture
+     */
+    public boolean isKeyed() {
+        return keyed;
+    }
+
+    /**
+     * Prepares the state of the benchmark.
+     * @param f fixture with the implementation, the size and the keys to be used
+     */
+    public abstract void setUp(Fixture f);
+
+    /**
+     * Performs one operation.
+     * @param i number of the invocation
+     * @return a value depending on the result of the operation
+     */
+    public abstract int run(int i);
+
+}
@@ -0,0 +1,302 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Runner of the benchmarks of the List, Set and Map adapters and of their
+ * java.util equivalents (ArrayList, HashSet, HashMap).
+ *
+ * Every combination of benchmark, implementation, size and key distribution
+ * is measured in a new JVM (unless -f 0 is given), so that the profile
+ * collected by the JIT for an implementation doesn't slow down the other one.
+ * A measurement is made of:
+ * <ul>
+ * <li>warmup iterations, whose results are discarded;</li>
+ * <li>measurement iterations, which give the throughput (ops/s, mean and
+ * standard deviation over the iterations) and the allocation (bytes per
+ * operation and MB/s, the analogues of gc.alloc.rate.norm and gc.alloc.rate);</li>
+ * <li>a sampling iteration, in which every operation is timed on its own to
+ * compute the percentiles of the latency (ns). The timer overhead (some tens
+ * of ns) is included in the samples.</li>
+ * </ul>
+ *
+ * Options:
+ * <pre>
+ * -b  List,Map.get      benchmarks whose id contains one of the strings (default all)
+ * -impl adapters,jdk    implementations (tiered runs the lists on TieredList, btree the maps on BTreeMap, tinylfu the caches on TinyLfuCache)
+ * -size 10,1000,100000  sizes (use -jvmArgs "-Xmx4g" for 10000000)
+ * -dist uniform,zipf,sequential  key distributions of the keyed benchmarks
+ * -wi 3  -i 5  -t 500   warmup iterations, measurement iterations, ms per iteration
+ * -f 1                  forks per measurement (0 runs in this JVM)
+ * -jvmArgs "..."        arguments of the forked JVMs
+ * -csv                  prints the results as comma separated values
+ * -list                 prints the ids of the benchmarks
+ * </pre>
+ * @author Giacomo Camposampiero
+ */
+public class BenchmarkRunner {
+
+    private static final int MAX_BATCH = 1 << 20;
+    private static final int MAX_SAMPLES = 1 << 20;
+    private static final String RESULT = "RESULT ";
+
+    /**
+     * Sink of the values returned by the benchmarks.
+     */
+    static volatile int sink;
+
+    private String[] filter = {""};
+    private String[] implementations = Fixture.IMPLEMENTATIONS;
+    private int[] sizes = {10, 1000, 100000};
+    private String[] distributions = Fixture.DISTRIBUTIONS;
+    private int warmups = 3;
+    private int iterations = 5;
+    private int time = 500;
+    private int forks = 1;
+    private String jvmArgs = "";
+    private boolean csv;
+
+    private int invocation;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        String[] child = null;
+        boolean list = false;
+        for(int i=0; i < args.length; i++) {
+            String arg = args[i];
+            if(arg.equals("-csv")) runner.csv = true;
+            else if(arg.equals("-list")) list = true;
+            else if(arg.equals("-run")) {
+                child = new String[] {args[i+1], args[i+2], args[i+3], args[i+4]};
+                i += 4;
+            } else if(i + 1 < args.length) {
+                String value = args[++i];
+                if(arg.equals("-b")) runner.filter = value.split(",");
+                else if(arg.equals("-impl")) runner.implementations = value.split(",");
+                else if(arg.equals("-size")) runner.sizes = toInts(value.split(","));
+                else if(arg.equals("-dist")) runner.distributions = value.split(",");
+                else if(arg.equals("-wi")) runner.warmups = Integer.parseInt(value);
+                else if(arg.equals("-i")) runner.iterations = Integer.parseInt(value);
+                else if(arg.equals("-t")) runner.time = Integer.parseInt(value);
+                else if(arg.equals("-f")) runner.forks = Integer.parseInt(value);
+                else if(arg.equals("-jvmArgs")) runner.jvmArgs = value;
+                else throw new IllegalArgumentException("Unknown option " + arg);
+            } else throw new IllegalArgumentException("Missing value of option " + arg);
+        }
+        if(list) {
+            Benchmark[] all = benchmarks();
+            for(int i=0; i < all.length; i++) System.out.println(all[i].getId());
+        } else if(child != null) {
+            Benchmark b = find(child[0]);
+            Fixture f = new Fixture(child[1], Integer.parseInt(child[2]), child[3], 42);
+            System.out.println(RESULT + runner.measure(b, f));
+        } else {
+            runner.runAll();
+        }
+    }
+
+    private static int[] toInts(String[] values) {
+        int[] res = new int[values.length];
+        for(int i=0; i < values.length; i++) res[i] = Integer.parseInt(values[i].trim());
+        return res;
+    }
+
+    /**
+     * Returns all the benchmarks.
+     * @return the list, set and map benchmarks
+     */
+    static Benchmark[] benchmarks() {
+        ArrayList<Benchmark> all = new ArrayList<Benchmark>();
+        all.addAll(Arrays.asList(ListBenchmarks.all()));
+        all.addAll(Arrays.asList(SetBenchmarks.all()));
+        all.addAll(Arrays.asList(MapBenchmarks.all()));
+        all.addAll(Arrays.asList(CacheBenchmarks.all()));
+        return all.toArray(new Benchmark[all.size()]);
+    }
+
+    private static Benchmark find(String id) {
+        Benchmark[] all = benchmarks();
+        for(int i=0; i < all.length; i++) if(all[i].getId().equals(id)) return all[i];
+        throw new IllegalArgumentException("Unknown benchmark " + id);
+    }
+
+    private boolean selected(Benchmark b) {
+        for(int i=0; i < filter.length; i++) if(b.getId().indexOf(filter[i]) >= 0) return true;
+        return false;
+    }
+
+    /**
+     * Runs all the selected measurements, printing a row for each of them.
+     */
+    private void runAll() throws IOException, InterruptedException {
+        if(csv) System.out.println("benchmark,impl,size,dist,ops/s,stdev,B/op,MB/s,p50,p90,p99,p99.9,max");
+        else System.out.println(String.format("%-28s %-8s %9s %-10s %14s %12s %10s %9s %9s %9s %9s %9s %11s",
+                "Benchmark", "Impl", "Size", "Dist", "ops/s", "stdev", "B/op", "MB/s", "p50", "p90", "p99", "p99.9", "max (ns)"));
+        Benchmark[] all = benchmarks();
+        for(int b=0; b < all.length; b++) {
+            if(!selected(all[b])) continue;
+            for(int s=0; s < sizes.length; s++) {
+                int dists = all[b].isKeyed() ? distributions.length : 1;
+                for(int d=0; d < dists; d++) {
+                    for(int i=0; i < implementations.length; i++) {
+                        String dist = all[b].isKeyed() ? distributions[d] : "-";
+                        String[] run = {all[b].getId(), implementations[i], String.valueOf(sizes[s]), all[b].isKeyed() ? dist : distributions[0]};
+                        if(forks == 0) {
+                            Fixture f = new Fixture(run[1], sizes[s], run[3], 42);
+                            print(run, dist, measure(all[b], f));
+                        }
+                        for(int k=0; k < forks; k++) print(run, dist, fork(run));
+                    }
+                }
+            }
+        }
+    }
+
+    private void print(String[] run, String dist, String result) {
+        if(result == null) return;
+        String[] v = result.split(",");
+        if(csv) System.out.println(run[0] + "," + run[1] + "," + run[2] + "," + dist + "," + result);
+        else System.out.println(String.format("%-28s %-8s %9s %-10s %14s %12s %10s %9s %9s %9s %9s %9s %11s",
+                run[0], run[1], run[2], dist, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8]));
+    }
+
+    /**
+     * Runs a measurement in a new JVM.
+     * @param run benchmark, implementation, size and distribution
+     * @return the result printed by the forked JVM, or null if it failed
+     */
+    private String fork(String[] run) throws IOException, InterruptedException {
+        ArrayList<String> cmd = new ArrayList<String>();
+        cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String[] extra = jvmArgs.trim().split("\\s+");
+        for(int i=0; i < extra.length; i++) if(extra[i].length() > 0) cmd.add(extra[i]);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(BenchmarkRunner.class.getName());
+        cmd.add("-wi");
+        cmd.add(String.valueOf(warmups));
+        cmd.add("-i");
+        cmd.add(String.valueOf(iterations));
+        cmd.add("-t");
+        cmd.add(String.valueOf(time));
+        cmd.add("-run");
+        for(int i=0; i < run.length; i++) cmd.add(run[i]);
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()));
+        String result = null;
+        String line;
+        while((line = in.readLine()) != null) {
+            if(line.startsWith(RESULT)) result = line.substring(RESULT.length());
+            else System.err.println(line);
+        }
+        in.close();
+        p.waitFor();
+        return result;
+    }
+
+    /**
+     * Measures a benchmark.
+     * @param b benchmark to be measured
+     * @param f fixture of the benchmark
+     * @return ops/s, stdev, B/op, MB/s, p50, p90, p99, p99.9, max separated by commas
+     */
+    String measure(Benchmark b, Fixture f) {
+        b.setUp(f);
+        invocation = 0;
+        for(int i=0; i < warmups; i++) iteration(b);
+        double[] throughput = new double[iterations];
+        long ops = 0, nanos = 0;
+        long allocated = allocatedBytes();
+        for(int i=0; i < iterations; i++) {
+            long[] res = iteration(b);
+            ops += res[0];
+            nanos += res[1];
+            throughput[i] = res[0] * 1e9 / res[1];
+        }
+        allocated = allocatedBytes() - allocated;
+        long[] samples = sample(b);
+        double mean = 0, var = 0;
+        for(int i=0; i < iterations; i++) mean += throughput[i] / iterations;
+        for(int i=0; i < iterations; i++) var += (throughput[i] - mean) * (throughput[i] - mean);
+        double stdev = iterations > 1 ? Math.sqrt(var / (iterations - 1)) : 0;
+        String alloc = allocated < 0 ? "n/a,n/a" : String.format("%.1f,%.1f", (double) allocated / ops, allocated * 1e3 / nanos);
+        return String.format("%.1f,%.1f,", mean, stdev) + alloc + "," + percentile(samples, 0.5) + ","
+                + percentile(samples, 0.9) + "," + percentile(samples, 0.99) + "," + percentile(samples, 0.999) + ","
+                + samples[samples.length - 1];
+    }
+
+    /**
+     * Runs the benchmark for the time of an iteration, in batches whose size
+     * grows until a batch lasts more than 10 microseconds, so that the timer
+     * isn't read after every cheap operation.
+     * @param b benchmark to be run
+     * @return number of operations and elapsed nanoseconds
+     */
+    private long[] iteration(Benchmark b) {
+        long start = System.nanoTime();
+        long end = start + time * 1000000L;
+        long ops = 0;
+        int batch = 1;
+        int acc = 0;
+        long now = start;
+        do {
+            long before = now;
+            for(int k=0; k < batch; k++) acc += b.run(invocation++);
+            ops += batch;
+            now = System.nanoTime();
+            if(now - before < 10000 && batch < MAX_BATCH) batch <<= 1;
+        } while(now < end);
+        sink = acc;
+        return new long[] {ops, now - start};
+    }
+
+    /**
+     * Runs the benchmark for the time of an iteration, timing every operation.
+     * @param b benchmark to be run
+     * @return the sorted latencies of the operations
+     */
+    private long[] sample(Benchmark b) {
+        long[] samples = new long[MAX_SAMPLES];
+        int n = 0;
+        int acc = 0;
+        long end = System.nanoTime() + time * 1000000L;
+        long now;
+        do {
+            long before = System.nanoTime();
+            acc += b.run(invocation++);
+            now = System.nanoTime();
+            samples[n++] = now - before;
+        } while(now < end && n < MAX_SAMPLES);
+        sink = acc;
+        long[] res = new long[n];
+        System.arraycopy(samples, 0, res, 0, n);
+        Arrays.sort(res);
+        return res;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread, or -1 if
+     * the JVM doesn't support the measurement.
+     * @return the bytes allocated by the current thread
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
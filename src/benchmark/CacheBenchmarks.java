@@ -0,0 +1,106 @@
+package benchmark;
+
+import adapters.TinyLfuCache;
+import interfaces.HMap;
+
+/**
+ * Benchmarks of the bounded maps used as caches: the LRU mode of Map
+ * ("adapters"), an access-ordered java.util.LinkedHashMap ("jdk") and
+ * TinyLfuCache ("tinylfu").
+ * The caches hold a tenth of the keys of the fixture, and every operation is
+ * a lookup which inserts the key on a miss, so the throughput measured
+ * includes the cost of the misses of the policy. Unlike the other benchmarks,
+ * the operations change which keys are in the cache, but not its size.
+ *
+ * The main method prints the hit rate of each cache on the same traces.
+ * @author Giacomo Camposampiero
+ */
+public class CacheBenchmarks {
+
+    private CacheBenchmarks() {
+    }
+
+    /**
+     * Base class of the cache benchmarks, which prepares a cache warmed up by
+     * a pass over the probes.
+     */
+    abstract static class CacheBenchmark extends Benchmark {
+
+        Fixture f;
+        HMap cache;
+
+        CacheBenchmark(String name) {
+            super("Cache", name, true);
+        }
+
+        @Override
+        public void setUp(Fixture f) {
+            this.f = f;
+            cache = f.newCache(Math.max(1, f.size / 10));
+            for(int i=0; i < Fixture.PROBES; i++) run(i);
+        }
+
+        /**
+         * Looks the key up in the cache, and inserts it if it's missing.
+         * @return 1 if the key was in the cache, 0 otherwise
+         */
+        int access(Integer key) {
+            if(cache.get(key) != null) return 1;
+            cache.put(key, key);
+            return 0;
+        }
+
+    }
+
+    /**
+     * Returns all the cache benchmarks.
+     * @return the cache benchmarks
+     */
+    public static Benchmark[] all() {
+        return new Benchmark[] {
+            new CacheBenchmark("getOrPut") {
+                @Override
+                public int run(int i) {
+                    return access(f.keys[f.probes[i & Fixture.PROBE_MASK]]);
+                }
+            },
+            new CacheBenchmark("getOrPutScan") {
+                @Override
+                public int run(int i) {
+                    // one access out of four belongs to a scan of keys which are used once
+                    if((i & 3) == 3) return access(f.missing[(i >>> 2) & Fixture.PROBE_MASK]);
+                    return access(f.keys[f.probes[i & Fixture.PROBE_MASK]]);
+                }
+            }
+        };
+    }
+
+    /**
+     * Prints the hit rate of every cache implementation on the traces of the
+     * benchmarks, for the sizes and distributions of the fixture.
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        String[] implementations = {"adapters", "jdk", "tinylfu"};
+        int[] sizes = {1000, 100000};
+        Benchmark[] all = all();
+        System.out.println(String.format("%-22s %-8s %9s %-10s %8s", "Benchmark", "Impl", "Size", "Dist", "hit rate"));
+        for(int b=0; b < all.length; b++) {
+            for(int s=0; s < sizes.length; s++) {
+                for(int d=0; d < Fixture.DISTRIBUTIONS.length; d++) {
+                    for(int m=0; m < implementations.length; m++) {
+                        Fixture f = new Fixture(implementations[m], sizes[s], Fixture.DISTRIBUTIONS[d], 42);
+                        all[b].setUp(f);
+                        int hits = 0;
+                        for(int i=0; i < 4 * Fixture.PROBES; i++) hits += all[b].run(i);
+                        String rate = String.format("%.4f", (double) hits / (4 * Fixture.PROBES));
+                        if(((CacheBenchmark) all[b]).cache instanceof TinyLfuCache)
+                            rate += " (" + ((TinyLfuCache) ((CacheBenchmark) all[b]).cache).evictionCount() + " evictions)";
+                        System.out.println(String.format("%-22s %-8s %9d %-10s %s", all[b].getId(), implementations[m], sizes[s], Fixture.DISTRIBUTIONS[d], rate));
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package benchmark;
+
+import interfaces.HList;
+import interfaces.HMap;
+import interfaces.HSet;
+import java.util.Random;
+
+/**
+ * Data shared by the benchmarks of a run: the implementation under test, the
+ * size of the collections, their keys and the sequence of probes.
+ *
+ * The keys are distinct Integer objects, whose values are scrambled so that
+ * the hash tables don't get the best case of consecutive integers. The probes
+ * are PROBES indices in [0, size), drawn from one of the distributions:
+ * <ul>
+ * <li>sequential: 0, 1, 2, ... (cyclic);</li>
+ * <li>uniform: uniformly random;</li>
+ * <li>zipf: skewed, the probability of the rank r is about proportional to
+ * 1/r (Zipf with exponent 1), and the ranks are mapped to random keys so that
+ * the hot keys are scattered in the collection.</li>
+ * </ul>
+ * The missing keys are PROBES Integer objects which are never contained in
+ * the collections.
+ * @author Giacomo Camposampiero
+ */
+public class Fixture {
+
+    /**
+     * Number of probes (must be a power of two).
+     */
+    public static final int PROBES = 1 << 16;
+    public static final int PROBE_MASK = PROBES - 1;
+
+    public static final String[] IMPLEMENTATIONS = {"adapters", "jdk"};
+
+    /**
+     * Implementations which can be selected explicitly: "tiered" measures the
+     * lists on TieredList, "btree" measures the maps on BTreeMap and "tinylfu"
+     * measures the caches on TinyLfuCache (the other collections are the
+     * adapters).
+     */
+    public static final String[] ALL_IMPLEMENTATIONS = {"adapters", "jdk", "tiered", "btree", "tinylfu"};
+    public static final String[] DISTRIBUTIONS = {"uniform", "zipf", "sequential"};
+
+    public final String implementation;
+    public final int size;
+    public final String distribution;
+    public final Integer[] keys;
+    public final Integer[] missing;
+    public final int[] probes;
+
+    /**
+     * Constructor.
+     * @param implementation "adapters", "jdk", "tiered", "btree" or "tinylfu"
+     * @param size number of elements of the collections, greater than zero
+     * @param distribution "uniform", "zipf" or "sequential"
+     * @param seed seed of the random generator
+     * @throws IllegalArgumentException if an argument is not valid
+     */
+    public Fixture(String implementation, int size, String distribution, long seed) {
+        if(!contains(ALL_IMPLEMENTATIONS, implementation) || !contains(DISTRIBUTIONS, distribution) || size <= 0)
+            throw new IllegalArgumentException();
+        this.implementation = implementation;
+        this.size = size;
+        this.distribution = distribution;
+        Random rnd = new Random(seed);
+        keys = new Integer[size];
+        for(int i=0; i < size; i++) keys[i] = Integer.valueOf(scramble(i));
+        missing = new Integer[PROBES];
+        for(int i=0; i < PROBES; i++) missing[i] = Integer.valueOf(scramble(size + i));
+        probes = new int[PROBES];
+        if(distribution.equals("sequential")) {
+            for(int i=0; i < PROBES; i++) probes[i] = i % size;
+        } else if(distribution.equals("uniform")) {
+            for(int i=0; i < PROBES; i++) probes[i] = rnd.nextInt(size);
+        } else {
+            int[] permutation = new int[size];
+            for(int i=0; i < size; i++) permutation[i] = i;
+            for(int i=size-1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int tmp = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = tmp;
+            }
+            for(int i=0; i < PROBES; i++) {
+                int rank = (int) Math.pow(size + 1, rnd.nextDouble()) - 1;
+                probes[i] = permutation[Math.min(rank, size - 1)];
+            }
+        }
+    }
+
+    /**
+     * Maps distinct integers to distinct integers, spreading their bits.
+     * @param i integer to be scrambled
+     * @return the scrambled integer
+     */
+    private static int scramble(int i) {
+        return i * 0x9E3779B1;
+    }
+
+    private static boolean contains(String[] a, String s) {
+        for(int i=0; i < a.length; i++) if(a[i].equals(s)) return true;
+        return false;
+    }
+
+    /**
+     * Returns a new empty list of the implementation under test.
+     * @return a new empty list
+     */
+    public HList newList() {
+        if(implementation.equals("jdk")) return new JdkList(new java.util.ArrayList<Object>());
+        if(implementation.equals("tiered")) return new adapters.TieredList();
+        return new adapters.List();
+    }
+
+    /**
+     * Returns a new empty set of the implementation under test.
+     * @return a new empty set
+     */
+    public HSet newSet() {
+        if(implementation.equals("jdk")) return new JdkCollection(new java.util.HashSet<Object>());
+        return new adapters.Set();
+    }
+
+    /**
+     * Returns a new empty map of the implementation under test.
+     * @return a new empty map
+     */
+    public HMap newMap() {
+        if(implementation.equals("jdk")) return new JdkMap(new java.util.HashMap<Object, Object>());
+        if(implementation.equals("btree")) return new adapters.BTreeMap();
+        return new adapters.Map();
+    }
+
+    /**
+     * Returns a new empty cache of the implementation under test: a bounded
+     * Map in LRU mode, an access-ordered java.util.LinkedHashMap which removes
+     * its eldest entry, or a TinyLfuCache.
+     * @param maximumSize maximum number of mappings of the cache
+     * @return a new empty cache
+     */
+    public HMap newCache(final int maximumSize) {
+        if(implementation.equals("jdk")) return new JdkMap(new java.util.LinkedHashMap<Object, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Object, Object> eldest) {
+                return size() > maximumSize;
+            }
+        });
+        if(implementation.equals("tinylfu")) return new adapters.TinyLfuCache(maximumSize);
+        return adapters.Map.lru(maximumSize);
+    }
+
+    /**
+     * Returns a list of the implementation under test with all the keys, in
+     * order.
+     * @return a new list containing the keys
+     */
+    public HList filledList() {
+        HList list = newList();
+        for(int i=0; i < size; i++) list.add(keys[i]);
+        return list;
+    }
+
+    /**
+     * Returns a set of the implementation under test with all the keys.
+     * @return a new set containing the keys
+     */
+    public HSet filledSet() {
+        HSet set = newSet();
+        for(int i=0; i < size; i++) set.add(keys[i]);
+        return set;
+    }
+
+    /**
+     * Returns a map of the implementation under test, which maps every key to
+     * the following one.
+     * @return a new map containing the keys
+     */
+    public HMap filledMap() {
+        HMap map = newMap();
+        for(int i=0; i < size; i++) map.put(keys[i], valueOf(i));
+        return map;
+    }
+
+    /**
+     * Returns the value mapped to the i-th key by the maps returned by
+     * filledMap().
+     * @param i index of the key
+     * @return the value of the key
+     */
+    public Integer valueOf(int i) {
+        return keys[(i + 1) % size];
+    }
+
+    /**
+     * Returns a list of the implementation under test containing 16 keys
+     * chosen through the probes, which is used as argument of the bulk
+     * operations.
+     * @return a small list of keys
+     */
+    public HList sample() {
+        HList list = newList();
+        for(int i=0; i < 16; i++) list.add(keys[probes[i]]);
+        return list;
+    }
+
+}
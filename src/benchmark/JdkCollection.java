@@ -0,0 +1,159 @@
+package benchmark;
+
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Adapter of a java.util collection to the HSet interface, used to run the
+ * benchmarks written against the H interfaces on the java.util equivalents.
+ * When the argument of a bulk operation is another adapter, the operation is
+ * delegated to the wrapped java.util collections, so that the java.util bulk
+ * algorithms are measured.
+ * @author Giacomo Camposampiero
+ */
+public class JdkCollection implements HSet {
+
+    final Collection<Object> c;
+
+    @SuppressWarnings("unchecked")
+    public JdkCollection(Collection<?> c) {
+        this.c = (Collection<Object>) c;
+    }
+
+    /**
+     * Returns a java.util view or copy of the specified collection.
+     * @param h collection to be converted
+     * @return the wrapped collection if h is an adapter, otherwise a copy of h
+     */
+    static Collection<Object> unwrap(HCollection h) {
+        if(h == null) throw new NullPointerException();
+        if(h instanceof JdkCollection) return ((JdkCollection) h).c;
+        if(h instanceof JdkList) return ((JdkList) h).l;
+        Collection<Object> res = new ArrayList<Object>(h.size());
+        HIterator it = h.iterator();
+        while(it.hasNext()) res.add(it.next());
+        return res;
+    }
+
+    @Override
+    public boolean add(Object e) {
+        return c.add(e);
+    }
+
+    @Override
+    public boolean addAll(HCollection h) {
+        return c.addAll(unwrap(h));
+    }
+
+    @Override
+    public void clear() {
+        c.clear();
+    }
+
+    @Override
+    public boolean containsAll(HCollection h) {
+        return c.containsAll(unwrap(h));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return c.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return c.contains(o);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof JdkCollection)) return false;
+        return c.equals(((JdkCollection) o).c);
+    }
+
+    @Override
+    public int hashCode() {
+        return c.hashCode();
+    }
+
+    @Override
+    public HIterator iterator() {
+        return new JdkIterator(c.iterator());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return c.remove(o);
+    }
+
+    @Override
+    public boolean removeAll(HCollection h) {
+        return c.removeAll(unwrap(h));
+    }
+
+    @Override
+    public boolean retainAll(HCollection h) {
+        return c.retainAll(unwrap(h));
+    }
+
+    @Override
+    public int size() {
+        return c.size();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return c.toArray();
+    }
+
+    @Override
+    public Object[] toArray(Object[] a) {
+        return c.toArray(a);
+    }
+
+    @Override
+    public void forEach(HConsumer action) {
+        c.forEach(action::accept);
+    }
+
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        return c.removeIf(filter::test);
+    }
+
+    /**
+     * Adapter of a java.util iterator to the HIterator interface.
+     */
+    static class JdkIterator implements HIterator {
+
+        private final Iterator<Object> it;
+
+        JdkIterator(Iterator<Object> it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            return it.next();
+        }
+
+        @Override
+        public void remove() {
+            it.remove();
+        }
+
+    }
+
+}
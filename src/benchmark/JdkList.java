@@ -0,0 +1,225 @@
+package benchmark;
+
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HPredicate;
+import interfaces.HUnaryOperator;
+import java.util.ListIterator;
+
+/**
+ * Adapter of a java.util list to the HList interface, used to run the list
+ * benchmarks on java.util.ArrayList.
+ * @author Giacomo Camposampiero
+ */
+public class JdkList implements HList {
+
+    final java.util.List<Object> l;
+
+    public JdkList(java.util.List<Object> l) {
+        this.l = l;
+    }
+
+    @Override
+    public boolean add(Object o) {
+        return l.add(o);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        l.add(index, element);
+    }
+
+    @Override
+    public boolean addAll(HCollection c) {
+        return l.addAll(JdkCollection.unwrap(c));
+    }
+
+    @Override
+    public boolean addAll(int index, HCollection c) {
+        return l.addAll(index, JdkCollection.unwrap(c));
+    }
+
+    @Override
+    public void clear() {
+        l.clear();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return l.contains(o);
+    }
+
+    @Override
+    public boolean containsAll(HCollection c) {
+        return l.containsAll(JdkCollection.unwrap(c));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof JdkList)) return false;
+        return l.equals(((JdkList) o).l);
+    }
+
+    @Override
+    public Object get(int index) {
+        return l.get(index);
+    }
+
+    @Override
+    public int hashCode() {
+        return l.hashCode();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return l.indexOf(o);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return l.isEmpty();
+    }
+
+    @Override
+    public HIterator iterator() {
+        return new JdkCollection.JdkIterator(l.iterator());
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return l.lastIndexOf(o);
+    }
+
+    @Override
+    public HListIterator listIterator() {
+        return new JdkListIterator(l.listIterator());
+    }
+
+    @Override
+    public HListIterator listIterator(int index) {
+        return new JdkListIterator(l.listIterator(index));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return l.remove(o);
+    }
+
+    @Override
+    public Object remove(int index) {
+        return l.remove(index);
+    }
+
+    @Override
+    public boolean removeAll(HCollection c) {
+        return l.removeAll(JdkCollection.unwrap(c));
+    }
+
+    @Override
+    public boolean retainAll(HCollection c) {
+        return l.retainAll(JdkCollection.unwrap(c));
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        return l.set(index, element);
+    }
+
+    @Override
+    public int size() {
+        return l.size();
+    }
+
+    @Override
+    public HList subList(int fromIndex, int toIndex) {
+        return new JdkList(l.subList(fromIndex, toIndex));
+    }
+
+    @Override
+    public Object[] toArray() {
+        return l.toArray();
+    }
+
+    @Override
+    public Object[] toArray(Object[] a) {
+        return l.toArray(a);
+    }
+
+    @Override
+    public void forEach(HConsumer action) {
+        l.forEach(action::accept);
+    }
+
+    @Override
+    public boolean removeIf(HPredicate filter) {
+        return l.removeIf(filter::test);
+    }
+
+    @Override
+    public void replaceAll(HUnaryOperator operator) {
+        l.replaceAll(operator::apply);
+    }
+
+    /**
+     * Adapter of a java.util list iterator to the HListIterator interface.
+     */
+    static class JdkListIterator implements HListIterator {
+
+        private final ListIterator<Object> it;
+
+        JdkListIterator(ListIterator<Object> it) {
+            this.it = it;
+        }
+
+        @Override
+        public void add(Object o) {
+            it.add(o);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return it.hasPrevious();
+        }
+
+        @Override
+        public Object next() {
+            return it.next();
+        }
+
+        @Override
+        public int nextIndex() {
+            return it.nextIndex();
+        }
+
+        @Override
+        public Object previous() {
+            return it.previous();
+        }
+
+        @Override
+        public int previousIndex() {
+            return it.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            it.remove();
+        }
+
+        @Override
+        public void set(Object o) {
+            it.set(o);
+        }
+
+    }
+
+}
@@ -0,0 +1,218 @@
+package benchmark;
+
+import interfaces.HBiConsumer;
+import interfaces.HBiFunction;
+import interfaces.HCollection;
+import interfaces.HConsumer;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HPredicate;
+import interfaces.HSet;
+import java.util.Iterator;
+
+/**
+ * Adapter of a java.util map to the HMap interface, used to run the map
+ * benchmarks on java.util.HashMap.
+ * The iterator of the entry set wraps every java.util entry in a JdkEntry, so
+ * the allocation measured for the entry iteration of the java.util map
+ * includes one small object per entry (unless the JIT eliminates it).
+ * @author Giacomo Camposampiero
+ */
+public class JdkMap implements HMap {
+
+    final java.util.Map<Object, Object> m;
+
+    public JdkMap(java.util.Map<Object, Object> m) {
+        this.m = m;
+    }
+
+    @Override
+    public void clear() {
+        m.clear();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return m.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return m.containsValue(value);
+    }
+
+    @Override
+    public HSet entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) return true;
+        if(!(o instanceof JdkMap)) return false;
+        return m.equals(((JdkMap) o).m);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return m.get(key);
+    }
+
+    @Override
+    public int hashCode() {
+        return m.hashCode();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return m.isEmpty();
+    }
+
+    @Override
+    public HSet keySet() {
+        return new JdkCollection(m.keySet());
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        return m.put(key, value);
+    }
+
+    @Override
+    public void putAll(HMap t) {
+        if(t instanceof JdkMap) {
+            m.putAll(((JdkMap) t).m);
+            return;
+        }
+        HIterator it = t.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry e = (HMap.Entry) it.next();
+            m.put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return m.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return m.size();
+    }
+
+    @Override
+    public HCollection values() {
+        return new JdkCollection(m.values());
+    }
+
+    @Override
+    public void forEach(HBiConsumer action) {
+        m.forEach(action::accept);
+    }
+
+    @Override
+    public void replaceAll(HBiFunction function) {
+        m.replaceAll(function::apply);
+    }
+
+    /**
+     * Entry set view, whose iterator adapts the java.util entries to the
+     * HMap.Entry interface.
+     */
+    class EntrySet extends JdkCollection {
+
+        EntrySet() {
+            super(m.entrySet());
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            HMap.Entry e = (HMap.Entry) o;
+            Object value = m.get(e.getKey());
+            return value != null && value.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!contains(o)) return false;
+            m.remove(((HMap.Entry) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void forEach(HConsumer action) {
+            m.entrySet().forEach(e -> action.accept(new JdkEntry(e)));
+        }
+
+        @Override
+        public boolean removeIf(HPredicate filter) {
+            return m.entrySet().removeIf(e -> filter.test(new JdkEntry(e)));
+        }
+
+        @Override
+        public HIterator iterator() {
+            final Iterator<java.util.Map.Entry<Object, Object>> it = m.entrySet().iterator();
+            return new HIterator() {
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return new JdkEntry(it.next());
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Adapter of a java.util map entry to the HMap.Entry interface.
+     */
+    static class JdkEntry implements HMap.Entry {
+
+        private final java.util.Map.Entry<Object, Object> e;
+
+        JdkEntry(java.util.Map.Entry<Object, Object> e) {
+            this.e = e;
+        }
+
+        @Override
+        public Object getKey() {
+            return e.getKey();
+        }
+
+        @Override
+        public Object getValue() {
+            return e.getValue();
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return e.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof HMap.Entry)) return false;
+            HMap.Entry other = (HMap.Entry) o;
+            return e.getKey().equals(other.getKey()) && e.getValue().equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return e.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,218 @@
+package benchmark;
+
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+
+/**
+ * Benchmarks of the HList operations, including the iterators and the
+ * subList view (which covers the middle half of the list).
+ * The bulk operations which modify the list (removeAll, retainAll) work on a
+ * copy made by the operation itself: the cost of the copy is measured by
+ * List.copy.
+ * @author Giacomo Camposampiero
+ */
+public class ListBenchmarks {
+
+    private ListBenchmarks() {
+    }
+
+    /**
+     * Base class of the list benchmarks, which prepares a list with all the
+     * keys of the fixture.
+     */
+    abstract static class ListBenchmark extends Benchmark {
+
+        Fixture f;
+        HList list;
+        HList sub;
+        HList sample;
+
+        ListBenchmark(String name, boolean keyed) {
+            super("List", name, keyed);
+        }
+
+        @Override
+        public void setUp(Fixture f) {
+            this.f = f;
+            list = f.filledList();
+            sub = list.subList(f.size / 4, f.size - f.size / 4);
+            sample = f.sample();
+        }
+
+        int probe(int i) {
+            return f.probes[i & Fixture.PROBE_MASK];
+        }
+
+    }
+
+    /**
+     * Returns all the list benchmarks.
+     * @return the list benchmarks
+     */
+    public static Benchmark[] all() {
+        return new Benchmark[] {
+            new ListBenchmark("addRemoveLast", false) {
+                @Override
+                public int run(int i) {
+                    list.add(f.missing[i & Fixture.PROBE_MASK]);
+                    list.remove(list.size() - 1);
+                    return list.size();
+                }
+            },
+            new ListBenchmark("addRemoveAt", true) {
+                @Override
+                public int run(int i) {
+                    int index = probe(i);
+                    list.add(index, f.missing[i & Fixture.PROBE_MASK]);
+                    return list.remove(index).hashCode();
+                }
+            },
+            new ListBenchmark("get", true) {
+                @Override
+                public int run(int i) {
+                    return list.get(probe(i)).hashCode();
+                }
+            },
+            new ListBenchmark("set", true) {
+                @Override
+                public int run(int i) {
+                    int index = probe(i);
+                    return list.set(index, f.keys[index]).hashCode();
+                }
+            },
+            new ListBenchmark("contains", true) {
+                @Override
+                public int run(int i) {
+                    return list.contains(f.keys[probe(i)]) ? 1 : 0;
+                }
+            },
+            new ListBenchmark("containsMiss", false) {
+                @Override
+                public int run(int i) {
+                    return list.contains(f.missing[i & Fixture.PROBE_MASK]) ? 1 : 0;
+                }
+            },
+            new ListBenchmark("indexOf", true) {
+                @Override
+                public int run(int i) {
+                    return list.indexOf(f.keys[probe(i)]);
+                }
+            },
+            new ListBenchmark("lastIndexOf", true) {
+                @Override
+                public int run(int i) {
+                    return list.lastIndexOf(f.keys[probe(i)]);
+                }
+            },
+            new ListBenchmark("iterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = list.iterator();
+                    while(it.hasNext()) sum += it.next().hashCode();
+                    return sum;
+                }
+            },
+            new ListBenchmark("listIteratorBackward", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HListIterator it = list.listIterator(list.size());
+                    while(it.hasPrevious()) sum += it.previous().hashCode();
+                    return sum;
+                }
+            },
+            new ListBenchmark("listIteratorSet", false) {
+                @Override
+                public int run(int i) {
+                    HListIterator it = list.listIterator();
+                    while(it.hasNext()) it.set(it.next());
+                    return it.nextIndex();
+                }
+            },
+            new ListBenchmark("subListGet", true) {
+                @Override
+                public int run(int i) {
+                    return sub.get(probe(i) % sub.size()).hashCode();
+                }
+            },
+            new ListBenchmark("subListIterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = sub.iterator();
+                    while(it.hasNext()) sum += it.next().hashCode();
+                    return sum;
+                }
+            },
+            new ListBenchmark("subListAddRemove", true) {
+                @Override
+                public int run(int i) {
+                    int index = probe(i) % sub.size();
+                    sub.add(index, f.missing[i & Fixture.PROBE_MASK]);
+                    return sub.remove(index).hashCode();
+                }
+            },
+            new ListBenchmark("toArray", false) {
+                @Override
+                public int run(int i) {
+                    return list.toArray().length;
+                }
+            },
+            new ListBenchmark("hashCode", false) {
+                @Override
+                public int run(int i) {
+                    return list.hashCode();
+                }
+            },
+            new ListBenchmark("equals", false) {
+                HList copy;
+
+                @Override
+                public void setUp(Fixture f) {
+                    super.setUp(f);
+                    copy = f.filledList();
+                }
+
+                @Override
+                public int run(int i) {
+                    return list.equals(copy) ? 1 : 0;
+                }
+            },
+            new ListBenchmark("copy", false) {
+                @Override
+                public int run(int i) {
+                    HList copy = f.newList();
+                    copy.addAll(list);
+                    return copy.size();
+                }
+            },
+            new ListBenchmark("containsAll", false) {
+                @Override
+                public int run(int i) {
+                    return list.containsAll(sample) ? 1 : 0;
+                }
+            },
+            new ListBenchmark("removeAll", false) {
+                @Override
+                public int run(int i) {
+                    HList copy = f.newList();
+                    copy.addAll(list);
+                    copy.removeAll(sample);
+                    return copy.size();
+                }
+            },
+            new ListBenchmark("retainAll", false) {
+                @Override
+                public int run(int i) {
+                    HList copy = f.newList();
+                    copy.addAll(list);
+                    copy.retainAll(sample);
+                    return copy.size();
+                }
+            }
+        };
+    }
+
+}
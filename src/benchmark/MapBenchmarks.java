@@ -0,0 +1,152 @@
+package benchmark;
+
+import interfaces.HIterator;
+import interfaces.HMap;
+
+/**
+ * Benchmarks of the HMap operations, including the iterators of the entry
+ * set, key set and values views.
+ * @author Giacomo Camposampiero
+ */
+public class MapBenchmarks {
+
+    private MapBenchmarks() {
+    }
+
+    /**
+     * Base class of the map benchmarks, which prepares a map with all the
+     * keys of the fixture.
+     */
+    abstract static class MapBenchmark extends Benchmark {
+
+        Fixture f;
+        HMap map;
+
+        MapBenchmark(String name, boolean keyed) {
+            super("Map", name, keyed);
+        }
+
+        @Override
+        public void setUp(Fixture f) {
+            this.f = f;
+            map = f.filledMap();
+        }
+
+        int probe(int i) {
+            return f.probes[i & Fixture.PROBE_MASK];
+        }
+
+    }
+
+    /**
+     * Returns all the map benchmarks.
+     * @return the map benchmarks
+     */
+    public static Benchmark[] all() {
+        return new Benchmark[] {
+            new MapBenchmark("putRemove", false) {
+                @Override
+                public int run(int i) {
+                    Integer key = f.missing[i & Fixture.PROBE_MASK];
+                    map.put(key, key);
+                    return map.remove(key).hashCode();
+                }
+            },
+            new MapBenchmark("putReplace", true) {
+                @Override
+                public int run(int i) {
+                    int index = probe(i);
+                    return map.put(f.keys[index], f.valueOf(index)).hashCode();
+                }
+            },
+            new MapBenchmark("get", true) {
+                @Override
+                public int run(int i) {
+                    return map.get(f.keys[probe(i)]).hashCode();
+                }
+            },
+            new MapBenchmark("getMiss", false) {
+                @Override
+                public int run(int i) {
+                    return map.get(f.missing[i & Fixture.PROBE_MASK]) == null ? 0 : 1;
+                }
+            },
+            new MapBenchmark("containsKey", true) {
+                @Override
+                public int run(int i) {
+                    return map.containsKey(f.keys[probe(i)]) ? 1 : 0;
+                }
+            },
+            new MapBenchmark("containsValue", true) {
+                @Override
+                public int run(int i) {
+                    return map.containsValue(f.valueOf(probe(i))) ? 1 : 0;
+                }
+            },
+            new MapBenchmark("entrySetIterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = map.entrySet().iterator();
+                    while(it.hasNext()) sum += ((HMap.Entry) it.next()).getValue().hashCode();
+                    return sum;
+                }
+            },
+            new MapBenchmark("keySetIterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = map.keySet().iterator();
+                    while(it.hasNext()) sum += it.next().hashCode();
+                    return sum;
+                }
+            },
+            new MapBenchmark("valuesIterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = map.values().iterator();
+                    while(it.hasNext()) sum += it.next().hashCode();
+                    return sum;
+                }
+            },
+            new MapBenchmark("keySetRemove", true) {
+                @Override
+                public int run(int i) {
+                    int index = probe(i);
+                    map.keySet().remove(f.keys[index]);
+                    return map.put(f.keys[index], f.valueOf(index)) == null ? 0 : 1;
+                }
+            },
+            new MapBenchmark("hashCode", false) {
+                @Override
+                public int run(int i) {
+                    return map.hashCode();
+                }
+            },
+            new MapBenchmark("equals", false) {
+                HMap copy;
+
+                @Override
+                public void setUp(Fixture f) {
+                    super.setUp(f);
+                    copy = f.filledMap();
+                }
+
+                @Override
+                public int run(int i) {
+                    return map.equals(copy) ? 1 : 0;
+                }
+            },
+            new MapBenchmark("putAll", false) {
+                @Override
+                public int run(int i) {
+                    HMap copy = f.newMap();
+                    copy.putAll(map);
+                    return copy.size();
+                }
+            }
+        };
+    }
+
+}
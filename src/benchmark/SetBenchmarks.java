@@ -0,0 +1,150 @@
+package benchmark;
+
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HSet;
+
+/**
+ * Benchmarks of the HSet operations.
+ * The bulk operations which modify the set (removeAll, retainAll) work on a
+ * copy made by the operation itself: the cost of the copy is measured by
+ * Set.copy.
+ * @author Giacomo Camposampiero
+ */
+public class SetBenchmarks {
+
+    private SetBenchmarks() {
+    }
+
+    /**
+     * Base class of the set benchmarks, which prepares a set with all the
+     * keys of the fixture.
+     */
+    abstract static class SetBenchmark extends Benchmark {
+
+        Fixture f;
+        HSet set;
+        HList sample;
+
+        SetBenchmark(String name, boolean keyed) {
+            super("Set", name, keyed);
+        }
+
+        @Override
+        public void setUp(Fixture f) {
+            this.f = f;
+            set = f.filledSet();
+            sample = f.sample();
+        }
+
+        Integer key(int i) {
+            return f.keys[f.probes[i & Fixture.PROBE_MASK]];
+        }
+
+    }
+
+    /**
+     * Returns all the set benchmarks.
+     * @return the set benchmarks
+     */
+    public static Benchmark[] all() {
+        return new Benchmark[] {
+            new SetBenchmark("addRemove", false) {
+                @Override
+                public int run(int i) {
+                    Integer key = f.missing[i & Fixture.PROBE_MASK];
+                    set.add(key);
+                    return set.remove(key) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("removeAdd", true) {
+                @Override
+                public int run(int i) {
+                    Integer key = key(i);
+                    set.remove(key);
+                    return set.add(key) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("contains", true) {
+                @Override
+                public int run(int i) {
+                    return set.contains(key(i)) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("containsMiss", false) {
+                @Override
+                public int run(int i) {
+                    return set.contains(f.missing[i & Fixture.PROBE_MASK]) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("iterator", false) {
+                @Override
+                public int run(int i) {
+                    int sum = 0;
+                    HIterator it = set.iterator();
+                    while(it.hasNext()) sum += it.next().hashCode();
+                    return sum;
+                }
+            },
+            new SetBenchmark("toArray", false) {
+                @Override
+                public int run(int i) {
+                    return set.toArray().length;
+                }
+            },
+            new SetBenchmark("hashCode", false) {
+                @Override
+                public int run(int i) {
+                    return set.hashCode();
+                }
+            },
+            new SetBenchmark("equals", false) {
+                HSet copy;
+
+                @Override
+                public void setUp(Fixture f) {
+                    super.setUp(f);
+                    copy = f.filledSet();
+                }
+
+                @Override
+                public int run(int i) {
+                    return set.equals(copy) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("copy", false) {
+                @Override
+                public int run(int i) {
+                    HSet copy = f.newSet();
+                    copy.addAll(set);
+                    return copy.size();
+                }
+            },
+            new SetBenchmark("containsAll", false) {
+                @Override
+                public int run(int i) {
+                    return set.containsAll(sample) ? 1 : 0;
+                }
+            },
+            new SetBenchmark("removeAll", false) {
+                @Override
+                public int run(int i) {
+                    HSet copy = f.newSet();
+                    copy.addAll(set);
+                    copy.removeAll(sample);
+                    return copy.size();
+                }
+            },
+            new SetBenchmark("retainAll", false) {
+                @Override
+                public int run(int i) {
+                    HSet copy = f.newSet();
+                    copy.addAll(set);
+                    copy.retainAll(sample);
+                    return copy.size();
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,17 @@
+package interfaces;
+
+/**
+ * Operation that accepts a key and a value and returns no result.
+ * It is the action performed on every mapping by HMap.forEach.
+ * @author Giacomo Camposampiero
+ */
+public interface HBiConsumer {
+
+    /**
+     * Performs this operation on the given mapping.
+     * @param key the key of the mapping
+     * @param value the value of the mapping
+     */
+    void accept(Object key, Object value);
+
+}
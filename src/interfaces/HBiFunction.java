@@ -0,0 +1,18 @@
+package interfaces;
+
+/**
+ * Function of a key and a value, which returns a new value.
+ * It computes the new values stored by HMap.replaceAll.
+ * @author Giacomo Camposampiero
+ */
+public interface HBiFunction {
+
+    /**
+     * Applies this function to the given mapping.
+     * @param key the key of the mapping
+     * @param value the value of the mapping
+     * @return the result of the function
+     */
+    Object apply(Object key, Object value);
+
+}
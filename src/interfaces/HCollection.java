@@ -300,5 +300,31 @@ public interface HCollection {
      * @throws NullPointerException if the specified array is null
      */
     Object[] toArray(Object[] a);
+
+    /**
+     * Performs the given action for each element of this collection, in the
+     * order of its iterator, until all elements have been processed or the
+     * action throws an exception.  Exceptions thrown by the action are
+     * relayed to the caller.  The implementations traverse their storage
+     * directly, without allocating an iterator.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     */
+    void forEach(HConsumer action);
+
+    /**
+     * Removes all of the elements of this collection that satisfy the given
+     * predicate (optional operation).  Exceptions thrown by the predicate
+     * are relayed to the caller.
+     *
+     * @param filter a predicate which returns <tt>true</tt> for the elements
+     *        to be removed
+     * @return <tt>true</tt> if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     * @throws UnsupportedOperationException if elements cannot be removed
+     *         from this collection
+     */
+    boolean removeIf(HPredicate filter);
     
-}
\ No newline at end of file
+}
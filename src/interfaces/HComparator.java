@@ -0,0 +1,21 @@
+package interfaces;
+
+/**
+ * Comparison function, which imposes a total ordering on some collection of
+ * objects.
+ * It is the ordering used by List.sort, List.binarySearch and by the sorted
+ * maps (HSortedMap).
+ * @author Giacomo Camposampiero
+ */
+public interface HComparator {
+
+    /**
+     * Compares its two arguments for order.
+     * @param o1 the first object to be compared
+     * @param o2 the second object to be compared
+     * @return a negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater than the second
+     * @throws ClassCastException if the arguments' types prevent them from being compared by this comparator
+     */
+    int compare(Object o1, Object o2);
+
+}
@@ -0,0 +1,16 @@
+package interfaces;
+
+/**
+ * Operation that accepts a single element and returns no result.
+ * It is the action performed on every element by HCollection.forEach.
+ * @author Giacomo Camposampiero
+ */
+public interface HConsumer {
+
+    /**
+     * Performs this operation on the given element.
+     * @param o the element
+     */
+    void accept(Object o);
+
+}
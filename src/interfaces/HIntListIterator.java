@@ -0,0 +1,59 @@
+package interfaces;
+
+import java.util.NoSuchElementException;
+
+/**
+ * List iterator over a list of primitive int values.
+ * It is the primitive counterpart of HListIterator: elements are returned
+ * by nextInt() and previousInt() and inserted by add(int) without being boxed.
+ * @author Giacomo Camposampiero
+ */
+public interface HIntListIterator extends HIntIterator {
+
+    /**
+     * Inserts the specified element into the list, immediately before the
+     * element that would be returned by nextInt(), if any.
+     * @param value the element to insert
+     */
+    void add(int value);
+
+    /**
+     * Returns true if this list iterator has more elements when traversing
+     * the list in the reverse direction.
+     * @return true if previousInt() would return an element
+     */
+    boolean hasPrevious();
+
+    /**
+     * Returns the index of the element that would be returned by a subsequent
+     * call to nextInt(), or the list size if the iterator is at the end.
+     * @return the index of the element that would be returned by nextInt()
+     */
+    int nextIndex();
+
+    /**
+     * Returns the previous element in the list and moves the cursor position
+     * backwards.
+     * @return the previous element in the list
+     * @throws NoSuchElementException if the iteration has no previous element
+     */
+    int previousInt();
+
+    /**
+     * Returns the index of the element that would be returned by a subsequent
+     * call to previousInt(), or -1 if the iterator is at the beginning.
+     * @return the index of the element that would be returned by previousInt()
+     */
+    int previousIndex();
+
+    /**
+     * Replaces the last element returned by nextInt() or previousInt() with the
+     * specified element.
+     * @param value the element with which to replace the last element returned
+     * @throws IllegalStateException if neither nextInt() nor previousInt() have
+     *         been called, or remove() or add(int) have been called after the
+     *         last call to nextInt() or previousInt()
+     */
+    void set(int value);
+
+}
@@ -469,4 +469,17 @@ public interface HList extends HCollection{
     @Override
     Object[] toArray(Object[] a);
 
-}
\ No newline at end of file
+    /**
+     * Replaces each element of this list with the result of applying the
+     * operator to that element (optional operation).  Exceptions thrown by
+     * the operator are relayed to the caller.
+     *
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the specified operator is null, or if
+     *         it returns null and this list does not permit null elements
+     * @throws UnsupportedOperationException if the <tt>set</tt> operation
+     *         is not supported by this list
+     */
+    void replaceAll(HUnaryOperator operator);
+
+}
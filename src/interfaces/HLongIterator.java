@@ -0,0 +1,35 @@
+package interfaces;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over a collection of primitive long values.
+ * It is the primitive counterpart of HIterator: elements are returned by
+ * nextLong() without being boxed.
+ * @author Giacomo Camposampiero
+ */
+public interface HLongIterator {
+
+    /**
+     * Returns true if the iteration has more elements.
+     * @return true if the iteration has more elements
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next element in the iteration.
+     * @return the next element in the iteration
+     * @throws NoSuchElementException if the iteration has no more elements
+     */
+    long nextLong();
+
+    /**
+     * Removes from the underlying collection the last element returned by this
+     * iterator. This method can be called only once per call to nextLong().
+     * @throws IllegalStateException if the nextLong method has not yet been
+     *         called, or the remove method has already been called after the
+     *         last call to the nextLong method
+     */
+    void remove();
+
+}
@@ -0,0 +1,192 @@
+package interfaces;
+
+/**
+ * List of primitive long values.
+ * This interface mirrors the contract of HList, but its elements are stored
+ * and exchanged as primitive values, so that no Long wrapper has to be
+ * allocated. Methods whose name would be ambiguous between an index and an
+ * element are named removeAt(int) and removeValue(long).
+ * When generic code needs a list of objects, the asList() view can be used.
+ * @author Giacomo Camposampiero
+ */
+public interface HLongList {
+
+    /**
+     * Appends the specified element to the end of this list.
+     * @param value element to be appended to this list
+     * @return true (as specified by HCollection.add)
+     */
+    boolean add(long value);
+
+    /**
+     * Inserts the specified element at the specified position in this list,
+     * shifting the element currently at that position (if any) and any
+     * subsequent elements to the right.
+     * @param index index at which the specified element is to be inserted
+     * @param value element to be inserted
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt; size())
+     */
+    void add(int index, long value);
+
+    /**
+     * Appends all of the elements in the specified list to the end of this
+     * list, in the order in which they are stored in it.
+     * @param c list containing elements to be added to this list
+     * @return true if this list changed as a result of the call
+     * @throws NullPointerException if the specified list is null
+     */
+    boolean addAll(HLongList c);
+
+    /**
+     * Inserts all of the elements in the specified list into this list at the
+     * specified position, shifting the following elements to the right.
+     * @param index index at which to insert the first element of the specified list
+     * @param c list containing elements to be added to this list
+     * @return true if this list changed as a result of the call
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt; size())
+     * @throws NullPointerException if the specified list is null
+     */
+    boolean addAll(int index, HLongList c);
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    void clear();
+
+    /**
+     * Returns true if this list contains the specified element.
+     * @param value element whose presence in this list is to be tested
+     * @return true if this list contains the specified element
+     */
+    boolean contains(long value);
+
+    /**
+     * Compares the specified object with this list for equality. Returns true
+     * if the specified object is also a HLongList, both lists have the same size
+     * and all corresponding pairs of elements are equal.
+     * @param o the object to be compared for equality with this list
+     * @return true if the specified object is equal to this list
+     */
+    boolean equals(Object o);
+
+    /**
+     * Returns the element at the specified position in this list.
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    long get(int index);
+
+    /**
+     * Returns the hash code value for this list. It is computed as the hash
+     * code of a HList containing the same elements as Long objects, so that
+     * it equals the hash code of the asList() view.
+     * @return the hash code value for this list
+     */
+    int hashCode();
+
+    /**
+     * Returns the index of the first occurrence of the specified element in
+     * this list, or -1 if this list does not contain the element.
+     * @param value element to search for
+     * @return the index of the first occurrence of the element, or -1
+     */
+    int indexOf(long value);
+
+    /**
+     * Returns true if this list contains no elements.
+     * @return true if this list contains no elements
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     * @return an iterator over the elements in this list
+     */
+    HLongIterator iterator();
+
+    /**
+     * Returns the index of the last occurrence of the specified element in
+     * this list, or -1 if this list does not contain the element.
+     * @param value element to search for
+     * @return the index of the last occurrence of the element, or -1
+     */
+    int lastIndexOf(long value);
+
+    /**
+     * Returns a list iterator over the elements in this list in proper sequence.
+     * @return a list iterator over the elements in this list
+     */
+    HLongListIterator listIterator();
+
+    /**
+     * Returns a list iterator over the elements in this list in proper
+     * sequence, starting at the specified position in the list.
+     * @param index index of the first element to be returned by nextLong()
+     * @return a list iterator over the elements in this list
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt; size())
+     */
+    HLongListIterator listIterator(int index);
+
+    /**
+     * Removes the element at the specified position in this list, shifting
+     * any subsequent elements to the left.
+     * @param index the index of the element to be removed
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    long removeAt(int index);
+
+    /**
+     * Removes the first occurrence of the specified element from this list,
+     * if it is present.
+     * @param value element to be removed from this list, if present
+     * @return true if this list contained the specified element
+     */
+    boolean removeValue(long value);
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element.
+     * @param index index of the element to replace
+     * @param value element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    long set(int index, long value);
+
+    /**
+     * Returns the number of elements in this list.
+     * @return the number of elements in this list
+     */
+    int size();
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * fromIndex, inclusive, and toIndex, exclusive. The returned list is
+     * backed by this list; its semantics become undefined if this list is
+     * structurally modified other than through the returned list.
+     * @param fromIndex low endpoint (inclusive) of the subList
+     * @param toIndex high endpoint (exclusive) of the subList
+     * @return a view of the specified range within this list
+     * @throws IndexOutOfBoundsException for an illegal endpoint index value (fromIndex &lt; 0 || toIndex &gt; size || fromIndex &gt; toIndex)
+     */
+    HLongList subList(int fromIndex, int toIndex);
+
+    /**
+     * Returns an array containing all of the elements in this list in proper
+     * sequence. The returned array is a copy and can be freely modified.
+     * @return an array containing all of the elements in this list
+     */
+    long[] toArray();
+
+    /**
+     * Returns a HList view of this list, whose elements are the elements of
+     * this list boxed in Long objects. The view is backed by this list, so
+     * changes to one are reflected in the other. Only Long elements can be
+     * added to the view.
+     * @return a HList view of this list
+     */
+    HList asList();
+
+}
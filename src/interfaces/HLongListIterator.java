@@ -0,0 +1,59 @@
+package interfaces;
+
+import java.util.NoSuchElementException;
+
+/**
+ * List iterator over a list of primitive long values.
+ * It is the primitive counterpart of HListIterator: elements are returned
+ * by nextLong() and previousLong() and inserted by add(long) without being boxed.
+ * @author Giacomo Camposampiero
+ */
+public interface HLongListIterator extends HLongIterator {
+
+    /**
+     * Inserts the specified element into the list, immediately before the
+     * element that would be returned by nextLong(), if any.
+     * @param value the element to insert
+     */
+    void add(long value);
+
+    /**
+     * Returns true if this list iterator has more elements when traversing
+     * the list in the reverse direction.
+     * @return true if previousLong() would return an element
+     */
+    boolean hasPrevious();
+
+    /**
+     * Returns the index of the element that would be returned by a subsequent
+     * call to nextLong(), or the list size if the iterator is at the end.
+     * @return the index of the element that would be returned by nextLong()
+     */
+    int nextIndex();
+
+    /**
+     * Returns the previous element in the list and moves the cursor position
+     * backwards.
+     * @return the previous element in the list
+     * @throws NoSuchElementException if the iteration has no previous element
+     */
+    long previousLong();
+
+    /**
+     * Returns the index of the element that would be returned by a subsequent
+     * call to previousLong(), or -1 if the iterator is at the beginning.
+     * @return the index of the element that would be returned by previousLong()
+     */
+    int previousIndex();
+
+    /**
+     * Replaces the last element returned by nextLong() or previousLong() with the
+     * specified element.
+     * @param value the element with which to replace the last element returned
+     * @throws IllegalStateException if neither nextLong() nor previousLong() have
+     *         been called, or remove() or add(long) have been called after the
+     *         last call to nextLong() or previousLong()
+     */
+    void set(long value);
+
+}
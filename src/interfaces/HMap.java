@@ -248,6 +248,31 @@ public interface HMap {
      */
     HCollection values();
 
+    /**
+     * Performs the given action for each mapping of this map, in the order
+     * of its entry set iterator, until all mappings have been processed or
+     * the action throws an exception.  Exceptions thrown by the action are
+     * relayed to the caller.  The implementations traverse their storage
+     * directly, without allocating an iterator or the entries.
+     *
+     * @param action the action to be performed for each mapping
+     * @throws NullPointerException if the specified action is null
+     */
+    void forEach(HBiConsumer action);
+
+    /**
+     * Replaces the value of each mapping with the result of invoking the
+     * given function on its key and value, until all mappings have been
+     * processed or the function throws an exception (optional operation).
+     *
+     * @param function the function to apply to each mapping
+     * @throws NullPointerException if the specified function is null, or if
+     *         it returns null and this map does not permit null values
+     * @throws UnsupportedOperationException if the <tt>put</tt> operation
+     *         is not supported by this map
+     */
+    void replaceAll(HBiFunction function);
+
     /**
      * A map entry (key-value pair).  The <tt>Map.entrySet</tt> method returns
      * a collection-view of the map, whose elements are of this class.  The
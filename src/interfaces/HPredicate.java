@@ -0,0 +1,17 @@
+package interfaces;
+
+/**
+ * Boolean-valued function of a single element.
+ * It selects the elements removed by HCollection.removeIf.
+ * @author Giacomo Camposampiero
+ */
+public interface HPredicate {
+
+    /**
+     * Evaluates this predicate on the given element.
+     * @param o the element
+     * @return true if the element matches the predicate
+     */
+    boolean test(Object o);
+
+}
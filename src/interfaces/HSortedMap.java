@@ -0,0 +1,139 @@
+package interfaces;
+
+/**
+ * A map that further provides a total ordering on its keys.
+ * The map is ordered according to the natural ordering of its keys (which
+ * must implement Comparable), or by the comparator provided at sorted map
+ * creation time. This order is reflected when iterating over the sorted map's
+ * collection views (returned by the entrySet, keySet and values methods).
+ *
+ * Two keys are considered equal if they compare as equal: the ordering must be
+ * consistent with equals for the map to obey the general contract of HMap.
+ *
+ * Besides the SortedMap operations of J2SE 1.4.2 (first and last keys, head,
+ * tail and sub map views), the interface provides the navigation methods
+ * which return the closest matches for a given key (floor, ceiling, lower and
+ * higher).
+ * @author Giacomo Camposampiero
+ */
+public interface HSortedMap extends HMap {
+
+    /**
+     * Returns the comparator used to order the keys in this map, or null if
+     * this map uses the natural ordering of its keys.
+     * @return the comparator used to order the keys, or null
+     */
+    HComparator comparator();
+
+    /**
+     * Returns the first (lowest) key currently in this map.
+     * @return the first key currently in this map
+     * @throws java.util.NoSuchElementException if this map is empty
+     */
+    Object firstKey();
+
+    /**
+     * Returns the last (highest) key currently in this map.
+     * @return the last key currently in this map
+     * @throws java.util.NoSuchElementException if this map is empty
+     */
+    Object lastKey();
+
+    /**
+     * Returns a view of the portion of this map whose keys range from
+     * fromKey, inclusive, to toKey, exclusive. The returned map is backed by
+     * this map, so changes in the returned map are reflected in this map, and
+     * vice-versa. The returned map throws an IllegalArgumentException on an
+     * attempt to insert a key outside its range.
+     * @param fromKey low endpoint (inclusive) of the keys in the returned map
+     * @param toKey high endpoint (exclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys range from fromKey to toKey
+     * @throws ClassCastException if the keys cannot be compared to one another or to the keys of this map
+     * @throws NullPointerException if fromKey or toKey is null
+     * @throws IllegalArgumentException if fromKey is greater than toKey, or if this map has a restricted range and the keys lie outside of it
+     */
+    HSortedMap subMap(Object fromKey, Object toKey);
+
+    /**
+     * Returns a view of the portion of this map whose keys are strictly less
+     * than toKey. The returned map is backed by this map, as for subMap.
+     * @param toKey high endpoint (exclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys are strictly less than toKey
+     * @throws ClassCastException if toKey cannot be compared to the keys of this map
+     * @throws NullPointerException if toKey is null
+     * @throws IllegalArgumentException if this map has a restricted range and toKey lies outside of it
+     */
+    HSortedMap headMap(Object toKey);
+
+    /**
+     * Returns a view of the portion of this map whose keys are greater than or
+     * equal to fromKey. The returned map is backed by this map, as for subMap.
+     * @param fromKey low endpoint (inclusive) of the keys in the returned map
+     * @return a view of the portion of this map whose keys are greater than or equal to fromKey
+     * @throws ClassCastException if fromKey cannot be compared to the keys of this map
+     * @throws NullPointerException if fromKey is null
+     * @throws IllegalArgumentException if this map has a restricted range and fromKey lies outside of it
+     */
+    HSortedMap tailMap(Object fromKey);
+
+    /**
+     * Returns the greatest key less than or equal to the given key, or null
+     * if there is no such key.
+     * @param key the key
+     * @return the greatest key less than or equal to key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    Object floorKey(Object key);
+
+    /**
+     * Returns the least key greater than or equal to the given key, or null
+     * if there is no such key.
+     * @param key the key
+     * @return the least key greater than or equal to key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    Object ceilingKey(Object key);
+
+    /**
+     * Returns the greatest key strictly less than the given key, or null if
+     * there is no such key.
+     * @param key the key
+     * @return the greatest key less than key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    Object lowerKey(Object key);
+
+    /**
+     * Returns the least key strictly greater than the given key, or null if
+     * there is no such key.
+     * @param key the key
+     * @return the least key greater than key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    Object higherKey(Object key);
+
+    /**
+     * Returns the mapping of the greatest key less than or equal to the given
+     * key, or null if there is no such key.
+     * @param key the key
+     * @return an entry with the greatest key less than or equal to key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    HMap.Entry floorEntry(Object key);
+
+    /**
+     * Returns the mapping of the least key greater than or equal to the given
+     * key, or null if there is no such key.
+     * @param key the key
+     * @return an entry with the least key greater than or equal to key, or null
+     * @throws ClassCastException if the key cannot be compared to the keys of this map
+     * @throws NullPointerException if the key is null
+     */
+    HMap.Entry ceilingEntry(Object key);
+
+}
@@ -0,0 +1,94 @@
+package interfaces;
+
+/**
+ * A set that further provides a total ordering on its elements.
+ * The elements are ordered using their natural ordering (they must implement
+ * Comparable), or by the comparator provided at sorted set creation time. The
+ * set's iterator traverses the set in ascending element order.
+ *
+ * Two elements are considered equal if they compare as equal: the ordering
+ * must be consistent with equals for the set to obey the general contract of
+ * HSet.
+ *
+ * Besides the SortedSet operations of J2SE 1.4.2 (first and last elements,
+ * head, tail and sub set views), the interface provides the retrieval and
+ * removal of the first and last elements in a single operation.
+ * @author Giacomo Camposampiero
+ */
+public interface HSortedSet extends HSet {
+
+    /**
+     * Returns the comparator used to order the elements in this set, or null
+     * if this set uses the natural ordering of its elements.
+     * @return the comparator used to order the elements, or null
+     */
+    HComparator comparator();
+
+    /**
+     * Returns the first (lowest) element currently in this set.
+     * @return the first element currently in this set
+     * @throws java.util.NoSuchElementException if this set is empty
+     */
+    Object first();
+
+    /**
+     * Returns the last (highest) element currently in this set.
+     * @return the last element currently in this set
+     * @throws java.util.NoSuchElementException if this set is empty
+     */
+    Object last();
+
+    /**
+     * Retrieves and removes the first (lowest) element, or returns null if
+     * this set is empty.
+     * @return the first element, or null if this set is empty
+     */
+    Object pollFirst();
+
+    /**
+     * Retrieves and removes the last (highest) element, or returns null if
+     * this set is empty.
+     * @return the last element, or null if this set is empty
+     */
+    Object pollLast();
+
+    /**
+     * Returns a view of the portion of this set whose elements range from
+     * fromElement, inclusive, to toElement, exclusive. The returned set is
+     * backed by this set, so changes in the returned set are reflected in this
+     * set, and vice-versa. The returned set throws an IllegalArgumentException
+     * on an attempt to insert an element outside its range.
+     * @param fromElement low endpoint (inclusive) of the returned set
+     * @param toElement high endpoint (exclusive) of the returned set
+     * @return a view of the portion of this set whose elements range from fromElement to toElement
+     * @throws ClassCastException if the elements cannot be compared to one another or to the elements of this set
+     * @throws NullPointerException if fromElement or toElement is null
+     * @throws IllegalArgumentException if fromElement is greater than toElement, or if this set has a restricted range and the elements lie outside of it
+     */
+    HSortedSet subSet(Object fromElement, Object toElement);
+
+    /**
+     * Returns a view of the portion of this set whose elements are strictly
+     * less than toElement. The returned set is backed by this set, as for
+     * subSet.
+     * @param toElement high endpoint (exclusive) of the returned set
+     * @return a view of the portion of this set whose elements are strictly less than toElement
+     * @throws ClassCastException if toElement cannot be compared to the elements of this set
+     * @throws NullPointerException if toElement is null
+     * @throws IllegalArgumentException if this set has a restricted range and toElement lies outside of it
+     */
+    HSortedSet headSet(Object toElement);
+
+    /**
+     * Returns a view of the portion of this set whose elements are greater
+     * than or equal to fromElement. The returned set is backed by this set, as
+     * for subSet.
+     * @param fromElement low endpoint (inclusive) of the returned set
+     * @return a view of the portion of this set whose elements are greater than or equal to fromElement
+     * @throws ClassCastException if fromElement cannot be compared to the elements of this set
+     * @throws NullPointerException if fromElement is null
+     * @throws IllegalArgumentException if this set has a restricted range and fromElement lies outside of it
+     */
+    HSortedSet tailSet(Object fromElement);
+
+}
@@ -0,0 +1,18 @@
+package interfaces;
+
+/**
+ * Source of time for the maps whose mappings expire.
+ * The values returned are in nanoseconds, and only the difference between two
+ * of them is meaningful, as it happens with System.nanoTime(); tests can
+ * replace the system clock with a ticker they advance by hand.
+ * @author Giacomo Camposampiero
+ */
+public interface HTicker {
+
+    /**
+     * Returns the current time, in nanoseconds since an arbitrary origin.
+     * @return the current time in nanoseconds
+     */
+    long read();
+
+}
@@ -0,0 +1,17 @@
+package interfaces;
+
+/**
+ * Function which maps an element to another element.
+ * It computes the new elements stored by HList.replaceAll.
+ * @author Giacomo Camposampiero
+ */
+public interface HUnaryOperator {
+
+    /**
+     * Applies this function to the given element.
+     * @param o the element
+     * @return the result of the function
+     */
+    Object apply(Object o);
+
+}
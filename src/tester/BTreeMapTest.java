@@ -0,0 +1,341 @@
+package tester;
+
+import adapters.BTreeMap;
+import adapters.Map;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HSortedMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for BTreeMap class.
+ * This suite checks the ordering of the map, the navigation methods and the sub map views; the behaviours shared with the other maps are checked on large maps, which have several levels of nodes.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class BTreeMapTest {
+
+    BTreeMap instance;
+
+    public BTreeMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new BTreeMap();
+    }
+
+    /**
+     * Returns true if the keys of the map are the integers from, from+step, ... up to to (exclusive), in this order, each mapped to its string.
+     */
+    private static boolean hasKeys(HMap map, int from, int to, int step) {
+        HIterator it = map.keySet().iterator();
+        for(int k=from; k < to; k += step) {
+            if(!it.hasNext()) return false;
+            Object key = it.next();
+            if(!key.equals(Integer.valueOf(k)) || !map.get(key).equals(String.valueOf(k))) return false;
+        }
+        return !it.hasNext();
+    }
+
+    /**
+     * @title Test #1 of put method, of class BTreeMap.
+     * @description This test tests the behaviour of put() method when a large number of keys is inserted in ascending order, as in a time series.
+     * @expectedResults The map should contain all the keys, and iterate them in ascending order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get(), size() and keySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPut_ascending() {
+        for(int i=0; i < 100000; i++) assertNull(instance.put(Integer.valueOf(i), String.valueOf(i)));
+        assertEquals("dimensione", 100000, instance.size());
+        assertEquals("chiavi in ordine crescente", true, hasKeys(instance, 0, 100000, 1));
+        assertEquals("sostituzione del valore", "7", instance.put(Integer.valueOf(7), "sette"));
+        assertEquals("valore sostituito", "sette", instance.get(Integer.valueOf(7)));
+        assertEquals("dimensione invariata", 100000, instance.size());
+    }
+
+    /**
+     * @title Test #2 of put method, of class BTreeMap.
+     * @description This test tests the behaviour of put() and remove() methods when they are called in a random sequence, comparing the map with a java.util.TreeMap.
+     * @expectedResults After every batch of operations the two maps should have the same size, the same values and the same order of keys.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get(), size() and entrySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPut_random() {
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+        Random rnd = new Random(42);
+        boolean result = true;
+        for(int round=0; round < 20 && result; round++) {
+            for(int i=0; i < 10000; i++) {
+                Integer key = Integer.valueOf(rnd.nextInt(5000));
+                if(rnd.nextInt(3) == 0) result = result && eq(expected.remove(key), instance.remove(key));
+                else result = result && eq(expected.put(key, Integer.valueOf(i)), instance.put(key, Integer.valueOf(i)));
+            }
+            result = result && expected.size() == instance.size();
+            HIterator it = instance.entrySet().iterator();
+            java.util.Iterator<java.util.Map.Entry<Integer, Integer>> jit = expected.entrySet().iterator();
+            while(jit.hasNext() && result) {
+                java.util.Map.Entry<Integer, Integer> e = jit.next();
+                HMap.Entry entry = (HMap.Entry) it.next();
+                result = e.getKey().equals(entry.getKey()) && e.getValue().equals(entry.getValue());
+            }
+            result = result && !it.hasNext();
+        }
+        assertEquals("stesso contenuto di una TreeMap", true, result);
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * @title Test #3 of put method, of class BTreeMap.
+     * @description This test tests the behaviour of put() method when the key or the value is null.
+     * @expectedResults The method should throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test correctness does not depend on the correctness of other methods.
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance should not be modified by the execution of the test.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testPut_null() {
+        instance.put("pippo", null);
+    }
+
+    /**
+     * @title Test #1 of remove method, of class BTreeMap.
+     * @description This test tests the behaviour of remove() method when all the keys of a large map are removed, in an order different from the insertion one.
+     * @expectedResults The map should contain the remaining keys in order after each phase, be empty at the end, and be usable again.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and isEmpty().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testRemove_all() {
+        for(int i=0; i < 20000; i++) instance.put(Integer.valueOf(i), String.valueOf(i));
+        for(int i=1; i < 20000; i += 2) assertEquals("valore rimosso", String.valueOf(i), instance.remove(Integer.valueOf(i)));
+        assertEquals("chiavi pari rimaste", true, hasKeys(instance, 0, 20000, 2));
+        for(int i=19998; i >= 0; i -= 2) instance.remove(Integer.valueOf(i));
+        assertEquals("mappa vuota", true, instance.isEmpty() && !instance.keySet().iterator().hasNext());
+        assertNull("chiave non presente", instance.remove(Integer.valueOf(3)));
+        instance.put(Integer.valueOf(3), "3");
+        assertEquals("mappa riutilizzabile", true, hasKeys(instance, 3, 4, 1));
+    }
+
+    /**
+     * @title Test #1 of floorKey method, of class BTreeMap.
+     * @description This test tests the behaviour of floorKey(), ceilingKey(), lowerKey(), higherKey(), floorEntry() and ceilingEntry() methods on a map containing the even numbers in [0, 2000).
+     * @expectedResults The methods should return the closest keys to the given ones, and null out of the keys of the map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method put().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testFloorKey_navigation() {
+        for(int i=0; i < 2000; i += 2) instance.put(Integer.valueOf(i), String.valueOf(i));
+        boolean result = true;
+        for(int i=1; i < 1999; i += 2) {
+            Integer key = Integer.valueOf(i);
+            result = result && instance.floorKey(key).equals(Integer.valueOf(i - 1)) && instance.ceilingKey(key).equals(Integer.valueOf(i + 1));
+            Integer even = Integer.valueOf(i + 1);
+            result = result && instance.floorKey(even).equals(even) && instance.ceilingKey(even).equals(even);
+            result = result && instance.lowerKey(even).equals(Integer.valueOf(i - 1)) && instance.higherKey(Integer.valueOf(i - 1)).equals(even);
+        }
+        assertEquals("chiavi più vicine", true, result);
+        assertNull("nessuna chiave minore", instance.lowerKey(Integer.valueOf(0)));
+        assertNull("nessuna chiave maggiore", instance.higherKey(Integer.valueOf(1998)));
+        assertNull("nessuna chiave minore o uguale", instance.floorKey(Integer.valueOf(-5)));
+        assertNull("nessuna chiave maggiore o uguale", instance.ceilingKey(Integer.valueOf(5000)));
+        assertEquals("floorEntry", "1998", instance.floorEntry(Integer.valueOf(5000)).getValue());
+        assertEquals("ceilingEntry", "0", instance.ceilingEntry(Integer.valueOf(-5)).getValue());
+        assertEquals("prima chiave", Integer.valueOf(0), instance.firstKey());
+        assertEquals("ultima chiave", Integer.valueOf(1998), instance.lastKey());
+    }
+
+    /**
+     * @title Test #1 of firstKey method, of class BTreeMap.
+     * @description This test tests the behaviour of firstKey() method when called on an empty map.
+     * @expectedResults The method should throw a NoSuchElementException.
+     * @actualResult As expected result.
+     * @dependencies This test correctness does not depend on the correctness of other methods.
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance should not be modified by the execution of the test.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testFirstKey_empty() {
+        instance.firstKey();
+    }
+
+    /**
+     * @title Test #1 of comparator method, of class BTreeMap.
+     * @description This test tests the behaviour of a map created with a comparator which reverses the natural ordering of the keys.
+     * @expectedResults The map should return its comparator, and order its keys in descending order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), firstKey(), lastKey() and keySet().
+     * @preConditions The map instance must be a new istance of BTreeMap, created with the comparator.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testComparator_reverse() {
+        interfaces.HComparator reverse = (a, b) -> ((String) b).compareTo((String) a);
+        instance = new BTreeMap(reverse);
+        String[] names = {"pippo", "pluto", "paperino", "topolino", "asso", "minnie"};
+        for(int i=0; i < names.length; i++) instance.put(names[i], Integer.valueOf(i));
+        assertSame("comparatore", reverse, instance.comparator());
+        assertArrayEquals("ordine decrescente", new Object[] {"topolino", "pluto", "pippo", "paperino", "minnie", "asso"}, instance.keySet().toArray());
+        assertEquals("prima chiave", "topolino", instance.firstKey());
+        assertEquals("floorKey secondo il comparatore", "pippo", instance.floorKey("pb"));
+    }
+
+    /**
+     * @title Test #1 of subMap method, of class BTreeMap.
+     * @description This test tests the views returned by subMap(), headMap() and tailMap() on a large map, and the views of a sub map.
+     * @expectedResults The views should contain only the keys of their range, in order; the navigation methods should be limited to the range, and the keys out of the range should be rejected.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and keySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testSubMap_range() {
+        for(int i=0; i < 10000; i++) instance.put(Integer.valueOf(i), String.valueOf(i));
+        HSortedMap sub = instance.subMap(Integer.valueOf(1000), Integer.valueOf(3000));
+        assertEquals("dimensione della vista", 2000, sub.size());
+        assertEquals("chiavi della vista", true, hasKeys(sub, 1000, 3000, 1));
+        assertEquals("headMap", 500, instance.headMap(Integer.valueOf(500)).size());
+        assertEquals("tailMap", 500, instance.tailMap(Integer.valueOf(9500)).size());
+        assertNull("chiave fuori dalla vista", sub.get(Integer.valueOf(3000)));
+        assertEquals("primo e ultimo", true, sub.firstKey().equals(Integer.valueOf(1000)) && sub.lastKey().equals(Integer.valueOf(2999)));
+        assertNull("lowerKey limitato alla vista", sub.lowerKey(Integer.valueOf(1000)));
+        assertEquals("floorKey oltre la vista", Integer.valueOf(2999), sub.floorKey(Integer.valueOf(9000)));
+        assertEquals("ceilingKey prima della vista", Integer.valueOf(1000), sub.ceilingKey(Integer.valueOf(5)));
+        HSortedMap nested = sub.tailMap(Integer.valueOf(2990));
+        assertEquals("vista di una vista", true, hasKeys(nested, 2990, 3000, 1));
+        assertEquals("vista vuota", true, instance.subMap(Integer.valueOf(7), Integer.valueOf(7)).isEmpty());
+        boolean thrown = false;
+        try {
+            sub.put(Integer.valueOf(5000), "5000");
+        } catch(IllegalArgumentException e) {
+            thrown = true;
+        }
+        assertEquals("inserimento fuori dalla vista", true, thrown);
+        thrown = false;
+        try {
+            sub.subMap(Integer.valueOf(2000), Integer.valueOf(4000));
+        } catch(IllegalArgumentException e) {
+            thrown = true;
+        }
+        assertEquals("estremi fuori dalla vista", true, thrown);
+        sub.put(Integer.valueOf(1500), "millecinquecento");
+        assertEquals("inserimento riflesso sulla mappa", "millecinquecento", instance.get(Integer.valueOf(1500)));
+    }
+
+    /**
+     * @title Test #2 of subMap method, of class BTreeMap.
+     * @description This test tests the behaviour of clear(), forEach() and replaceAll() methods of a sub map, and of the removals through the views of a sub map.
+     * @expectedResults Only the mappings in the range of the view should be visited, modified and removed.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and subMap().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testSubMap_modify() {
+        for(int i=0; i < 10000; i++) instance.put(Integer.valueOf(i), Integer.valueOf(i));
+        HSortedMap sub = instance.subMap(Integer.valueOf(100), Integer.valueOf(200));
+        sub.replaceAll((k, v) -> Integer.valueOf(-((Integer) v).intValue()));
+        final long[] sum = {0};
+        instance.forEach((k, v) -> sum[0] += ((Integer) v).intValue());
+        assertEquals("valori sostituiti solo nella vista", 10000L * 9999 / 2 - 2 * (100L + 199) * 50, sum[0]);
+        sub.values().removeIf(v -> ((Integer) v).intValue() % 2 == 0);
+        assertEquals("valori rimossi dalla vista", 50, sub.size());
+        instance.subMap(Integer.valueOf(5000), Integer.valueOf(9000)).clear();
+        assertEquals("dimensione dopo clear", 10000 - 50 - 4000, instance.size());
+        assertEquals("chiavi ai bordi", true, instance.lowerKey(Integer.valueOf(9000)).equals(Integer.valueOf(4999)) && instance.containsKey(Integer.valueOf(9000)));
+    }
+
+    /**
+     * @title Test #1 of remove method of the iterators, of class BTreeMap.
+     * @description This test tests the behaviour of remove() method of the keySet() iterator, which removes every other key of a large map during the iteration.
+     * @expectedResults The iterator should return every key once, and the map should contain only the keys not removed.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), size() and keySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testIterator_remove() {
+        for(int i=0; i < 20000; i++) instance.put(Integer.valueOf(i), String.valueOf(i));
+        HIterator it = instance.keySet().iterator();
+        int visited = 0;
+        while(it.hasNext()) {
+            int key = ((Integer) it.next()).intValue();
+            if(key != visited) break;
+            visited++;
+            if(key % 2 == 1) it.remove();
+        }
+        assertEquals("ogni chiave restituita una volta", 20000, visited);
+        assertEquals("chiavi rimosse dalla mappa", true, hasKeys(instance, 0, 20000, 2));
+    }
+
+    /**
+     * @title Test #1 of setValue method of the entries, of class BTreeMap.
+     * @description This test tests the behaviour of setValue() method of the entries returned by the entrySet() iterator, before and after the removal of their keys.
+     * @expectedResults The value should be written through to the map while the key is mapped; once the key has been removed only the entry should change, and the mapping should not be put back.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), remove() and entrySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testEntry_setValue() {
+        for(int i=0; i < 100; i++) instance.put(Integer.valueOf(i), String.valueOf(i));
+        HMap.Entry e = (HMap.Entry) instance.entrySet().iterator().next();
+        assertEquals("valore precedente", "0", e.setValue("nuovo"));
+        assertEquals("valore scritto nella mappa", "nuovo", instance.get(Integer.valueOf(0)));
+        instance.remove(Integer.valueOf(0));
+        assertEquals("valore precedente", "nuovo", e.setValue("dopo"));
+        assertEquals("valore della entry", "dopo", e.getValue());
+        assertEquals("mappatura non reinserita", false, instance.containsKey(Integer.valueOf(0)));
+        assertEquals("dimensione della mappa", 99, instance.size());
+    }
+
+    /**
+     * @title Test #1 of equals method, of class BTreeMap.
+     * @description This test tests the behaviour of equals() and hashCode() methods when the map is compared with a Map containing the same mappings.
+     * @expectedResults The two maps should be equal in both directions and have the same hash code, as well as their entry sets.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and entrySet().
+     * @preConditions The map instance must be a new istance of BTreeMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testEquals_map() {
+        Map other = new Map();
+        for(int i=0; i < 1000; i++) {
+            instance.put(Integer.valueOf(i * 7), String.valueOf(i));
+            other.put(Integer.valueOf(i * 7), String.valueOf(i));
+        }
+        assertEquals("mappe uguali", true, instance.equals(other) && other.equals(instance));
+        assertEquals("stesso hash", other.hashCode(), instance.hashCode());
+        assertEquals("entry set uguali", true, instance.entrySet().equals(other.entrySet()));
+        other.put(Integer.valueOf(7), "diverso");
+        assertEquals("mappe diverse", false, instance.equals(other));
+    }
+
+}
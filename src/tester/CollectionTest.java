@@ -1,6 +1,7 @@
 package tester;
 
 import adapters.List;
+import adapters.TieredList;
 import adapters.Set;
 import interfaces.HCollection;
 import interfaces.HIterator;
@@ -38,8 +39,10 @@ public class CollectionTest {
     public static Collection classesToTest() {
         return Arrays.asList(new Object[][]{
             {"List"},
+            {"TieredList"},
             {"Set"},
-            {"SubList"}
+            {"SubList"},
+            {"TieredSubList"}
         });
     }
     
@@ -54,6 +57,15 @@ public class CollectionTest {
             tmp.add("asso");
             tmp.add("minnie");
             instance = tmp.subList(1, 1);
+        } else if(paramClass.equals("TieredSubList")) {
+            TieredList tmp = new TieredList();
+            tmp.add("pippo");
+            tmp.add("pluto");
+            tmp.add("paperino");
+            tmp.add("topolino");
+            tmp.add("asso");
+            tmp.add("minnie");
+            instance = tmp.subList(1, 1);
         } else {
             try {
                 instance = (HCollection) Class.forName("adapters."+paramClass).getConstructor().newInstance();
@@ -977,6 +989,72 @@ public class CollectionTest {
         instance.retainAll(null);
     }
     
+    /**
+     * @title Test #1 of forEach method, of an istance of a class which implements Collection interface.
+     * @description This test tests the behaviour of forEach() method when called on a collection containing many elements.
+     * @expectedResults The action must be performed once on every element, in the same order of the iterator.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add() and iterator().
+     * @preConditions The collection instance must be a new istance of Collection.
+     * @postConditions The collection instance should not be modified directly by the execution of the method.
+     */
+    @Test
+    public void testForEach_order() {
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(i));
+        List visited = new List();
+        instance.forEach(o -> visited.add(o));
+        assertArrayEquals("elementi visitati nell'ordine dell'iteratore", instance.toArray(), visited.toArray());
+    }
+    
+    /**
+     * @title Test #2 of forEach method, of an istance of a class which implements Collection interface.
+     * @description This test tests the behaviour of forEach() method when called with a null action.
+     * @expectedResults The method must throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test has no correctness dependencies on other class methods.
+     * @preConditions The collection instance must be a new istance of Collection.
+     * @postConditions The collection instance should not be modified directly by the execution of the method.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testForEach_exceptions() {
+        instance.forEach(null);
+    }
+    
+    /**
+     * @title Test #1 of removeIf method, of an istance of a class which implements Collection interface.
+     * @description This test tests the behaviour of removeIf() method when called on a collection containing many elements, some of which satisfy the predicate.
+     * @expectedResults The elements which satisfy the predicate must be removed, the other ones must remain in the collection.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add(), contains() and size().
+     * @preConditions The collection instance must be a new istance of Collection.
+     * @postConditions The collection instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testRemoveIf_some() {
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(i));
+        boolean changed = instance.removeIf(o -> ((Integer) o).intValue() % 3 == 0);
+        assertEquals("la collezione è stata modificata", true, changed);
+        assertEquals("rimossi i multipli di 3", 66, instance.size());
+        boolean result = true;
+        for(int i=0; i < 100; i++) result = result && instance.contains(Integer.valueOf(i)) == (i % 3 != 0);
+        assertEquals("rimasti solo gli elementi che non soddisfano il predicato", true, result);
+        assertEquals("nessun elemento soddisfa il predicato", false, instance.removeIf(o -> ((Integer) o).intValue() % 3 == 0));
+    }
+    
+    /**
+     * @title Test #2 of removeIf method, of an istance of a class which implements Collection interface.
+     * @description This test tests the behaviour of removeIf() method when called with a null predicate.
+     * @expectedResults The method must throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test has no correctness dependencies on other class methods.
+     * @preConditions The collection instance must be a new istance of Collection.
+     * @postConditions The collection instance should not be modified directly by the execution of the method.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testRemoveIf_exceptions() {
+        instance.removeIf(null);
+    }
+    
     /**
      * @title Test #1 of toArray method, of an istance of a class which implements Collection interface.
      * @description This test tests the behaviour of toArray() method when called on an empty collection.
@@ -0,0 +1,446 @@
+package tester;
+
+import adapters.ConcurrentMap;
+import adapters.List;
+import adapters.Map;
+import interfaces.HCollection;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HSet;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ConcurrentMap class.
+ * This suite checks the behaviour of the map both when it is used by a single thread, as a regular map, and when it is concurrently updated by many threads.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConcurrentMapTest {
+
+    ConcurrentMap instance;
+
+    public ConcurrentMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new ConcurrentMap();
+    }
+
+    /**
+     * @title Test #1 of clear method, of class ConcurrentMap.
+     * @description This test tests the behaviour of clear() method when is called on a non-empty map.
+     * @expectedResults The map is expected to be empty after the call of the method.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods isEmpty(), size() and put()
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance must contains no entries after the execution of the test.
+     */
+    @Test
+    public void testClear_notEmpty() {
+        instance.put("pippo", "pippo");
+        instance.put("pluto", "pluto");
+        instance.clear();
+        assertEquals("pulizia di una mappa popolata", true, instance.isEmpty());
+        assertEquals("dimensione nulla", 0, instance.size());
+    }
+
+    /**
+     * @title Test #1 of containsKey method, of class ConcurrentMap.
+     * @description This test tests the behaviour of containsKey() method when is called on a map which contains a key that has the same hash of the parameter.
+     * @expectedResults The map is not expected to contain the specified key, as the comparison is based on equals.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method put().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance doesn't have to be modified by the execution of the method tested.
+     */
+    @Test
+    public void testContainsKey_sameHash() {
+        instance.put("AaAaAa", "asso");
+        assertEquals("chiave contenuta", true, instance.containsKey("AaAaAa"));
+        assertEquals("chiave con lo stesso hash non contenuta", false, instance.containsKey("AaAaBB"));
+    }
+
+    /**
+     * @title Test #1 of containsValue method, of class ConcurrentMap.
+     * @description This test tests the behaviour of containsValue() method when is called on a map which contains the specified value and when it doesn't.
+     * @expectedResults The method should return true only if the value has been put in the map and not removed.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and remove().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testContainsValue_contained() {
+        instance.put("pippo", "asso");
+        assertEquals("valore contenuto", true, instance.containsValue("asso"));
+        assertEquals("valore non contenuto", false, instance.containsValue("pluto"));
+        instance.remove("pippo");
+        assertEquals("valore rimosso", false, instance.containsValue("asso"));
+    }
+
+    /**
+     * @title Test #1 of entrySet method, of class ConcurrentMap.
+     * @description This test tests the iterator of the set returned by entrySet(): the iteration, the removal of entries and the write-through of setValue.
+     * @expectedResults All the entries are returned once, removals and updates performed through the iterator are reflected in the map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and containsKey().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testEntry_iterator() {
+        instance.put("pippo", "pluto");
+        instance.put("paperino", "topolino");
+        instance.put("masso", "asso");
+        HIterator it = instance.entrySet().iterator();
+        int count = 0;
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            assertEquals("entry contenuta nella mappa", entry.getValue(), instance.get(entry.getKey()));
+            if(entry.getKey().equals("pippo")) entry.setValue("minnie");
+            if(entry.getKey().equals("masso")) it.remove();
+            count++;
+        }
+        assertEquals("tutte le entry sono restituite", 3, count);
+        assertEquals("setValue si riflette sulla mappa", "minnie", instance.get("pippo"));
+        assertEquals("la rimozione si riflette sulla mappa", false, instance.containsKey("masso"));
+        assertEquals("dimensione diminuita", 2, instance.size());
+    }
+
+    /**
+     * @title Test #2 of entrySet method, of class ConcurrentMap.
+     * @description This test tests that the iterator of the set returned by entrySet() is weakly consistent, so it keeps working when the map is modified during the iteration.
+     * @expectedResults The iterator should not throw any exception and should return all the entries which were not removed during the iteration.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and remove().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testEntry_weaklyConsistent() {
+        for(int i=0; i < 100; i++) instance.put(Integer.valueOf(i), "v" + i);
+        HIterator it = instance.keySet().iterator();
+        int count = 0;
+        boolean[] seen = new boolean[100];
+        while(it.hasNext()) {
+            Integer key = (Integer) it.next();
+            if(key.intValue() < 100) seen[key.intValue()] = true;
+            instance.put(Integer.valueOf(1000 + count), "nuovo");
+            count++;
+        }
+        boolean result = true;
+        for(int i=0; i < 100; i++) result = result && seen[i];
+        assertEquals("tutte le chiavi presenti alla creazione dell'iteratore sono restituite", true, result);
+        assertEquals("dimensione coerente", 100 + count, instance.size());
+    }
+
+    /**
+     * @title Test #3 of entrySet method, of class ConcurrentMap.
+     * @description This test tests the methods of the set returned by entrySet(): contains, remove and removeAll.
+     * @expectedResults Only entries with both the same key and the same value are considered contained and removed.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and size().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testEntry_backed() {
+        instance.put("pippo", "pluto");
+        instance.put("paperino", "topolino");
+        HSet entries = instance.entrySet();
+        assertEquals("entry contenuta", true, entries.contains(instance.new MapEntry("pippo", "pluto")));
+        assertEquals("valore diverso, entry non contenuta", false, entries.contains(instance.new MapEntry("pippo", "topolino")));
+        assertEquals("valore diverso, entry non rimossa", false, entries.remove(instance.new MapEntry("pippo", "topolino")));
+        assertEquals("entry rimossa", true, entries.remove(instance.new MapEntry("pippo", "pluto")));
+        assertEquals("la rimozione si riflette sulla mappa", 1, instance.size());
+        HCollection param = new List();
+        param.add(instance.new MapEntry("paperino", "topolino"));
+        assertEquals("entry rimossa", true, entries.removeAll(param));
+        assertEquals("la mappa è vuota", true, instance.isEmpty());
+    }
+
+    /**
+     * @title Test #1 of equals and hashCode methods, of class ConcurrentMap.
+     * @description This test tests that a ConcurrentMap equals a Map which contains the same mappings, and that they have the same hash.
+     * @expectedResults Maps with the same mappings should be equal and have the same hash code.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method put().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance should not be modified by the execution of the methods tested.
+     */
+    @Test
+    public void testEquals_map() {
+        Map other = new Map();
+        instance.put("pippo", "pluto");
+        instance.put("paperino", "topolino");
+        other.put("pippo", "pluto");
+        other.put("paperino", "topolino");
+        assertEquals("stesse mappature", true, instance.equals(other));
+        assertEquals("stessi hash", other.hashCode(), instance.hashCode());
+        instance.put("pippo", "asso");
+        assertEquals("mappature diverse", false, instance.equals(other));
+    }
+
+    /**
+     * @title Test #1 of put method, of class ConcurrentMap.
+     * @description This test tests the behaviour of put() method when many keys are inserted, so that the tables of the segments have to grow, and when a key is replaced.
+     * @expectedResults All the mappings should be retrievable, and the old value should be returned when a key is replaced.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get() and size().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testPut_many() {
+        for(int i=0; i < 1000; i++) assertNull("chiave nuova", instance.put(Integer.valueOf(i), Integer.valueOf(-i)));
+        assertEquals("valore precedente restituito", Integer.valueOf(-5), instance.put(Integer.valueOf(5), "cinque"));
+        assertEquals("dimensione", 1000, instance.size());
+        boolean result = true;
+        for(int i=0; i < 1000; i++)
+            result = result && (i == 5 || instance.get(Integer.valueOf(i)).equals(Integer.valueOf(-i)));
+        assertEquals("tutti i valori sono recuperabili", true, result);
+        assertEquals("valore sostituito", "cinque", instance.get(Integer.valueOf(5)));
+    }
+
+    /**
+     * @title Test #1 of putIfAbsent method, of class ConcurrentMap.
+     * @description This test tests the behaviour of putIfAbsent() method when the key is not contained and when it is.
+     * @expectedResults The value should be inserted only if the key is not contained; otherwise the current value should be returned and left unchanged.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method get().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testPutIfAbsent() {
+        assertNull("chiave assente, valore inserito", instance.putIfAbsent("pippo", "pluto"));
+        assertEquals("chiave presente, valore corrente", "pluto", instance.putIfAbsent("pippo", "asso"));
+        assertEquals("valore non sostituito", "pluto", instance.get("pippo"));
+    }
+
+    /**
+     * @title Test #1 of remove(key, value) method, of class ConcurrentMap.
+     * @description This test tests the behaviour of the conditional remove() method when the key is mapped to a different value and when it is mapped to the expected one.
+     * @expectedResults The mapping should be removed only if the key is mapped to the specified value.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and containsKey().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testRemove_conditional() {
+        instance.put("pippo", "pluto");
+        assertEquals("valore diverso, mappatura non rimossa", false, instance.remove("pippo", "asso"));
+        assertEquals("chiave ancora presente", true, instance.containsKey("pippo"));
+        assertEquals("valore atteso, mappatura rimossa", true, instance.remove("pippo", "pluto"));
+        assertEquals("chiave rimossa", false, instance.containsKey("pippo"));
+        assertEquals("chiave assente", false, instance.remove("pippo", "pluto"));
+    }
+
+    /**
+     * @title Test #2 of put method, of class ConcurrentMap.
+     * @description This test tests the behaviour of put() and remove() methods when they are concurrently called by many threads, on both disjoint and shared keys.
+     * @expectedResults The map should contain exactly the mappings inserted and not removed by the threads.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get() and size().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testPut_concurrent() throws InterruptedException {
+        final int threads = 8;
+        final int keys = 2000;
+        Thread[] workers = new Thread[threads];
+        for(int t=0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    for(int i=0; i < keys; i++) {
+                        instance.put(Integer.valueOf(id * keys + i), Integer.valueOf(id));
+                        instance.put("condivisa" + (i % 10), Integer.valueOf(id));
+                    }
+                    for(int i=0; i < keys; i += 2) instance.remove(Integer.valueOf(id * keys + i));
+                }
+            };
+        }
+        for(int t=0; t < threads; t++) workers[t].start();
+        for(int t=0; t < threads; t++) workers[t].join();
+        assertEquals("dimensione finale", threads * keys / 2 + 10, instance.size());
+        boolean result = true;
+        for(int t=0; t < threads; t++) {
+            for(int i=0; i < keys; i++) {
+                Object value = instance.get(Integer.valueOf(t * keys + i));
+                result = result && (i % 2 == 0 ? value == null : Integer.valueOf(t).equals(value));
+            }
+        }
+        assertEquals("mappature coerenti con le operazioni eseguite", true, result);
+    }
+
+    /**
+     * @title Test #1 of replaceAll method, of class ConcurrentMap.
+     * @description This test tests the behaviour of replaceAll() method when it is concurrently called by many threads on the same mappings.
+     * @expectedResults No update should be lost: every value should be incremented once by every thread.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get() and forEach().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testReplaceAll_concurrent() throws InterruptedException {
+        final int threads = 4;
+        for(int i=0; i < 1000; i++) instance.put(Integer.valueOf(i), Integer.valueOf(i));
+        Thread[] workers = new Thread[threads];
+        for(int t=0; t < threads; t++) {
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    for(int r=0; r < 50; r++) instance.replaceAll((k, v) -> Integer.valueOf(((Integer) v).intValue() + 1));
+                }
+            };
+        }
+        for(int t=0; t < threads; t++) workers[t].start();
+        for(int t=0; t < threads; t++) workers[t].join();
+        final boolean[] result = {true};
+        instance.forEach((k, v) -> result[0] = result[0] && ((Integer) v).intValue() == ((Integer) k).intValue() + threads * 50);
+        assertEquals("nessun aggiornamento perso", true, result[0]);
+    }
+
+    /**
+     * @title Test #1 of removeIf method of the views, of class ConcurrentMap.
+     * @description This test tests the behaviour of removeIf() and forEach() methods of the keySet(), values() and entrySet() views.
+     * @expectedResults The mappings whose element satisfies the predicate should be removed, and forEach should visit the remaining ones.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), containsKey() and size().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testRemoveIf_views() {
+        for(int i=0; i < 300; i++) instance.put(Integer.valueOf(i), Integer.valueOf(i % 3));
+        assertEquals("chiavi rimosse", true, instance.keySet().removeIf(k -> ((Integer) k).intValue() >= 200));
+        assertEquals("valori rimossi", true, instance.values().removeIf(v -> ((Integer) v).intValue() == 0));
+        assertEquals("associazioni rimosse", true, instance.entrySet().removeIf(e -> ((Integer) ((HMap.Entry) e).getValue()).intValue() == 1));
+        assertEquals("dimensione finale", 66, instance.size());
+        List keys = new List();
+        instance.keySet().forEach(k -> keys.add(k));
+        boolean result = keys.size() == 66;
+        for(int i=0; i < 300; i++) result = result && keys.contains(Integer.valueOf(i)) == (i < 200 && i % 3 == 2);
+        assertEquals("forEach visita le associazioni rimaste", true, result);
+    }
+
+    /**
+     * @title Test #1 of setValue method of the entries, of class ConcurrentMap.
+     * @description This test tests the behaviour of setValue() method of the entries returned by the entrySet() iterator, before and after the removal of their keys.
+     * @expectedResults The value should be written through to the map while the key is mapped; once the key has been removed only the entry should change, and the mapping should not be put back.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), remove() and entrySet().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testEntry_setValue() {
+        instance.put("k", "v");
+        HMap.Entry e = (HMap.Entry) instance.entrySet().iterator().next();
+        assertEquals("valore precedente", "v", e.setValue("nuovo"));
+        assertEquals("valore scritto nella mappa", "nuovo", instance.get("k"));
+        instance.remove("k");
+        assertEquals("valore precedente", "nuovo", e.setValue("w"));
+        assertEquals("valore della entry", "w", e.getValue());
+        assertEquals("mappatura non reinserita", false, instance.containsKey("k"));
+        assertEquals("dimensione della mappa", 0, instance.size());
+    }
+
+    /**
+     * @title Test #1 of values method, of class ConcurrentMap.
+     * @description This test tests the collection returned by values(): contains, remove and retainAll.
+     * @expectedResults The removal of a value should remove only one of the mappings to it, retainAll should remove all the mappings to values not contained in the parameter.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and size().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test
+    public void testValues_backed() {
+        instance.put("pippo", "pluto");
+        instance.put("masso", "pluto");
+        instance.put("basso", "asso");
+        HCollection values = instance.values();
+        assertEquals("valore contenuto", true, values.contains("pluto"));
+        assertEquals("valore rimosso", true, values.remove("pluto"));
+        assertEquals("una sola mappatura rimossa", 2, instance.size());
+        assertEquals("valore ancora contenuto", true, values.contains("pluto"));
+        HCollection param = new List();
+        param.add("asso");
+        assertEquals("mappature rimosse", true, values.retainAll(param));
+        assertEquals("una sola mappatura rimasta", 1, instance.size());
+        assertEquals("toArray coerente", 1, values.toArray().length);
+    }
+
+    /**
+     * @title Test #1 of exceptions, of class ConcurrentMap.
+     * @description This test tests that put() throws a NullPointerException when called with a null value.
+     * @expectedResults The map is expected to throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance doesn't have to be modified by the execution of the method tested.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testExceptions_nullValue() {
+        instance.put("pippo", null);
+    }
+
+    /**
+     * @title Test #2 of exceptions, of class ConcurrentMap.
+     * @description This test tests that get() throws a NullPointerException when called with a null key.
+     * @expectedResults The map is expected to throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance doesn't have to be modified by the execution of the method tested.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testExceptions_nullKey() {
+        instance.get(null);
+    }
+
+    /**
+     * @title Test #3 of exceptions, of class ConcurrentMap.
+     * @description This test tests that the iterators of the views throw NoSuchElementException when next() is called and there are no more elements.
+     * @expectedResults The iterator is expected to throw a NoSuchElementException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance doesn't have to be modified by the execution of the method tested.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testExceptions_iterator1() {
+        instance.keySet().iterator().next();
+    }
+
+    /**
+     * @title Test #4 of exceptions, of class ConcurrentMap.
+     * @description This test tests that the iterators of the views throw IllegalStateException when remove() is called twice.
+     * @expectedResults The iterator is expected to throw an IllegalStateException.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method put().
+     * @preConditions The map instance must be a new istance of ConcurrentMap.
+     * @postConditions The map instance has to be modified by the execution of the test.
+     */
+    @Test(expected = exceptions.IllegalStateException.class)
+    public void testExceptions_iterator2() {
+        instance.put("pippo", "pluto");
+        HIterator it = instance.values().iterator();
+        it.next();
+        it.remove();
+        it.remove();
+    }
+
+}
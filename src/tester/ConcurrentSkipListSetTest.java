@@ -0,0 +1,356 @@
+package tester;
+
+import adapters.ConcurrentSkipListSet;
+import adapters.Set;
+import interfaces.HIterator;
+import interfaces.HSortedSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ConcurrentSkipListSet class.
+ * This suite checks the ordering of the set, the range views and the behaviour of the set when it is concurrently modified by many threads.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConcurrentSkipListSetTest {
+
+    ConcurrentSkipListSet instance;
+
+    public ConcurrentSkipListSetTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new ConcurrentSkipListSet();
+    }
+
+    /**
+     * Returns true if the elements of the set are the integers from, from+step, ... up to to (exclusive), in this order.
+     */
+    private static boolean hasElements(HSortedSet set, int from, int to, int step) {
+        HIterator it = set.iterator();
+        for(int e=from; e < to; e += step) {
+            if(!it.hasNext() || !it.next().equals(Integer.valueOf(e))) return false;
+        }
+        return !it.hasNext();
+    }
+
+    /**
+     * @title Test #1 of add method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of add() and remove() methods when they are called in a random sequence.
+     * @expectedResults The set should iterate its elements in ascending order, without duplicates, and contain only the elements added and not removed.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods contains(), size() and iterator().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testAdd_random() {
+        boolean[] expected = new boolean[5000];
+        Random rnd = new Random(42);
+        boolean result = true;
+        for(int i=0; i < 20000; i++) {
+            int e = rnd.nextInt(expected.length);
+            if(rnd.nextInt(3) == 0) {
+                result = result && instance.remove(Integer.valueOf(e)) == expected[e];
+                expected[e] = false;
+            } else {
+                result = result && instance.add(Integer.valueOf(e)) != expected[e];
+                expected[e] = true;
+            }
+            result = result && instance.contains(Integer.valueOf(e)) == expected[e];
+        }
+        assertEquals("valori di ritorno coerenti", true, result);
+        int count = 0;
+        int previous = -1;
+        HIterator it = instance.iterator();
+        while(it.hasNext()) {
+            int e = ((Integer) it.next()).intValue();
+            result = result && e > previous && expected[e];
+            previous = e;
+            count++;
+        }
+        int size = 0;
+        for(int e=0; e < expected.length; e++) if(expected[e]) size++;
+        assertEquals("elementi in ordine crescente", true, result);
+        assertEquals("numero di elementi", size, count);
+        assertEquals("dimensione", size, instance.size());
+    }
+
+    /**
+     * @title Test #1 of comparator method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of a set created with a comparator which reverses the natural ordering.
+     * @expectedResults The set should be ordered according to the comparator, and first() and last() should return its first and last elements.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add() and iterator().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testComparator_reverse() {
+        ConcurrentSkipListSet set = new ConcurrentSkipListSet((a, b) -> ((String) b).compareTo((String) a));
+        set.add("pippo");
+        set.add("pluto");
+        set.add("paperino");
+        set.add("pippo");
+        HIterator it = set.iterator();
+        assertEquals("primo elemento", "pluto", it.next());
+        assertEquals("secondo elemento", "pippo", it.next());
+        assertEquals("terzo elemento", "paperino", it.next());
+        assertEquals("fine dell'iterazione", false, it.hasNext());
+        assertEquals("first", "pluto", set.first());
+        assertEquals("last", "paperino", set.last());
+        assertNotNull("comparatore", set.comparator());
+        assertNull("ordinamento naturale", instance.comparator());
+    }
+
+    /**
+     * @title Test #1 of subSet method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of subSet(), headSet() and tailSet() views, and of the views of a view.
+     * @expectedResults The views should contain only the elements in their range, reflect the changes of the set and write through to it.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), remove(), contains() and size().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testSubSet_views() {
+        for(int i=0; i < 1000; i += 2) instance.add(Integer.valueOf(i));
+        HSortedSet sub = instance.subSet(Integer.valueOf(100), Integer.valueOf(200));
+        HSortedSet head = instance.headSet(Integer.valueOf(101));
+        HSortedSet tail = instance.tailSet(Integer.valueOf(901));
+        assertEquals("elementi della subSet", true, hasElements(sub, 100, 200, 2));
+        assertEquals("elementi della headSet", true, hasElements(head, 0, 101, 2));
+        assertEquals("elementi della tailSet", true, hasElements(tail, 902, 1000, 2));
+        assertEquals("first della subSet", Integer.valueOf(100), sub.first());
+        assertEquals("last della subSet", Integer.valueOf(198), sub.last());
+        assertEquals("last della tailSet", Integer.valueOf(998), tail.last());
+        assertEquals("elemento fuori intervallo", false, sub.contains(Integer.valueOf(200)));
+        instance.add(Integer.valueOf(151));
+        assertEquals("modifica visibile nella vista", true, sub.contains(Integer.valueOf(151)));
+        assertEquals("rimozione tramite la vista", true, sub.remove(Integer.valueOf(150)));
+        assertEquals("rimozione visibile nell'insieme", false, instance.contains(Integer.valueOf(150)));
+        HSortedSet inner = sub.tailSet(Integer.valueOf(190));
+        assertEquals("vista di una vista", true, hasElements(inner, 190, 200, 2));
+        sub.clear();
+        assertEquals("vista svuotata", true, sub.isEmpty());
+        assertEquals("dimensione dell'insieme", 450, instance.size());
+        assertEquals("elementi fuori dalla vista", true, instance.contains(Integer.valueOf(98)) && instance.contains(Integer.valueOf(200)));
+        assertEquals("vista vuota", 0, instance.subSet(Integer.valueOf(5), Integer.valueOf(5)).size());
+    }
+
+    /**
+     * @title Test #2 of subSet method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of the views when an element outside their range is added, or when a view is requested with bounds outside their range.
+     * @expectedResults An IllegalArgumentException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method add().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testSubSet_outOfRange() {
+        HSortedSet sub = instance.subSet(Integer.valueOf(10), Integer.valueOf(20));
+        boolean add = false, bounds = false, reversed = false;
+        try { sub.add(Integer.valueOf(20)); } catch(IllegalArgumentException e) { add = true; }
+        try { sub.headSet(Integer.valueOf(21)); } catch(IllegalArgumentException e) { bounds = true; }
+        try { instance.subSet(Integer.valueOf(2), Integer.valueOf(1)); } catch(IllegalArgumentException e) { reversed = true; }
+        assertEquals("inserimento fuori intervallo", true, add);
+        assertEquals("estremo fuori intervallo", true, bounds);
+        assertEquals("estremi invertiti", true, reversed);
+        assertEquals("insieme invariato", 0, instance.size());
+    }
+
+    /**
+     * @title Test #1 of pollFirst method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of pollFirst() and pollLast() methods on the set and on a view, until they are drained.
+     * @expectedResults The elements should be returned in ascending (or descending) order and removed; null should be returned on an empty set.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), size() and headSet().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPollFirst_drain() {
+        for(int i=99; i >= 0; i--) instance.add(Integer.valueOf(i));
+        HSortedSet head = instance.headSet(Integer.valueOf(10));
+        boolean result = true;
+        for(int i=0; i < 10; i++) result = result && Integer.valueOf(i).equals(head.pollFirst());
+        assertNull("vista svuotata", head.pollFirst());
+        for(int i=99; i >= 50; i--) result = result && Integer.valueOf(i).equals(instance.pollLast());
+        for(int i=10; i < 50; i++) result = result && Integer.valueOf(i).equals(instance.pollFirst());
+        assertEquals("ordine di estrazione", true, result);
+        assertNull("pollFirst su insieme vuoto", instance.pollFirst());
+        assertNull("pollLast su insieme vuoto", instance.pollLast());
+        assertEquals("dimensione", 0, instance.size());
+    }
+
+    /**
+     * @title Test #2 of pollFirst method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of add() and pollFirst() methods when they are concurrently called by producer threads, which insert disjoint elements, and consumer threads, which drain the set.
+     * @expectedResults Every element should be inserted and extracted exactly once, and the set should be empty at the end.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), isEmpty() and size().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPollFirst_concurrent() throws InterruptedException {
+        final int producers = 4;
+        final int consumers = 4;
+        final int elements = 5000;
+        final AtomicIntegerArray polled = new AtomicIntegerArray(producers * elements);
+        final boolean[] done = {false};
+        Thread[] workers = new Thread[producers + consumers];
+        for(int t=0; t < producers; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    for(int i=0; i < elements; i++) instance.add(Integer.valueOf(i * producers + id));
+                }
+            };
+        }
+        for(int t=producers; t < producers + consumers; t++) {
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    while(true) {
+                        Object e = instance.pollFirst();
+                        if(e != null) polled.incrementAndGet(((Integer) e).intValue());
+                        else synchronized(done) { if(done[0]) return; }
+                    }
+                }
+            };
+        }
+        for(int t=0; t < workers.length; t++) workers[t].start();
+        for(int t=0; t < producers; t++) workers[t].join();
+        synchronized(done) { done[0] = true; }
+        for(int t=producers; t < workers.length; t++) workers[t].join();
+        boolean result = true;
+        for(int i=0; i < polled.length(); i++) result = result && polled.get(i) == 1;
+        assertEquals("ogni elemento estratto una sola volta", true, result);
+        assertEquals("insieme svuotato", true, instance.isEmpty());
+    }
+
+    /**
+     * @title Test #1 of remove method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of add() and remove() methods when they are concurrently called by many threads on overlapping elements.
+     * @expectedResults The set should contain exactly the elements added and not removed, in ascending order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), size() and iterator().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testRemove_concurrent() throws InterruptedException {
+        final int threads = 8;
+        Thread[] workers = new Thread[threads];
+        for(int t=0; t < threads; t++) {
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    for(int i=0; i < 4000; i++) instance.add(Integer.valueOf(i));
+                    for(int i=0; i < 4000; i += 2) instance.remove(Integer.valueOf(i));
+                }
+            };
+        }
+        for(int t=0; t < threads; t++) workers[t].start();
+        for(int t=0; t < threads; t++) workers[t].join();
+        // a late add of an even element may follow the removals of the other threads
+        for(int i=0; i < 4000; i += 2) instance.remove(Integer.valueOf(i));
+        assertEquals("dimensione finale", 2000, instance.size());
+        assertEquals("elementi rimasti", true, hasElements(instance, 1, 4000, 2));
+    }
+
+    /**
+     * @title Test #1 of iterator method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of the iterator when the set is modified during the iteration, and of its remove() method.
+     * @expectedResults The iterator should not throw exceptions, it should return the elements not removed in ascending order, and remove() should remove the last element returned.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), remove() and size().
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testIterator_weaklyConsistent() {
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(i));
+        HIterator it = instance.iterator();
+        boolean result = true;
+        int previous = -1;
+        while(it.hasNext()) {
+            int e = ((Integer) it.next()).intValue();
+            result = result && e > previous;
+            previous = e;
+            if(e % 10 == 0) it.remove();
+            if(e < 90) instance.remove(Integer.valueOf(e + 5));
+            if(e < 100) instance.add(Integer.valueOf(1000 + e));
+        }
+        assertEquals("ordine crescente", true, result);
+        assertEquals("elemento rimosso dall'iteratore", false, instance.contains(Integer.valueOf(50)));
+        assertEquals("elemento aggiunto durante l'iterazione", true, instance.contains(Integer.valueOf(1001)));
+        boolean thrown = false;
+        it.remove();
+        try { it.remove(); } catch(exceptions.IllegalStateException e) { thrown = true; }
+        assertEquals("doppia remove", true, thrown);
+    }
+
+    /**
+     * @title Test #1 of equals method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of equals() and hashCode() methods comparing the set with a Set containing the same elements.
+     * @expectedResults The set should be equal to the other set and have the same hash code.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method add() and of class Set.
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testEquals_set() {
+        Set other = new Set();
+        for(int i=0; i < 50; i++) {
+            instance.add(Integer.valueOf(i));
+            other.add(Integer.valueOf(i));
+        }
+        assertEquals("insiemi uguali", true, instance.equals(other));
+        assertEquals("stesso hashCode", other.hashCode(), instance.hashCode());
+        other.remove(Integer.valueOf(0));
+        assertEquals("insiemi diversi", false, instance.equals(other));
+        assertEquals("toArray", 50, instance.toArray().length);
+    }
+
+    /**
+     * @title Test #1 of first method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of first() method when the set is empty.
+     * @expectedResults A NoSuchElementException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testFirst_empty() {
+        instance.first();
+    }
+
+    /**
+     * @title Test #2 of add method, of class ConcurrentSkipListSet.
+     * @description This test tests the behaviour of add() method when the element is null.
+     * @expectedResults A NullPointerException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions The set instance must be a new istance of ConcurrentSkipListSet.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testAdd_null() {
+        instance.add(null);
+    }
+
+}
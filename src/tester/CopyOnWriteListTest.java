@@ -0,0 +1,248 @@
+package tester;
+
+import adapters.CopyOnWriteList;
+import adapters.List;
+import interfaces.HIterator;
+import interfaces.HList;
+import interfaces.HListIterator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for CopyOnWriteList class.
+ * This suite checks the operations of the list against the ones of List, the snapshot semantics of its iterators, the batches of modifications applied by update() and the behaviour of the list when it is concurrently read and modified.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CopyOnWriteListTest {
+
+    CopyOnWriteList instance;
+
+    public CopyOnWriteListTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new CopyOnWriteList();
+    }
+
+    /**
+     * @title Test #1 of add method, of class CopyOnWriteList.
+     * @description This test tests the single and bulk modifications of the list, applying the same ones to a List.
+     * @expectedResults After every modification the list should be equal to the List, and have the same hash code.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List and of methods equals() and hashCode().
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testAdd_likeList() {
+        List expected = new List();
+        boolean result = true;
+        for(int i=0; i < 20; i++) {
+            instance.add(Integer.valueOf(i));
+            expected.add(Integer.valueOf(i));
+        }
+        instance.add(5, "cinque");
+        expected.add(5, "cinque");
+        result = result && instance.equals(expected) && expected.equals(instance);
+        List added = new List();
+        for(int i=0; i < 5; i++) added.add("x" + i);
+        instance.addAll(3, added);
+        expected.addAll(3, added);
+        result = result && instance.equals(expected);
+        assertEquals("set", Integer.valueOf(5), instance.set(11, "dieci"));
+        expected.set(11, "dieci");
+        assertEquals("remove per indice", "x0", instance.remove(3));
+        expected.remove(3);
+        assertEquals("remove di un elemento", true, instance.remove("cinque"));
+        expected.remove("cinque");
+        instance.removeIf(e -> e instanceof Integer && ((Integer) e).intValue() % 3 == 0);
+        expected.removeIf(e -> e instanceof Integer && ((Integer) e).intValue() % 3 == 0);
+        result = result && instance.equals(expected);
+        instance.retainAll(added);
+        expected.retainAll(added);
+        result = result && instance.equals(expected) && instance.hashCode() == expected.hashCode();
+        assertEquals("modifiche come List", true, result);
+        assertEquals("indexOf", 1, instance.indexOf("x2"));
+        assertEquals("lastIndexOf", -1, instance.lastIndexOf("x0"));
+        assertEquals("toArray", 4, instance.toArray().length);
+        instance.replaceAll(e -> e + "!");
+        assertEquals("replaceAll", "x1!", instance.get(0));
+        instance.clear();
+        assertEquals("lista svuotata", true, instance.isEmpty());
+    }
+
+    /**
+     * @title Test #1 of iterator method, of class CopyOnWriteList.
+     * @description This test tests the iterators of the list while the list is modified.
+     * @expectedResults The iterators should traverse the elements the list had when they were created, without throwing any exception, and reject the modifications through them.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), remove() and size().
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testIterator_snapshot() {
+        for(int i=0; i < 10; i++) instance.add(Integer.valueOf(i));
+        HIterator it = instance.iterator();
+        int count = 0;
+        while(it.hasNext()) {
+            Object e = it.next();
+            instance.remove(e);
+            instance.add("nuovo" + count);
+            count++;
+        }
+        assertEquals("elementi visitati", 10, count);
+        assertEquals("dimensione", 10, instance.size());
+        assertEquals("elementi sostituiti", "nuovo0", instance.get(0));
+        HListIterator li = instance.listIterator(10);
+        assertEquals("iterazione all'indietro", "nuovo9", li.previous());
+        boolean unsupported = false;
+        try {
+            li.remove();
+        } catch(UnsupportedOperationException e) {
+            unsupported = true;
+        }
+        assertEquals("remove non supportata", true, unsupported);
+    }
+
+    /**
+     * @title Test #1 of update method, of class CopyOnWriteList.
+     * @description This test tests a batch of modifications, a batch which keeps the List it receives and modifies it after returning, and a batch which throws an exception.
+     * @expectedResults The modifications of a batch should be applied all together; the modifications made after the batch returned and those of a batch which throws an exception shouldn't modify the list.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List and of methods add() and equals().
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testUpdate_batch() {
+        for(int i=0; i < 10; i++) instance.add(Integer.valueOf(i));
+        instance.update(l -> {
+            List list = (List) l;
+            list.removeRange(0, 5);
+            for(int i=0; i < 10; i++) list.add(Integer.valueOf(100 + i));
+            list.set(0, "primo");
+        });
+        assertEquals("dimensione dopo il batch", 15, instance.size());
+        assertEquals("set nel batch", "primo", instance.get(0));
+        assertEquals("ultimo elemento", Integer.valueOf(109), instance.get(14));
+        CopyOnWriteList before = new CopyOnWriteList(instance);
+        final List[] kept = new List[1];
+        instance.update(l -> kept[0] = (List) l);
+        kept[0].set(0, "dopo");
+        assertEquals("List modificata dopo il batch", before, instance);
+        boolean thrown = false;
+        try {
+            instance.update(l -> {
+                ((List) l).clear();
+                throw new IllegalStateException();
+            });
+        } catch(IllegalStateException e) {
+            thrown = true;
+        }
+        assertEquals("eccezione propagata", true, thrown);
+        assertEquals("lista non modificata", before, instance);
+    }
+
+    /**
+     * @title Test #1 of subList method, of class CopyOnWriteList.
+     * @description This test tests the modifications made through a sublist and through a sublist of it.
+     * @expectedResults The modifications should be applied to the list, and the sizes of the views should follow them.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testSubList_views() {
+        for(int i=0; i < 10; i++) instance.add(Integer.valueOf(i));
+        HList sub = instance.subList(2, 8);
+        HList inner = sub.subList(1, 3);
+        inner.add("dentro");
+        assertEquals("dimensione del sottoelenco interno", 3, inner.size());
+        assertEquals("dimensione del sottoelenco", 7, sub.size());
+        assertEquals("elemento inserito", "dentro", instance.get(5));
+        sub.removeIf(e -> e instanceof Integer && ((Integer) e).intValue() % 2 == 0);
+        assertEquals("removeIf nel sottoelenco", 4, sub.size());
+        assertEquals("indexOf nel sottoelenco", 1, sub.indexOf("dentro"));
+        sub.clear();
+        assertEquals("dimensione della lista", 4, instance.size());
+        assertEquals("elementi rimasti", Integer.valueOf(8), instance.get(2));
+    }
+
+    /**
+     * @title Test #2 of update method, of class CopyOnWriteList.
+     * @description This test tests the list while some threads read it and others apply batches which add ten elements each.
+     * @expectedResults The readers should never throw an exception nor see a batch applied in part, and all the elements added should be in the list at the end.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size(), iterator() and toArray().
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testUpdate_concurrent() throws InterruptedException {
+        final int writers = 4, readers = 4, batches = 200;
+        final boolean[] failed = {false};
+        Thread[] threads = new Thread[writers + readers];
+        for(int t=0; t < writers; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for(int b=0; b < batches; b++) {
+                        final int batch = b;
+                        instance.update(l -> {
+                            for(int i=0; i < 10; i++) ((List) l).add(id + ":" + batch + ":" + i);
+                        });
+                    }
+                }
+            };
+        }
+        for(int t=writers; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for(int r=0; r < 2000; r++) {
+                            int count = 0;
+                            HIterator it = instance.iterator();
+                            while(it.hasNext()) {
+                                it.next();
+                                count++;
+                            }
+                            if(count % 10 != 0) {
+                                synchronized(failed) { failed[0] = true; }
+                            }
+                        }
+                    } catch(RuntimeException e) {
+                        synchronized(failed) { failed[0] = true; }
+                    }
+                }
+            };
+        }
+        for(int t=0; t < threads.length; t++) threads[t].start();
+        for(int t=0; t < threads.length; t++) threads[t].join();
+        assertEquals("letture coerenti", false, failed[0]);
+        assertEquals("elementi aggiunti", writers * batches * 10, instance.size());
+    }
+
+    /**
+     * @title Test #2 of add method, of class CopyOnWriteList.
+     * @description This test tests the behaviour of add() method when the element is null.
+     * @expectedResults A NullPointerException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions The list instance must be a new istance of CopyOnWriteList.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testAdd_null() {
+        instance.add(null);
+    }
+
+}
@@ -0,0 +1,260 @@
+package tester;
+
+import adapters.ExpiringMap;
+import adapters.Map;
+import interfaces.HIterator;
+import interfaces.HMap;
+import interfaces.HTicker;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ExpiringMap class.
+ * The map under test reads the time from a ticker which is advanced by hand, so that the expirations are deterministic.
+ * This suite checks the expiration after write and after access, the removal of the expired mappings by the timer wheel (compared with a scan of the expiration times) and the views of the map.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ExpiringMapTest {
+
+    private static final long SECOND = 1000000000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    /**
+     * Ticker whose time is moved forward by the tests.
+     */
+    static class FakeTicker implements HTicker {
+
+        long time = 1L << 40;
+
+        @Override
+        public long read() {
+            return time;
+        }
+
+    }
+
+    FakeTicker ticker;
+    ExpiringMap instance;
+
+    public ExpiringMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        ticker = new FakeTicker();
+        instance = new ExpiringMap(MINUTE, 0, ticker);
+    }
+
+    /**
+     * @title Test #1 of get method, of class ExpiringMap.
+     * @description This test tests the behaviour of get() and containsKey() methods on a map whose mappings expire a minute after they are written.
+     * @expectedResults The mappings should be visible until they expire, even if they are read, and invisible from the instant they expire; a new write should postpone the expiration.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), size() and expirationCount().
+     * @preConditions The map instance must be a new istance of ExpiringMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testGet_expireAfterWrite() {
+        instance.put("pippo", "pluto");
+        instance.put("paperino", "topolino");
+        ticker.time += 30 * SECOND;
+        assertEquals("mappatura non scaduta", "pluto", instance.get("pippo"));
+        assertEquals("put sostituisce il valore", "topolino", instance.put("paperino", "minnie"));
+        ticker.time += 30 * SECOND - 1;
+        assertEquals("un istante prima della scadenza", true, instance.containsKey("pippo"));
+        ticker.time += 1;
+        assertEquals("scaduta alla scadenza", false, instance.containsKey("pippo"));
+        assertNull("get di una mappatura scaduta", instance.get("pippo"));
+        assertEquals("mappatura riscritta", "minnie", instance.get("paperino"));
+        assertEquals("dimensione", 1, instance.size());
+        ticker.time += 30 * SECOND;
+        assertEquals("mappa vuota", true, instance.isEmpty());
+        assertEquals("mappature scadute", 2, instance.expirationCount());
+        assertNull("put di una chiave scaduta", instance.put("paperino", "pippo"));
+    }
+
+    /**
+     * @title Test #2 of get method, of class ExpiringMap.
+     * @description This test tests the behaviour of get() method on a map whose mappings expire ten seconds after they are accessed and an hour after they are written.
+     * @expectedResults Every get should postpone the expiration of the mapping, but not past an hour since it was written; containsKey shouldn't count as an access.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and containsKey().
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testGet_expireAfterAccess() {
+        ExpiringMap map = new ExpiringMap(HOUR, 10 * SECOND, ticker);
+        map.put("pippo", "pluto");
+        map.put("paperino", "topolino");
+        boolean result = true;
+        for(int i=0; i < 399; i++) {
+            ticker.time += 9 * SECOND;
+            result = result && "pluto".equals(map.get("pippo"));
+            if(i == 0) result = result && map.containsKey("paperino");
+        }
+        assertEquals("letture che rinviano la scadenza", true, result);
+        assertEquals("containsKey non rinvia la scadenza", false, map.containsKey("paperino"));
+        ticker.time += 9 * SECOND;
+        assertNull("scadenza dopo la scrittura", map.get("pippo"));
+        assertEquals("mappature scadute", 2, map.expirationCount());
+    }
+
+    /**
+     * @title Test #1 of size method, of class ExpiringMap.
+     * @description This test tests the removal of the expired mappings by the timer wheel: mappings are written at random times, and the time advances by random steps from a fraction of a second to a few days, without reading the mappings.
+     * @expectedResults After every step the size of the map should be the number of mappings which haven't expired, and all of them should have been removed from the map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), containsKey(), expirationCount() and of class Map.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testSize_timerWheel() {
+        long[] durations = {MINUTE, 3 * HOUR, 40 * HOUR, 10 * 24 * HOUR};
+        Random rnd = new Random(42);
+        boolean result = true;
+        for(int d=0; d < durations.length; d++) {
+            ExpiringMap map = new ExpiringMap(durations[d], 0, ticker);
+            Map expirations = new Map();
+            int key = 0;
+            for(int step=0; step < 500; step++) {
+                for(int i=rnd.nextInt(20); i > 0; i--) {
+                    map.put(Integer.valueOf(key), "v" + key);
+                    expirations.put(Integer.valueOf(key++), Long.valueOf(ticker.time + durations[d]));
+                }
+                long[] steps = {SECOND / 10, SECOND, MINUTE, HOUR, 24 * HOUR};
+                ticker.time += (long) (rnd.nextDouble() * steps[rnd.nextInt(steps.length)]);
+                int alive = 0;
+                HIterator it = expirations.entrySet().iterator();
+                while(it.hasNext()) {
+                    HMap.Entry e = (HMap.Entry) it.next();
+                    if(((Long) e.getValue()).longValue() - ticker.time > 0) alive++;
+                    else it.remove();
+                }
+                result = result && map.size() == alive;
+                result = result && map.expirationCount() == key - alive;
+            }
+            HIterator keys = expirations.keySet().iterator();
+            while(keys.hasNext()) result = result && map.containsKey(keys.next());
+        }
+        assertEquals("mappature scadute rimosse", true, result);
+    }
+
+    /**
+     * @title Test #2 of size method, of class ExpiringMap.
+     * @description This test tests the timer wheel when the time read from the ticker crosses zero, starting from -1, and when it wraps around, starting near Long.MAX_VALUE: a mapping expires exactly at its expiration time, then mappings are written while the time advances by random steps across the boundary.
+     * @expectedResults The size of the map should always be the number of mappings which haven't expired, every one of them should still be in the map, and get() should agree with size().
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), containsKey() and of class Map.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testSize_tickerOverflow() {
+        long[] starts = {-1L, Long.MAX_VALUE - 100 * SECOND};
+        long duration = 128 * SECOND;
+        Random rnd = new Random(42);
+        boolean result = true;
+        for(int t=0; t < starts.length; t++) {
+            ticker.time = starts[t];
+            ExpiringMap map = new ExpiringMap(duration, 0, ticker);
+            map.put("k", "v");
+            ticker.time += duration - 1;
+            result = result && map.size() == 1 && "v".equals(map.get("k"));
+            ticker.time += 2;
+            result = result && map.size() == 0 && map.get("k") == null;
+            Map expirations = new Map();
+            for(int key=0; key < 400; key++) {
+                map.put(Integer.valueOf(key), "v" + key);
+                expirations.put(Integer.valueOf(key), Long.valueOf(ticker.time + duration));
+                ticker.time += (long) (rnd.nextDouble() * SECOND);
+                int alive = 0;
+                HIterator it = expirations.entrySet().iterator();
+                while(it.hasNext()) {
+                    HMap.Entry e = (HMap.Entry) it.next();
+                    if(((Long) e.getValue()).longValue() - ticker.time > 0) alive++;
+                    else it.remove();
+                }
+                result = result && map.size() == alive;
+            }
+            HIterator keys = expirations.keySet().iterator();
+            while(keys.hasNext()) result = result && map.containsKey(keys.next());
+        }
+        assertEquals("scadenze con il tempo che attraversa lo zero", true, result);
+    }
+
+    /**
+     * @title Test #1 of entrySet method, of class ExpiringMap.
+     * @description This test tests the views of the map: their iterators, the setValue of the entries and the removals through them.
+     * @expectedResults The views should show only the mappings which haven't expired and write through to the map; setValue should count as a write of the mapping.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and equals().
+     * @preConditions The map instance must be a new istance of ExpiringMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testEntrySet_views() {
+        Map expected = new Map();
+        for(int i=0; i < 50; i++) {
+            instance.put(Integer.valueOf(i), "v" + i);
+            if(i >= 10) expected.put(Integer.valueOf(i), "v" + i);
+            if(i == 9) ticker.time += 10 * SECOND;
+        }
+        ticker.time += 50 * SECOND;
+        assertEquals("uguale a una Map", true, instance.equals(expected));
+        assertEquals("stesso hashCode", expected.hashCode(), instance.hashCode());
+        assertEquals("keySet", true, instance.keySet().equals(expected.keySet()));
+        HIterator it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry e = (HMap.Entry) it.next();
+            int k = ((Integer) e.getKey()).intValue();
+            if(k % 5 == 0) it.remove();
+            else if(k % 5 == 1) e.setValue("asso");
+        }
+        assertEquals("rimozione tramite iteratore", 32, instance.size());
+        assertEquals("rimozione tramite keySet", true, instance.keySet().remove(Integer.valueOf(12)));
+        assertEquals("rimozione tramite values", true, instance.values().remove("v13"));
+        ticker.time += 30 * SECOND;
+        assertEquals("setValue rinvia la scadenza", 8, instance.size());
+        assertEquals("valori riscritti", true, instance.values().removeIf(v -> v.equals("asso")));
+        assertEquals("mappa vuota", true, instance.entrySet().isEmpty());
+        assertEquals("mappature scadute", 32, instance.expirationCount());
+    }
+
+    /**
+     * @title Test #1 of the constructor, of class ExpiringMap.
+     * @description This test tests the behaviour of the constructor when neither of the durations is positive.
+     * @expectedResults An IllegalArgumentException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_exception() {
+        new ExpiringMap(0, 0, ticker);
+    }
+
+    /**
+     * @title Test #1 of put method, of class ExpiringMap.
+     * @description This test tests the behaviour of put() method when the value is null.
+     * @expectedResults A NullPointerException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions The map instance must be a new istance of ExpiringMap.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testPut_null() {
+        instance.put("pippo", null);
+    }
+
+}
@@ -0,0 +1,117 @@
+package tester;
+
+import adapters.ImmutableList;
+import adapters.List;
+import interfaces.HIterator;
+import interfaces.HList;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ImmutableList class.
+ * This suite checks the copies made by List.freeze() and copyOf(), their equality with the lists they were copied from, and the rejection of the modifications.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ImmutableListTest {
+
+    List list;
+    ImmutableList instance;
+
+    public ImmutableListTest() {
+    }
+
+    @Before
+    public void setUp() {
+        list = new List();
+        for(int i=0; i < 20; i++) list.add(Integer.valueOf(i % 15));
+        instance = list.freeze();
+    }
+
+    /**
+     * @title Test #1 of freeze method, of class ImmutableList.
+     * @description This test tests the copy of a List made by freeze(), and the list after the List is modified.
+     * @expectedResults The copy should be equal to the List and have the same hash code and elements; it shouldn't change when the List is modified.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List.
+     * @preConditions The list instance must be the copy of a List of 20 elements.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testFreeze_copy() {
+        assertEquals("uguale alla List", true, instance.equals(list) && list.equals(instance));
+        assertEquals("stesso hashCode", list.hashCode(), instance.hashCode());
+        assertEquals("dimensione", 20, instance.size());
+        assertEquals("get", Integer.valueOf(3), instance.get(18));
+        assertEquals("indexOf", 3, instance.indexOf(Integer.valueOf(3)));
+        assertEquals("lastIndexOf", 18, instance.lastIndexOf(Integer.valueOf(3)));
+        assertEquals("contains", true, instance.contains(Integer.valueOf(14)));
+        list.set(0, "modificato");
+        list.add("nuovo");
+        assertEquals("copia non modificata", Integer.valueOf(0), instance.get(0));
+        assertEquals("dimensione non modificata", 20, instance.size());
+        assertSame("copia di una lista immutabile", instance, ImmutableList.copyOf(instance));
+        assertSame("copia di se stessa", instance, instance.subList(0, 20));
+    }
+
+    /**
+     * @title Test #1 of subList method, of class ImmutableList.
+     * @description This test tests the sublists of the list and its iterators.
+     * @expectedResults A sublist should be an immutable list with the elements of the range; the iterators should return the elements in order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get(), equals() and of class List.
+     * @preConditions The list instance must be the copy of a List of 20 elements.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testSubList_copy() {
+        HList sub = instance.subList(5, 10);
+        assertEquals("sottoelenco immutabile", true, sub instanceof ImmutableList);
+        assertEquals("uguale al sottoelenco della List", list.subList(5, 10), sub);
+        assertEquals("stesso hashCode", list.subList(5, 10).hashCode(), sub.hashCode());
+        HIterator it = instance.iterator();
+        boolean result = true;
+        for(int i=0; i < 20; i++) result = result && it.hasNext() && it.next().equals(list.get(i));
+        assertEquals("iteratore", true, result && !it.hasNext());
+        assertEquals("iterazione all'indietro", Integer.valueOf(4), instance.listIterator(20).previous());
+    }
+
+    /**
+     * @title Test #1 of add method, of class ImmutableList.
+     * @description This test tests the methods which would modify the list, and the remove method of its iterator.
+     * @expectedResults An UnsupportedOperationException should be thrown by each of them, and the list shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size() and equals().
+     * @preConditions The list instance must be the copy of a List of 20 elements.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testAdd_unsupported() {
+        Runnable[] mutators = {
+            () -> instance.add("x"),
+            () -> instance.add(0, "x"),
+            () -> instance.addAll(list),
+            () -> instance.set(0, "x"),
+            () -> instance.remove(0),
+            () -> instance.remove(Integer.valueOf(1)),
+            () -> instance.removeIf(e -> true),
+            () -> instance.replaceAll(e -> e),
+            () -> instance.clear(),
+            () -> { HIterator it = instance.iterator(); it.next(); it.remove(); }
+        };
+        int rejected = 0;
+        for(int i=0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+            } catch(UnsupportedOperationException e) {
+                rejected++;
+            }
+        }
+        assertEquals("modifiche rifiutate", mutators.length, rejected);
+        assertEquals("lista non modificata", list, instance);
+    }
+
+}
@@ -0,0 +1,160 @@
+package tester;
+
+import adapters.ImmutableList;
+import adapters.ImmutableMap;
+import adapters.ImmutableSet;
+import adapters.Map;
+import interfaces.HIterator;
+import interfaces.HMap;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ImmutableMap class.
+ * This suite checks the copies made by Map.freeze(), their lookups and views, their equality with the maps they were copied from and the rejection of the modifications.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ImmutableMapTest {
+
+    Map map;
+    ImmutableMap instance;
+
+    public ImmutableMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        map = new Map();
+        for(int i=0; i < 500; i++) map.put("k" + i, Integer.valueOf(i));
+        instance = map.freeze();
+    }
+
+    /**
+     * @title Test #1 of get method, of class ImmutableMap.
+     * @description This test tests the lookups of the keys of a copy of a Map of 500 mappings, and of keys which are not in it.
+     * @expectedResults Every key should be mapped to the value it has in the Map; the copy should be equal to the Map, in both directions, and have its hash code, and so should their key sets and entry sets; it shouldn't change when the Map is modified.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions The map instance must be the copy of a Map of 500 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testGet_lookup() {
+        boolean result = true;
+        for(int i=0; i < 1000; i++) {
+            Object value = instance.get("k" + i);
+            result = result && (i < 500 ? Integer.valueOf(i).equals(value) : value == null);
+            result = result && instance.containsKey("k" + i) == i < 500;
+        }
+        assertEquals("valori delle chiavi", true, result);
+        assertEquals("dimensione", 500, instance.size());
+        assertEquals("stesso hashCode", map.hashCode(), instance.hashCode());
+        assertEquals("uguale alla Map", true, instance.equals(map) && map.equals(instance));
+        assertEquals("keySet uguali", true, map.keySet().equals(instance.keySet()) && instance.keySet().equals(map.keySet()));
+        assertEquals("entrySet uguali", true, map.entrySet().equals(instance.entrySet()) && instance.entrySet().equals(map.entrySet()));
+        assertEquals("entry della copia", true, map.entrySet().contains(instance.entrySet().iterator().next()));
+        assertEquals("containsValue", true, instance.containsValue(Integer.valueOf(499)));
+        map.put("k0", "modificato");
+        assertEquals("copia non modificata", Integer.valueOf(0), instance.get("k0"));
+        assertEquals("non più uguale alla Map", false, instance.equals(map));
+        assertSame("copia di una mappa immutabile", instance, ImmutableMap.copyOf(instance));
+    }
+
+    /**
+     * @title Test #1 of entrySet method, of class ImmutableMap.
+     * @description This test tests the views of the map.
+     * @expectedResults keySet() should be an ImmutableSet and values() an ImmutableList with the keys and values of the map, in the same order; entrySet() should be equal to the entry set of the Map, and its entries should reject setValue; toArray() should put a null after the entries when the array is larger than the map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map and of classes ImmutableSet and ImmutableList.
+     * @preConditions The map instance must be the copy of a Map of 500 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testEntrySet_views() {
+        assertEquals("keySet immutabile", true, instance.keySet() instanceof ImmutableSet);
+        assertEquals("values immutabile", true, instance.values() instanceof ImmutableList);
+        assertEquals("hashCode del keySet", map.keySet().hashCode(), instance.keySet().hashCode());
+        assertEquals("entrySet", true, instance.entrySet().equals(map.entrySet()));
+        assertEquals("hashCode dell'entrySet", map.entrySet().hashCode(), instance.entrySet().hashCode());
+        HIterator keys = instance.keySet().iterator();
+        HIterator values = instance.values().iterator();
+        HIterator entries = instance.entrySet().iterator();
+        boolean result = true;
+        while(entries.hasNext()) {
+            HMap.Entry e = (HMap.Entry) entries.next();
+            result = result && e.getKey().equals(keys.next()) && e.getValue().equals(values.next());
+            result = result && map.get(e.getKey()).equals(e.getValue());
+        }
+        assertEquals("viste allineate", true, result && !keys.hasNext() && !values.hasNext());
+        HMap.Entry first = (HMap.Entry) instance.entrySet().iterator().next();
+        boolean unsupported = false;
+        try {
+            first.setValue("x");
+        } catch(UnsupportedOperationException e) {
+            unsupported = true;
+        }
+        assertEquals("setValue rifiutato", true, unsupported);
+        assertEquals("contains di una entry", true, instance.entrySet().contains(first));
+        Object[] a = new Object[502];
+        a[500] = "x";
+        a[501] = "y";
+        assertSame("array ricevuto", a, instance.entrySet().toArray(a));
+        assertEquals("toArray", true, instance.entrySet().contains(a[499]) && a[500] == null && "y".equals(a[501]));
+    }
+
+    /**
+     * @title Test #1 of put method, of class ImmutableMap.
+     * @description This test tests the methods which would modify the map or its views.
+     * @expectedResults An UnsupportedOperationException should be thrown by each of them, and the map shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size() and equals().
+     * @preConditions The map instance must be the copy of a Map of 500 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testPut_unsupported() {
+        Runnable[] mutators = {
+            () -> instance.put("x", "y"),
+            () -> instance.putAll(map),
+            () -> instance.remove("k1"),
+            () -> instance.replaceAll((k, v) -> v),
+            () -> instance.clear(),
+            () -> instance.keySet().remove("k1"),
+            () -> instance.values().clear(),
+            () -> instance.entrySet().removeIf(e -> true)
+        };
+        int rejected = 0;
+        for(int i=0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+            } catch(UnsupportedOperationException e) {
+                rejected++;
+            }
+        }
+        assertEquals("modifiche rifiutate", mutators.length, rejected);
+        assertEquals("mappa non modificata", true, instance.equals(map));
+    }
+
+    /**
+     * @title Test #1 of copyOf method, of class ImmutableMap.
+     * @description This test tests the copy of an empty map, and of a map with a null value.
+     * @expectedResults The copy of an empty map should be empty and equal to it; a NullPointerException should be thrown for the null map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testCopyOf_empty() {
+        ImmutableMap empty = new Map().freeze();
+        assertEquals("mappa vuota", true, empty.isEmpty());
+        assertNull("ricerca nella mappa vuota", empty.get("k0"));
+        assertEquals("uguale alla Map vuota", new Map(), empty);
+        ImmutableMap.copyOf(null);
+    }
+
+}
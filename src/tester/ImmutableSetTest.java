@@ -0,0 +1,138 @@
+package tester;
+
+import adapters.ConcurrentSkipListSet;
+import adapters.ImmutableSet;
+import adapters.List;
+import adapters.Set;
+import interfaces.HIterator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for ImmutableSet class.
+ * This suite checks the copies made by Set.freeze() and copyOf(), the lookups in their index and the rejection of the modifications.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ImmutableSetTest {
+
+    Set set;
+    ImmutableSet instance;
+
+    public ImmutableSetTest() {
+    }
+
+    @Before
+    public void setUp() {
+        set = new Set();
+        for(int i=0; i < 1000; i++) set.add(Integer.valueOf(i * 7));
+        instance = set.freeze();
+    }
+
+    /**
+     * @title Test #1 of contains method, of class ImmutableSet.
+     * @description This test tests the lookups of the elements of a copy of a Set of 1000 elements, and of elements which are not in it.
+     * @expectedResults The set should contain exactly the elements of the Set, and have its size and hash code.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Set.
+     * @preConditions The set instance must be the copy of a Set of 1000 elements.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testContains_lookup() {
+        boolean result = true;
+        for(int i=0; i < 7000; i++) result = result && instance.contains(Integer.valueOf(i)) == (i % 7 == 0);
+        assertEquals("elementi contenuti", true, result);
+        assertEquals("dimensione", 1000, instance.size());
+        assertEquals("stesso hashCode", set.hashCode(), instance.hashCode());
+        assertEquals("containsAll", true, instance.containsAll(set));
+        assertEquals("uguale all'insieme", true, instance.equals(set));
+        set.add("nuovo");
+        assertEquals("copia non modificata", false, instance.contains("nuovo"));
+    }
+
+    /**
+     * @title Test #1 of copyOf method, of class ImmutableSet.
+     * @description This test tests the copy of a collection with duplicated elements.
+     * @expectedResults The set should contain every element once, in the order of their first occurrence, and be equal to the Set of the same elements.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of classes List and Set.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testCopyOf_duplicates() {
+        List list = new List();
+        Set expected = new Set();
+        for(int i=0; i < 50; i++) {
+            list.add("e" + (i % 10));
+            expected.add("e" + (i % 10));
+        }
+        ImmutableSet copy = ImmutableSet.copyOf(list);
+        assertEquals("dimensione", 10, copy.size());
+        assertEquals("hashCode", expected.hashCode(), copy.hashCode());
+        assertEquals("uguale all'insieme", true, copy.equals(expected));
+        HIterator it = copy.iterator();
+        boolean result = true;
+        for(int i=0; i < 10; i++) result = result && it.next().equals("e" + i);
+        assertEquals("ordine della prima occorrenza", true, result);
+        assertEquals("insieme vuoto", true, ImmutableSet.copyOf(new List()).isEmpty());
+        assertEquals("ricerca nell'insieme vuoto", false, ImmutableSet.copyOf(new List()).contains("e0"));
+    }
+
+    /**
+     * @title Test #1 of equals method, of class ImmutableSet.
+     * @description This test tests the equality of the copy made by freeze() and of the Set it was copied from, and of the Set and a ConcurrentSkipListSet of the same elements.
+     * @expectedResults The sets should be equal in both directions, and stop being equal when the Set is modified.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of classes Set and ConcurrentSkipListSet.
+     * @preConditions The set instance must be the copy of a Set of 1000 elements.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testEquals_symmetric() {
+        assertEquals("copia uguale all'insieme", true, instance.equals(set));
+        assertEquals("insieme uguale alla copia", true, set.equals(instance));
+        ConcurrentSkipListSet sorted = new ConcurrentSkipListSet();
+        sorted.addAll(set);
+        assertEquals("insieme ordinato", true, set.equals(sorted) && sorted.equals(set));
+        set.remove(Integer.valueOf(0));
+        set.add("nuovo");
+        assertEquals("insiemi diversi", false, set.equals(instance) || instance.equals(set));
+        assertEquals("oggetto che non è un insieme", false, set.equals(new List()));
+    }
+
+    /**
+     * @title Test #1 of add method, of class ImmutableSet.
+     * @description This test tests the methods which would modify the set.
+     * @expectedResults An UnsupportedOperationException should be thrown by each of them, and the set shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method size().
+     * @preConditions The set instance must be the copy of a Set of 1000 elements.
+     * @postConditions The set instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testAdd_unsupported() {
+        Runnable[] mutators = {
+            () -> instance.add("x"),
+            () -> instance.remove(Integer.valueOf(0)),
+            () -> instance.retainAll(new List()),
+            () -> instance.removeAll(set),
+            () -> instance.clear()
+        };
+        int rejected = 0;
+        for(int i=0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+            } catch(UnsupportedOperationException e) {
+                rejected++;
+            }
+        }
+        assertEquals("modifiche rifiutate", mutators.length, rejected);
+        assertEquals("insieme non modificato", 1000, instance.size());
+    }
+
+}
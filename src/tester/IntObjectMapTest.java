@@ -0,0 +1,252 @@
+package tester;
+
+import adapters.IntObjectMap;
+import adapters.List;
+import adapters.Map;
+import interfaces.HCollection;
+import interfaces.HIntIterator;
+import interfaces.HIterator;
+import interfaces.HMap;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for IntObjectMap class.
+ * This suite checks the behaviour of the map with primitive int keys and of its HMap view.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class IntObjectMapTest {
+
+    IntObjectMap instance;
+
+    public IntObjectMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new IntObjectMap();
+    }
+
+    /**
+     * @title Test #1 of asMap method, of class IntObjectMap.
+     * @description This test tests the HMap view returned by asMap(): it should equal a Map with the same mappings and Integer keys, and modifications performed through it should be reflected in the map.
+     * @expectedResults The view and the Map are equal and have the same hash; the changes made on the view and on its key set are visible in the map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get() and size().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testAsMap() {
+        instance.put(1, "pippo");
+        instance.put(2, "pluto");
+        HMap view = instance.asMap();
+        Map other = new Map();
+        other.put(Integer.valueOf(1), "pippo");
+        other.put(Integer.valueOf(2), "pluto");
+        assertEquals("la vista equivale alla mappa", true, view.equals(other));
+        assertEquals("stesso hash", other.hashCode(), view.hashCode());
+        assertEquals("get sulla vista", "pluto", view.get(Integer.valueOf(2)));
+        assertEquals("chiavi di tipo diverso non sono contenute", false, view.containsKey("pippo"));
+        view.put(Integer.valueOf(3), "asso");
+        assertEquals("put sulla vista riflesso sulla mappa", "asso", instance.get(3));
+        view.keySet().remove(Integer.valueOf(1));
+        assertEquals("rimozione dal keySet riflessa sulla mappa", false, instance.containsKey(1));
+        HCollection param = new List();
+        param.add("asso");
+        view.values().retainAll(param);
+        assertEquals("retainAll sui valori", 1, instance.size());
+    }
+
+    /**
+     * @title Test #1 of entrySet method of the HMap view, of class IntObjectMap.
+     * @description This test tests the iterator of the entry set of the view, and the write-through of setValue, also on an entry whose mapping has been removed.
+     * @expectedResults All the entries are returned once, updates and removals performed through the iterator are reflected in the map; setValue on a removed entry should not put the mapping back.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get() and size().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testAsMap_entryIterator() {
+        instance.put(1, "pippo");
+        instance.put(2, "pluto");
+        instance.put(3, "asso");
+        HIterator it = instance.asMap().entrySet().iterator();
+        int count = 0;
+        while(it.hasNext()) {
+            HMap.Entry entry = (HMap.Entry) it.next();
+            int key = ((Integer) entry.getKey()).intValue();
+            if(key == 1) entry.setValue("minnie");
+            if(key == 3) it.remove();
+            count++;
+        }
+        assertEquals("tutte le entry sono restituite", 3, count);
+        assertEquals("setValue riflesso sulla mappa", "minnie", instance.get(1));
+        assertEquals("rimozione riflessa sulla mappa", false, instance.containsKey(3));
+        assertEquals("dimensione diminuita", 2, instance.size());
+        it = instance.asMap().entrySet().iterator();
+        HMap.Entry entry = (HMap.Entry) it.next();
+        Object key = entry.getKey();
+        it.remove();
+        entry.setValue("staccata");
+        assertEquals("setValue su una entry rimossa", false, instance.asMap().containsKey(key));
+        assertEquals("dimensione dopo setValue", 1, instance.size());
+    }
+
+    /**
+     * @title Test #1 of containsValue method, of class IntObjectMap.
+     * @description This test tests the behaviour of containsValue() when the value is contained and when it isn't.
+     * @expectedResults The method should return true only for values which are mapped by some key.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put() and remove().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testContainsValue() {
+        instance.put(7, "pippo");
+        assertEquals("valore contenuto", true, instance.containsValue("pippo"));
+        assertEquals("valore non contenuto", false, instance.containsValue("pluto"));
+        instance.remove(7);
+        assertEquals("valore rimosso", false, instance.containsValue("pippo"));
+    }
+
+    /**
+     * @title Test #1 of equals method, of class IntObjectMap.
+     * @description This test tests the behaviour of equals() and hashCode() when two maps with the same mappings are compared.
+     * @expectedResults Maps with the same mappings should be equal and have the same hash, regardless of the order of insertion.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method put().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is not modified by the execution of the methods tested.
+     */
+    @Test
+    public void testEquals() {
+        IntObjectMap other = new IntObjectMap(100);
+        for(int i=0; i < 50; i++) instance.put(i, "v" + i);
+        for(int i=49; i >= 0; i--) other.put(i, "v" + i);
+        assertEquals("stesse mappature", true, instance.equals(other));
+        assertEquals("stesso hash", other.hashCode(), instance.hashCode());
+        other.put(0, "diverso");
+        assertEquals("mappature diverse", false, instance.equals(other));
+    }
+
+    /**
+     * @title Test #1 of keyIterator method, of class IntObjectMap.
+     * @description This test tests the iterator over the primitive keys, including the removal of mappings through it.
+     * @expectedResults All the keys should be returned once, and the removed mappings should not be contained anymore.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), containsKey() and size().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testKeyIterator() {
+        for(int i=0; i < 100; i++) instance.put(i, "v" + i);
+        HIntIterator it = instance.keyIterator();
+        int sum = 0;
+        while(it.hasNext()) {
+            int key = it.nextInt();
+            sum += key;
+            if(key % 2 == 0) it.remove();
+        }
+        assertEquals("tutte le chiavi sono restituite", 4950, sum);
+        assertEquals("dimensione dimezzata", 50, instance.size());
+        assertEquals("chiave pari rimossa", false, instance.containsKey(10));
+        assertEquals("chiave dispari contenuta", true, instance.containsKey(11));
+        assertEquals("array delle chiavi", 50, instance.keys().length);
+    }
+
+    /**
+     * @title Test #1 of put method, of class IntObjectMap.
+     * @description This test tests the behaviour of put(), get() and remove() when many mappings are inserted and removed, so that the table has to grow and to be reorganized, including negative keys.
+     * @expectedResults All the mappings inserted and not removed should be retrievable, the removed ones should not.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get(), size() and remove().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPut_many() {
+        for(int i=-500; i < 500; i++) assertNull("chiave nuova", instance.put(i, Integer.valueOf(i)));
+        for(int i=-500; i < 500; i += 2) assertEquals("valore rimosso", Integer.valueOf(i), instance.remove(i));
+        assertEquals("valore precedente", Integer.valueOf(1), instance.put(1, "uno"));
+        assertEquals("dimensione", 500, instance.size());
+        boolean result = true;
+        for(int i=-500; i < 500; i++) {
+            Object value = instance.get(i);
+            if(i == 1) result = result && value.equals("uno");
+            else result = result && (i % 2 == 0 ? value == null : value.equals(Integer.valueOf(i)));
+        }
+        assertEquals("mappature coerenti", true, result);
+    }
+
+    /**
+     * @title Test #1 of clear method, of class IntObjectMap.
+     * @description This test tests the behaviour of clear() on a non-empty map.
+     * @expectedResults The map should be empty after the call, and it should be possible to insert new mappings.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), isEmpty() and get().
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testClear() {
+        instance.put(1, "pippo");
+        instance.put(2, "pluto");
+        instance.clear();
+        assertEquals("mappa vuota", true, instance.isEmpty());
+        assertNull("mappatura rimossa", instance.get(1));
+        instance.put(1, "asso");
+        assertEquals("nuova mappatura", "asso", instance.get(1));
+    }
+
+    /**
+     * @title Test #1 of exceptions, of class IntObjectMap.
+     * @description This test tests that put() throws a NullPointerException when called with a null value, as the Map class does.
+     * @expectedResults The map is expected to throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testExceptions_nullValue() {
+        instance.put(1, null);
+    }
+
+    /**
+     * @title Test #2 of exceptions, of class IntObjectMap.
+     * @description This test tests that the HMap view throws a NullPointerException when get() is called with a null key.
+     * @expectedResults The view is expected to throw a NullPointerException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testExceptions_nullKey() {
+        instance.asMap().get(null);
+    }
+
+    /**
+     * @title Test #3 of exceptions, of class IntObjectMap.
+     * @description This test tests that the key iterator throws a NoSuchElementException when there are no more keys.
+     * @expectedResults The iterator is expected to throw a NoSuchElementException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The map instance must be a new istance of IntObjectMap.
+     * @postConditions The map instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testExceptions_iterator() {
+        instance.keyIterator().nextInt();
+    }
+
+}
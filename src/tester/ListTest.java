@@ -1,7 +1,9 @@
 package tester;
 
 import adapters.List;
+import adapters.TieredList;
 import interfaces.HCollection;
+import interfaces.HComparator;
 import interfaces.HIterator;
 import interfaces.HList;
 import interfaces.HListIterator;
@@ -12,6 +14,7 @@ import java.util.NoSuchElementException;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import org.junit.FixMethodOrder;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
@@ -38,7 +41,9 @@ public class ListTest {
     public static Collection classesToTest() {
         return Arrays.asList(new Object[][]{
             {"List"},
-            {"SubList"}
+            {"TieredList"},
+            {"SubList"},
+            {"TieredSubList"}
         });
     }
     
@@ -53,6 +58,15 @@ public class ListTest {
             tmp.add("asso");
             tmp.add("minnie");
             instance = tmp.subList(1, 1);
+        } else if(paramClass.equals("TieredSubList")) {
+            TieredList tmp = new TieredList();
+            tmp.add("pippo");
+            tmp.add("pluto");
+            tmp.add("paperino");
+            tmp.add("topolino");
+            tmp.add("asso");
+            tmp.add("minnie");
+            instance = tmp.subList(1, 1);
         } else {
             try {
                 instance = (HList) Class.forName("adapters."+paramClass).getConstructor().newInstance();
@@ -96,6 +110,25 @@ public class ListTest {
         assertEquals("controllo aumento dimensione", 2, instance.size());
     }
 
+    /**
+     * @title Test #3 of add method, of class List.
+     * @description This test tests the behaviour of the method add() when many elements are added to the list, both at the end and in the middle of it, so that its internal structure has to grow.
+     * @expectedResults All the elements should be stored in the list in the right order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size() and get().
+     * @preConditions The collection instance must be a new istance of List.
+     * @postConditions The collection instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAdd_grow() {
+        for(int i=0; i < 500; i++) instance.add(Integer.valueOf(2 * i));
+        for(int i=0; i < 500; i++) instance.add(2 * i + 1, Integer.valueOf(2 * i + 1));
+        assertEquals("tutti gli elementi sono stati inseriti", 1000, instance.size());
+        boolean result = true;
+        for(int i=0; i < 1000; i++) result = result && instance.get(i).equals(Integer.valueOf(i));
+        assertEquals("gli elementi sono nell'ordine corretto", true, result);
+    }
+
     /**
      * @title Test #1 of parametric add method, of class List.
      * @description This test tests the behaviour of the method add() when called on an empty list.
@@ -393,6 +426,31 @@ public class ListTest {
     public void testParametricAddAll_exception3() {
         instance.addAll(-20, new List());
     }
+
+    /**
+     * @title Test #8 of parametric addAll method, of class List.
+     * @description This test tests the behaviour of the method addAll() when a large collection is inserted in the middle of a list, and when the list is inserted into itself.
+     * @expectedResults The elements of the param should be inserted at the specified index in the order of its iterator, and the following elements should be shifted to the right.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this method depends on the correctness of method add(), get() and size().
+     * @preConditions The collection instance must be a new istance of List.
+     * @postConditions The collection instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testParametricAddAll_large() {
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(i));
+        HCollection param = new List();
+        for(int i=0; i < 500; i++) param.add("nuovo" + i);
+        assertEquals("la lista deve essere modificata", true, instance.addAll(50, param));
+        assertEquals("dimensione dopo l'inserimento", 600, instance.size());
+        boolean result = instance.get(49).equals(Integer.valueOf(49)) && instance.get(550).equals(Integer.valueOf(50));
+        for(int i=0; i < 500; i++) result = result && instance.get(50 + i).equals("nuovo" + i);
+        assertEquals("elementi inseriti nella posizione corretta", true, result);
+        instance.addAll(0, instance);
+        assertEquals("dimensione dopo l'inserimento della lista in se stessa", 1200, instance.size());
+        assertEquals("copia della lista in testa", instance.get(600), instance.get(0));
+        assertEquals("copia della lista in testa", instance.get(1199), instance.get(599));
+    }
   
     /**
      * @title Test #1 of contains method, of class List.
@@ -956,6 +1014,50 @@ public class ListTest {
         it.set("pluto");
     }
     
+    /**
+     * @title Test #12 of listIterator method, of class List.
+     * @description This test tests the behaviour of the ListIterator returned by listIterator() method when a long sequence of insertions, removals and moves is performed around the cursor, so that the list grows and shrinks many times.
+     * @expectedResults After every step the list should contain the same elements, in the same order, of a reference list modified by index.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correcntess of method add(), remove(), get(), size() and equals().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be modified by the direct execution of the tested method.
+     */
+    @Test
+    public void testListIterator_editCursor() {
+        List reference = new List();
+        for(int i=0; i < 3000; i++) {
+            instance.add(Integer.valueOf(i));
+            reference.add(Integer.valueOf(i));
+        }
+        java.util.Random rnd = new java.util.Random(42);
+        HListIterator it = instance.listIterator();
+        int cursor = 0;
+        for(int step=0; step < 20000; step++) {
+            int action = rnd.nextInt(4);
+            if(action == 0 && it.hasNext()) {
+                it.next();
+                cursor++;
+            } else if(action == 1 && it.hasPrevious()) {
+                it.previous();
+                cursor--;
+            } else if(action == 2) {
+                Integer value = Integer.valueOf(-step - 1);
+                it.add(value);
+                reference.add(cursor++, value);
+            } else if(action == 3 && it.hasNext()) {
+                it.next();
+                it.remove();
+                reference.remove(cursor);
+            }
+        }
+        assertEquals("stessa dimensione della lista di riferimento", reference.size(), instance.size());
+        assertEquals("stessi elementi della lista di riferimento", true, instance.equals(reference));
+        while(instance.size() > 10) instance.remove(instance.size() / 2);
+        while(reference.size() > 10) reference.remove(reference.size() / 2);
+        assertEquals("stessi elementi dopo le rimozioni", true, instance.equals(reference));
+    }
+    
     /**
      * @title Test #1 of parametric listIterator method, of class List.
      * @description This test tests the only behaviour of ListIterator which has not been tested yet: the listIterator starts in the right point of the list, with correct next() and previous() elements. All the other behaviours has already been tested by normal listIterator() method tests.
@@ -1118,6 +1220,112 @@ public class ListTest {
         assertEquals("tutti gli elementi devono essere mantenuti", false, result);
         assertEquals("la dimensione non deve variare", 4, instance.size());
     }
+
+    /**
+     * @title Test #2 of retainAll method, of Class list.
+     * @description This test tests the behaviour of retainAll() method when called with a large collection, containing duplicates, on a long list.
+     * @expectedResults Only the elements contained in the param should be retained, in their original order and with their duplicates.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be directly modified  by the execution of the method.
+     */
+    @Test
+    public void testRetainAll_large() {
+        for(int i=0; i < 2000; i++) instance.add(Integer.valueOf(i % 1000));
+        HCollection param = new List();
+        for(int i=0; i < 1000; i += 3) param.add(Integer.valueOf(i));
+        assertEquals("la lista deve essere modificata", true, instance.retainAll(param));
+        assertEquals("dimensione dopo retainAll", 668, instance.size());
+        boolean result = true;
+        for(int i=0; i < instance.size(); i++) 
+            result = result && instance.get(i).equals(Integer.valueOf((3 * i) % 1002));
+        assertEquals("elementi mantenuti nell'ordine originale", true, result);
+    }
+
+    /**
+     * @title Test #1 of removeAll method, of Class list.
+     * @description This test tests the behaviour of removeAll() method when called with a large collection on a long list.
+     * @expectedResults All the occurrences of the elements contained in the param should be removed, the other elements should keep their order.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be directly modified  by the execution of the method.
+     */
+    @Test
+    public void testRemoveAll_large() {
+        for(int i=0; i < 2000; i++) instance.add(Integer.valueOf(i % 1000));
+        HCollection param = new List();
+        for(int i=0; i < 1000; i += 2) param.add(Integer.valueOf(i));
+        assertEquals("la lista deve essere modificata", true, instance.removeAll(param));
+        assertEquals("dimensione dopo removeAll", 1000, instance.size());
+        boolean result = true;
+        for(int i=0; i < instance.size(); i++) 
+            result = result && instance.get(i).equals(Integer.valueOf((2 * i + 1) % 1000));
+        assertEquals("elementi rimanenti nell'ordine originale", true, result);
+        assertEquals("nessun elemento rimosso", false, instance.removeAll(param));
+    }
+    
+    /**
+     * @title Test #1 of replaceAll method, of Class list.
+     * @description This test tests the behaviour of replaceAll() method when called on a list containing many elements.
+     * @expectedResults Every element must be replaced by the result of the operator, in the same position.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add() and get().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be directly modified by the execution of the method.
+     */
+    @Test
+    public void testReplaceAll_all() {
+        for(int i=0; i < 200; i++) instance.add(Integer.valueOf(i));
+        instance.replaceAll(o -> Integer.valueOf(((Integer) o).intValue() * 2));
+        boolean result = instance.size() == 200;
+        for(int i=0; i < 200; i++) result = result && instance.get(i).equals(Integer.valueOf(2 * i));
+        assertEquals("elementi sostituiti nella stessa posizione", true, result);
+    }
+    
+    /**
+     * @title Test #2 of replaceAll method, of Class list.
+     * @description This test tests the behaviour of replaceAll() method when the operator returns a null reference.
+     * @expectedResults The method is expected to throw a NullPointerException, as null elements are not allowed.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of method add().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should not be directly modified by the execution of the method.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testReplaceAll_exception() {
+        instance.add("pippo");
+        instance.replaceAll(o -> null);
+    }
+    
+    /**
+     * @title Test #1 of removeIf method, of Class list.
+     * @description This test tests the behaviour of removeIf() method when the predicate throws an exception after some elements have matched.
+     * @expectedResults The exception must be relayed to the caller, and the list must not be modified.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should not be directly modified by the execution of the method.
+     */
+    @Test
+    public void testRemoveIf_failingPredicate() {
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(i));
+        boolean thrown = false;
+        try {
+            instance.removeIf(o -> {
+                int v = ((Integer) o).intValue();
+                if(v == 90) throw new ArithmeticException();
+                return v % 2 == 0;
+            });
+        } catch(ArithmeticException e) {
+            thrown = true;
+        }
+        assertEquals("eccezione propagata", true, thrown);
+        boolean result = instance.size() == 100;
+        for(int i=0; i < 100; i++) result = result && instance.get(i).equals(Integer.valueOf(i));
+        assertEquals("lista non modificata", true, result);
+    }
     
     /**
      * @title Test #1 of set method, of Class list.
@@ -1187,6 +1395,132 @@ public class ListTest {
         instance.set(instance.size(), "pippo");
     }
 
+    /**
+     * Sorts the instance, which must be a List or one of its sublists.
+     */
+    private void sort(HComparator c) {
+        if(instance instanceof List) ((List) instance).sort(c);
+        else ((List.SubList) instance).sort(c);
+    }
+
+    /**
+     * Searches the key in the instance, which must be a List or one of its sublists.
+     */
+    private int binarySearch(Object key, HComparator c) {
+        if(instance instanceof List) return ((List) instance).binarySearch(key, c);
+        return ((List.SubList) instance).binarySearch(key, c);
+    }
+
+    /**
+     * @title Test #1 of sort method, of Class list.
+     * @description This test tests the behaviour of sort() method when called with a comparator and with a null comparator (natural ordering).
+     * @expectedResults The elements should be sorted according to the comparator, and then according to their natural ordering.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add() and toArray().
+     * @preConditions The list instance must be a new istance of List or of one of its sublists (TieredList and its sublists have no sort method).
+     * @postConditions The list instance should be directly modified by the execution of the method.
+     */
+    @Test
+    public void testSort_comparator() {
+        assumeTrue(!paramClass.startsWith("Tiered"));
+        String[] names = {"pippo", "pluto", "paperino", "topolino", "asso", "minnie"};
+        for(int i=0; i < names.length; i++) instance.add(names[i]);
+        sort((a, b) -> ((String) b).compareTo((String) a));
+        assertArrayEquals("ordine decrescente", new Object[] {"topolino", "pluto", "pippo", "paperino", "minnie", "asso"}, instance.toArray());
+        sort(null);
+        assertArrayEquals("ordine naturale", new Object[] {"asso", "minnie", "paperino", "pippo", "pluto", "topolino"}, instance.toArray());
+    }
+
+    /**
+     * @title Test #2 of sort method, of Class list.
+     * @description This test tests the behaviour of sort() method when called on a list large enough to be sorted in parallel, whose elements have many equal keys.
+     * @expectedResults The elements should be sorted by key, and the elements with equal keys should keep their relative order (the sort is stable).
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of List or of one of its sublists (TieredList and its sublists have no sort method).
+     * @postConditions The list instance should be directly modified by the execution of the method.
+     */
+    @Test
+    public void testSort_parallelStable() {
+        assumeTrue(!paramClass.startsWith("Tiered"));
+        int n = 1 << 17;
+        int[] position = new int[n];
+        for(int i=0; i < n; i++) {
+            int v = (i * 40503) & (n - 1);
+            position[v] = i;
+            instance.add(Integer.valueOf(v));
+        }
+        sort((a, b) -> (((Integer) a).intValue() & 1023) - (((Integer) b).intValue() & 1023));
+        boolean result = instance.size() == n;
+        for(int i=1; i < n && result; i++) {
+            int prev = ((Integer) instance.get(i - 1)).intValue();
+            int cur = ((Integer) instance.get(i)).intValue();
+            result = (prev & 1023) < (cur & 1023) || ((prev & 1023) == (cur & 1023) && position[prev] < position[cur]);
+        }
+        assertEquals("elementi ordinati, a parità di chiave nell'ordine originale", true, result);
+    }
+
+    /**
+     * @title Test #3 of sort method, of Class list.
+     * @description This test tests the behaviour of sort() method when the comparator throws an exception while a large list is being sorted.
+     * @expectedResults The exception must be relayed to the caller, and the list must still contain all of its elements exactly once.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of List or of one of its sublists (TieredList and its sublists have no sort method).
+     * @postConditions The list instance may be modified by the execution of the method.
+     */
+    @Test
+    public void testSort_failingComparator() {
+        assumeTrue(!paramClass.startsWith("Tiered"));
+        int n = 50000;
+        for(int i=0; i < n; i++) instance.add(Integer.valueOf((i * 7919) % n));
+        final int[] calls = {0};
+        boolean thrown = false;
+        try {
+            sort((a, b) -> {
+                if(++calls[0] == 300000) throw new ArithmeticException();
+                return ((Integer) a).compareTo((Integer) b);
+            });
+        } catch(ArithmeticException e) {
+            thrown = true;
+        }
+        assertEquals("eccezione propagata", true, thrown);
+        boolean[] seen = new boolean[n];
+        boolean result = instance.size() == n;
+        for(int i=0; i < n && result; i++) {
+            int v = ((Integer) instance.get(i)).intValue();
+            result = !seen[v];
+            seen[v] = true;
+        }
+        assertEquals("nessun elemento perso o duplicato", true, result);
+    }
+
+    /**
+     * @title Test #1 of binarySearch method, of Class list.
+     * @description This test tests the behaviour of binarySearch() method when called on a sorted list with contained and not contained keys.
+     * @expectedResults The method should return the index of the contained keys, and (-(insertion point) - 1) for the other ones.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this test depends on the correctness of methods add() and sort().
+     * @preConditions The list instance must be a new istance of List or of one of its sublists (TieredList and its sublists have no binarySearch method).
+     * @postConditions The list instance is modified by the execution of the method.
+     */
+    @Test
+    public void testBinarySearch_sorted() {
+        assumeTrue(!paramClass.startsWith("Tiered"));
+        for(int i=0; i < 100; i++) instance.add(Integer.valueOf(2 * i));
+        boolean result = true;
+        for(int i=0; i < 100; i++) {
+            result = result && binarySearch(Integer.valueOf(2 * i), null) == i;
+            result = result && binarySearch(Integer.valueOf(2 * i + 1), null) == -(i + 2);
+        }
+        assertEquals("indici degli elementi trovati", true, result);
+        assertEquals("punto di inserimento iniziale", -1, binarySearch(Integer.valueOf(-1), null));
+        HComparator reverse = (a, b) -> ((Integer) b).compareTo((Integer) a);
+        sort(reverse);
+        assertEquals("ricerca con un comparatore", 0, binarySearch(Integer.valueOf(198), reverse));
+        assertEquals("punto di inserimento finale", -101, binarySearch(Integer.valueOf(-1), reverse));
+    }
+
     /**
      * @title Test #1 of subList method, of Class list.
      * @description This test tests the behaviour of subList() method when called on an empty list. When modify, the main list will always equal to the sublist.
@@ -1321,6 +1655,31 @@ public class ListTest {
         assertEquals("unico elemento rimasto era fuori dalla sottolista", "pietra", instance.get(0));
     }
     
+    /**
+     * @title Test #8 of subList method, of Class list.
+     * @description This test tests the behaviour of subList() when the sublist is used to clear a large window of the main list, as a sliding-window buffer does.
+     * @expectedResults The elements of the window must be removed, the others must keep their order and the sublist must still be a view of the main list.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctnes of methods add, size and get.
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testSubList_clearLarge() {
+        for(int i=0; i < 1000; i++) instance.add(Integer.valueOf(i));
+        HList window = instance.subList(100, 800);
+        window.clear();
+        assertEquals("la vista è vuota", 0, window.size());
+        assertEquals("rimozioni apportate alla lista madre", 300, instance.size());
+        boolean result = true;
+        for(int i=0; i < 300; i++)
+            result = result && instance.get(i).equals(Integer.valueOf(i < 100 ? i : i + 700));
+        assertEquals("gli elementi esterni alla vista sono rimasti in ordine", true, result);
+        window.add("pippo");
+        assertEquals("la vista è ancora utilizzabile", "pippo", instance.get(100));
+        assertEquals("aggiunte apportate alla lista madre", 301, instance.size());
+    }
+    
     /**
      * @title Test #6 of subList method, of Class list.
      * @description This test tests the behaviour of subList() when the sublist is used to find the indexOf or lastIndexOf a parameter in a view of the main list.
@@ -1363,6 +1722,44 @@ public class ListTest {
         assertEquals("nuovo valore settato correttamente", "asso", instance.get(1));
     }
     
+    /**
+     * @title Test #9 of subList method, of Class list.
+     * @description This test tests a sublist of a sublist: it's iterated backwards from its end, modified through its list iterator and then filtered with removeAll, retainAll and removeIf.
+     * @expectedResults listIterator(size()) should be accepted, and every modification of the inner sublist should be reflected in the size of the outer sublist and of the list.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctnes of methods add(), size() and get().
+     * @preConditions The list instance must be a new istance of List.
+     * @postConditions The list instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testSubList_nested() {
+        for(int i=0; i < 10; i++) instance.add(Integer.valueOf(i));
+        HList sub = instance.subList(1, 9);
+        HList inner = sub.subList(1, 7);
+        HListIterator it = inner.listIterator(inner.size());
+        String backwards = "";
+        while(it.hasPrevious()) backwards += it.previous();
+        assertEquals("iterazione all'indietro", "765432", backwards);
+        it.add("nuovo");
+        it.next();
+        it.remove();
+        assertEquals("dimensioni dopo l'iteratore", "6 8 10", inner.size() + " " + sub.size() + " " + instance.size());
+        assertEquals("ultimo elemento della vista esterna", Integer.valueOf(8), sub.get(sub.size() - 1));
+        HCollection param = new List();
+        param.add(Integer.valueOf(4));
+        param.add(Integer.valueOf(5));
+        param.add(Integer.valueOf(6));
+        param.add("nuovo");
+        inner.removeAll(param);
+        assertEquals("dimensioni dopo removeAll", "2 4 6", inner.size() + " " + sub.size() + " " + instance.size());
+        param.add(Integer.valueOf(7));
+        inner.retainAll(param);
+        assertEquals("dimensioni dopo retainAll", "1 3 5", inner.size() + " " + sub.size() + " " + instance.size());
+        sub.removeIf(e -> ((Integer) e).intValue() > 7);
+        assertEquals("dimensioni dopo removeIf", "1 2 4", inner.size() + " " + sub.size() + " " + instance.size());
+        assertEquals("elementi rimasti", "[0, 1, 7, 9]", Arrays.toString(instance.toArray()));
+    }
+    
     /**
      * @title Test #1 of toArray method, of Class list.
      * @description This test tests the behaviour of toArray() method when called on a non-empty list. More in details, it tests that the returned array elements are placed in the right order defined by the iterator.
@@ -0,0 +1,297 @@
+package tester;
+
+import adapters.LongList;
+import adapters.List;
+import interfaces.HList;
+import interfaces.HListIterator;
+import interfaces.HLongIterator;
+import interfaces.HLongList;
+import interfaces.HLongListIterator;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for LongList class.
+ * This suite checks the behaviour of the list of primitive long values, of its sublists and of its HList view.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LongListTest {
+
+    LongList instance;
+
+    public LongListTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new LongList();
+    }
+
+    /**
+     * Fills the list with the values 0, 1, ..., n-1.
+     */
+    private void fill(int n) {
+        for(int i=0; i < n; i++) instance.add((long) i);
+    }
+
+    /**
+     * @title Test #1 of add method, of class LongList.
+     * @description This test tests the behaviour of the method add() when many elements are appended and inserted in the list, so that the backing array has to grow.
+     * @expectedResults All the elements should be stored in the list in the right order.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size() and get().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAdd_grow() {
+        for(int i=0; i < 500; i++) instance.add((long) (2 * i));
+        for(int i=0; i < 500; i++) instance.add(2 * i + 1, (long) (2 * i + 1));
+        assertEquals("tutti gli elementi sono stati inseriti", 1000, instance.size());
+        boolean result = true;
+        for(int i=0; i < 1000; i++) result = result && instance.get(i) == i;
+        assertEquals("gli elementi sono nell'ordine corretto", true, result);
+    }
+
+    /**
+     * @title Test #1 of addAll method, of class LongList.
+     * @description This test tests the behaviour of the method addAll() when a list is inserted in the middle of this list.
+     * @expectedResults The elements of the parameter should be inserted at the specified position, and the following elements should be shifted.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add() and toArray().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAddAll_index() {
+        fill(4);
+        LongList param = new LongList();
+        param.add((long) 10);
+        param.add((long) 11);
+        assertEquals("la lista cambia", true, instance.addAll(2, param));
+        assertArrayEquals("elementi inseriti in posizione 2", new long[]{0, 1, 10, 11, 2, 3}, instance.toArray());
+        assertEquals("lista vuota, nessuna modifica", false, instance.addAll(new LongList()));
+    }
+
+    /**
+     * @title Test #1 of asList method, of class LongList.
+     * @description This test tests the HList view returned by asList(): it should equal a List of the same boxed elements, and modifications performed through it should be reflected in the list.
+     * @expectedResults The view and the List are equal and have the same hash; the changes made on the view are visible in the primitive list.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), get() and size().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testAsList() {
+        fill(3);
+        HList view = instance.asList();
+        List other = new List();
+        for(int i=0; i < 3; i++) other.add(Long.valueOf(i));
+        assertEquals("la vista equivale alla lista di oggetti", true, view.equals(other) && other.equals(view));
+        assertEquals("stesso hash", other.hashCode(), view.hashCode());
+        assertEquals("stesso hash della lista primitiva", other.hashCode(), instance.hashCode());
+        view.add(Long.valueOf(7));
+        view.remove(Long.valueOf(0));
+        assertArrayEquals("le modifiche si riflettono sulla lista", new long[]{1, 2, 7}, instance.toArray());
+        assertEquals("contains sulla vista", true, view.contains(Long.valueOf(7)));
+        assertEquals("oggetti di tipo diverso non sono contenuti", false, view.contains("pippo"));
+        HList param = new List();
+        param.add(Long.valueOf(2));
+        view.retainAll(param);
+        assertArrayEquals("retainAll sulla vista", new long[]{2}, instance.toArray());
+    }
+
+    /**
+     * @title Test #1 of equals method, of class LongList.
+     * @description This test tests the behaviour of the methods equals() and hashCode() when comparing lists and sublists with the same elements.
+     * @expectedResults Lists with the same elements in the same order should be equal and have the same hash.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add() and subList().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is not modified by the execution of the methods tested.
+     */
+    @Test
+    public void testEquals_subList() {
+        fill(5);
+        LongList other = new LongList();
+        other.add((long) 1);
+        other.add((long) 2);
+        HLongList sub = instance.subList(1, 3);
+        assertEquals("sottolista e lista equivalenti", true, sub.equals(other) && other.equals(sub));
+        assertEquals("stesso hash", other.hashCode(), sub.hashCode());
+        other.add((long) 3);
+        assertEquals("liste diverse", false, sub.equals(other));
+    }
+
+    /**
+     * @title Test #1 of indexOf method, of class LongList.
+     * @description This test tests the behaviour of the methods indexOf(), lastIndexOf() and contains() on a list with duplicate elements.
+     * @expectedResults The first and the last occurrence of the element should be found, -1 should be returned for elements not contained.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method add().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is not modified by the execution of the methods tested.
+     */
+    @Test
+    public void testIndexOf_duplicates() {
+        fill(3);
+        fill(3);
+        assertEquals("prima occorrenza", 1, instance.indexOf((long) 1));
+        assertEquals("ultima occorrenza", 4, instance.lastIndexOf((long) 1));
+        assertEquals("elemento non contenuto", -1, instance.indexOf((long) 9));
+        assertEquals("elemento contenuto", true, instance.contains((long) 2));
+    }
+
+    /**
+     * @title Test #1 of listIterator method, of class LongList.
+     * @description This test tests the list iterator: forward and backward traversal, insertion, removal and replacement of elements.
+     * @expectedResults The iterator should return the elements in the right order and its modifications should be reflected in the list.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add() and toArray().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testListIterator() {
+        fill(4);
+        HLongListIterator it = instance.listIterator(1);
+        assertEquals("primo elemento", 1, it.nextLong());
+        it.set((long) 10);
+        it.add((long) 20);
+        assertEquals("indice successivo", 3, it.nextIndex());
+        assertEquals("elemento precedente", 20, it.previousLong());
+        it.remove();
+        assertEquals("elemento precedente", 10, it.previousLong());
+        assertEquals("inizio non raggiunto", true, it.hasPrevious());
+        assertArrayEquals("modifiche riflesse sulla lista", new long[]{0, 10, 2, 3}, instance.toArray());
+        HLongIterator iter = instance.iterator();
+        long sum = 0;
+        while(iter.hasNext()) sum += iter.nextLong();
+        assertEquals("somma degli elementi", 15, sum);
+    }
+
+    /**
+     * @title Test #1 of removeAt method, of class LongList.
+     * @description This test tests the behaviour of the methods removeAt() and removeValue().
+     * @expectedResults removeAt() should return the removed element, removeValue() should remove only the first occurrence of the element.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add() and toArray().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the methods tested.
+     */
+    @Test
+    public void testRemove() {
+        fill(3);
+        fill(3);
+        assertEquals("elemento rimosso", 2, instance.removeAt(2));
+        assertEquals("prima occorrenza rimossa", true, instance.removeValue((long) 1));
+        assertEquals("elemento non contenuto", false, instance.removeValue((long) 9));
+        assertArrayEquals("elementi rimanenti", new long[]{0, 0, 1, 2}, instance.toArray());
+    }
+
+    /**
+     * @title Test #1 of subList method, of class LongList.
+     * @description This test tests the sublists: modifications performed through nested sublists, and through the HList view of a sublist, should be reflected in the list and in the enclosing sublists.
+     * @expectedResults The sizes of all the views should be updated and the list should contain the right elements.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods add(), size() and toArray().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testSubList_nested() {
+        fill(6);
+        HLongList sub = instance.subList(1, 5);
+        HLongList inner = sub.subList(1, 3);
+        inner.add((long) 30);
+        assertEquals("dimensione della sottolista esterna", 5, sub.size());
+        assertArrayEquals("elemento inserito nella lista", new long[]{0, 1, 2, 3, 30, 4, 5}, instance.toArray());
+        inner.clear();
+        assertEquals("sottolista interna vuota", true, inner.isEmpty());
+        assertEquals("dimensione della sottolista esterna", 2, sub.size());
+        assertArrayEquals("elementi rimossi dalla lista", new long[]{0, 1, 4, 5}, instance.toArray());
+        HLongListIterator it = sub.listIterator();
+        it.nextLong();
+        it.remove();
+        assertEquals("rimozione tramite iteratore", 1, sub.size());
+        assertArrayEquals("elemento rimosso dalla lista", new long[]{0, 4, 5}, instance.toArray());
+        for(int i=6; i < 9; i++) sub.add((long) i);
+        HList view = sub.asList();
+        view.removeIf(o -> ((Long) o).longValue() % 2 == 0);
+        assertArrayEquals("removeIf sulla vista della sottolista", new long[]{0, 7, 5}, instance.toArray());
+        HList param = new List();
+        param.add(Long.valueOf(7));
+        param.add(Long.valueOf(5));
+        view.removeAll(param);
+        assertEquals("removeAll sulla vista della sottolista", true, sub.isEmpty() && view.isEmpty());
+        assertArrayEquals("elementi esterni alla sottolista non rimossi", new long[]{0, 5}, instance.toArray());
+    }
+
+    /**
+     * @title Test #1 of exceptions, of class LongList.
+     * @description This test tests that get() throws an IndexOutOfBoundsException when called with an index out of range.
+     * @expectedResults The list is expected to throw an IndexOutOfBoundsException.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method add().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testExceptions_get() {
+        fill(3);
+        instance.get(3);
+    }
+
+    /**
+     * @title Test #2 of exceptions, of class LongList.
+     * @description This test tests that the iterator throws a NoSuchElementException when there are no more elements.
+     * @expectedResults The iterator is expected to throw a NoSuchElementException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testExceptions_iterator1() {
+        instance.iterator().nextLong();
+    }
+
+    /**
+     * @title Test #3 of exceptions, of class LongList.
+     * @description This test tests that the iterator throws an IllegalStateException when remove() is called twice.
+     * @expectedResults The iterator is expected to throw an IllegalStateException.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method add().
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is modified by the execution of the test.
+     */
+    @Test(expected = exceptions.IllegalStateException.class)
+    public void testExceptions_iterator2() {
+        fill(1);
+        HLongIterator it = instance.iterator();
+        it.nextLong();
+        it.remove();
+        it.remove();
+    }
+
+    /**
+     * @title Test #4 of exceptions, of class LongList.
+     * @description This test tests that the HList view throws a ClassCastException when an object which is not a Long is added.
+     * @expectedResults The view is expected to throw a ClassCastException.
+     * @actualResult As expected result.
+     * @dependencies This test doesn't depend on the correctness of any other method of the class.
+     * @preConditions The list instance must be a new istance of LongList.
+     * @postConditions The list instance is not modified by the execution of the method tested.
+     */
+    @Test(expected = ClassCastException.class)
+    public void testExceptions_view() {
+        instance.asList().add("pippo");
+    }
+
+}
@@ -6,6 +6,7 @@ import interfaces.HCollection;
 import interfaces.HIterator;
 import interfaces.HMap;
 import interfaces.HSet;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import org.junit.Before;
 import org.junit.Test;
@@ -543,7 +544,34 @@ public class MapTest {
         it.remove();
         it.remove();
     }
-    
+
+    /**
+     * @title Test #20 of entrySet method, of class Map.
+     * @description This test tests the behaviour of entrySet() method. More in details, it tests that the entries returned by the iterator are live, so that setValue writes through to the map, also when the map contains many mappings.
+     * @expectedResults Every mapping should be returned once, setValue should return the old value and the new values should be visible in the map.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this method depends on the correctness of method put, get and size.
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified by the execution of the method.
+     */
+    @Test
+    public void testEntry_setValue() {
+        for(int i=0; i < 200; i++) instance.put(Integer.valueOf(i), "v" + i);
+        HIterator it = instance.entrySet().iterator();
+        int count = 0;
+        boolean result = true;
+        while(it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            Object old = entry.setValue("nuovo");
+            result = result && old.equals("v" + entry.getKey());
+            count++;
+        }
+        assertEquals("tutte le entry sono restituite", 200, count);
+        assertEquals("setValue restituisce il vecchio valore", true, result);
+        assertEquals("setValue riflesso sulla mappa", "nuovo", instance.get(Integer.valueOf(150)));
+        assertEquals("dimensione invariata", 200, instance.size());
+    }
+
     /**
      * @title Test #1 of equals method, of class Map.
      * @description This test tests the behaviour of equals() method when both the two maps compared are empty
@@ -651,6 +679,129 @@ public class MapTest {
         assertEquals("mappe aventi lo stesso set di values, ma keys differenti", false, result);    
     }
 
+    /**
+     * @title Test #7 of equals method, of class Map.
+     * @description This test tests the behaviour of equals() method and of contains() and remove() methods of the entry set, when the maps compared are created with the value index.
+     * @expectedResults Two maps with the value index and the same mappings should be equal, and so should a map with the value index and a map without it, in both directions; the entry set should contain its own entries, and remove() should remove their mappings from the map and from the index.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), containsValue() and entrySet().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified by the execution of the method.
+     */
+    @Test
+    public void testEquals_index() {
+        Map indexed = new Map(true);
+        Map other = new Map(true);
+        for(int i=0; i < 100; i++) {
+            instance.put(Integer.valueOf(i), "v" + (i % 10));
+            indexed.put(Integer.valueOf(i), "v" + (i % 10));
+            other.put(Integer.valueOf(i), "v" + (i % 10));
+        }
+        assertEquals("mappe con indice dei valori", true, indexed.equals(other) && other.equals(indexed));
+        assertEquals("mappe con e senza indice", true, indexed.equals(instance) && instance.equals(indexed));
+        HMap.Entry first = (HMap.Entry) indexed.entrySet().iterator().next();
+        assertEquals("entry contenuta", true, indexed.entrySet().contains(first));
+        assertEquals("entry di un'altra mappa", true, instance.entrySet().contains(first) && indexed.entrySet().contains(instance.entrySet().iterator().next()));
+        assertEquals("oggetto che non è una entry", false, indexed.entrySet().contains("v1"));
+        assertEquals("rimozione della entry", true, indexed.entrySet().remove(first));
+        assertEquals("mappatura rimossa", false, indexed.containsKey(first.getKey()));
+        assertEquals("dimensione", 99, indexed.size());
+        assertEquals("valore ancora mappato da altre chiavi", true, indexed.containsValue(first.getValue()));
+        assertEquals("rimozione di un oggetto che non è una entry", false, indexed.entrySet().remove("v1"));
+        assertEquals("mappe non più uguali", false, indexed.equals(other) || other.equals(indexed));
+    }
+
+    /**
+     * @title Test #1 of forEach method, of class Map.
+     * @description This test tests the behaviour of forEach() method of the map and of its views, when called on a small and on a large map.
+     * @expectedResults The action must be performed once on every mapping, and the views must visit the same keys, values and entries of their iterators.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of the methods put(), get(), entrySet(), keySet() and values().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should not be modified by the execution of the method.
+     */
+    @Test
+    public void testForEach_all() {
+        int[] sizes = {5, 100};
+        boolean result = true;
+        for(int s=0; s < sizes.length; s++) {
+            Map map = new Map();
+            for(int i=0; i < sizes[s]; i++) map.put(Integer.valueOf(i), "v" + i);
+            Map copy = new Map();
+            map.forEach((k, v) -> copy.put(k, v));
+            result = result && copy.equals(map);
+            List keys = new List(), values = new List(), entries = new List();
+            map.keySet().forEach(o -> keys.add(o));
+            map.values().forEach(o -> values.add(o));
+            map.entrySet().forEach(o -> entries.add(o));
+            result = result && Arrays.equals(keys.toArray(), map.keySet().toArray());
+            result = result && Arrays.equals(values.toArray(), map.values().toArray());
+            result = result && Arrays.equals(entries.toArray(), map.entrySet().toArray());
+        }
+        assertEquals("ogni associazione visitata una volta", true, result);
+    }
+    
+    /**
+     * @title Test #1 of replaceAll method, of class Map.
+     * @description This test tests the behaviour of replaceAll() method when called on a small map, on a large map and on a map with the value index.
+     * @expectedResults Every value must be replaced by the result of the function, and the value lookups and the hash of the map must reflect the new values.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of the methods put(), get(), containsValue() and hashCode().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testReplaceAll_all() {
+        Map[] maps = {new Map(), new Map(), new Map(true)};
+        int[] sizes = {5, 100, 100};
+        boolean result = true;
+        for(int m=0; m < maps.length; m++) {
+            Map map = maps[m];
+            Map expected = new Map();
+            for(int i=0; i < sizes[m]; i++) {
+                map.put(Integer.valueOf(i), "v" + i);
+                expected.put(Integer.valueOf(i), i + "v" + i);
+            }
+            map.replaceAll((k, v) -> k + "" + v);
+            result = result && map.equals(expected) && map.hashCode() == expected.hashCode();
+            result = result && map.containsValue("3v3") && !map.containsValue("v3");
+        }
+        assertEquals("valori sostituiti", true, result);
+    }
+    
+    /**
+     * @title Test #1 of removeIf method of the views, of class Map.
+     * @description This test tests the behaviour of removeIf() method of the entrySet(), keySet() and values() views, when called on a small map, on a large map and on a map with the value index.
+     * @expectedResults The mappings whose element satisfies the predicate must be removed from the map, the other ones must remain.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of the methods put(), containsKey(), containsValue() and size().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testRemoveIf_views() {
+        Map[] maps = {new Map(), new Map(), new Map(true)};
+        int[] sizes = {6, 90, 90};
+        boolean result = true;
+        for(int m=0; m < maps.length; m++) {
+            Map map = maps[m];
+            int n = sizes[m];
+            for(int i=0; i < n; i++) map.put(Integer.valueOf(i), Integer.valueOf(i % 3));
+            result = result && map.keySet().removeIf(k -> ((Integer) k).intValue() < 3);
+            result = result && map.values().removeIf(v -> v.equals(Integer.valueOf(1)));
+            result = result && map.entrySet().removeIf(e -> ((Integer) ((HMap.Entry) e).getKey()).intValue() % 5 == 0);
+            result = result && !map.values().removeIf(v -> v.equals(Integer.valueOf(1)));
+            int kept = 0;
+            for(int i=0; i < n; i++) {
+                boolean expected = i >= 3 && i % 3 != 1 && i % 5 != 0;
+                if(expected) kept++;
+                result = result && map.containsKey(Integer.valueOf(i)) == expected;
+            }
+            result = result && !map.containsValue(Integer.valueOf(1)) && map.size() == kept;
+        }
+        assertEquals("associazioni rimosse", true, result);
+    }
+
     /**
      * @title Test #1 of get method, of class Map.
      * @description This test tests the behaviour of get() method when is called on an empty Map
@@ -780,6 +931,63 @@ public class MapTest {
         assertEquals("hash di una mappa piena deve essere uguale alla somma degli hash delle sue entry", expected, result);        
     }
 
+    /**
+     * @title Test #3 of hashCode method, of class Map.
+     * @description This test tests the behaviour of hashCode() method while the map is modified through put(), remove(), the setValue() of its entries and its views, both in the small and in the hashed layout, with and without the value index.
+     * @expectedResults After every modification the hash is expected to be the sum of the hashcodes of the entries still contained in the map, and maps with different hashes are not equal.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of the methods put(), remove(), entrySet(), keySet(), values() and equals().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testHashCode_modified() {
+        Map[] maps = {instance, new Map(true)};
+        boolean result = true;
+        for(int m=0; m < maps.length; m++) {
+            Map map = maps[m];
+            for(int i=0; i < 4; i++) map.put(Integer.valueOf(i), "v" + i);
+            ((HMap.Entry) map.entrySet().iterator().next()).setValue("pippo");
+            map.put(Integer.valueOf(1), "pluto");
+            result = result && map.hashCode() == sum(map);
+            for(int i=0; i < 30; i++) map.put(Integer.valueOf(i), "v" + (i % 7));
+            result = result && map.hashCode() == sum(map);
+            HIterator it = map.entrySet().iterator();
+            while(it.hasNext()) {
+                HMap.Entry e = (HMap.Entry) it.next();
+                int k = ((Integer) e.getKey()).intValue();
+                if(k % 4 == 0) it.remove();
+                else if(k % 4 == 1) e.setValue("asso");
+            }
+            result = result && map.hashCode() == sum(map);
+            map.remove(Integer.valueOf(2));
+            map.keySet().remove(Integer.valueOf(3));
+            map.values().remove("asso");
+            result = result && map.hashCode() == sum(map);
+            map.values().retainAll(new List());
+            result = result && map.hashCode() == 0;
+        }
+        assertEquals("hash aggiornato durante le modifiche", true, result);
+        instance.put("asso", "pippo");
+        Map other = new Map();
+        other.put("asso", "pluto");
+        assertEquals("mappe con hash diversi non sono uguali", false, instance.equals(other));
+        other.put("asso", "pippo");
+        assertEquals("mappe uguali", true, instance.equals(other));
+        instance.clear();
+        assertEquals("hash dopo clear", 0, instance.hashCode());
+    }
+    
+    private static int sum(Map map) {
+        int hash = 0;
+        HIterator it = map.keySet().iterator();
+        while(it.hasNext()) {
+            Object key = it.next();
+            hash += key.hashCode() ^ map.get(key).hashCode();
+        }
+        return hash;
+    }
+
     /**
      * @title Test #1 of isEmpty method, of class Map.
      * @description This test tests the behaviour of the method isEmpty() when called on an empty Map
@@ -1286,6 +1494,38 @@ public class MapTest {
     public void testPut_exception3() {
         instance.put(null, null);
     }
+
+    /**
+     * @title Test #8 of put method, of class Map.
+     * @description This test tests the behaviour of put() method when a small map grows past the size stored in the flat array and has to switch to the hash table, and the behaviour of the entries of a small map returned by the iterator of entrySet().
+     * @expectedResults All the mappings should be retrievable before and after the switch, setValue and the removals of the iterator should be reflected in the map, and the map should be usable after clear().
+     * @actualResult As expected result.
+     * @dependencies  The correctness of this method depends on the correctness of method get, size, remove and clear.
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified by the execution of the method.
+     */
+    @Test
+    public void testPut_smallToLarge() {
+        for(int i=0; i < 6; i++) instance.put(Integer.valueOf(i), "v" + i);
+        HIterator it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            int key = ((Integer) entry.getKey()).intValue();
+            if(key % 2 == 0) it.remove();
+            else entry.setValue("nuovo" + key);
+        }
+        assertEquals("rimozioni dell'iteratore riflesse sulla mappa", 3, instance.size());
+        assertEquals("setValue riflesso sulla mappa", "nuovo3", instance.get(Integer.valueOf(3)));
+        for(int i=10; i < 40; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("dimensione dopo la crescita", 33, instance.size());
+        boolean result = instance.get(Integer.valueOf(1)).equals("nuovo1") && instance.get(Integer.valueOf(0)) == null;
+        for(int i=10; i < 40; i++) result = result && instance.get(Integer.valueOf(i)).equals("v" + i);
+        assertEquals("mappature coerenti dopo la crescita", true, result);
+        instance.clear();
+        assertEquals("mappa vuota dopo clear", true, instance.isEmpty());
+        instance.put("pippo", "pluto");
+        assertEquals("mappa utilizzabile dopo clear", "pluto", instance.get("pippo"));
+    }
     
     /**
      * @title Test of put and remove methods, of class Map.
@@ -1834,4 +2074,162 @@ public class MapTest {
         it.remove();
     }
     
-}
\ No newline at end of file
+/**
+     * @title Test #20 of values method, of class Map.
+     * @description This test tests the behaviour of values() method on a map created with the value index. More in details, it tests contains, remove and retainAll of the returned collection and containsValue of the map, after put, setValue and remove changed the values.
+     * @expectedResults The reverse lookups should be coherent with the mappings contained in the map, also when more keys are mapped to the same value.
+     * @actualResult As expected result.
+     * @dependencies The correctness of this method depends on the correctness of method put, remove, get and size.
+     * @preConditions The map instance must be a new istance of Map with the value index.
+     * @postConditions The map instance should be modified by the execution of the method.
+     */
+    @Test
+    public void testValues_index() {
+        instance = new Map(true);
+        for(int i=0; i < 100; i++) instance.put(Integer.valueOf(i), "v" + (i % 10));
+        assertEquals("valore contenuto", true, instance.containsValue("v3"));
+        instance.put(Integer.valueOf(3), "asso");
+        HIterator it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            if(entry.getKey().equals(Integer.valueOf(13))) entry.setValue("bello");
+        }
+        assertEquals("put aggiorna l'indice", true, instance.values().contains("asso"));
+        assertEquals("setValue aggiorna l'indice", true, instance.containsValue("bello"));
+        HCollection values = instance.values();
+        for(int i=0; i < 8; i++) assertEquals("rimozione di un valore", true, values.remove("v3"));
+        assertEquals("tutte le occorrenze rimosse", false, instance.containsValue("v3"));
+        assertEquals("valore non contenuto", false, values.remove("v3"));
+        assertEquals("dimensione", 92, instance.size());
+        HCollection param = new List();
+        param.add("v1");
+        param.add("asso");
+        assertEquals("retainAll modifica la mappa", true, values.retainAll(param));
+        assertEquals("dimensione dopo retainAll", 11, instance.size());
+        assertEquals("valore non trattenuto", false, instance.containsValue("v2"));
+        assertEquals("chiave trattenuta", "v1", instance.get(Integer.valueOf(41)));
+        instance.remove(Integer.valueOf(3));
+        assertEquals("remove aggiorna l'indice", false, instance.containsValue("asso"));
+        instance.clear();
+        assertEquals("clear svuota l'indice", false, instance.containsValue("v1"));
+    }
+
+    /**
+     * @title Test #1 of the bounded maps, of class Map.
+     * @description This test tests the behaviour of put() and get() methods on a bounded map, when more mappings than its maximum size are inserted.
+     * @expectedResults The map should never hold more than its maximum size mappings, and it should evict the least recently used ones, where a get or put of a key makes its mapping the most recently used one.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods containsKey() and size().
+     * @preConditions The map instance must be a new bounded istance of Map.
+     * @postConditions The map instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testBounded_evictsEldest() {
+        instance = Map.lru(3);
+        instance.put("pippo", "1");
+        instance.put("pluto", "2");
+        instance.put("paperino", "3");
+        assertEquals("accesso a pippo", "1", instance.get("pippo"));
+        instance.put("topolino", "4");
+        assertEquals("dimensione massima", 3, instance.size());
+        assertEquals("pluto rimosso", false, instance.containsKey("pluto"));
+        assertEquals("pippo trattenuto", true, instance.containsKey("pippo"));
+        instance.put("paperino", "5");
+        instance.put("minnie", "6");
+        assertEquals("pippo rimosso", false, instance.containsKey("pippo"));
+        assertEquals("paperino trattenuto", "5", instance.get("paperino"));
+        for(int i=0; i < 1000; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("dimensione dopo molti inserimenti", 3, instance.size());
+        assertEquals("ultime chiavi trattenute", true, instance.containsKey(Integer.valueOf(997)) && instance.containsKey(Integer.valueOf(999)));
+        assertEquals("hash coerente", sum(instance), instance.hashCode());
+    }
+    
+    /**
+     * @title Test #2 of the bounded maps, of class Map.
+     * @description This test tests the eviction listener of a bounded map, when mappings are also removed through remove(), the views and clear().
+     * @expectedResults The listener should receive the key and the value of every evicted mapping, in eviction order, and not the mappings removed explicitly; the removed mappings shouldn't be evicted.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), remove(), keySet() and clear().
+     * @preConditions The map instance must be a new bounded istance of Map.
+     * @postConditions The map instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testBounded_listener() {
+        final List evicted = new List();
+        instance = Map.lru(4, (k, v) -> evicted.add(k + "=" + v));
+        for(int i=0; i < 6; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("mappature espulse", 2, evicted.size());
+        assertEquals("prima mappatura espulsa", "0=v0", evicted.get(0));
+        assertEquals("seconda mappatura espulsa", "1=v1", evicted.get(1));
+        instance.remove(Integer.valueOf(2));
+        instance.keySet().remove(Integer.valueOf(3));
+        instance.put(Integer.valueOf(6), "v6");
+        instance.put(Integer.valueOf(7), "v7");
+        assertEquals("nessuna espulsione sotto la dimensione massima", 2, evicted.size());
+        instance.put(Integer.valueOf(8), "v8");
+        assertEquals("espulsione della mappatura meno recente", "4=v4", evicted.get(2));
+        instance.clear();
+        assertEquals("clear non notifica", 3, evicted.size());
+        for(int i=10; i < 15; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("espulsione dopo clear", "10=v10", evicted.get(3));
+        assertEquals("dimensione", 4, instance.size());
+    }
+    
+    /**
+     * @title Test #3 of the bounded maps, of class Map.
+     * @description This test tests the behaviour of a bounded map when its iterators remove mappings, and of lru() when the maximum size is not positive.
+     * @expectedResults The mappings removed by the iterator shouldn't be evicted later, and an IllegalArgumentException should be thrown by the constructor.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), entrySet() and size().
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testBounded_iteratorRemove() {
+        final List evicted = new List();
+        instance = Map.lru(50, (k, v) -> evicted.add(k));
+        for(int i=0; i < 50; i++) instance.put(Integer.valueOf(i), "v" + i);
+        HIterator it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry e = (HMap.Entry) it.next();
+            if(((Integer) e.getKey()).intValue() % 2 == 0) it.remove();
+        }
+        for(int i=50; i < 100; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("dimensione", 50, instance.size());
+        boolean result = evicted.size() == 25;
+        for(int i=0; i < evicted.size(); i++) result = result && ((Integer) evicted.get(i)).intValue() == 2 * i + 1;
+        assertEquals("espulse solo le mappature rimaste", true, result);
+        boolean thrown = false;
+        try { Map.lru(0); } catch(IllegalArgumentException e) { thrown = true; }
+        assertEquals("dimensione massima non positiva", true, thrown);
+    }
+    
+    /**
+     * @title Test #4 of the bounded maps, of class Map.
+     * @description This test tests the behaviour of equals() method and of contains() method of the entry set on a bounded map, and the order of eviction after them.
+     * @expectedResults A bounded map and a map with the same mappings should be equal in both directions, and the entry set should contain its own entries; neither equals() nor contains() should change the order of eviction, so the next put should evict the first mapping inserted.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), containsKey() and entrySet().
+     * @preConditions The map instance must be a new istance of Map.
+     * @postConditions The map instance should be modified by the execution of the method.
+     */
+    @Test
+    public void testBounded_equals() {
+        final List evicted = new List();
+        Map lru = Map.lru(50, (k, v) -> evicted.add(k));
+        for(int i=0; i < 50; i++) {
+            instance.put(Integer.valueOf(i), "v" + i);
+            lru.put(Integer.valueOf(i), "v" + i);
+        }
+        assertEquals("uguaglianza nei due versi", true, lru.equals(instance) && instance.equals(lru));
+        HIterator it = lru.entrySet().iterator();
+        boolean result = true;
+        while(it.hasNext()) result = result && lru.entrySet().contains(it.next());
+        assertEquals("entry contenute", true, result);
+        assertEquals("entry della mappa non limitata", true, lru.entrySet().containsAll(instance.entrySet()));
+        lru.put(Integer.valueOf(50), "v50");
+        assertEquals("espulsa la prima mappatura inserita", Integer.valueOf(0), evicted.get(0));
+        assertEquals("mappatura espulsa", false, lru.containsKey(Integer.valueOf(0)));
+    }
+    
+}
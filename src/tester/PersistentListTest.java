@@ -0,0 +1,222 @@
+package tester;
+
+import adapters.List;
+import adapters.PersistentList;
+import exceptions.IllegalStateException;
+import interfaces.HList;
+import interfaces.HListIterator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for PersistentList class.
+ * This suite checks the versions returned by the updates of a PersistentList, which must not change the older versions, their equality with a List of the same elements, the transients and the rejection of the modifications of HList.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PersistentListTest {
+
+    List list;
+    PersistentList instance;
+
+    public PersistentListTest() {
+    }
+
+    @Before
+    public void setUp() {
+        list = new List();
+        for(int i=0; i < 1500; i++) list.add(Integer.valueOf(i));
+        instance = PersistentList.copyOf(list);
+    }
+
+    /**
+     * @title Test #1 of plus method, of class PersistentList.
+     * @description This test tests the versions of a list built by appending 1500 elements one at a time, keeping a version every 100 elements, and then removing them one at a time with minusLast. The trie of the list grows and shrinks by two levels.
+     * @expectedResults Every version kept should still have its size and elements after the following updates, and be equal to a List of the same elements, with the same hash code; the list emptied by minusLast should be the empty list.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testPlus_versions() {
+        PersistentList[] versions = new PersistentList[16];
+        PersistentList v = PersistentList.EMPTY;
+        for(int i=0; i < 1500; i++) {
+            if(i % 100 == 0) versions[i / 100] = v;
+            v = v.plus(Integer.valueOf(i));
+        }
+        versions[15] = v;
+        boolean result = true;
+        for(int k=0; k < versions.length; k++) {
+            result = result && versions[k].size() == k * 100;
+            for(int i=0; i < k * 100; i++) result = result && versions[k].get(i).equals(Integer.valueOf(i));
+        }
+        assertEquals("versioni non modificate", true, result);
+        assertEquals("uguale alla List", true, v.equals(list) && list.equals(v));
+        assertEquals("stesso hashCode", list.hashCode(), v.hashCode());
+        assertEquals("uguale alla copia", instance, v);
+        for(int i=1499; i >= 0; i--) {
+            v = v.minusLast();
+            list.remove(i);
+            if(i % 97 == 0 || i == 1024 || i == 32) result = result && v.equals(list) && list.equals(v);
+        }
+        assertEquals("rimozioni in coda", true, result);
+        assertSame("lista vuota", PersistentList.EMPTY, v);
+        assertEquals("ultima versione non modificata", 1500, versions[15].size());
+    }
+
+    /**
+     * @title Test #1 of with method, of class PersistentList.
+     * @description This test tests the replacement of elements of the trie and of the tail, followed by an append, comparing them with the same updates of a List.
+     * @expectedResults Every new version should be equal to the List updated in the same way, while the list instance shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List.
+     * @preConditions The list instance must be the copy of a List of the integers from 0 to 1499.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testWith_updates() {
+        List expected = new List();
+        expected.addAll(list);
+        PersistentList v = instance;
+        int[] indexes = {0, 31, 32, 1023, 1024, 1480, 1499};
+        for(int i=0; i < indexes.length; i++) {
+            v = v.with(indexes[i], "nuovo" + i);
+            expected.set(indexes[i], "nuovo" + i);
+        }
+        assertEquals("sostituzioni", true, v.equals(expected));
+        v = v.plus("ultimo");
+        expected.add("ultimo");
+        assertEquals("aggiunta in coda", true, v.equals(expected) && expected.equals(v));
+        assertEquals("stesso hashCode", expected.hashCode(), v.hashCode());
+        assertEquals("subList", expected.subList(20, 1400), v.subList(20, 1400));
+        assertEquals("prefisso", expected.subList(0, 1100), v.subList(0, 1100));
+        assertEquals("lista originale non modificata", true, instance.equals(list));
+        HListIterator it = v.listIterator(v.size());
+        boolean result = true;
+        for(int i=expected.size()-1; i >= 0; i--) result = result && it.previous().equals(expected.get(i));
+        assertEquals("iterazione all'indietro", true, result && !it.hasPrevious());
+        assertEquals("indexOf", expected.indexOf(Integer.valueOf(1033)), v.indexOf(Integer.valueOf(1033)));
+    }
+
+    /**
+     * @title Test #1 of subList method, of class PersistentList.
+     * @description This test tests the slices of a list of 40000 elements, whose trie has four levels: ranges inside a leaf, across leaves and across the children of the root, in the tail, empty and nested. Every slice is then updated with plus, with and minusLast, and through a transient.
+     * @expectedResults Every slice should be equal to the sublist of a List with the same elements, and so should its updates; the list the slices come from shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testSubList_slices() {
+        List all = new List();
+        for(int i=0; i < 40000; i++) all.add(Integer.valueOf(i));
+        PersistentList whole = PersistentList.copyOf(all);
+        int[][] ranges = {{0, 0}, {7, 7}, {3, 20}, {31, 33}, {32, 64}, {1000, 1056}, {1, 40000}, {39990, 40000}, {39999, 40000}, {1024, 33000}, {5, 32773}, {32767, 32770}, {0, 33000}};
+        boolean result = true;
+        for(int r=0; r < ranges.length; r++) {
+            int from = ranges[r][0], to = ranges[r][1];
+            PersistentList slice = (PersistentList) whole.subList(from, to);
+            List expected = new List();
+            expected.addAll(all.subList(from, to));
+            result = result && slice.equals(expected) && expected.equals(slice) && slice.hashCode() == expected.hashCode();
+            for(int i=0; i < 40; i++) {
+                slice = slice.plus("a" + i);
+                expected.add("a" + i);
+            }
+            if(expected.size() > 0) {
+                slice = slice.with(0, "primo");
+                expected.set(0, "primo");
+            }
+            result = result && slice.equals(expected) && slice.indexOf("primo") == 0;
+            for(int i=0; i < 70 && expected.size() > 0; i++) {
+                slice = slice.minusLast();
+                expected.remove(expected.size() - 1);
+            }
+            result = result && slice.equals(expected) && expected.equals(slice);
+            if(expected.size() > 2) {
+                PersistentList inner = (PersistentList) slice.subList(1, expected.size() - 1);
+                result = result && inner.equals(expected.subList(1, expected.size() - 1));
+                PersistentList.Transient t = inner.asTransient();
+                for(int i=0; i < 100; i++) t.add("t" + i);
+                t.set(0, "x");
+                PersistentList updated = t.persistent();
+                List other = new List();
+                other.addAll(expected.subList(1, expected.size() - 1));
+                for(int i=0; i < 100; i++) other.add("t" + i);
+                other.set(0, "x");
+                result = result && updated.equals(other) && inner.equals(expected.subList(1, expected.size() - 1));
+            }
+        }
+        assertEquals("slice", true, result);
+        assertEquals("lista originale non modificata", true, whole.equals(all));
+        assertSame("slice vuota", PersistentList.EMPTY, whole.subList(100, 100));
+        assertSame("slice completa", whole, whole.subList(0, 40000));
+    }
+
+    /**
+     * @title Test #1 of asTransient method, of class PersistentList.
+     * @description This test tests a transient copy of the list instance: elements are appended, replaced and removed, then the transient is turned into a new list and used again.
+     * @expectedResults The new list should have the updates of the transient, the list instance shouldn't change, and an IllegalStateException should be thrown when the transient is used after persistent().
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class List.
+     * @preConditions The list instance must be the copy of a List of the integers from 0 to 1499.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testAsTransient_bulk() {
+        PersistentList.Transient t = instance.asTransient();
+        for(int i=1500; i < 3000; i++) t.add(Integer.valueOf(i));
+        for(int i=0; i < 3000; i += 3) t.set(i, "x");
+        for(int i=0; i < 500; i++) t.removeLast();
+        PersistentList v = t.persistent();
+        boolean result = v.size() == 2500;
+        for(int i=0; i < 2500; i++) result = result && v.get(i).equals(i % 3 == 0 ? "x" : Integer.valueOf(i));
+        assertEquals("modifiche del transient", true, result);
+        assertEquals("lista originale non modificata", true, instance.equals(list));
+        t.add("dopo");
+    }
+
+    /**
+     * @title Test #1 of add method, of class PersistentList.
+     * @description This test tests the methods of HList which would modify the list, and of its iterator.
+     * @expectedResults An UnsupportedOperationException should be thrown by each of them, and the list shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of method equals().
+     * @preConditions The list instance must be the copy of a List of the integers from 0 to 1499.
+     * @postConditions The list instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testAdd_unsupported() {
+        Runnable[] mutators = {
+            () -> instance.add("x"),
+            () -> instance.add(0, "x"),
+            () -> instance.addAll(list),
+            () -> instance.set(0, "x"),
+            () -> instance.remove(0),
+            () -> instance.remove(Integer.valueOf(1)),
+            () -> instance.clear(),
+            () -> instance.replaceAll(e -> e),
+            () -> instance.removeIf(e -> true),
+            () -> instance.listIterator().set("x")
+        };
+        int rejected = 0;
+        for(int i=0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+            } catch(UnsupportedOperationException e) {
+                rejected++;
+            }
+        }
+        assertEquals("modifiche rifiutate", mutators.length, rejected);
+        assertEquals("lista non modificata", true, instance.equals(list));
+        HList empty = PersistentList.copyOf(new List());
+        assertSame("copia di una lista vuota", PersistentList.EMPTY, empty);
+    }
+
+}
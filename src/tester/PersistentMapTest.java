@@ -0,0 +1,210 @@
+package tester;
+
+import adapters.Map;
+import adapters.PersistentMap;
+import exceptions.IllegalStateException;
+import interfaces.HIterator;
+import interfaces.HMap;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for PersistentMap class.
+ * This suite checks the versions returned by the updates of a PersistentMap, which must not change the older versions, their lookups and views, the keys with colliding hash codes, the transients and the rejection of the modifications of HMap.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PersistentMapTest {
+
+    Map map;
+    PersistentMap instance;
+
+    public PersistentMapTest() {
+    }
+
+    @Before
+    public void setUp() {
+        map = new Map();
+        for(int i=0; i < 2000; i++) map.put("k" + i, Integer.valueOf(i));
+        instance = PersistentMap.copyOf(map);
+    }
+
+    /**
+     * @title Test #1 of plus method, of class PersistentMap.
+     * @description This test tests the versions of a map built by adding 2000 mappings one at a time, keeping a version every 250 mappings, then replacing and removing some of them.
+     * @expectedResults Every version kept should still have its size and mappings after the following updates; the last one should be equal to the Map of the same mappings, in both directions, and have its hash code, which must be kept up to date by the replacements and the removals.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions The map instance must be the copy of a Map of 2000 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testPlus_versions() {
+        PersistentMap[] versions = new PersistentMap[8];
+        PersistentMap v = PersistentMap.EMPTY;
+        for(int i=0; i < 2000; i++) {
+            if(i % 250 == 0) versions[i / 250] = v;
+            v = v.plus("k" + i, Integer.valueOf(i));
+        }
+        boolean result = true;
+        for(int k=0; k < versions.length; k++) {
+            result = result && versions[k].size() == k * 250;
+            for(int i=0; i < 2000; i += 7) {
+                Object value = versions[k].get("k" + i);
+                result = result && (i < k * 250 ? Integer.valueOf(i).equals(value) : value == null);
+            }
+        }
+        assertEquals("versioni non modificate", true, result);
+        assertEquals("uguale alla Map", true, v.equals(map) && map.equals(v));
+        assertEquals("stesso hashCode", map.hashCode(), v.hashCode());
+        assertEquals("uguale alla copia", instance, v);
+        PersistentMap updated = v;
+        for(int i=0; i < 2000; i += 3) {
+            updated = updated.plus("k" + i, "nuovo");
+            map.put("k" + i, "nuovo");
+        }
+        for(int i=0; i < 2000; i += 5) {
+            updated = updated.minus("k" + i);
+            map.remove("k" + i);
+        }
+        assertEquals("aggiornamenti", true, updated.equals(map) && map.equals(updated));
+        assertEquals("hashCode aggiornato", map.hashCode(), updated.hashCode());
+        assertEquals("dimensione aggiornata", map.size(), updated.size());
+        assertSame("rimozione di una chiave assente", updated, updated.minus("k0"));
+        assertEquals("versione precedente non modificata", Integer.valueOf(0), v.get("k0"));
+        assertEquals("containsValue", true, updated.containsValue("nuovo") && !updated.containsValue(Integer.valueOf(0)));
+    }
+
+    /**
+     * @title Test #1 of get method, of class PersistentMap.
+     * @description This test tests keys whose hash codes are all equal, which are kept in a collision node, together with keys whose hash codes differ.
+     * @expectedResults Every key should be mapped to its value, and the keys removed should not be in the map anymore; removing all the keys should give the empty map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test
+    public void testGet_collisions() {
+        PersistentMap v = PersistentMap.EMPTY;
+        Map expected = new Map();
+        for(int i=0; i < 100; i++) {
+            Object key = i < 50 ? new Colliding(i) : (Object) Integer.valueOf(i);
+            v = v.plus(key, "v" + i);
+            expected.put(key, "v" + i);
+        }
+        assertEquals("collisioni", true, v.equals(expected) && expected.equals(v));
+        assertEquals("chiave in collisione", "v17", v.get(new Colliding(17)));
+        for(int i=0; i < 50; i += 2) {
+            v = v.minus(new Colliding(i));
+            expected.remove(new Colliding(i));
+        }
+        assertEquals("rimozioni in collisione", true, v.equals(expected) && expected.equals(v));
+        assertNull("chiave rimossa", v.get(new Colliding(2)));
+        HIterator keys = v.keySet().iterator();
+        while(keys.hasNext()) v = v.minus(keys.next());
+        assertSame("mappa vuota", PersistentMap.EMPTY, v);
+    }
+
+    /**
+     * @title Test #1 of asTransient method, of class PersistentMap.
+     * @description This test tests a transient copy of the map instance: mappings are added, replaced and removed, then the transient is turned into a new map and used again.
+     * @expectedResults The new map should have the updates of the transient and the same hash code as a Map with the same updates, the map instance shouldn't change, and an IllegalStateException should be thrown when the transient is used after persistent().
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions The map instance must be the copy of a Map of 2000 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testAsTransient_bulk() {
+        Map expected = new Map();
+        expected.putAll(map);
+        PersistentMap.Transient t = instance.asTransient();
+        for(int i=1000; i < 3000; i++) {
+            assertEquals("valore precedente", expected.put("k" + i, "t" + i), t.put("k" + i, "t" + i));
+        }
+        for(int i=0; i < 3000; i += 4) {
+            assertEquals("valore rimosso", expected.remove("k" + i), t.remove("k" + i));
+        }
+        PersistentMap v = t.persistent();
+        assertEquals("modifiche del transient", true, v.equals(expected) && expected.equals(v));
+        assertEquals("stesso hashCode", expected.hashCode(), v.hashCode());
+        assertEquals("mappa originale non modificata", true, instance.equals(map) && instance.size() == 2000);
+        t.put("dopo", "x");
+    }
+
+    /**
+     * @title Test #1 of entrySet method, of class PersistentMap.
+     * @description This test tests the views of the map, and the methods which would modify the map or its views.
+     * @expectedResults The views should have the keys, the values and the mappings of the map, with the hash codes of the views of the Map; an UnsupportedOperationException should be thrown by each of the modifications, and the map shouldn't change.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of class Map.
+     * @preConditions The map instance must be the copy of a Map of 2000 mappings.
+     * @postConditions The map instance is not modified by the execution of the test.
+     */
+    @Test
+    public void testEntrySet_views() {
+        assertEquals("entrySet", true, instance.entrySet().equals(map.entrySet()));
+        assertEquals("hashCode dell'entrySet", map.entrySet().hashCode(), instance.entrySet().hashCode());
+        assertEquals("hashCode del keySet", map.keySet().hashCode(), instance.keySet().hashCode());
+        assertEquals("keySet", true, instance.keySet().equals(map.keySet()));
+        assertEquals("values", true, instance.values().containsAll(map.values()) && instance.values().size() == 2000);
+        HIterator entries = instance.entrySet().iterator();
+        int count = 0;
+        boolean result = true;
+        while(entries.hasNext()) {
+            HMap.Entry e = (HMap.Entry) entries.next();
+            result = result && map.get(e.getKey()).equals(e.getValue());
+            count++;
+        }
+        assertEquals("iterazione", true, result && count == 2000);
+        Runnable[] mutators = {
+            () -> instance.put("x", "y"),
+            () -> instance.putAll(map),
+            () -> instance.remove("k1"),
+            () -> instance.replaceAll((k, v) -> v),
+            () -> instance.clear(),
+            () -> instance.keySet().remove("k1"),
+            () -> instance.values().clear(),
+            () -> instance.entrySet().removeIf(e -> true),
+            () -> ((HMap.Entry) instance.entrySet().iterator().next()).setValue("x")
+        };
+        int rejected = 0;
+        for(int i=0; i < mutators.length; i++) {
+            try {
+                mutators[i].run();
+            } catch(UnsupportedOperationException e) {
+                rejected++;
+            }
+        }
+        assertEquals("modifiche rifiutate", mutators.length, rejected);
+        assertEquals("mappa non modificata", true, instance.equals(map));
+    }
+
+    /**
+     * Key whose hash code is the same for every instance.
+     */
+    static class Colliding {
+
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package tester;
 import adapters.List;
 import adapters.Set;
 import interfaces.HCollection;
+import interfaces.HIterator;
 import interfaces.HSet;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
@@ -67,6 +68,76 @@ public class SetTest {
         assertEquals("dimensione inalterata", 1, instance.size());
     }
     
+    /**
+     * @title Test #2 of add method, of class Set.
+     * @description This test tests the behaviour of the method add() when called using an element which is not contained in the set, but has the same hash of an element contained.
+     * @expectedResults Both elements should be stored in the set, as the comparison is based on equals and not only on the hash.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size() and contains().
+     * @preConditions The set instance must be a new istance of Set.
+     * @postConditions The set instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAdd_sameHash() {
+        instance.add("AaAaBB");
+        boolean result = instance.add("AaAaAa");
+        assertEquals("elemento diverso con lo stesso hash, inserito", true, result);
+        assertEquals("dimensione aumentata", 2, instance.size());
+        assertEquals("entrambi gli elementi sono contenuti", true, instance.contains("AaAaBB") && instance.contains("AaAaAa"));
+        instance.remove("AaAaBB");
+        assertEquals("l'elemento con lo stesso hash è ancora contenuto", true, instance.contains("AaAaAa"));
+    }
+    
+    /**
+     * @title Test #3 of add method, of class Set.
+     * @description This test tests the behaviour of the method add() when many elements are added and removed from the set, so that its internal structure has to grow and to be reorganized.
+     * @expectedResults All the elements added and not removed should be contained in the set, the removed ones should not.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size(), remove() and contains().
+     * @preConditions The set instance must be a new istance of Set.
+     * @postConditions The set instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAdd_many() {
+        for(int i=0; i < 1000; i++) instance.add(Integer.valueOf(i));
+        for(int i=0; i < 1000; i += 2) instance.remove(Integer.valueOf(i));
+        for(int i=1000; i < 1500; i++) instance.add(Integer.valueOf(i));
+        assertEquals("dimensione coerente con gli inserimenti e le rimozioni", 1000, instance.size());
+        boolean result = true;
+        for(int i=0; i < 1500; i++) 
+            result = result && (instance.contains(Integer.valueOf(i)) == (i >= 1000 || i % 2 == 1));
+        assertEquals("contiene solo gli elementi non rimossi", true, result);
+        assertEquals("toArray coerente con la dimensione", 1000, instance.toArray().length);
+    }
+
+    /**
+     * @title Test #4 of add method, of class Set.
+     * @description This test tests the behaviour of the method add() when a small set grows past the size stored in the flat array and has to switch to the hash table, after some elements have been removed from the small set through its iterator.
+     * @expectedResults The iterator should return every element once, the removed elements should not be contained and all the other ones should be contained after the switch.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size(), iterator() and contains().
+     * @preConditions The set instance must be a new istance of Set.
+     * @postConditions The set instance is directly modified by the execution of the method tested.
+     */
+    @Test
+    public void testAdd_smallToLarge() {
+        for(int i=0; i < 6; i++) instance.add(Integer.valueOf(i));
+        HIterator it = instance.iterator();
+        int count = 0;
+        while(it.hasNext()) {
+            Integer elem = (Integer) it.next();
+            if(elem.intValue() % 2 == 0) it.remove();
+            count++;
+        }
+        assertEquals("tutti gli elementi sono restituiti", 6, count);
+        assertEquals("rimozioni dell'iteratore", 3, instance.size());
+        for(int i=10; i < 40; i++) instance.add(Integer.valueOf(i));
+        boolean result = instance.size() == 33;
+        for(int i=0; i < 40; i++)
+            result = result && (instance.contains(Integer.valueOf(i)) == (i >= 10 || (i < 6 && i % 2 == 1)));
+        assertEquals("elementi coerenti dopo la crescita", true, result);
+    }
+    
     /**
      * @title Test #1 of addAll method, of class Set.
      * @description This test tests the behaviour of the method addAll() when called using a collection which contains duplicates.
@@ -230,6 +301,47 @@ public class SetTest {
         assertEquals("hash di un set non vuoto", expected, result);
     }
 
+    /**
+     * @title Test #3 of hashCode method, of class Set.
+     * @description This test tests the behaviour of the method hashCode() while the Set is modified through add(), remove(), removeAll(), retainAll(), the iterator and clear(), both in the small and in the hashed layout.
+     * @expectedResults After every modification the hashcode must be equal to the sum of the hashes of the elements still contained in the set.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add(), remove(), removeAll(), retainAll(), iterator() and clear().
+     * @preConditions The set instance must be a new istance of Set.
+     * @postConditions The set instance should be modified directly by the execution of the method.
+     */
+    @Test
+    public void testHashCode_modified() {
+        boolean result = true;
+        for(int i=0; i < 40; i++) {
+            instance.add(Integer.valueOf(i));
+            result = result && instance.hashCode() == sum(instance);
+        }
+        instance.add(Integer.valueOf(3));
+        instance.remove(Integer.valueOf(5));
+        result = result && instance.hashCode() == sum(instance);
+        HIterator it = instance.iterator();
+        while(it.hasNext()) if(((Integer) it.next()).intValue() % 3 == 0) it.remove();
+        result = result && instance.hashCode() == sum(instance);
+        Set other = new Set();
+        for(int i=0; i < 10; i++) other.add(Integer.valueOf(i));
+        instance.retainAll(other);
+        result = result && instance.hashCode() == sum(instance);
+        instance.removeAll(other);
+        assertEquals("hash aggiornato durante le modifiche", true, result);
+        assertEquals("hash di un set svuotato", 0, instance.hashCode());
+        instance.add("pippo");
+        instance.clear();
+        assertEquals("hash dopo clear", 0, instance.hashCode());
+    }
+    
+    private static int sum(HSet set) {
+        int hash = 0;
+        HIterator it = set.iterator();
+        while(it.hasNext()) hash += it.next().hashCode();
+        return hash;
+    }
+
     /**
      * @title Test of hashCode and equals methods, of class Set.
      * @description This test tests the coherence between the hashCode and equals methods. More in details, if two objects equals each other they must have the same hash. If two object has the same hash, not necessarly they equals each other.
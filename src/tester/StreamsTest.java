@@ -0,0 +1,163 @@
+package tester;
+
+import adapters.List;
+import adapters.Map;
+import adapters.Set;
+import adapters.Streams;
+import adapters.TieredList;
+import interfaces.HCollection;
+import interfaces.HList;
+import interfaces.HMap;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for Streams class.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StreamsTest {
+
+    public StreamsTest() {
+    }
+
+    private static long sum(HCollection c, boolean parallel) {
+        return (parallel ? Streams.parallelStream(c) : Streams.stream(c)).mapToLong(o -> ((Integer) o).longValue()).sum();
+    }
+
+    /**
+     * @title Test #1 of stream method, of class Streams.
+     * @description This test tests the behaviour of stream() and parallelStream() methods when called on empty collections.
+     * @expectedResults The streams must not return any element.
+     * @actualResult As expected result.
+     * @dependencies This test correctness does not depend on the correctness of other methods.
+     * @preConditions The collections must be new instances.
+     * @postConditions The collections should not be modified by the execution of the method.
+     */
+    @Test
+    public void testStream_empty() {
+        HCollection[] empty = {new List(), new TieredList(), new Set(), new Map().entrySet(), new Map(true).values()};
+        boolean result = true;
+        for(int i=0; i < empty.length; i++)
+            result = result && Streams.stream(empty[i]).count() == 0 && Streams.parallelStream(empty[i]).count() == 0;
+        assertEquals("nessun elemento restituito", true, result);
+    }
+
+    /**
+     * @title Test #2 of stream method, of class Streams.
+     * @description This test tests the behaviour of stream() and parallelStream() methods when called on a large List and on one of its sublists.
+     * @expectedResults The sequential stream must return the elements in order, and the parallel one must return all the elements once.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add() and subList().
+     * @preConditions The list must be a new instance of List.
+     * @postConditions The list should not be modified by the execution of the method.
+     */
+    @Test
+    public void testStream_list() {
+        List list = new List();
+        for(int i=0; i < 100000; i++) list.add(Integer.valueOf(i));
+        assertEquals("somma parallela", 100000L * 99999 / 2, sum(list, true));
+        HList sub = list.subList(10, 20);
+        assertEquals("ordine della sottolista", "10 11 12 13 14 15 16 17 18 19", Streams.stream(sub).map(String::valueOf).collect(Collectors.joining(" ")));
+        assertEquals("somma parallela della sottolista", 145L, sum(sub, true));
+    }
+
+    /**
+     * @title Test #3 of stream method, of class Streams.
+     * @description This test tests the behaviour of stream() and parallelStream() methods when called on a large TieredList.
+     * @expectedResults The sequential stream must return the elements in order, and the parallel one must return all the elements once.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add() and get().
+     * @preConditions The list must be a new instance of TieredList.
+     * @postConditions The list should not be modified by the execution of the method.
+     */
+    @Test
+    public void testStream_tieredList() {
+        TieredList list = new TieredList();
+        for(int i=0; i < 10000; i++) list.add(0, Integer.valueOf(9999 - i));
+        assertEquals("somma parallela", 10000L * 9999 / 2, sum(list, true));
+        assertEquals("primo elemento", Integer.valueOf(0), Streams.stream(list).findFirst().get());
+        assertEquals("ordine rispettato", true, Streams.parallelStream(list).collect(Collectors.toList()).equals(Streams.stream(list).collect(Collectors.toList())));
+    }
+
+    /**
+     * @title Test #4 of stream method, of class Streams.
+     * @description This test tests the behaviour of stream() and parallelStream() methods when called on a small and on a large Set, whose table contains removed elements.
+     * @expectedResults The streams must return every element of the set exactly once.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods add() and remove().
+     * @preConditions The set must be a new instance of Set.
+     * @postConditions The set should not be modified by the execution of the method.
+     */
+    @Test
+    public void testStream_set() {
+        Set set = new Set();
+        for(int i=0; i < 5; i++) set.add(Integer.valueOf(i));
+        assertEquals("somma di un set piccolo", 10L, sum(set, true));
+        for(int i=0; i < 50000; i++) set.add(Integer.valueOf(i));
+        for(int i=0; i < 50000; i += 2) set.remove(Integer.valueOf(i));
+        assertEquals("somma sequenziale", 25000L * 25000, sum(set, false));
+        assertEquals("somma parallela", 25000L * 25000, sum(set, true));
+        assertEquals("elementi distinti", 25000L, Streams.parallelStream(set).distinct().count());
+    }
+
+    /**
+     * @title Test #5 of stream method, of class Streams.
+     * @description This test tests the behaviour of stream() and parallelStream() methods when called on the views of a small and of a large Map.
+     * @expectedResults The streams of entrySet(), keySet() and values() must return every mapping of the map exactly once.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of methods put(), entrySet(), keySet() and values().
+     * @preConditions The map must be a new instance of Map.
+     * @postConditions The map should not be modified by the execution of the method.
+     */
+    @Test
+    public void testStream_map() {
+        int[] sizes = {3, 40000};
+        boolean result = true;
+        for(int s=0; s < sizes.length; s++) {
+            Map map = new Map();
+            long n = sizes[s];
+            for(int i=0; i < n; i++) map.put(Integer.valueOf(i), Integer.valueOf(2 * i));
+            result = result && sum(map.keySet(), true) == n * (n - 1) / 2;
+            result = result && sum(map.values(), true) == n * (n - 1);
+            long entries = Streams.parallelStream(map.entrySet()).mapToLong(o -> ((Integer) ((HMap.Entry) o).getValue()).longValue()).sum();
+            result = result && entries == n * (n - 1);
+        }
+        assertEquals("tutte le associazioni restituite una sola volta", true, result);
+    }
+
+    /**
+     * @title Test of spliterator method, of class Streams.
+     * @description This test tests the behaviour of the spliterators of a List and of a Set when they are split recursively.
+     * @expectedResults The parts must cover all the elements exactly once; the parts of a list must report their exact size.
+     * @actualResult As expected result.
+     * @dependencies This test correctness depends on the correctness of method add().
+     * @preConditions The collections must be new instances.
+     * @postConditions The collections should not be modified by the execution of the method.
+     */
+    @Test
+    public void testSpliterator_split() {
+        List list = new List();
+        Set set = new Set();
+        for(int i=0; i < 1000; i++) {
+            list.add(Integer.valueOf(i));
+            set.add(Integer.valueOf(i));
+        }
+        Spliterator<Object> whole = Streams.spliterator(list);
+        Spliterator<Object> prefix = whole.trySplit();
+        assertEquals("dimensione esatta delle parti", true, prefix.hasCharacteristics(Spliterator.SIZED) && prefix.estimateSize() + whole.estimateSize() == 1000);
+        long[] total = new long[1];
+        Spliterator<Object> first = Streams.spliterator(set);
+        assertEquals("dimensione del set", 1000L, first.getExactSizeIfKnown());
+        Spliterator<Object> second = first.trySplit();
+        Spliterator<Object> third = first.trySplit();
+        Spliterator<?>[] parts = {first, second, third};
+        for(int i=0; i < parts.length; i++) parts[i].forEachRemaining(o -> total[0] += ((Integer) o).intValue());
+        assertEquals("ogni elemento visitato una sola volta", 1000L * 999 / 2, total[0]);
+    }
+
+}
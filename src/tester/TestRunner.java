@@ -10,7 +10,7 @@ public class TestRunner {
         int succ = 0, fail = 0, ign = 0;
         System.out.println("\nRunning tests ... ");
         System.out.println("___________________\n");
-        String[] test = {"tester.MapTest", "tester.ListTest", "tester.SetTest", "tester.CollectionTest"};
+        String[] test = {"tester.MapTest", "tester.ListTest", "tester.SetTest", "tester.CollectionTest", "tester.ConcurrentMapTest", "tester.IntListTest", "tester.LongListTest", "tester.IntObjectMapTest", "tester.StreamsTest", "tester.BTreeMapTest", "tester.ConcurrentSkipListSetTest", "tester.TinyLfuCacheTest", "tester.ExpiringMapTest", "tester.CopyOnWriteListTest", "tester.ImmutableListTest", "tester.ImmutableSetTest", "tester.ImmutableMapTest", "tester.PersistentListTest", "tester.PersistentMapTest"};
         for (String name : test) {
             Class clazz = null;
             try {
@@ -0,0 +1,240 @@
+package tester;
+
+import adapters.Map;
+import adapters.TinyLfuCache;
+import interfaces.HIterator;
+import interfaces.HMap;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Test suite for TinyLfuCache class.
+ * This suite checks the bound on the size of the cache, its counters, the admission policy (compared with the LRU mode of Map) and the behaviour of the cache when it is concurrently used by many threads.
+ * @author Giacomo Camposampiero
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TinyLfuCacheTest {
+
+    TinyLfuCache instance;
+
+    public TinyLfuCacheTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new TinyLfuCache(100);
+    }
+
+    /**
+     * Looks the key up in the cache, and inserts it if it's missing.
+     * @return true if the key was in the cache
+     */
+    private static boolean access(HMap cache, Integer key) {
+        if(cache.get(key) != null) return true;
+        cache.put(key, String.valueOf(key));
+        return false;
+    }
+
+    /**
+     * @title Test #1 of put method, of class TinyLfuCache.
+     * @description This test tests the behaviour of put() method when many more keys than the maximum size are inserted.
+     * @expectedResults The cache should never hold more mappings than its maximum size, and every mapping in excess should be counted as an eviction.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size(), evictionCount() and keySet().
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPut_bounded() {
+        boolean result = true;
+        for(int i=0; i < 10000; i++) {
+            instance.put(Integer.valueOf(i), String.valueOf(i));
+            result = result && instance.size() <= 100;
+        }
+        assertEquals("dimensione massima rispettata", true, result);
+        assertEquals("dimensione", 100, instance.size());
+        assertEquals("espulsioni", 9900, instance.evictionCount());
+        HIterator it = instance.keySet().iterator();
+        while(it.hasNext()) {
+            Object key = it.next();
+            result = result && instance.get(key).equals(key.toString());
+        }
+        assertEquals("mappature coerenti", true, result);
+        assertEquals("sostituzione del valore", "9999", instance.put(Integer.valueOf(9999), "nuovo"));
+    }
+
+    /**
+     * @title Test #1 of hitCount method, of class TinyLfuCache.
+     * @description This test tests the counters of hits and misses, and the hit rate.
+     * @expectedResults Every get should be counted as a hit if it finds a mapping and as a miss otherwise; containsKey shouldn't be counted.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods get(), put() and containsKey().
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testHitCount_counters() {
+        assertEquals("hit rate iniziale", 1.0, instance.hitRate(), 0.0);
+        instance.put("pippo", "pluto");
+        for(int i=0; i < 3; i++) instance.get("pippo");
+        instance.get("paperino");
+        instance.containsKey("topolino");
+        assertEquals("hit", 3, instance.hitCount());
+        assertEquals("miss", 1, instance.missCount());
+        assertEquals("hit rate", 0.75, instance.hitRate(), 1e-9);
+        assertEquals("espulsioni", 0, instance.evictionCount());
+        assertEquals("dimensione massima", 100, instance.maximumSize());
+    }
+
+    /**
+     * @title Test #1 of get method, of class TinyLfuCache.
+     * @description This test tests the hit rate of the cache on a trace in which a small set of hot keys is interleaved with long scans of keys which are used only once, comparing it with a Map in LRU mode of the same size.
+     * @expectedResults The scans shouldn't flush the hot keys from the cache: its hit rate on them should stay high, and above the one of the LRU map.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), cleanUp() and of the bounded mode of class Map.
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testGet_scanResistant() {
+        Map lru = Map.lru(100);
+        Random rnd = new Random(42);
+        int scanned = 1000;
+        int cacheHits = 0, lruHits = 0, hotAccesses = 0;
+        for(int round=0; round < 200; round++) {
+            for(int i=0; i < 200; i++) {
+                Integer key = Integer.valueOf(rnd.nextInt(50));
+                if(access(instance, key) && round >= 10) cacheHits++;
+                if(access(lru, key) && round >= 10) lruHits++;
+                if(round >= 10) hotAccesses++;
+            }
+            for(int i=0; i < 150; i++) {
+                Integer key = Integer.valueOf(scanned++);
+                access(instance, key);
+                access(lru, key);
+            }
+        }
+        double cacheRate = (double) cacheHits / hotAccesses;
+        double lruRate = (double) lruHits / hotAccesses;
+        assertEquals("hit rate delle chiavi frequenti", true, cacheRate > 0.9);
+        assertEquals("migliore della politica LRU", true, cacheRate > lruRate + 0.2);
+        instance.cleanUp();
+        assertEquals("dimensione massima rispettata", true, instance.size() <= 100);
+    }
+
+    /**
+     * @title Test #1 of entrySet method, of class TinyLfuCache.
+     * @description This test tests the views of the cache: their iterators, the setValue of the entries and the removals through them.
+     * @expectedResults The views should reflect the mappings of the cache and write through to it; the removals shouldn't be counted as evictions.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods put(), get(), size() and equals().
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testEntrySet_views() {
+        Map expected = new Map();
+        for(int i=0; i < 50; i++) {
+            instance.put(Integer.valueOf(i), "v" + i);
+            expected.put(Integer.valueOf(i), "v" + i);
+        }
+        assertEquals("uguale a una Map", true, instance.equals(expected));
+        assertEquals("stesso hashCode", expected.hashCode(), instance.hashCode());
+        HIterator it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            HMap.Entry e = (HMap.Entry) it.next();
+            int k = ((Integer) e.getKey()).intValue();
+            if(k % 5 == 0) it.remove();
+            else if(k % 5 == 1) e.setValue("asso");
+        }
+        assertEquals("rimozione tramite iteratore", 40, instance.size());
+        assertEquals("setValue scrive nella cache", "asso", instance.get(Integer.valueOf(11)));
+        assertEquals("rimozione tramite keySet", true, instance.keySet().remove(Integer.valueOf(2)));
+        assertEquals("rimozione tramite values", true, instance.values().removeIf(v -> v.equals("asso")));
+        assertEquals("dimensione finale", 29, instance.size());
+        assertEquals("valore rimosso", false, instance.containsValue("asso"));
+        assertEquals("remove", "v3", instance.remove(Integer.valueOf(3)));
+        assertNull("remove di una chiave assente", instance.remove(Integer.valueOf(3)));
+        assertEquals("nessuna espulsione", 0, instance.evictionCount());
+        instance.clear();
+        assertEquals("cache svuotata", true, instance.isEmpty());
+        for(int i=0; i < 200; i++) instance.put(Integer.valueOf(i), "v" + i);
+        assertEquals("dimensione dopo clear", 100, instance.size());
+    }
+
+    /**
+     * @title Test #2 of put method, of class TinyLfuCache.
+     * @description This test tests the behaviour of get(), put() and remove() methods when they are concurrently called by many threads on overlapping keys.
+     * @expectedResults No exception should be thrown, every key should be mapped to its own value and the cache should respect its maximum size once the threads are done.
+     * @actualResult As expected result.
+     * @dependencies Depends on the correctness of methods size(), forEach(), hitCount() and missCount().
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is directly modified by the execution of the test.
+     */
+    @Test
+    public void testPut_concurrent() throws InterruptedException {
+        final int threads = 8;
+        final int operations = 20000;
+        final boolean[] failed = {false};
+        Thread[] workers = new Thread[threads];
+        for(int t=0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random rnd = new Random(seed);
+                    try {
+                        for(int i=0; i < operations; i++) {
+                            Integer key = Integer.valueOf(rnd.nextInt(1000));
+                            if(rnd.nextInt(20) == 0) instance.remove(key);
+                            else access(instance, key);
+                        }
+                    } catch(RuntimeException e) {
+                        synchronized(failed) { failed[0] = true; }
+                    }
+                }
+            };
+        }
+        for(int t=0; t < threads; t++) workers[t].start();
+        for(int t=0; t < threads; t++) workers[t].join();
+        assertEquals("nessuna eccezione", false, failed[0]);
+        assertEquals("dimensione massima rispettata", true, instance.size() <= 100);
+        final boolean[] result = {true};
+        instance.forEach((k, v) -> result[0] = result[0] && v.equals(k.toString()));
+        assertEquals("mappature coerenti", true, result[0]);
+        assertEquals("accessi contati", true, instance.hitCount() + instance.missCount() > 0);
+    }
+
+    /**
+     * @title Test #1 of the constructor, of class TinyLfuCache.
+     * @description This test tests the behaviour of the constructor when the maximum size is not positive.
+     * @expectedResults An IllegalArgumentException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions None.
+     * @postConditions None.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_exception() {
+        new TinyLfuCache(0);
+    }
+
+    /**
+     * @title Test #3 of put method, of class TinyLfuCache.
+     * @description This test tests the behaviour of put() method when the value is null.
+     * @expectedResults A NullPointerException should be thrown.
+     * @actualResult As expected result.
+     * @dependencies Doesn't depend on other methods.
+     * @preConditions The cache instance must be a new istance of TinyLfuCache.
+     * @postConditions The cache instance is not modified by the execution of the test.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testPut_null() {
+        instance.put("pippo", null);
+    }
+
+}